@@ -0,0 +1,119 @@
+package com.sda.testing.admission;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit with bounded waiting queue. Limit grows by one after every request faster than the target latency
+ * and shrinks by 10% after slower ones, staying between configured minimum and maximum.
+ */
+public class AdaptiveConcurrencyLimiter {
+    private static final double DECREASE_FACTOR = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxQueued;
+    private final long targetLatencyNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private int limit;
+    private int inFlight;
+    private int queued;
+
+    public AdaptiveConcurrencyLimiter(int minLimit, int maxLimit, int maxQueued, long targetLatencyMillis) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.maxQueued = maxQueued;
+        this.targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(targetLatencyMillis);
+        this.limit = maxLimit;
+    }
+
+    /**
+     * Take a slot, waiting in queue if all slots are taken.
+     *
+     * @param timeoutMillis - maximal time of waiting in queue.
+     * @return true if slot was taken, false if queue is full or timeout passed.
+     * @throws InterruptedException if thread is interrupted while waiting.
+     */
+    public boolean tryAcquire(long timeoutMillis) throws InterruptedException {
+        lock.lock();
+        try {
+            if (inFlight < limit) {
+                inFlight++;
+                return true;
+            }
+            if (queued >= maxQueued) {
+                return false;
+            }
+            queued++;
+            try {
+                long remainingNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+                while (inFlight >= limit) {
+                    if (remainingNanos <= 0) {
+                        return false;
+                    }
+                    remainingNanos = released.awaitNanos(remainingNanos);
+                }
+                inFlight++;
+                return true;
+            } finally {
+                queued--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Give back slot taken with {@link #tryAcquire(long)} and adjust limit to latency of finished request.
+     *
+     * @param latencyNanos - time of request processing.
+     */
+    public void release(long latencyNanos) {
+        lock.lock();
+        try {
+            inFlight--;
+            if (latencyNanos > targetLatencyNanos) {
+                limit = Math.max(minLimit, (int) (limit * DECREASE_FACTOR));
+                released.signal();
+            } else if (limit < maxLimit) {
+                // released slot and the added one can both be taken
+                limit++;
+                released.signalAll();
+            } else {
+                released.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueued() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
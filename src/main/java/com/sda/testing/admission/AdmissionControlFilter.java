@@ -0,0 +1,179 @@
+package com.sda.testing.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Limits number of concurrently processed requests per endpoint class. Requests over the limit wait in a bounded
+ * queue; when the queue is full or waiting takes too long, request is rejected with 503 and Retry-After header.
+ * Writes are also rejected while more than admission.write.max-queued-reads reads are queued, so bursts of writes
+ * can't slow down reads. Slot of an asynchronous request is held until the request completes, not only until the
+ * handler returns. Long-lived streams, like server-sent events, are not limited at all, as each would hold a slot
+ * for its whole lifetime and report its duration as latency.
+ */
+@Component
+public class AdmissionControlFilter extends OncePerRequestFilter {
+    private final Map<EndpointClass, AdaptiveConcurrencyLimiter> limiters = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Counter> rejections = new EnumMap<>(EndpointClass.class);
+    private final Set<String> writePaths;
+    private final Set<String> streamingPaths;
+    private final long queueTimeoutMillis;
+    private final int writeMaxQueuedReads;
+    private final String retryAfterSeconds;
+
+    public AdmissionControlFilter(MeterRegistry meterRegistry,
+                                  @Value("${admission.write-paths:/employee/salaryRaise,"
+                                          + "/employee/salaryRaise/buffered,/employee/promote}") List<String> writePaths,
+                                  @Value("${admission.streaming-paths:/company/updates,/company/payroll}")
+                                          List<String> streamingPaths,
+                                  @Value("${admission.queue-timeout-ms:200}") long queueTimeoutMillis,
+                                  @Value("${admission.retry-after-seconds:1}") int retryAfterSeconds,
+                                  @Value("${admission.read.min-limit:4}") int readMinLimit,
+                                  @Value("${admission.read.max-limit:64}") int readMaxLimit,
+                                  @Value("${admission.read.max-queued:128}") int readMaxQueued,
+                                  @Value("${admission.read.target-latency-ms:200}") long readTargetLatencyMillis,
+                                  @Value("${admission.write.min-limit:1}") int writeMinLimit,
+                                  @Value("${admission.write.max-limit:8}") int writeMaxLimit,
+                                  @Value("${admission.write.max-queued:16}") int writeMaxQueued,
+                                  @Value("${admission.write.target-latency-ms:500}") long writeTargetLatencyMillis,
+                                  @Value("${admission.write.max-queued-reads:32}") int writeMaxQueuedReads) {
+        this.writePaths = new HashSet<>(writePaths);
+        this.streamingPaths = new HashSet<>(streamingPaths);
+        this.queueTimeoutMillis = queueTimeoutMillis;
+        this.writeMaxQueuedReads = writeMaxQueuedReads;
+        this.retryAfterSeconds = String.valueOf(retryAfterSeconds);
+        limiters.put(EndpointClass.READ, new AdaptiveConcurrencyLimiter(
+                readMinLimit, readMaxLimit, readMaxQueued, readTargetLatencyMillis));
+        limiters.put(EndpointClass.WRITE, new AdaptiveConcurrencyLimiter(
+                writeMinLimit, writeMaxLimit, writeMaxQueued, writeTargetLatencyMillis));
+
+        limiters.forEach((endpointClass, limiter) -> {
+            String tag = endpointClass.name().toLowerCase();
+            Gauge.builder("admission.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                    .tag("class", tag).register(meterRegistry);
+            Gauge.builder("admission.in.flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                    .tag("class", tag).register(meterRegistry);
+            Gauge.builder("admission.queued", limiter, AdaptiveConcurrencyLimiter::getQueued)
+                    .tag("class", tag).register(meterRegistry);
+            rejections.put(endpointClass, Counter.builder("admission.rejected")
+                    .tag("class", tag).register(meterRegistry));
+        });
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith(request.getContextPath() + "/actuator")
+                || streamingPaths.contains(pathOf(request));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        EndpointClass endpointClass = classify(request);
+        AdaptiveConcurrencyLimiter limiter = limiters.get(endpointClass);
+
+        if (!admit(endpointClass, limiter)) {
+            rejections.get(endpointClass).increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value());
+            return;
+        }
+        long started = System.nanoTime();
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleasingListener(limiter, started));
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                limiter.release(System.nanoTime() - started);
+            }
+        }
+    }
+
+    private boolean admit(EndpointClass endpointClass, AdaptiveConcurrencyLimiter limiter) {
+        if (endpointClass == EndpointClass.WRITE
+                && limiters.get(EndpointClass.READ).getQueued() > writeMaxQueuedReads) {
+            return false;
+        }
+        try {
+            return limiter.tryAcquire(queueTimeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private EndpointClass classify(HttpServletRequest request) {
+        if (HttpMethod.GET.matches(request.getMethod()) && !writePaths.contains(pathOf(request))) {
+            return EndpointClass.READ;
+        }
+        return EndpointClass.WRITE;
+    }
+
+    private static String pathOf(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    /**
+     * Releases slot of asynchronous request once, when it completes, fails or times out.
+     */
+    private static final class ReleasingListener implements AsyncListener {
+        private final AdaptiveConcurrencyLimiter limiter;
+        private final long started;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        ReleasingListener(AdaptiveConcurrencyLimiter limiter, long started) {
+            this.limiter = limiter;
+            this.started = started;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                limiter.release(System.nanoTime() - started);
+            }
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package com.sda.testing.admission;
+
+public enum EndpointClass {
+    READ, WRITE;
+}
@@ -0,0 +1,68 @@
+package com.sda.testing.cache;
+
+import com.sda.testing.model.Employee;
+import com.sda.testing.repository.EmployeeRepository;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Evicts employees from second-level cache after writes made with plain SQL, which Hibernate does not see. Entries
+ * are evicted at once and again after the current transaction completes, so a value read by a concurrent session
+ * before commit does not stay cached. Does nothing when the cache is disabled.
+ */
+@Component
+public class EntityCacheEvictor {
+    private final Cache cache;
+
+    public EntityCacheEvictor(EntityManagerFactory entityManagerFactory) {
+        this.cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+
+    /**
+     * @param employeeIds - employees modified or removed, cached employees by level are evicted as well.
+     */
+    public void evictEmployees(Collection<Long> employeeIds) {
+        List<Long> ids = new ArrayList<>(employeeIds);
+        evictNowAndAfterTransaction(() -> {
+            ids.forEach(id -> cache.evictEntityData(Employee.class, id));
+            cache.evictQueryRegion(EmployeeRepository.EMPLOYEES_BY_LEVEL_REGION);
+        });
+    }
+
+    /**
+     * Evicts cached employees by level, after employees were added.
+     */
+    public void evictEmployeeQueries() {
+        evictNowAndAfterTransaction(() -> cache.evictQueryRegion(EmployeeRepository.EMPLOYEES_BY_LEVEL_REGION));
+    }
+
+    /**
+     * Evicts all cached employees and employees by level.
+     */
+    public void evictAllEmployees() {
+        evictNowAndAfterTransaction(() -> {
+            cache.evictEntityData(Employee.class);
+            cache.evictQueryRegion(EmployeeRepository.EMPLOYEES_BY_LEVEL_REGION);
+        });
+    }
+
+    private static void evictNowAndAfterTransaction(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    eviction.run();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.sda.testing.coalescing;
+
+@FunctionalInterface
+public interface Computation<V, E extends Exception> {
+
+    V compute() throws E;
+}
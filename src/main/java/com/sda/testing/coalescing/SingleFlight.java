@@ -0,0 +1,152 @@
+package com.sda.testing.coalescing;
+
+import com.sda.testing.sharding.ShardContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Concurrent calls with the same key share one in-flight computation. Optionally, finished result is served for
+ * max-age without recomputation, and for further stale-while-revalidate period while it is being refreshed in
+ * background. Both periods default to zero, which turns caching off and leaves only coalescing. Background refresh
+ * runs on the shard of the caller which triggered it, so keys have to identify the shard or tenant of the result.
+ *
+ * @param <K> key identifying computation.
+ * @param <V> result of computation.
+ */
+public class SingleFlight<K, V> {
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentMap<K, CachedResult<V>> results = new ConcurrentHashMap<>();
+    private final Set<K> refreshing = ConcurrentHashMap.newKeySet();
+    private final long maxAgeNanos;
+    private final long staleWhileRevalidateNanos;
+    private final Executor refreshExecutor;
+
+    private final Counter computed;
+    private final Counter joined;
+    private final Counter fresh;
+    private final Counter stale;
+
+    public SingleFlight(String name, MeterRegistry meterRegistry, Executor refreshExecutor,
+                        long maxAgeMillis, long staleWhileRevalidateMillis) {
+        this.refreshExecutor = refreshExecutor;
+        this.maxAgeNanos = TimeUnit.MILLISECONDS.toNanos(maxAgeMillis);
+        this.staleWhileRevalidateNanos = TimeUnit.MILLISECONDS.toNanos(staleWhileRevalidateMillis);
+        this.computed = requests(meterRegistry, name, "computed");
+        this.joined = requests(meterRegistry, name, "joined");
+        this.fresh = requests(meterRegistry, name, "fresh");
+        this.stale = requests(meterRegistry, name, "stale");
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String name, String outcome) {
+        return Counter.builder("coalescing.requests")
+                .tag("name", name)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Return result of computation for given key, computing it only if no identical computation is in flight
+     * and no cached result can be served.
+     *
+     * @param key         - key identifying computation.
+     * @param computation - computation, called at most once for all concurrent callers.
+     * @return result of computation.
+     * @throws E exception thrown by the computation, rethrown to every caller sharing it.
+     */
+    public <E extends Exception> V execute(K key, Computation<V, E> computation) throws E {
+        CachedResult<V> cached = results.get(key);
+        if (cached != null) {
+            long age = System.nanoTime() - cached.computedNanos;
+            if (age < maxAgeNanos) {
+                fresh.increment();
+                return cached.value;
+            }
+            if (age < maxAgeNanos + staleWhileRevalidateNanos) {
+                stale.increment();
+                if (refreshing.add(key)) {
+                    String shard = ShardContext.currentShard();
+                    refreshExecutor.execute(() -> ShardContext.callOn(shard, () -> refresh(key, computation)));
+                }
+                return cached.value;
+            }
+        }
+        return join(key, computation);
+    }
+
+    /**
+     * @return fraction of requests which didn't start their own computation.
+     */
+    public double hitRatio() {
+        double hits = joined.count() + fresh.count() + stale.count();
+        double total = hits + computed.count();
+        return total == 0 ? 0 : hits / total;
+    }
+
+    private Void refresh(K key, Computation<V, ?> computation) {
+        try {
+            join(key, computation);
+        } catch (Exception ignored) {
+            // result stays stale, first caller after stale period computes it again
+        } finally {
+            refreshing.remove(key);
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <E extends Exception> V join(K key, Computation<V, E> computation) throws E {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            joined.increment();
+            future = existing;
+        } else {
+            computed.increment();
+            try {
+                V value = computation.compute();
+                if (maxAgeNanos + staleWhileRevalidateNanos > 0) {
+                    results.put(key, new CachedResult<>(value, System.nanoTime()));
+                }
+                future.complete(value);
+            } catch (Throwable throwable) {
+                future.completeExceptionally(throwable);
+            } finally {
+                inFlight.remove(key, future);
+            }
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw (E) cause;
+        }
+    }
+
+    private static final class CachedResult<V> {
+        private final V value;
+        private final long computedNanos;
+
+        private CachedResult(V value, long computedNanos) {
+            this.value = value;
+            this.computedNanos = computedNanos;
+        }
+    }
+}
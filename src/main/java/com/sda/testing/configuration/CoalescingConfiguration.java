@@ -0,0 +1,38 @@
+package com.sda.testing.configuration;
+
+import com.sda.testing.coalescing.SingleFlight;
+import com.sda.testing.model.TeamDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Coalescing of hot read computations of {@link com.sda.testing.service.CompanyService}. By default concurrent
+ * requests only share a computation in progress; serving stale results while refreshing them is opt-in, with
+ * stale-while-revalidate-ms properties, since reads right after a write would see the old value.
+ */
+@Configuration
+public class CoalescingConfiguration {
+
+    @Bean
+    public SingleFlight<String, Double> salarySummaryFlight(
+            MeterRegistry meterRegistry,
+            @Qualifier("applicationTaskExecutor") Executor executor,
+            @Value("${coalescing.salary-summary.max-age-ms:0}") long maxAgeMillis,
+            @Value("${coalescing.salary-summary.stale-while-revalidate-ms:0}") long staleWhileRevalidateMillis) {
+        return new SingleFlight<>("salarySummary", meterRegistry, executor, maxAgeMillis, staleWhileRevalidateMillis);
+    }
+
+    @Bean
+    public SingleFlight<String, TeamDto> teamInfoFlight(
+            MeterRegistry meterRegistry,
+            @Qualifier("applicationTaskExecutor") Executor executor,
+            @Value("${coalescing.team-info.max-age-ms:0}") long maxAgeMillis,
+            @Value("${coalescing.team-info.stale-while-revalidate-ms:0}") long staleWhileRevalidateMillis) {
+        return new SingleFlight<>("teamInfo", meterRegistry, executor, maxAgeMillis, staleWhileRevalidateMillis);
+    }
+}
@@ -0,0 +1,127 @@
+package com.sda.testing.configuration;
+
+import com.sda.testing.model.Employee;
+import com.sda.testing.model.Team;
+import com.sda.testing.repository.EmployeeRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.core.config.DefaultConfiguration;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.persistence.EntityManagerFactory;
+import java.net.URI;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Second-level cache of employees and teams shared by all sessions, and cache of employees by level query. Caches
+ * are local to the instance and bounded by number of entries, once full rarely used entries are evicted, and every
+ * entry expires after time to live. Hibernate invalidates entries on writes made through sessions, writes bypassing
+ * Hibernate evict them with {@link com.sda.testing.cache.EntityCacheEvictor}.
+ * <p>
+ * Disabled with cache.entity.enabled property, and always when sharding is enabled, since employees of different
+ * shards can share identifiers.
+ */
+@Configuration
+public class EntityCacheConfiguration {
+    private static final String ENABLED = "${cache.entity.enabled:true} and !${sharding.enabled:false}";
+    private static final long TIMESTAMPS_ENTRIES = 1000;
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnExpression(ENABLED)
+    public CacheManager entityCacheManager(
+            @Value("${cache.entity.employee.max-entries:10000}") long employeeEntries,
+            @Value("${cache.entity.team.max-entries:1000}") long teamEntries,
+            @Value("${cache.query.employees-by-level.max-entries:100}") long employeesByLevelEntries,
+            @Value("${cache.entity.time-to-live-ms:600000}") long timeToLiveMillis) {
+        EhcacheCachingProvider provider = (EhcacheCachingProvider)
+                Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        // own manager per application context, caches are not shared with other contexts of the same JVM
+        CacheManager cacheManager = provider.getCacheManager(URI.create("urn:entity-cache:" + UUID.randomUUID()),
+                new DefaultConfiguration(provider.getDefaultClassLoader()));
+        Duration timeToLive = Duration.ofMillis(timeToLiveMillis);
+        createCache(cacheManager, Employee.class.getName(), employeeEntries, timeToLive);
+        createCache(cacheManager, Team.class.getName(), teamEntries, timeToLive);
+        createCache(cacheManager, EmployeeRepository.EMPLOYEES_BY_LEVEL_REGION, employeesByLevelEntries, timeToLive);
+        createCache(cacheManager, RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, 1, timeToLive);
+        // cached query results are valid only as long as last update times of their tables are kept
+        createCache(cacheManager, RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, TIMESTAMPS_ENTRIES,
+                null);
+        return cacheManager;
+    }
+
+    private static void createCache(CacheManager cacheManager, String name, long entries, Duration timeToLive) {
+        CacheConfigurationBuilder<Object, Object> configuration = CacheConfigurationBuilder
+                .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(entries))
+                .withExpiry(timeToLive == null
+                        ? ExpiryPolicyBuilder.noExpiration()
+                        : ExpiryPolicyBuilder.timeToLiveExpiration(timeToLive));
+        cacheManager.createCache(name, Eh107Configuration.fromEhcacheCacheConfiguration(configuration));
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer entityCacheCustomizer(
+            @Qualifier("entityCacheManager") ObjectProvider<CacheManager> entityCacheManagerProvider) {
+        CacheManager entityCacheManager = entityCacheManagerProvider.getIfAvailable();
+        return properties -> {
+            // Hibernate enables the cache on its own once it finds cache provider on the class path
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, entityCacheManager != null);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, entityCacheManager != null);
+            if (entityCacheManager == null) {
+                return;
+            }
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, ConfigSettings.SIMPLE_FACTORY_NAME);
+            properties.put(ConfigSettings.CACHE_MANAGER, entityCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+        };
+    }
+
+    /**
+     * Hit ratio of every cache region since start, in addition to hit and miss counters Hibernate metrics report.
+     */
+    @Bean
+    @ConditionalOnExpression(ENABLED)
+    public MeterBinder entityCacheHitRatio(EntityManagerFactory entityManagerFactory) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        return meterRegistry -> {
+            registerHitRatio(meterRegistry, "cache.entity.hit.ratio", Employee.class.getSimpleName(),
+                    statistics, s -> s.getDomainDataRegionStatistics(Employee.class.getName()));
+            registerHitRatio(meterRegistry, "cache.entity.hit.ratio", Team.class.getSimpleName(),
+                    statistics, s -> s.getDomainDataRegionStatistics(Team.class.getName()));
+            registerHitRatio(meterRegistry, "cache.query.hit.ratio", EmployeeRepository.EMPLOYEES_BY_LEVEL_REGION,
+                    statistics, s -> s.getQueryRegionStatistics(EmployeeRepository.EMPLOYEES_BY_LEVEL_REGION));
+        };
+    }
+
+    private static void registerHitRatio(MeterRegistry meterRegistry, String name, String region,
+                                         Statistics statistics,
+                                         Function<Statistics, CacheRegionStatistics> regionStatistics) {
+        Gauge.builder(name, statistics, s -> {
+            CacheRegionStatistics cacheRegion = regionStatistics.apply(s);
+            long requests = cacheRegion == null ? 0 : cacheRegion.getHitCount() + cacheRegion.getMissCount();
+            return requests == 0 ? 0 : (double) cacheRegion.getHitCount() / requests;
+        }).tag("region", region).register(meterRegistry);
+    }
+}
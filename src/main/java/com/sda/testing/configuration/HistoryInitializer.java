@@ -0,0 +1,29 @@
+package com.sda.testing.configuration;
+
+import com.sda.testing.history.EmployeeHistoryWriter;
+import com.sda.testing.sharding.ShardExecutor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Opens history of employees stored before employee versions were kept, once application is started.
+ */
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+public class HistoryInitializer implements ApplicationListener<ApplicationReadyEvent> {
+    private final EmployeeHistoryWriter employeeHistoryWriter;
+    private final ShardExecutor shardExecutor;
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent applicationReadyEvent) {
+        int opened = shardExecutor.onEachShard(employeeHistoryWriter::openMissingVersions).stream()
+                .mapToInt(Integer::intValue).sum();
+        if (opened > 0) {
+            log.info("Opened history of {} employees", opened);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.sda.testing.configuration;
+
+import com.sda.testing.event.EmployeeChangedEvent;
+import com.sda.testing.index.EmployeeIndexes;
+import com.sda.testing.model.Employee;
+import com.sda.testing.repository.EmployeeRepository;
+import com.sda.testing.repository.TeamRepository;
+import com.sda.testing.store.EmployeeRecordStore;
+import com.sda.testing.sharding.ShardContext;
+import com.sda.testing.sharding.ShardExecutor;
+import com.sda.testing.store.EmployeeSnapshotter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.OptionalLong;
+
+/**
+ * Fills in-memory employee indexes once application is started. Afterwards indexes follow employee changes by
+ * themselves.
+ * <p>
+ * If employee snapshot is available, employees are read from the snapshot and only changes logged after it are
+ * replayed. Teams are always read from database, as there are few of them. With sharding, indexes of every shard are
+ * filled from its database.
+ */
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+public class IndexInitializer implements ApplicationListener<ApplicationReadyEvent> {
+    private final EmployeeRepository employeeRepository;
+    private final TeamRepository teamRepository;
+    private final EmployeeIndexes employeeIndexes;
+    private final ShardExecutor shardExecutor;
+    private final EmployeeRecordStore employeeRecordStore;
+    private final EmployeeSnapshotter employeeSnapshotter;
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent applicationReadyEvent) {
+        long started = System.nanoTime();
+        OptionalLong snapshotCursor = employeeSnapshotter.restore();
+        if (snapshotCursor.isPresent()) {
+            List<Employee> employees = employeeRecordStore.findAll(null);
+            employeeIndexes.rebuild(teamRepository.findAll(), employees);
+            long replayed = employeeSnapshotter.replayChanges(snapshotCursor.getAsLong(),
+                    this::applyEmployeeChange, employeeIndexes::onTeamChanged);
+            log.info("Indexes of {} employees restored from snapshot with {} newer changes in {} ms",
+                    employees.size(), replayed, (System.nanoTime() - started) / 1_000_000);
+        } else {
+            for (String shard : shardExecutor.targetShards()) {
+                ShardContext.callOn(shard, () -> {
+                    List<Employee> employees = employeeRepository.findAll();
+                    employeeIndexes.rebuild(teamRepository.findAll(), employees);
+                    employeeRecordStore.rebuild(employees);
+                    return null;
+                });
+            }
+        }
+        employeeSnapshotter.markInitialized();
+    }
+
+    private void applyEmployeeChange(EmployeeChangedEvent event) {
+        employeeRecordStore.onEmployeeChanged(event);
+        employeeIndexes.onEmployeeChanged(event);
+    }
+}
@@ -0,0 +1,30 @@
+package com.sda.testing.configuration;
+
+import com.sda.testing.payroll.FlatTaxRule;
+import com.sda.testing.payroll.ProgressiveTaxRule;
+import com.sda.testing.payroll.TaxRule;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Tax rule used by payroll run is chosen with payroll.tax.rule property.
+ */
+@Configuration
+public class PayrollConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(name = "payroll.tax.rule", havingValue = "progressive", matchIfMissing = true)
+    public TaxRule progressiveTaxRule(@Value("${payroll.tax.threshold:10000}") double threshold,
+                                      @Value("${payroll.tax.lower-rate:0.17}") double lowerRate,
+                                      @Value("${payroll.tax.higher-rate:0.32}") double higherRate) {
+        return new ProgressiveTaxRule(threshold, lowerRate, higherRate);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "payroll.tax.rule", havingValue = "flat")
+    public TaxRule flatTaxRule(@Value("${payroll.tax.rate:0.19}") double rate) {
+        return new FlatTaxRule(rate);
+    }
+}
@@ -0,0 +1,65 @@
+package com.sda.testing.configuration;
+
+import com.sda.testing.sharding.ShardExecutor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Salaries used to be stored in currency units, in a floating point salary column. Hibernate adds salary_cents column
+ * on schema update but leaves the old one in place, so before the application starts, salaries are copied to cents
+ * and the old column is dropped.
+ */
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+@DependsOn("entityManagerFactory")
+public class SalaryCentsMigration implements InitializingBean {
+    private static final List<String> TABLES = Arrays.asList("employee", "employee_version");
+    private static final String LEGACY_COLUMN = "salary";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardExecutor shardExecutor;
+
+    @Override
+    public void afterPropertiesSet() {
+        int migrated = shardExecutor.onEachShard(this::migrate).stream().mapToInt(Integer::intValue).sum();
+        if (migrated > 0) {
+            log.info("Converted {} salaries to cents", migrated);
+        }
+    }
+
+    private int migrate() {
+        int migrated = 0;
+        for (String table : TABLES) {
+            if (hasLegacyColumn(table)) {
+                migrated += jdbcTemplate.update("update " + table + " set salary_cents = round(salary * 100)");
+                jdbcTemplate.execute("alter table " + table + " drop column salary");
+            }
+        }
+        return migrated;
+    }
+
+    private boolean hasLegacyColumn(String table) {
+        Boolean found = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            boolean upperCase = metaData.storesUpperCaseIdentifiers();
+            try (ResultSet columns = metaData.getColumns(connection.getCatalog(), null,
+                    upperCase ? table.toUpperCase(Locale.ROOT) : table,
+                    upperCase ? LEGACY_COLUMN.toUpperCase(Locale.ROOT) : LEGACY_COLUMN)) {
+                return columns.next();
+            }
+        });
+        return Boolean.TRUE.equals(found);
+    }
+}
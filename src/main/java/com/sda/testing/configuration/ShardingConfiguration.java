@@ -0,0 +1,82 @@
+package com.sda.testing.configuration;
+
+import com.sda.testing.sharding.ShardRoutingDataSource;
+import com.sda.testing.sharding.ShardSchemaInitializer;
+import com.sda.testing.sharding.ShardingProperties;
+import com.sda.testing.sharding.TenantFilter;
+import org.hibernate.tool.schema.Action;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Routes employees and teams to one of shard databases by tenant. Enabled with sharding.enabled property, shard
+ * databases are configured with sharding.shards.[name].url/username/password.
+ */
+@Configuration
+@ConditionalOnProperty(name = "sharding.enabled", havingValue = "true")
+public class ShardingConfiguration {
+    private final Map<String, DataSource> shardDataSources = new HashMap<>();
+    private final Path schemaScript;
+
+    public ShardingConfiguration() throws IOException {
+        schemaScript = Files.createTempFile("shard-schema", ".sql");
+        schemaScript.toFile().deleteOnExit();
+    }
+
+    @Bean
+    public DataSource dataSource(ShardingProperties shardingProperties) {
+        shardingProperties.getShards().forEach((name, shard) -> shardDataSources.put(name, DataSourceBuilder.create()
+                .url(shard.getUrl())
+                .username(shard.getUsername())
+                .password(shard.getPassword())
+                .build()));
+        ShardRoutingDataSource routingDataSource = new ShardRoutingDataSource();
+        routingDataSource.setTargetDataSources(new HashMap<>(shardDataSources));
+        routingDataSource.setDefaultTargetDataSource(shardDataSources.get(shardingProperties.defaultShardName()));
+        return routingDataSource;
+    }
+
+    @Bean
+    public TenantFilter tenantFilter(ShardingProperties shardingProperties) {
+        return new TenantFilter(shardingProperties);
+    }
+
+    /**
+     * Schema is generated by Hibernate on default shard only, so the same DDL is also written to a script and
+     * executed on the remaining shards.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer shardSchemaScriptCustomizer() {
+        return properties -> {
+            // once any JPA schema generation setting is present, Hibernate ignores hbm2ddl.auto
+            properties.put("javax.persistence.schema-generation.database.action",
+                    Action.interpretHbm2ddlSetting(properties.get("hibernate.hbm2ddl.auto")));
+            properties.put("javax.persistence.schema-generation.scripts.action", "create");
+            properties.put("javax.persistence.schema-generation.scripts.create-target", schemaScript.toString());
+            properties.put("hibernate.hbm2ddl.delimiter", ";");
+        };
+    }
+
+    @Bean
+    @DependsOn("entityManagerFactory")
+    public ShardSchemaInitializer shardSchemaInitializer(ShardingProperties shardingProperties,
+                                                         @Value("${spring.jpa.hibernate.ddl-auto:none}") String ddlAuto) {
+        boolean generatesSchema = Arrays.asList("create", "create-drop", "update").contains(ddlAuto);
+        return new ShardSchemaInitializer(generatesSchema ? shardDataSources : Collections.emptyMap(),
+                shardingProperties.defaultShardName(), schemaScript);
+    }
+}
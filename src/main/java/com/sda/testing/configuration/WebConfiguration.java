@@ -0,0 +1,53 @@
+package com.sda.testing.configuration;
+
+import com.sda.testing.json.EmployeeJsonHttpMessageConverter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebConfiguration implements WebMvcConfigurer {
+    /**
+     * Streamed payroll reads whole company chunk by chunk, with entity manager open for the request every chunk
+     * would stay managed until the response is written.
+     */
+    private static final String[] NO_OPEN_IN_VIEW_PATHS = {"/company/payroll"};
+
+    /**
+     * Replaces open entity manager in view interceptor of Spring Boot, so that it can be left out for some paths.
+     */
+    @Bean
+    public OpenEntityManagerInViewInterceptor openEntityManagerInViewInterceptor() {
+        return new OpenEntityManagerInViewInterceptor();
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addWebRequestInterceptor(openEntityManagerInViewInterceptor())
+                .excludePathPatterns(NO_OPEN_IN_VIEW_PATHS);
+    }
+
+    /**
+     * Responses are serialized to CBOR when client sends Accept: application/cbor. Converter is added after default
+     * ones, so JSON stays the format for clients accepting anything. JSON converter is replaced by
+     * {@link EmployeeJsonHttpMessageConverter}, writing the same output.
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        for (int i = 0; i < converters.size(); i++) {
+            if (converters.get(i).getClass() == MappingJackson2HttpMessageConverter.class) {
+                converters.set(i, new EmployeeJsonHttpMessageConverter(
+                        ((MappingJackson2HttpMessageConverter) converters.get(i)).getObjectMapper()));
+            }
+        }
+        converters.add(new MappingJackson2CborHttpMessageConverter(Jackson2ObjectMapperBuilder.cbor().build()));
+    }
+}
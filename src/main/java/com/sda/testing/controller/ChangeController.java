@@ -0,0 +1,30 @@
+package com.sda.testing.controller;
+
+import com.sda.testing.exception.InvalidOperation;
+import com.sda.testing.model.ChangePageDto;
+import com.sda.testing.model.ResponseMessage;
+import com.sda.testing.service.ChangeFeedService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/changes")
+@RequiredArgsConstructor
+public class ChangeController {
+    private final ChangeFeedService changeFeedService;
+
+    @GetMapping
+    public ResponseEntity<ResponseMessage<ChangePageDto>> getChanges(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "100") int limit)
+    {
+        try {
+            return ResponseEntity.ok(new ResponseMessage<>(changeFeedService.changesSince(since, limit), "Response OK!"));
+        } catch (InvalidOperation invalidOperation) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+
+}
@@ -1,16 +1,42 @@
 package com.sda.testing.controller;
 
+import com.sda.testing.exception.InvalidOperation;
+import com.sda.testing.model.EmployeeDto;
+import com.sda.testing.model.EmployeeLevel;
+import com.sda.testing.model.EmployeeVersion;
+import com.sda.testing.model.Job;
+import com.sda.testing.model.ImportReport;
+import com.sda.testing.model.LevelPayrollDto;
+import com.sda.testing.model.ResponseMessage;
+import com.sda.testing.model.TeamRankingDto;
+import com.sda.testing.model.TeamRankingOrder;
+import com.sda.testing.push.CompanyUpdatePublisher;
 import com.sda.testing.service.CompanyService;
+import com.sda.testing.service.EmployeeImportService;
+import com.sda.testing.service.PayrollService;
+import com.sda.testing.sharding.ShardExecutor;
 import lombok.RequiredArgsConstructor;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
 
 @RestController
+@RequestMapping("/company")
 @RequiredArgsConstructor
 public class CompanyController {
     private final CompanyService companyService;
+    private final PayrollService payrollService;
+    private final EmployeeImportService employeeImportService;
+    private final CompanyUpdatePublisher companyUpdatePublisher;
+    private final ShardExecutor shardExecutor;
     // TODO: poniżej dodaj metody kontrolera pozwalające na:
-    //  - wypisanie podsumowania pensji (wszyscy pracownicy)
-    //  - wypisanie podsumowania pensji (podając EmployeeLevel)
     //  - dodawanie pracowników
     //  - usuwanie pracowników
     //  - dodawanie zespołów
@@ -18,9 +44,113 @@ public class CompanyController {
     //  - listowanie zespołów
     //  - dodawanie pracowników do zespołów
     //  - usuwanie pracowników z zespołów
-    //  - listowanie informacji zespołowej
-    //  Dodatkowe:
-    //      - listowanie zespołów po pensjach
-    //      - listowanie zespołów posortowanych
+
+    @PostMapping("/employee")
+    public ResponseEntity<ResponseMessage> hireEmployee(@RequestBody EmployeeDto employeeDto) {
+        try {
+            companyService.hireEmployee(employeeDto);
+            return ResponseEntity.status(HttpStatus.OK).build();
+        } catch (InvalidOperation invalidOperation) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+
+    @GetMapping("/salaries")
+    public ResponseEntity<ResponseMessage<Double>> getSalarySummary(
+            @RequestParam(required = false) EmployeeLevel level,
+            @RequestParam(required = false) Long at)
+    {
+        if (at != null) {
+            try {
+                return ResponseEntity.ok(new ResponseMessage<>(companyService.summarizeSalaries(at, level), "Response OK!"));
+            } catch (InvalidOperation invalidOperation) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+            }
+        }
+        if (level == null) {
+            return ResponseEntity.ok(new ResponseMessage<>(companyService.summarizeSalaries(), "Response OK!"));
+        }
+        return ResponseEntity.ok(new ResponseMessage<>(companyService.salaries(level), "Response OK!"));
+    }
+
+    @GetMapping("/salaries/levels")
+    public ResponseEntity<ResponseMessage<List<LevelPayrollDto>>> getPayrollByLevel(@RequestParam(required = false) Long at) {
+        try {
+            long moment = at == null ? System.currentTimeMillis() : at;
+            return ResponseEntity.ok(new ResponseMessage<>(companyService.payrollByLevel(moment), "Response OK!"));
+        } catch (InvalidOperation invalidOperation) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+
+    @GetMapping(value = "/updates", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeToUpdates() {
+        return companyUpdatePublisher.subscribe();
+    }
+
+    @PostMapping(value = "/employees/import", consumes = "text/csv")
+    public ResponseEntity<ResponseMessage<ImportReport>> importEmployees(InputStream csv) throws IOException {
+        try {
+            return ResponseEntity.ok(new ResponseMessage<>(employeeImportService.importEmployees(csv), "Response OK!"));
+        } catch (InvalidOperation invalidOperation) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+
+    @GetMapping("/team/info")
+    public ResponseEntity<ResponseMessage<?>> getTeamInfo(
+            @RequestParam String name,
+            @RequestParam(required = false) List<String> fields)
+    {
+        try {
+            if (fields == null) {
+                return ResponseEntity.ok(new ResponseMessage<>(companyService.teamInfo(name), "Response OK!"));
+            }
+            return ResponseEntity.ok(new ResponseMessage<>(companyService.teamInfo(name, fields), "Response OK!"));
+        } catch (InvalidOperation invalidOperation) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+
+    @GetMapping("/team/history")
+    public ResponseEntity<ResponseMessage<List<EmployeeVersion>>> getTeamHistory(
+            @RequestParam String name,
+            @RequestParam long from,
+            @RequestParam long to)
+    {
+        try {
+            return ResponseEntity.ok(new ResponseMessage<>(companyService.teamMembership(name, from, to), "Response OK!"));
+        } catch (InvalidOperation invalidOperation) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+
+    @GetMapping("/team/ranking")
+    public ResponseEntity<ResponseMessage<List<TeamRankingDto>>> getTeamRanking(
+            @RequestParam(required = false) TeamRankingOrder order,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "10") int limit)
+    {
+        try {
+            return ResponseEntity.ok(new ResponseMessage<>(companyService.teamRanking(order, offset, limit), "Response OK!"));
+        } catch (InvalidOperation invalidOperation) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+
+    @PostMapping("/payroll/export")
+    public ResponseEntity<ResponseMessage<Job>> exportPayroll() {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(new ResponseMessage<>(companyService.exportPayroll(), "Response OK!"));
+    }
+
+    @GetMapping(value = "/payroll", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> runPayroll() {
+        // body is written on another thread, without tenant's shard set
+        List<String> shards = shardExecutor.targetShards();
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(outputStream -> payrollService.run(shards, outputStream));
+    }
 
 }
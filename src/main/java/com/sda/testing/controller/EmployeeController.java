@@ -3,22 +3,31 @@ package com.sda.testing.controller;
 import com.sda.testing.exception.InvalidOperation;
 import com.sda.testing.model.Employee;
 import com.sda.testing.model.EmployeeLevel;
+import com.sda.testing.model.EmployeeSearchPageDto;
+import com.sda.testing.model.EmployeeSearchQuery;
+import com.sda.testing.model.Job;
 import com.sda.testing.model.ResponseMessage;
+import com.sda.testing.model.SalaryChange;
 import com.sda.testing.repository.EmployeeRepository;
 import com.sda.testing.service.CompanyService;
+import com.sda.testing.service.EmployeeSearchService;
 import com.sda.testing.service.EmployeeService;
+import com.sda.testing.service.HierarchyService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/employee")
 @RequiredArgsConstructor
 public class EmployeeController {
     private final EmployeeService employeeService;
+    private final HierarchyService hierarchyService;
+    private final EmployeeSearchService employeeSearchService;
 
     // TODO: poniżej dodaj metody kontrolera pozwalające na:
     //  - listowanie pracowników
@@ -28,13 +37,30 @@ public class EmployeeController {
     //  - daj awans (promotion) pracownikowi
 
     @GetMapping("/all")
-    public ResponseEntity<ResponseMessage<List<Employee>>> getAllEmployees() {
-        return ResponseEntity.ok(new ResponseMessage<>(employeeService.findAll(), "Response OK!"));
+    public ResponseEntity<ResponseMessage<List<?>>> getAllEmployees(@RequestParam(required = false) List<String> fields) {
+        if (fields == null) {
+            return ResponseEntity.ok(new ResponseMessage<>(employeeService.findAll(), "Response OK!"));
+        }
+        return getEmployeeFields(null, fields);
     }
 
     @GetMapping("/level")
-    public ResponseEntity<ResponseMessage<List<Employee>>> getAllEmployeesByLevel(@RequestParam(required = false) EmployeeLevel level) {
-        return ResponseEntity.ok(new ResponseMessage<>(employeeService.findAllFrom(level), "Response OK!"));
+    public ResponseEntity<ResponseMessage<List<?>>> getAllEmployeesByLevel(
+            @RequestParam(required = false) EmployeeLevel level,
+            @RequestParam(required = false) List<String> fields)
+    {
+        if (fields == null) {
+            return ResponseEntity.ok(new ResponseMessage<>(employeeService.findAllFrom(level), "Response OK!"));
+        }
+        return getEmployeeFields(level, fields);
+    }
+
+    private ResponseEntity<ResponseMessage<List<?>>> getEmployeeFields(EmployeeLevel level, List<String> fields) {
+        try {
+            return ResponseEntity.ok(new ResponseMessage<>(employeeService.findAllFrom(level, fields), "Response OK!"));
+        } catch (InvalidOperation invalidOperation) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
     }
 
     @GetMapping("/salary")
@@ -45,6 +71,57 @@ public class EmployeeController {
         return ResponseEntity.ok(new ResponseMessage<>(employeeService.findAllBySalary(salaryFrom, salaryTo), "Response OK!"));
     }
 
+    @GetMapping("/filter")
+    public ResponseEntity<ResponseMessage<long[]>> filterEmployeeIds(
+            @RequestParam(required = false) List<EmployeeLevel> level,
+            @RequestParam(required = false) List<Long> teamId,
+            @RequestParam(required = false) Double salaryFrom,
+            @RequestParam(required = false) Double salaryTo)
+    {
+        try {
+            return ResponseEntity.ok(new ResponseMessage<>(
+                    employeeService.filterIds(level, teamId, salaryFrom, salaryTo), "Response OK!"));
+        } catch (InvalidOperation invalidOperation) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+
+    @GetMapping("/filter/count")
+    public ResponseEntity<ResponseMessage<Integer>> countFilteredEmployees(
+            @RequestParam(required = false) List<EmployeeLevel> level,
+            @RequestParam(required = false) List<Long> teamId,
+            @RequestParam(required = false) Double salaryFrom,
+            @RequestParam(required = false) Double salaryTo)
+    {
+        try {
+            return ResponseEntity.ok(new ResponseMessage<>(
+                    employeeService.countMatching(level, teamId, salaryFrom, salaryTo), "Response OK!"));
+        } catch (InvalidOperation invalidOperation) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+
+    @GetMapping("/query")
+    public ResponseEntity<ResponseMessage<EmployeeSearchPageDto>> queryEmployees(EmployeeSearchQuery searchQuery) {
+        try {
+            return ResponseEntity.ok(new ResponseMessage<>(employeeSearchService.search(searchQuery), "Response OK!"));
+        } catch (InvalidOperation invalidOperation) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<ResponseMessage<List<Employee>>> searchEmployeesByName(
+            @RequestParam String name,
+            @RequestParam(defaultValue = "10") int limit)
+    {
+        try {
+            return ResponseEntity.ok(new ResponseMessage<>(employeeService.searchByName(name, limit), "Response OK!"));
+        } catch (InvalidOperation invalidOperation) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+
     @GetMapping("/salaryRaise")
     public ResponseEntity<ResponseMessage> giveRaise(long employeeId, double percentRaise) {
         try {
@@ -55,6 +132,31 @@ public class EmployeeController {
         }
     }
 
+    @GetMapping("/salaryRaise/buffered")
+    public CompletableFuture<ResponseEntity<ResponseMessage>> giveRaiseBuffered(long employeeId, double percentRaise) {
+        try {
+            return employeeService.giveRaiseBuffered(employeeId, percentRaise)
+                    .handle((result, throwable) -> throwable == null
+                            ? ResponseEntity.status(HttpStatus.OK).<ResponseMessage>build()
+                            : ResponseEntity.status(HttpStatus.BAD_REQUEST).<ResponseMessage>build());
+        } catch (InvalidOperation invalidOperation) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.BAD_REQUEST).build());
+        }
+    }
+
+    @PostMapping("/salaryRaise/all")
+    public ResponseEntity<ResponseMessage<Job>> giveRaiseToAll(
+            @RequestParam double percentRaise,
+            @RequestParam(required = false) EmployeeLevel level)
+    {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(new ResponseMessage<>(employeeService.giveRaiseToAll(level, percentRaise), "Response OK!"));
+        } catch (InvalidOperation invalidOperation) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+
     @PostMapping("/promote")
     public ResponseEntity<ResponseMessage> promoteEmployee(@RequestBody(required = true) long employeeId) {
         try {
@@ -65,4 +167,45 @@ public class EmployeeController {
         }
     }
 
+    @PostMapping("/manager")
+    public ResponseEntity<ResponseMessage> assignManager(@RequestParam Long employeeId,
+                                                         @RequestParam(required = false) Long managerId) {
+        try {
+            hierarchyService.assignManager(employeeId, managerId);
+            return ResponseEntity.status(HttpStatus.OK).build();
+        } catch (InvalidOperation invalidOperation) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+
+    @GetMapping("/reports")
+    public ResponseEntity<ResponseMessage<List<Employee>>> getReports(
+            @RequestParam Long managerId,
+            @RequestParam(required = false) Integer maxDepth)
+    {
+        try {
+            return ResponseEntity.ok(new ResponseMessage<>(hierarchyService.reportsOf(managerId, maxDepth), "Response OK!"));
+        } catch (InvalidOperation invalidOperation) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+
+    @GetMapping("/reports/salary")
+    public ResponseEntity<ResponseMessage<Double>> getSalaryUnder(@RequestParam Long managerId) {
+        try {
+            return ResponseEntity.ok(new ResponseMessage<>(hierarchyService.salaryUnder(managerId), "Response OK!"));
+        } catch (InvalidOperation invalidOperation) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+
+    @GetMapping("/salaryHistory")
+    public ResponseEntity<ResponseMessage<List<SalaryChange>>> getSalaryHistory(@RequestParam Long employeeId) {
+        try {
+            return ResponseEntity.ok(new ResponseMessage<>(employeeService.salaryHistory(employeeId), "Response OK!"));
+        } catch (InvalidOperation invalidOperation) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+
 }
@@ -0,0 +1,49 @@
+package com.sda.testing.controller;
+
+import com.sda.testing.exception.InvalidOperation;
+import com.sda.testing.model.Job;
+import com.sda.testing.model.ResponseMessage;
+import com.sda.testing.service.JobService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/jobs")
+@RequiredArgsConstructor
+public class JobController {
+    private final JobService jobService;
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ResponseMessage<Job>> getJob(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(new ResponseMessage<>(jobService.find(id), "Response OK!"));
+        } catch (InvalidOperation invalidOperation) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+
+    @PostMapping("/{id}/cancel")
+    public ResponseEntity<ResponseMessage<Job>> cancelJob(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(new ResponseMessage<>(jobService.cancel(id), "Response OK!"));
+        } catch (InvalidOperation invalidOperation) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+
+    @GetMapping("/{id}/result")
+    public ResponseEntity<Resource> getJobResult(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .body(new FileSystemResource(jobService.result(id)));
+        } catch (InvalidOperation invalidOperation) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.sda.testing.csv;
+
+import java.io.IOException;
+
+public class CsvFormatException extends IOException {
+    private final long line;
+
+    public CsvFormatException(String message, long line) {
+        super(message + " at line " + line);
+        this.line = line;
+    }
+
+    public long getLine() {
+        return line;
+    }
+}
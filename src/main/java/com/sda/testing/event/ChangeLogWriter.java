@@ -0,0 +1,80 @@
+package com.sda.testing.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sda.testing.model.ChangeEntityType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Writes every employee and team change to the change_log table. Listener runs synchronously inside JPA flush and
+ * uses plain JDBC on the same connection, so the entry is committed or rolled back together with the change itself.
+ * Transaction stays registered in {@link OpenChangeTransactions} until then.
+ */
+@Component
+@RequiredArgsConstructor
+public class ChangeLogWriter {
+    private static final String INSERT_CHANGE =
+            "insert into change_log (entity_type, entity_id, change_type, changed_at, payload) values (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final OpenChangeTransactions openChangeTransactions;
+
+    @EventListener
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        insert(ChangeEntityType.EMPLOYEE, event.getEmployeeId(), event.getType(), event);
+    }
+
+    @EventListener
+    public void onEmployeesChanged(EmployeesChangedEvent event) {
+        List<EmployeeChangedEvent> changes = event.getChanges();
+        if (changes.isEmpty()) {
+            return;
+        }
+        // first entry alone, to learn where entries of this transaction start
+        EmployeeChangedEvent first = changes.get(0);
+        insert(ChangeEntityType.EMPLOYEE, first.getEmployeeId(), first.getType(), first);
+        List<Object[]> rows = changes.subList(1, changes.size()).stream()
+                .map(change -> new Object[]{ChangeEntityType.EMPLOYEE.name(), change.getEmployeeId(),
+                        change.getType().name(), System.currentTimeMillis(), toJson(change)})
+                .collect(Collectors.toList());
+        jdbcTemplate.batchUpdate(INSERT_CHANGE, rows);
+    }
+
+    @EventListener
+    public void onTeamChanged(TeamChangedEvent event) {
+        insert(ChangeEntityType.TEAM, event.getTeamId(), event.getType(), event);
+    }
+
+    private void insert(ChangeEntityType entityType, Long entityId, ChangeType changeType, Object event) {
+        openChangeTransactions.beforeInsert();
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(INSERT_CHANGE, new String[]{"id"});
+            statement.setString(1, entityType.name());
+            statement.setObject(2, entityId);
+            statement.setString(3, changeType.name());
+            statement.setLong(4, System.currentTimeMillis());
+            statement.setString(5, toJson(event));
+            return statement;
+        }, keyHolder);
+        openChangeTransactions.inserted(keyHolder.getKey().longValue());
+    }
+
+    private String toJson(Object event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package com.sda.testing.event;
+
+public enum ChangeType {
+    CREATED, UPDATED, DELETED;
+}
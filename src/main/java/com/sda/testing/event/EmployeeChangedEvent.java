@@ -0,0 +1,48 @@
+package com.sda.testing.event;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.sda.testing.model.Employee;
+import com.sda.testing.model.EmployeeLevel;
+import com.sda.testing.payroll.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Published after employee row is inserted, updated or deleted. Holds copy of employee state at the moment of change,
+ * so listeners don't have to touch the entity outside of its transaction. Salary is written to change log in currency
+ * units, like in employee responses.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EmployeeChangedEvent {
+    private ChangeType type;
+    private Long employeeId;
+    private String firstName;
+    private String lastName;
+    @JsonIgnore
+    private long salaryCents;
+    private EmployeeLevel level;
+    private Long teamId;
+    private Long managerId;
+
+    public static EmployeeChangedEvent of(ChangeType type, Employee employee) {
+        return new EmployeeChangedEvent(type,
+                employee.getId(),
+                employee.getFirstName(),
+                employee.getLastName(),
+                employee.getSalaryCents(),
+                employee.getLevel(),
+                employee.getTeam() == null ? null : employee.getTeam().getId(),
+                employee.getManagerId());
+    }
+
+    public double getSalary() {
+        return Money.toAmount(salaryCents);
+    }
+
+    public void setSalary(double salary) {
+        this.salaryCents = Money.toCents(salary);
+    }
+}
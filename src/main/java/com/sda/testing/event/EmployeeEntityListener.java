@@ -0,0 +1,35 @@
+package com.sda.testing.event;
+
+import com.sda.testing.model.Employee;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * JPA listener translating every write of {@link Employee} into {@link EmployeeChangedEvent}. Catches all write paths,
+ * including ones going directly through the repository.
+ */
+@Component
+@RequiredArgsConstructor
+public class EmployeeEntityListener {
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    public void afterCreate(Employee employee) {
+        eventPublisher.publishEvent(EmployeeChangedEvent.of(ChangeType.CREATED, employee));
+    }
+
+    @PostUpdate
+    public void afterUpdate(Employee employee) {
+        eventPublisher.publishEvent(EmployeeChangedEvent.of(ChangeType.UPDATED, employee));
+    }
+
+    @PostRemove
+    public void afterDelete(Employee employee) {
+        eventPublisher.publishEvent(EmployeeChangedEvent.of(ChangeType.DELETED, employee));
+    }
+}
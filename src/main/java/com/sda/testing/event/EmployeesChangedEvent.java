@@ -0,0 +1,16 @@
+package com.sda.testing.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Published after bulk write of employees made outside of JPA, instead of one {@link EmployeeChangedEvent} per
+ * employee, so listeners can handle the whole batch at once.
+ */
+@Data
+@AllArgsConstructor
+public class EmployeesChangedEvent {
+    private List<EmployeeChangedEvent> changes;
+}
@@ -0,0 +1,98 @@
+package com.sda.testing.event;
+
+import com.sda.testing.sharding.ShardContext;
+import com.sda.testing.sharding.ShardingProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Transactions of this application which wrote to change_log and are not committed yet. Entry ids are assigned on
+ * insert, not on commit, so a reader moving its cursor past the first entry of an open transaction would skip that
+ * transaction once it commits. Readers stop below {@link #visibleBelow()} instead, however long the transaction takes.
+ */
+@Component
+@RequiredArgsConstructor
+public class OpenChangeTransactions {
+    private final ShardingProperties shardingProperties;
+    private final Set<OpenTransaction> open = ConcurrentHashMap.newKeySet();
+    private final Map<String, AtomicLong> lastIds = new ConcurrentHashMap<>();
+
+    /**
+     * Register the current transaction, before its first change log entry is inserted. Until the entry id is known,
+     * every id after the last one inserted by this application is treated as possibly uncommitted.
+     */
+    void beforeInsert() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(this)) {
+            return;
+        }
+        String shard = shard();
+        OpenTransaction transaction = new OpenTransaction(shard, lastId(shard).get() + 1);
+        open.add(transaction);
+        TransactionSynchronizationManager.bindResource(this, transaction);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(OpenChangeTransactions.this);
+                open.remove(transaction);
+            }
+        });
+    }
+
+    /**
+     * @param id - id of change log entry just inserted by the current transaction.
+     */
+    void inserted(long id) {
+        lastId(shard()).accumulateAndGet(id, Math::max);
+        OpenTransaction transaction = (OpenTransaction) TransactionSynchronizationManager.getResource(this);
+        if (transaction != null && !transaction.inserted) {
+            transaction.firstId = id;
+            transaction.inserted = true;
+        }
+    }
+
+    /**
+     * @return lowest change log id of the current shard which may belong to a transaction not committed yet,
+     * Long.MAX_VALUE if there is none. Has to be called before reading the change log.
+     */
+    public long visibleBelow() {
+        String shard = shard();
+        long visibleBelow = Long.MAX_VALUE;
+        for (OpenTransaction transaction : open) {
+            if (transaction.shard.equals(shard)) {
+                visibleBelow = Math.min(visibleBelow, transaction.firstId);
+            }
+        }
+        return visibleBelow;
+    }
+
+    private AtomicLong lastId(String shard) {
+        return lastIds.computeIfAbsent(shard, key -> new AtomicLong());
+    }
+
+    private String shard() {
+        if (!shardingProperties.isEnabled()) {
+            return "";
+        }
+        String shard = ShardContext.currentShard();
+        return shard != null ? shard : shardingProperties.defaultShardName();
+    }
+
+    private static final class OpenTransaction {
+        private final String shard;
+        private volatile long firstId;
+        private boolean inserted;
+
+        private OpenTransaction(String shard, long firstId) {
+            this.shard = shard;
+            this.firstId = firstId;
+        }
+    }
+}
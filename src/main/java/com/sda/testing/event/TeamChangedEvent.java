@@ -0,0 +1,23 @@
+package com.sda.testing.event;
+
+import com.sda.testing.model.Team;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Published after team row is inserted, updated or deleted. Membership changes are published as
+ * {@link EmployeeChangedEvent}, because team assignment is owned by employee.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TeamChangedEvent {
+    private ChangeType type;
+    private Long teamId;
+    private String name;
+
+    public static TeamChangedEvent of(ChangeType type, Team team) {
+        return new TeamChangedEvent(type, team.getId(), team.getName());
+    }
+}
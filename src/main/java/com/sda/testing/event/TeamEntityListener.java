@@ -0,0 +1,34 @@
+package com.sda.testing.event;
+
+import com.sda.testing.model.Team;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * JPA listener translating every write of {@link Team} into {@link TeamChangedEvent}.
+ */
+@Component
+@RequiredArgsConstructor
+public class TeamEntityListener {
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    public void afterCreate(Team team) {
+        eventPublisher.publishEvent(TeamChangedEvent.of(ChangeType.CREATED, team));
+    }
+
+    @PostUpdate
+    public void afterUpdate(Team team) {
+        eventPublisher.publishEvent(TeamChangedEvent.of(ChangeType.UPDATED, team));
+    }
+
+    @PostRemove
+    public void afterDelete(Team team) {
+        eventPublisher.publishEvent(TeamChangedEvent.of(ChangeType.DELETED, team));
+    }
+}
@@ -0,0 +1,131 @@
+package com.sda.testing.hierarchy;
+
+import com.sda.testing.cache.EntityCacheEvictor;
+import com.sda.testing.event.ChangeType;
+import com.sda.testing.event.EmployeeChangedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Maintains closure table of reporting lines, holding one row for every pair of manager and direct or indirect
+ * report. All reports of a manager are then a range of the primary key, so subtree listing and salary rollup are single
+ * indexed queries. Moving an employee with its reports rewrites rows between the moved subtree and its old and new
+ * managers only, which is subtree size times depth of the hierarchy.
+ * <p>
+ * Statements run on the connection of the current transaction. Subqueries on the modified table are wrapped in
+ * derived tables, as MySQL does not allow reading the table being modified directly.
+ */
+@Component
+@RequiredArgsConstructor
+public class ClosureTable {
+    private static final String INSERT_SELF =
+            "insert into employee_closure (ancestor_id, descendant_id, depth) values (?, ?, 0)";
+    private static final String COUNT_PATH =
+            "select count(*) from employee_closure where ancestor_id = ? and descendant_id = ?";
+    private static final String DETACH_SUBTREE =
+            "delete from employee_closure " +
+                    "where descendant_id in (select descendant_id from " +
+                    "(select distinct descendant_id from employee_closure where ancestor_id = ?) subtree) " +
+                    "and ancestor_id in (select ancestor_id from " +
+                    "(select distinct ancestor_id from employee_closure where descendant_id = ? and depth > 0) above)";
+    private static final String ATTACH_SUBTREE =
+            "insert into employee_closure (ancestor_id, descendant_id, depth) " +
+                    "select above.ancestor_id, below.descendant_id, above.depth + below.depth + 1 " +
+                    "from employee_closure above, employee_closure below " +
+                    "where above.descendant_id = ? and below.ancestor_id = ?";
+    private static final String SHORTEN_PATHS_THROUGH =
+            "update employee_closure set depth = depth - 1 " +
+                    "where ancestor_id in (select ancestor_id from " +
+                    "(select distinct ancestor_id from employee_closure where descendant_id = ? and depth > 0) above) " +
+                    "and descendant_id in (select descendant_id from " +
+                    "(select distinct descendant_id from employee_closure where ancestor_id = ? and depth > 0) below)";
+    private static final String DELETE_NODE =
+            "delete from employee_closure where ancestor_id = ? or descendant_id = ?";
+    private static final String SELECT_MANAGER =
+            "select ancestor_id from employee_closure where descendant_id = ? and depth = 1";
+    private static final String SELECT_DIRECT_REPORTS =
+            "select id from employee where manager_id = ?";
+    private static final String MOVE_DIRECT_REPORTS =
+            "update employee set manager_id = ? where manager_id = ?";
+    private static final String SUM_SALARIES_UNDER =
+            "select coalesce(sum(e.salary_cents), 0) from employee_closure c join employee e on e.id = c.descendant_id " +
+                    "where c.ancestor_id = ? and c.depth > 0";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityCacheEvictor entityCacheEvictor;
+
+    /**
+     * Place employee, together with its reports, directly under given manager.
+     *
+     * @param employeeId - moved employee.
+     * @param managerId  - new manager, must not report to the moved employee.
+     */
+    public void attach(long employeeId, long managerId) {
+        addNode(employeeId);
+        addNode(managerId);
+        detach(employeeId);
+        jdbcTemplate.update(ATTACH_SUBTREE, managerId, employeeId);
+    }
+
+    /**
+     * Make employee, together with its reports, report to nobody.
+     *
+     * @param employeeId - moved employee.
+     */
+    public void detach(long employeeId) {
+        jdbcTemplate.update(DETACH_SUBTREE, employeeId, employeeId);
+    }
+
+    /**
+     * @param managerId  - root of the subtree.
+     * @param employeeId - checked employee.
+     * @return true if employee is the manager itself or reports to the manager directly or indirectly.
+     */
+    public boolean isInSubtree(long managerId, long employeeId) {
+        return managerId == employeeId || count(COUNT_PATH, managerId, employeeId) > 0;
+    }
+
+    /**
+     * @param managerId - manager identifier.
+     * @return sum of salaries of all direct and indirect reports of the manager, in cents.
+     */
+    public long salaryCentsUnder(long managerId) {
+        Long sum = jdbcTemplate.queryForObject(SUM_SALARIES_UNDER, Long.class, managerId);
+        return sum == null ? 0 : sum;
+    }
+
+    /**
+     * Removed employee leaves the hierarchy, its direct reports start reporting to its manager.
+     */
+    @EventListener
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        if (event.getType() != ChangeType.DELETED) {
+            return;
+        }
+        long employeeId = event.getEmployeeId();
+        List<Long> managers = jdbcTemplate.queryForList(SELECT_MANAGER, Long.class, employeeId);
+        jdbcTemplate.update(SHORTEN_PATHS_THROUGH, employeeId, employeeId);
+        jdbcTemplate.update(DELETE_NODE, employeeId, employeeId);
+        List<Long> reports = jdbcTemplate.queryForList(SELECT_DIRECT_REPORTS, Long.class, employeeId);
+        if (!reports.isEmpty()) {
+            jdbcTemplate.update(MOVE_DIRECT_REPORTS, managers.isEmpty() ? null : managers.get(0), employeeId);
+            // cached reports still point to the removed manager
+            entityCacheEvictor.evictEmployees(reports);
+        }
+    }
+
+    private void addNode(long employeeId) {
+        if (count(COUNT_PATH, employeeId, employeeId) == 0) {
+            jdbcTemplate.update(INSERT_SELF, employeeId, employeeId);
+        }
+    }
+
+    private long count(String query, Object... arguments) {
+        Long count = jdbcTemplate.queryForObject(query, Long.class, arguments);
+        return count == null ? 0 : count;
+    }
+}
@@ -0,0 +1,103 @@
+package com.sda.testing.history;
+
+import com.sda.testing.event.ChangeType;
+import com.sda.testing.event.EmployeeChangedEvent;
+import com.sda.testing.event.EmployeesChangedEvent;
+import com.sda.testing.model.EmployeeLevel;
+import com.sda.testing.model.EmployeeVersion;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps versions of employee salary, level and team in the employee_version table. A change closes the current
+ * version and opens a new one, changes of other attributes don't create versions. Like
+ * {@link com.sda.testing.event.ChangeLogWriter}, listener runs synchronously inside JPA flush on the same connection.
+ */
+@Component
+@RequiredArgsConstructor
+public class EmployeeHistoryWriter {
+    private static final String SELECT_CURRENT =
+            "select salary_cents, level, team_id from employee_version where employee_id = ? and valid_to = ?";
+    private static final String CLOSE_CURRENT =
+            "update employee_version set valid_to = ? where employee_id = ? and valid_to = ?";
+    private static final String INSERT_VERSION =
+            "insert into employee_version (employee_id, valid_from, valid_to, salary_cents, level, team_id) " +
+                    "values (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_MISSING_VERSIONS =
+            "insert into employee_version (employee_id, valid_from, valid_to, salary_cents, level, team_id) " +
+                    "select e.id, 0, ?, e.salary_cents, e.level, e.team_id from employee e where not exists " +
+                    "(select 1 from employee_version v where v.employee_id = e.id and v.valid_to = ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @EventListener
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        long now = System.currentTimeMillis();
+        if (event.getType() == ChangeType.CREATED) {
+            insert(event, now);
+            return;
+        }
+        if (event.getType() == ChangeType.UPDATED && isCurrent(event)) {
+            return;
+        }
+        jdbcTemplate.update(CLOSE_CURRENT, now, event.getEmployeeId(), EmployeeVersion.OPEN);
+        if (event.getType() == ChangeType.UPDATED) {
+            insert(event, now);
+        }
+    }
+
+    @EventListener
+    public void onEmployeesChanged(EmployeesChangedEvent event) {
+        long now = System.currentTimeMillis();
+        List<Object[]> rows = event.getChanges().stream()
+                .map(change -> versionRow(change, now))
+                .collect(Collectors.toList());
+        jdbcTemplate.batchUpdate(INSERT_VERSION, rows);
+    }
+
+    /**
+     * Open a version for every employee without one, valid since the beginning of time. Covers employees stored
+     * before history was kept.
+     *
+     * @return number of opened versions.
+     */
+    public int openMissingVersions() {
+        return jdbcTemplate.update(INSERT_MISSING_VERSIONS, EmployeeVersion.OPEN, EmployeeVersion.OPEN);
+    }
+
+    private boolean isCurrent(EmployeeChangedEvent event) {
+        List<Map<String, Object>> current = jdbcTemplate.queryForList(SELECT_CURRENT,
+                event.getEmployeeId(), EmployeeVersion.OPEN);
+        if (current.isEmpty()) {
+            return false;
+        }
+        Map<String, Object> version = current.get(0);
+        return ((Number) version.get("salary_cents")).longValue() == event.getSalaryCents()
+                && Objects.equals(toLong(version.get("level")), toLong(ordinal(event.getLevel())))
+                && Objects.equals(toLong(version.get("team_id")), event.getTeamId());
+    }
+
+    private void insert(EmployeeChangedEvent event, long now) {
+        jdbcTemplate.update(INSERT_VERSION, versionRow(event, now));
+    }
+
+    private static Object[] versionRow(EmployeeChangedEvent event, long now) {
+        return new Object[]{event.getEmployeeId(), now, EmployeeVersion.OPEN, event.getSalaryCents(),
+                ordinal(event.getLevel()), event.getTeamId()};
+    }
+
+    private static Integer ordinal(EmployeeLevel level) {
+        return level == null ? null : level.ordinal();
+    }
+
+    private static Long toLong(Object value) {
+        return value == null ? null : ((Number) value).longValue();
+    }
+}
@@ -0,0 +1,246 @@
+package com.sda.testing.idempotency;
+
+import com.sda.testing.sharding.TenantFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Makes write requests carrying Idempotency-Key header safe to retry. First attempt with a key runs normally and its
+ * response is stored; retries with the same key and the same request get the stored response without reaching the
+ * controller. Retries arriving while the first attempt runs wait for its response. A key reused for a different
+ * request is rejected with 422.
+ * <p>
+ * Attempts failing with 5xx are not stored, so they can be retried. Keys are kept in memory of single instance; while
+ * the store is full of keys not expired yet, requests with new keys are rejected with 503. Runs before admission
+ * control, so replayed responses don't take a slot of the concurrency limit.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class IdempotencyFilter extends OncePerRequestFilter {
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyStore store;
+    private final Set<String> paths;
+    private final long waitTimeoutMillis;
+
+    private final Counter executed;
+    private final Counter replayed;
+    private final Counter joined;
+    private final Counter mismatched;
+    private final Counter timedOut;
+    private final Counter rejected;
+
+    public IdempotencyFilter(MeterRegistry meterRegistry,
+                             @Value("${idempotency.paths:/company/employee,/employee/salaryRaise,/employee/promote}") List<String> paths,
+                             @Value("${idempotency.max-entries:10000}") int maxEntries,
+                             @Value("${idempotency.ttl-ms:86400000}") long timeToLiveMillis,
+                             @Value("${idempotency.wait-timeout-ms:10000}") long waitTimeoutMillis) {
+        this.store = new IdempotencyStore(maxEntries, timeToLiveMillis);
+        this.paths = new HashSet<>(paths);
+        this.waitTimeoutMillis = waitTimeoutMillis;
+        this.executed = requests(meterRegistry, "executed");
+        this.replayed = requests(meterRegistry, "replayed");
+        this.joined = requests(meterRegistry, "joined");
+        this.mismatched = requests(meterRegistry, "mismatched");
+        this.timedOut = requests(meterRegistry, "timed-out");
+        this.rejected = requests(meterRegistry, "rejected");
+        Gauge.builder("idempotency.keys", store, IdempotencyStore::size).register(meterRegistry);
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("idempotency.requests")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getHeader(IDEMPOTENCY_KEY_HEADER) == null
+                || !paths.contains(request.getRequestURI().substring(request.getContextPath().length()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String key = request.getHeader(IDEMPOTENCY_KEY_HEADER);
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            response.sendError(HttpStatus.BAD_REQUEST.value());
+            return;
+        }
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request);
+        String fingerprint = fingerprint(cachedRequest);
+        String scopedKey = Objects.toString(request.getHeader(TenantFilter.TENANT_HEADER), "") + ":" + key;
+
+        while (true) {
+            IdempotencyStore.Reservation reservation = store.reserve(scopedKey, fingerprint);
+            if (reservation == null) {
+                rejected.increment();
+                response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+                response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value());
+                return;
+            }
+            if (reservation.isOwner()) {
+                executed.increment();
+                execute(reservation, cachedRequest, response, filterChain);
+                return;
+            }
+            if (!reservation.getFingerprint().equals(fingerprint)) {
+                mismatched.increment();
+                response.sendError(HttpStatus.UNPROCESSABLE_ENTITY.value());
+                return;
+            }
+            boolean inFlight = !reservation.getResponse().isDone();
+            StoredResponse stored;
+            try {
+                stored = reservation.getResponse().get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                timedOut.increment();
+                response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+                response.sendError(HttpStatus.CONFLICT.value());
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServletException(e);
+            } catch (ExecutionException e) {
+                throw new ServletException(e.getCause());
+            }
+            if (stored != null) {
+                (inFlight ? joined : replayed).increment();
+                replay(stored, response);
+                return;
+            }
+            // first attempt failed and released the key, try to make the next attempt
+        }
+    }
+
+    private void execute(IdempotencyStore.Reservation reservation, HttpServletRequest request,
+                         HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+        boolean stored = false;
+        try {
+            filterChain.doFilter(request, responseWrapper);
+            if (!request.isAsyncStarted() && responseWrapper.getStatus() < HttpStatus.INTERNAL_SERVER_ERROR.value()) {
+                store.complete(reservation, new StoredResponse(responseWrapper.getStatus(),
+                        responseWrapper.getContentType(), responseWrapper.getContentAsByteArray()));
+                stored = true;
+            }
+        } finally {
+            if (!stored) {
+                store.release(reservation);
+            }
+            responseWrapper.copyBodyToResponse();
+        }
+    }
+
+    private void replay(StoredResponse stored, HttpServletResponse response) throws IOException {
+        response.setStatus(stored.getStatus());
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (stored.getContentType() != null) {
+            response.setContentType(stored.getContentType());
+        }
+        response.setContentLength(stored.getBody().length);
+        response.getOutputStream().write(stored.getBody());
+    }
+
+    private static String fingerprint(CachedBodyRequest request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(request.getMethod().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) ' ');
+            digest.update(request.getRequestURI().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '?');
+            digest.update(Objects.toString(request.getQueryString(), "").getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+            digest.update(request.body);
+            return Base64.getEncoder().encodeToString(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Request which body is read upfront, so it can be fingerprinted and still read by the controller.
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = StreamUtils.copyToByteArray(request.getInputStream());
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return input.read(buffer, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() throws UnsupportedEncodingException {
+            String encoding = Objects.toString(getCharacterEncoding(), StandardCharsets.ISO_8859_1.name());
+            return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(body), encoding));
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.sda.testing.idempotency;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded store of idempotency keys with fingerprints of their requests and responses of their first attempts. Keys
+ * expire after time to live counted from the first attempt. Keys are never dropped before they expire, nor while their
+ * first attempt is still running, as a retry would then run the request again; when the store is full of such keys,
+ * new keys are refused. Keys are kept in insertion order, so expiry only looks at the head of the map.
+ */
+public class IdempotencyStore {
+    private final int maxEntries;
+    private final long timeToLiveNanos;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+
+    public IdempotencyStore(int maxEntries, long timeToLiveMillis) {
+        this.maxEntries = maxEntries;
+        this.timeToLiveNanos = TimeUnit.MILLISECONDS.toNanos(timeToLiveMillis);
+    }
+
+    /**
+     * Reserve key for a request. If key is not known yet, caller becomes owner of a new entry and has to either
+     * {@link #complete} or {@link #release} it. Otherwise entry of the first attempt is returned.
+     *
+     * @param key         - idempotency key, scoped by the caller.
+     * @param fingerprint - fingerprint of the request.
+     * @return reservation holding entry of the key, null if the key is new and the store is full.
+     */
+    public synchronized Reservation reserve(String key, String fingerprint) {
+        long now = System.nanoTime();
+        evictExpired(now);
+        Entry existing = entries.get(key);
+        if (existing != null) {
+            return new Reservation(key, existing, false);
+        }
+        if (entries.size() >= maxEntries) {
+            return null;
+        }
+        Entry entry = new Entry(fingerprint, now);
+        entries.put(key, entry);
+        return new Reservation(key, entry, true);
+    }
+
+    /**
+     * Store response of the first attempt and hand it over to requests waiting for it.
+     *
+     * @param reservation - reservation owned by the caller.
+     * @param response    - response to replay for retries.
+     */
+    public void complete(Reservation reservation, StoredResponse response) {
+        reservation.entry.response.complete(response);
+    }
+
+    /**
+     * Forget key of a failed attempt, so the next retry runs again. Requests waiting for the attempt are woken up
+     * without response.
+     *
+     * @param reservation - reservation owned by the caller.
+     */
+    public void release(Reservation reservation) {
+        synchronized (this) {
+            entries.remove(reservation.key, reservation.entry);
+        }
+        reservation.entry.response.complete(null);
+    }
+
+    /**
+     * @return number of stored keys, including expired ones not evicted yet.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Expired keys of attempts still running are kept, and skipped over.
+     */
+    private void evictExpired(long now) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (now - entry.createdNanos < timeToLiveNanos) {
+                return;
+            }
+            if (entry.response.isDone()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final String fingerprint;
+        private final long createdNanos;
+        private final CompletableFuture<StoredResponse> response = new CompletableFuture<>();
+
+        private Entry(String fingerprint, long createdNanos) {
+            this.fingerprint = fingerprint;
+            this.createdNanos = createdNanos;
+        }
+    }
+
+    /**
+     * Result of {@link #reserve}. Response future is completed with stored response, or with null when the first
+     * attempt failed.
+     */
+    public static final class Reservation {
+        private final String key;
+        private final Entry entry;
+        private final boolean owner;
+
+        private Reservation(String key, Entry entry, boolean owner) {
+            this.key = key;
+            this.entry = entry;
+            this.owner = owner;
+        }
+
+        /**
+         * @return true if the caller makes the first attempt with this key.
+         */
+        public boolean isOwner() {
+            return owner;
+        }
+
+        public String getFingerprint() {
+            return entry.fingerprint;
+        }
+
+        public CompletableFuture<StoredResponse> getResponse() {
+            return entry.response;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.sda.testing.idempotency;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Response of the first attempt of an idempotent request, replayed to its retries.
+ */
+@Getter
+@AllArgsConstructor
+public class StoredResponse {
+    private final int status;
+    private final String contentType;
+    private final byte[] body;
+}
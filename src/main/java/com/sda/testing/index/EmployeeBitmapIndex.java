@@ -0,0 +1,212 @@
+package com.sda.testing.index;
+
+import com.sda.testing.event.ChangeType;
+import com.sda.testing.event.EmployeeChangedEvent;
+import com.sda.testing.event.EmployeesChangedEvent;
+import com.sda.testing.model.Employee;
+import com.sda.testing.model.EmployeeLevel;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Bitmaps of employee identifiers per level, per team and per salary bucket. Filter on several attributes is answered
+ * by OR of bitmaps of accepted values of each attribute, then AND of the attributes, so no employee is visited unless
+ * it matches other criteria and its salary falls into one of two buckets at the ends of a salary band. Those are
+ * checked against salary of the employee kept in the index.
+ */
+public class EmployeeBitmapIndex {
+    private final long salaryBucketCents;
+    private final Map<EmployeeLevel, IdBitmap> levels = new EnumMap<>(EmployeeLevel.class);
+    private final Map<Long, IdBitmap> teams = new HashMap<>();
+    private final NavigableMap<Long, IdBitmap> salaryBuckets = new TreeMap<>();
+    private final Map<Long, Member> members = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private IdBitmap all = new IdBitmap();
+
+    public EmployeeBitmapIndex(long salaryBucketCents) {
+        if (salaryBucketCents <= 0) {
+            throw new IllegalArgumentException("index.bitmap.salary-bucket-cents has to be positive");
+        }
+        this.salaryBucketCents = salaryBucketCents;
+    }
+
+    /**
+     * Replace content of the index with given employees.
+     *
+     * @param employees - all employees of the company.
+     */
+    public void rebuild(Collection<Employee> employees) {
+        lock.writeLock().lock();
+        try {
+            all = new IdBitmap();
+            levels.clear();
+            teams.clear();
+            salaryBuckets.clear();
+            members.clear();
+            employees.forEach(employee -> put(employee.getId(), new Member(employee.getLevel(),
+                    employee.getTeam() == null ? null : employee.getTeam().getId(), employee.getSalaryCents())));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            apply(event);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void onEmployeesChanged(EmployeesChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            event.getChanges().forEach(this::apply);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find employees matching all given criteria.
+     *
+     * @param levelFilter     - accepted levels. Can be null or empty, then level is not checked.
+     * @param teamFilter      - identifiers of accepted teams. Can be null or empty, then team is not checked.
+     * @param salaryCentsFrom - exclusive lower bound of salary in cents.
+     * @param salaryCentsTo   - exclusive upper bound of salary in cents.
+     * @return identifiers of matching employees, ascending.
+     */
+    public long[] filter(Collection<EmployeeLevel> levelFilter, Collection<Long> teamFilter,
+                         long salaryCentsFrom, long salaryCentsTo) {
+        lock.readLock().lock();
+        try {
+            return match(levelFilter, teamFilter, salaryCentsFrom, salaryCentsTo).toIds();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Count employees matching all given criteria, see {@link #filter}.
+     *
+     * @return number of matching employees.
+     */
+    public int count(Collection<EmployeeLevel> levelFilter, Collection<Long> teamFilter,
+                     long salaryCentsFrom, long salaryCentsTo) {
+        lock.readLock().lock();
+        try {
+            return match(levelFilter, teamFilter, salaryCentsFrom, salaryCentsTo).cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private IdBitmap match(Collection<EmployeeLevel> levelFilter, Collection<Long> teamFilter,
+                           long salaryCentsFrom, long salaryCentsTo) {
+        IdBitmap result = all;
+        if (levelFilter != null && !levelFilter.isEmpty()) {
+            result = IdBitmap.and(result, IdBitmap.or(levelFilter.stream()
+                    .distinct()
+                    .map(levels::get)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList())));
+        }
+        if (teamFilter != null && !teamFilter.isEmpty()) {
+            result = IdBitmap.and(result, IdBitmap.or(teamFilter.stream()
+                    .distinct()
+                    .map(teams::get)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList())));
+        }
+        if (salaryCentsFrom != Long.MIN_VALUE || salaryCentsTo != Long.MAX_VALUE) {
+            result = inSalaryBand(result, salaryCentsFrom, salaryCentsTo);
+        }
+        return result;
+    }
+
+    /**
+     * Buckets between the bucket of lower bound and the bucket of upper bound are entirely in the band. Only members
+     * of the two boundary buckets, which also match other criteria, have their salary checked.
+     */
+    private IdBitmap inSalaryBand(IdBitmap candidates, long salaryCentsFrom, long salaryCentsTo) {
+        if (salaryCentsFrom >= salaryCentsTo) {
+            return new IdBitmap();
+        }
+        long fromBucket = bucketOf(salaryCentsFrom);
+        long toBucket = bucketOf(salaryCentsTo);
+        List<IdBitmap> band = new ArrayList<>(salaryBuckets.subMap(fromBucket, false, toBucket, false).values());
+        List<IdBitmap> boundaries = new ArrayList<>(2);
+        Optional.ofNullable(salaryBuckets.get(fromBucket)).ifPresent(boundaries::add);
+        if (toBucket != fromBucket) {
+            Optional.ofNullable(salaryBuckets.get(toBucket)).ifPresent(boundaries::add);
+        }
+        IdBitmap inBand = IdBitmap.and(candidates, IdBitmap.or(band));
+        IdBitmap atBoundary = IdBitmap.and(candidates, IdBitmap.or(boundaries)).filter(id -> {
+            long salaryCents = members.get(id).salaryCents;
+            return salaryCents > salaryCentsFrom && salaryCents < salaryCentsTo;
+        });
+        return IdBitmap.or(inBand, atBoundary);
+    }
+
+    private void apply(EmployeeChangedEvent event) {
+        remove(event.getEmployeeId());
+        if (event.getType() != ChangeType.DELETED) {
+            put(event.getEmployeeId(), new Member(event.getLevel(), event.getTeamId(), event.getSalaryCents()));
+        }
+    }
+
+    private void put(Long id, Member member) {
+        members.put(id, member);
+        all.add(id);
+        if (member.level != null) {
+            levels.computeIfAbsent(member.level, level -> new IdBitmap()).add(id);
+        }
+        if (member.teamId != null) {
+            teams.computeIfAbsent(member.teamId, teamId -> new IdBitmap()).add(id);
+        }
+        salaryBuckets.computeIfAbsent(bucketOf(member.salaryCents), bucket -> new IdBitmap()).add(id);
+    }
+
+    private void remove(Long id) {
+        Member member = members.remove(id);
+        if (member == null) {
+            return;
+        }
+        all.remove(id);
+        if (member.level != null) {
+            removeFrom(levels, member.level, id);
+        }
+        if (member.teamId != null) {
+            removeFrom(teams, member.teamId, id);
+        }
+        removeFrom(salaryBuckets, bucketOf(member.salaryCents), id);
+    }
+
+    private static <K> void removeFrom(Map<K, IdBitmap> bitmaps, K key, long id) {
+        IdBitmap bitmap = bitmaps.get(key);
+        bitmap.remove(id);
+        if (bitmap.isEmpty()) {
+            bitmaps.remove(key);
+        }
+    }
+
+    private long bucketOf(long salaryCents) {
+        return Math.floorDiv(salaryCents, salaryBucketCents);
+    }
+
+    private static final class Member {
+        private final EmployeeLevel level;
+        private final Long teamId;
+        private final long salaryCents;
+
+        private Member(EmployeeLevel level, Long teamId, long salaryCents) {
+            this.level = level;
+            this.teamId = teamId;
+            this.salaryCents = salaryCents;
+        }
+    }
+}
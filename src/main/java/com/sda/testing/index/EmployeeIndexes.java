@@ -0,0 +1,98 @@
+package com.sda.testing.index;
+
+import com.sda.testing.event.EmployeeChangedEvent;
+import com.sda.testing.event.EmployeesChangedEvent;
+import com.sda.testing.event.TeamChangedEvent;
+import com.sda.testing.model.Employee;
+import com.sda.testing.model.Team;
+import com.sda.testing.sharding.ShardContext;
+import com.sda.testing.sharding.ShardingProperties;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * In-memory employee indexes, one set per shard, since employees and teams of different shards can share
+ * identifiers. Indexes of the shard database calls of the current thread are routed to are used: shard of the
+ * current tenant, default shard without tenant. Committed changes are applied to indexes of the shard they were
+ * made on.
+ */
+@Component
+public class EmployeeIndexes {
+    private final ShardingProperties shardingProperties;
+    private final Map<String, ShardIndexes> shards = new HashMap<>();
+
+    public EmployeeIndexes(ShardingProperties shardingProperties,
+                           @Value("${index.bitmap.salary-bucket-cents:100000}") long salaryBucketCents) {
+        this.shardingProperties = shardingProperties;
+        if (shardingProperties.isEnabled()) {
+            shardingProperties.shardNames().forEach(shard -> shards.put(shard, new ShardIndexes(salaryBucketCents)));
+        } else {
+            shards.put(null, new ShardIndexes(salaryBucketCents));
+        }
+    }
+
+    public EmployeeNameIndex names() {
+        return current().names;
+    }
+
+    public EmployeeBitmapIndex bitmaps() {
+        return current().bitmaps;
+    }
+
+    public TeamPayrollRanking teamRanking() {
+        return current().teamRanking;
+    }
+
+    /**
+     * Replace content of indexes of the current shard.
+     *
+     * @param teams     - all teams of the shard.
+     * @param employees - all employees of the shard.
+     */
+    public void rebuild(Collection<Team> teams, Collection<Employee> employees) {
+        ShardIndexes indexes = current();
+        indexes.names.rebuild(employees);
+        indexes.bitmaps.rebuild(employees);
+        indexes.teamRanking.rebuild(teams, employees);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        ShardIndexes indexes = current();
+        indexes.names.onEmployeeChanged(event);
+        indexes.bitmaps.onEmployeeChanged(event);
+        indexes.teamRanking.onEmployeeChanged(event);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeesChanged(EmployeesChangedEvent event) {
+        ShardIndexes indexes = current();
+        indexes.names.onEmployeesChanged(event);
+        indexes.bitmaps.onEmployeesChanged(event);
+        indexes.teamRanking.onEmployeesChanged(event);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTeamChanged(TeamChangedEvent event) {
+        current().teamRanking.onTeamChanged(event);
+    }
+
+    private ShardIndexes current() {
+        return shards.get(shardingProperties.routedShard(ShardContext.currentShard()));
+    }
+
+    private static final class ShardIndexes {
+        private final EmployeeNameIndex names = new EmployeeNameIndex();
+        private final EmployeeBitmapIndex bitmaps;
+        private final TeamPayrollRanking teamRanking = new TeamPayrollRanking();
+
+        private ShardIndexes(long salaryBucketCents) {
+            this.bitmaps = new EmployeeBitmapIndex(salaryBucketCents);
+        }
+    }
+}
@@ -0,0 +1,427 @@
+package com.sda.testing.index;
+
+import com.sda.testing.event.ChangeType;
+import com.sda.testing.event.EmployeeChangedEvent;
+import com.sda.testing.event.EmployeesChangedEvent;
+import com.sda.testing.model.Employee;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory index of employee first and last names. Query terms are matched against name tokens by prefix first,
+ * then by trigram similarity if prefix matches are not enough to fill the limit. Every term of the query has to match
+ * some name token of the employee, so matches of the term matching the fewest employees are checked against name
+ * tokens of the employee for every other term, and the limit is applied to employees matching all terms only. Best
+ * matches are kept in a heap bounded by the limit. Prefix score only falls with length of the token, so tokens are
+ * also kept by length and the prefix walk of a single term stops after the first length which fills the limit.
+ * Employees of a token are sorted by identifier, so the walk over one token stops at the first employee which would
+ * not make it to the heap.
+ */
+public class EmployeeNameIndex {
+    private static final int NGRAM = 3;
+    private static final double FUZZY_THRESHOLD = 0.4;
+
+    private final Map<String, Token> tokens = new HashMap<>();
+    private final NavigableMap<Integer, NavigableSet<String>> tokensByLength = new TreeMap<>();
+    private final Map<String, Set<Token>> ngramTokens = new HashMap<>();
+    private final Map<Long, String[]> employeeTokens = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Replace content of the index with given employees.
+     *
+     * @param employees - all employees of the company.
+     */
+    public void rebuild(Collection<Employee> employees) {
+        lock.writeLock().lock();
+        try {
+            tokens.clear();
+            tokensByLength.clear();
+            ngramTokens.clear();
+            employeeTokens.clear();
+            employees.forEach(employee -> put(employee.getId(), employee.getFirstName(), employee.getLastName()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            apply(event);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void onEmployeesChanged(EmployeesChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            event.getChanges().forEach(this::apply);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find employees which names match given query.
+     *
+     * @param query - one or more words, matched against beginning of first or last name, typos are tolerated.
+     * @param limit - maximal number of returned identifiers.
+     * @return identifiers of employees, best matches first.
+     */
+    public List<Long> search(String query, int limit) {
+        String[] terms = tokenize(query);
+        if (terms.length == 0 || limit <= 0) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            return terms.length == 1 ? searchTerm(terms[0], limit) : searchTerms(terms, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return number of indexed employees.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return employeeTokens.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Single term needs only the best matches. Tokens are walked from the best score, so every employee is offered
+     * with its best score first, and fuzzy matches score lower than any prefix match.
+     */
+    private List<Long> searchTerm(String term, int limit) {
+        TopMatches top = new TopMatches(limit);
+        for (Map.Entry<Integer, NavigableSet<String>> length : tokensByLength.tailMap(term.length(), true).entrySet()) {
+            double score = prefixScore(term, length.getKey());
+            for (String token : withPrefix(length.getValue(), term)) {
+                offerAll(top, tokens.get(token), score);
+            }
+            if (top.isFull()) {
+                return top.ids();
+            }
+        }
+        for (Map.Entry<Token, Double> token : fuzzyTokens(term)) {
+            if (top.rejects(token.getValue())) {
+                break;
+            }
+            offerAll(top, token.getKey(), token.getValue());
+        }
+        return top.ids();
+    }
+
+    private void offerAll(TopMatches top, Token token, double score) {
+        for (Long id : token.ids) {
+            if (!top.offer(id, score)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Matches of the term matching the fewest employees are scored against name tokens of the employee for every
+     * other term. An employee matched by more tokens of that term is offered with its best score first.
+     */
+    private List<Long> searchTerms(String[] terms, int limit) {
+        String drivingTerm = Arrays.stream(terms).min(Comparator.comparingLong(this::prefixMatchCount)).get();
+        List<String> otherTerms = new ArrayList<>(Arrays.asList(terms));
+        otherTerms.remove(drivingTerm);
+        List<TermMatcher> matchers = new ArrayList<>(otherTerms.size());
+        for (String term : otherTerms) {
+            matchers.add(new TermMatcher(term, !fillsLimitByPrefix(term, limit)));
+        }
+        TopMatches top = new TopMatches(limit);
+        for (Map.Entry<Integer, NavigableSet<String>> length
+                : tokensByLength.tailMap(drivingTerm.length(), true).entrySet()) {
+            double score = prefixScore(drivingTerm, length.getKey());
+            for (String token : withPrefix(length.getValue(), drivingTerm)) {
+                tokens.get(token).ids.forEach(id -> offerMatchingAll(top, matchers, id, score));
+            }
+        }
+        if (!fillsLimitByPrefix(drivingTerm, limit)) {
+            fuzzyTokens(drivingTerm).forEach(token -> token.getKey().ids
+                    .forEach(id -> offerMatchingAll(top, matchers, id, token.getValue())));
+        }
+        return top.ids();
+    }
+
+    private void offerMatchingAll(TopMatches top, List<TermMatcher> matchers, Long id, double score) {
+        double total = score;
+        for (TermMatcher matcher : matchers) {
+            double termScore = matcher.score(employeeTokens.get(id));
+            if (termScore == 0.0) {
+                return;
+            }
+            total += termScore;
+        }
+        top.offer(id, total);
+    }
+
+    /**
+     * Upper bound of number of employees matching the term by prefix, employees are not deduplicated.
+     */
+    private long prefixMatchCount(String term) {
+        long count = 0;
+        for (NavigableSet<String> tokensOfLength : tokensByLength.tailMap(term.length(), true).values()) {
+            for (String token : withPrefix(tokensOfLength, term)) {
+                count += tokens.get(token).ids.size();
+            }
+        }
+        return count;
+    }
+
+    private boolean fillsLimitByPrefix(String term, int limit) {
+        Set<Long> ids = new HashSet<>();
+        for (NavigableSet<String> tokensOfLength : tokensByLength.tailMap(term.length(), true).values()) {
+            for (String token : withPrefix(tokensOfLength, term)) {
+                for (Long id : tokens.get(token).ids) {
+                    if (ids.add(id) && ids.size() >= limit) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Similarity of at least the threshold needs a minimal number of shared trigrams, so every similar token is found
+     * among tokens of the term's trigrams without that number less one of the most common ones. Those are only
+     * checked for the tokens found.
+     *
+     * @return tokens sharing enough trigrams with the term and their similarity, most similar first.
+     */
+    private List<Map.Entry<Token, Double>> fuzzyTokens(String term) {
+        Set<String> termNgrams = ngrams(term);
+        List<Set<Token>> tokensOfNgrams = termNgrams.stream()
+                .map(ngram -> ngramTokens.getOrDefault(ngram, Collections.emptySet()))
+                .sorted(Comparator.comparingInt(Set::size))
+                .collect(Collectors.toList());
+        int minShared = (int) Math.ceil(FUZZY_THRESHOLD * termNgrams.size() / (2.0 - FUZZY_THRESHOLD) - 1e-9);
+        int scanned = tokensOfNgrams.size() - Math.max(minShared, 1) + 1;
+        int postings = tokensOfNgrams.subList(0, scanned).stream().mapToInt(Set::size).sum();
+        Map<Token, Integer> sharedNgrams = new HashMap<>(postings * 4 / 3 + 1);
+        for (Set<Token> tokensOfNgram : tokensOfNgrams.subList(0, scanned)) {
+            for (Token token : tokensOfNgram) {
+                sharedNgrams.merge(token, 1, Integer::sum);
+            }
+        }
+        List<Map.Entry<Token, Double>> similarTokens = new ArrayList<>();
+        sharedNgrams.forEach((token, shared) -> {
+            for (Set<Token> tokensOfNgram : tokensOfNgrams.subList(scanned, tokensOfNgrams.size())) {
+                if (tokensOfNgram.contains(token)) {
+                    shared++;
+                }
+            }
+            double similarity = 2.0 * shared / (termNgrams.size() + token.ngramCount);
+            if (similarity >= FUZZY_THRESHOLD) {
+                similarTokens.add(new AbstractMap.SimpleImmutableEntry<>(token, similarity));
+            }
+        });
+        similarTokens.sort(Map.Entry.<Token, Double>comparingByValue().reversed());
+        return similarTokens;
+    }
+
+    private static NavigableSet<String> withPrefix(NavigableSet<String> tokensOfLength, String prefix) {
+        return tokensOfLength.subSet(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    private static double prefixScore(String term, int tokenLength) {
+        return 1.0 + (double) term.length() / tokenLength;
+    }
+
+    private void apply(EmployeeChangedEvent event) {
+        remove(event.getEmployeeId());
+        if (event.getType() != ChangeType.DELETED) {
+            put(event.getEmployeeId(), event.getFirstName(), event.getLastName());
+        }
+    }
+
+    private void put(Long id, String firstName, String lastName) {
+        String[] nameTokens = tokenize(Objects.toString(firstName, "") + " " + Objects.toString(lastName, ""));
+        employeeTokens.put(id, nameTokens);
+        for (String token : nameTokens) {
+            Token entry = tokens.get(token);
+            if (entry == null) {
+                Set<String> ngrams = ngrams(token);
+                entry = new Token(ngrams.size());
+                tokens.put(token, entry);
+                tokensByLength.computeIfAbsent(token.length(), length -> new TreeSet<>()).add(token);
+                Token added = entry;
+                ngrams.forEach(ngram -> ngramTokens.computeIfAbsent(ngram, n -> new HashSet<>()).add(added));
+            }
+            entry.ids.add(id);
+        }
+    }
+
+    private void remove(Long id) {
+        String[] nameTokens = employeeTokens.remove(id);
+        if (nameTokens == null) {
+            return;
+        }
+        for (String token : nameTokens) {
+            Token entry = tokens.get(token);
+            if (entry != null && entry.ids.remove(id) && entry.ids.isEmpty()) {
+                tokens.remove(token);
+                NavigableSet<String> tokensOfLength = tokensByLength.get(token.length());
+                tokensOfLength.remove(token);
+                if (tokensOfLength.isEmpty()) {
+                    tokensByLength.remove(token.length());
+                }
+                for (String ngram : ngrams(token)) {
+                    Set<Token> tokensOfNgram = ngramTokens.get(ngram);
+                    tokensOfNgram.remove(entry);
+                    if (tokensOfNgram.isEmpty()) {
+                        ngramTokens.remove(ngram);
+                    }
+                }
+            }
+        }
+    }
+
+    static String[] tokenize(String text) {
+        if (text == null) {
+            return new String[0];
+        }
+        String normalized = Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .replace('ł', 'l')
+                .trim();
+        return normalized.isEmpty() ? new String[0] : normalized.split("[\\s-]+");
+    }
+
+    private static Set<String> ngrams(String token) {
+        String padded = " " + token + " ";
+        Set<String> ngrams = new HashSet<>();
+        for (int i = 0; i + NGRAM <= padded.length(); i++) {
+            ngrams.add(padded.substring(i, i + NGRAM));
+        }
+        return ngrams;
+    }
+
+    /**
+     * Employees having the token in their name, by identifier, and number of trigrams of the token. Tokens are
+     * compared by identity, there is one per distinct text.
+     */
+    private static final class Token {
+        private final NavigableSet<Long> ids = new TreeSet<>();
+        private final int ngramCount;
+
+        Token(int ngramCount) {
+            this.ngramCount = ngramCount;
+        }
+    }
+
+    /**
+     * Best matches by score, then by identifier, bounded by the limit. Heap head is the worst kept match.
+     */
+    private static final class TopMatches {
+        private static final Comparator<Match> WORST_FIRST =
+                Comparator.comparingDouble((Match match) -> match.score).thenComparing(match -> -match.id);
+
+        private final int limit;
+        private final PriorityQueue<Match> heap;
+        private final Set<Long> ids = new HashSet<>();
+
+        TopMatches(int limit) {
+            this.limit = limit;
+            this.heap = new PriorityQueue<>(Math.min(limit, 1024), WORST_FIRST);
+        }
+
+        /**
+         * Match of already kept employee is ignored, callers offer the best score of an employee first.
+         *
+         * @return false if the match is worse than every kept match, so is any match of the same score and greater
+         * identifier.
+         */
+        boolean offer(Long id, double score) {
+            if (ids.contains(id)) {
+                return true;
+            }
+            if (heap.size() >= limit) {
+                Match worst = heap.peek();
+                if (score < worst.score || score == worst.score && id > worst.id) {
+                    return false;
+                }
+                ids.remove(heap.poll().id);
+            }
+            heap.add(new Match(id, score));
+            ids.add(id);
+            return true;
+        }
+
+        boolean isFull() {
+            return heap.size() >= limit;
+        }
+
+        /**
+         * @return true if every match of given score would be worse than the kept matches.
+         */
+        boolean rejects(double score) {
+            return isFull() && score < heap.peek().score;
+        }
+
+        List<Long> ids() {
+            List<Match> best = new ArrayList<>(heap);
+            best.sort(WORST_FIRST.reversed());
+            return best.stream().map(match -> match.id).collect(Collectors.toList());
+        }
+    }
+
+    private static final class Match {
+        private final long id;
+        private final double score;
+
+        Match(long id, double score) {
+            this.id = id;
+            this.score = score;
+        }
+    }
+
+    /**
+     * Scores a term against name tokens of one employee the same way as the index does, zero if none matches.
+     */
+    private static final class TermMatcher {
+        private final String term;
+        private final Set<String> termNgrams;
+
+        TermMatcher(String term, boolean fuzzy) {
+            this.term = term;
+            this.termNgrams = fuzzy ? ngrams(term) : null;
+        }
+
+        double score(String[] tokens) {
+            double score = 0.0;
+            for (String token : tokens) {
+                if (token.startsWith(term)) {
+                    score = Math.max(score, 1.0 + (double) term.length() / token.length());
+                }
+            }
+            if (score > 0.0 || termNgrams == null) {
+                return score;
+            }
+            for (String token : tokens) {
+                Set<String> tokenNgrams = ngrams(token);
+                long shared = tokenNgrams.stream().filter(termNgrams::contains).count();
+                double similarity = 2.0 * shared / (termNgrams.size() + tokenNgrams.size());
+                if (similarity >= FUZZY_THRESHOLD) {
+                    score = Math.max(score, similarity);
+                }
+            }
+            return score;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.sda.testing.index;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongPredicate;
+
+/**
+ * Set of employee identifiers kept as bitmap compressed to its non-zero 64-bit words. Words are sorted by position,
+ * so sets are intersected and merged word by word, 64 identifiers per step, without looking at identifiers
+ * themselves. Identifiers are assigned sequentially, so members of the same level or salary bucket share words and a
+ * set costs from 12 bytes per member when sparse down to 12 bytes per 64 members when dense.
+ * <p>
+ * Not thread safe, guarded by the owning index.
+ */
+final class IdBitmap {
+    private static final int WORD_BITS = 6;
+    private static final long MAX_ID = ((long) Integer.MAX_VALUE << WORD_BITS) | 63;
+    private static final int DENSE_RANGE_PER_WORD = 4;
+    private static final int[] NO_KEYS = new int[0];
+    private static final long[] NO_WORDS = new long[0];
+
+    // position of word, identifier divided by 64, ascending
+    private int[] keys;
+    // never zero
+    private long[] words;
+    private int size;
+
+    IdBitmap() {
+        this(NO_KEYS, NO_WORDS, 0);
+    }
+
+    private IdBitmap(int[] keys, long[] words, int size) {
+        this.keys = keys;
+        this.words = words;
+        this.size = size;
+    }
+
+    void add(long id) {
+        int key = keyOf(id);
+        int index = Arrays.binarySearch(keys, 0, size, key);
+        if (index >= 0) {
+            words[index] |= bitOf(id);
+            return;
+        }
+        int insertion = -index - 1;
+        if (size == keys.length) {
+            int capacity = Math.max(4, size + (size >> 1));
+            keys = Arrays.copyOf(keys, capacity);
+            words = Arrays.copyOf(words, capacity);
+        }
+        System.arraycopy(keys, insertion, keys, insertion + 1, size - insertion);
+        System.arraycopy(words, insertion, words, insertion + 1, size - insertion);
+        keys[insertion] = key;
+        words[insertion] = bitOf(id);
+        size++;
+    }
+
+    void remove(long id) {
+        int index = Arrays.binarySearch(keys, 0, size, keyOf(id));
+        if (index < 0) {
+            return;
+        }
+        words[index] &= ~bitOf(id);
+        if (words[index] == 0) {
+            System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+            System.arraycopy(words, index + 1, words, index, size - index - 1);
+            size--;
+        }
+    }
+
+    boolean contains(long id) {
+        int index = Arrays.binarySearch(keys, 0, size, keyOf(id));
+        return index >= 0 && (words[index] & bitOf(id)) != 0;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return number of identifiers in the set.
+     */
+    int cardinality() {
+        int cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += Long.bitCount(words[i]);
+        }
+        return cardinality;
+    }
+
+    /**
+     * @return identifiers in the set, ascending.
+     */
+    long[] toIds() {
+        long[] ids = new long[cardinality()];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            long base = (long) keys[i] << WORD_BITS;
+            for (long word = words[i]; word != 0; word &= word - 1) {
+                ids[count++] = base | Long.numberOfTrailingZeros(word);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * @param filter - condition on identifier.
+     * @return new set of identifiers of this set which satisfy the condition.
+     */
+    IdBitmap filter(LongPredicate filter) {
+        IdBitmap result = new IdBitmap(new int[size], new long[size], 0);
+        for (int i = 0; i < size; i++) {
+            long base = (long) keys[i] << WORD_BITS;
+            long kept = 0;
+            for (long word = words[i]; word != 0; word &= word - 1) {
+                int bit = Long.numberOfTrailingZeros(word);
+                if (filter.test(base | bit)) {
+                    kept |= 1L << bit;
+                }
+            }
+            result.append(keys[i], kept);
+        }
+        return result;
+    }
+
+    /**
+     * @return new set of identifiers which are in both sets.
+     */
+    static IdBitmap and(IdBitmap left, IdBitmap right) {
+        IdBitmap result = new IdBitmap(new int[Math.min(left.size, right.size)],
+                new long[Math.min(left.size, right.size)], 0);
+        int i = 0;
+        int j = 0;
+        while (i < left.size && j < right.size) {
+            if (left.keys[i] < right.keys[j]) {
+                i++;
+            } else if (left.keys[i] > right.keys[j]) {
+                j++;
+            } else {
+                result.append(left.keys[i], left.words[i++] & right.words[j++]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return new set of identifiers which are in any of the sets.
+     */
+    static IdBitmap or(IdBitmap left, IdBitmap right) {
+        IdBitmap result = new IdBitmap(new int[left.size + right.size], new long[left.size + right.size], 0);
+        int i = 0;
+        int j = 0;
+        while (i < left.size || j < right.size) {
+            if (j == right.size || (i < left.size && left.keys[i] < right.keys[j])) {
+                result.append(left.keys[i], left.words[i++]);
+            } else if (i == left.size || left.keys[i] > right.keys[j]) {
+                result.append(right.keys[j], right.words[j++]);
+            } else {
+                result.append(left.keys[i], left.words[i++] | right.words[j++]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * If words of all sets span a range not much longer than their number, they are OR-ed into one uncompressed
+     * array and compressed once. Otherwise sets are merged pairwise, so every word is copied once per halving instead
+     * of once per merged set.
+     *
+     * @return new set of identifiers which are in any of given sets.
+     */
+    static IdBitmap or(List<IdBitmap> bitmaps) {
+        int minKey = Integer.MAX_VALUE;
+        int maxKey = Integer.MIN_VALUE;
+        long words = 0;
+        for (IdBitmap bitmap : bitmaps) {
+            if (bitmap.size > 0) {
+                minKey = Math.min(minKey, bitmap.keys[0]);
+                maxKey = Math.max(maxKey, bitmap.keys[bitmap.size - 1]);
+                words += bitmap.size;
+            }
+        }
+        if (words == 0) {
+            return new IdBitmap();
+        }
+        long range = (long) maxKey - minKey + 1;
+        if (range <= DENSE_RANGE_PER_WORD * words) {
+            return orDense(bitmaps, minKey, (int) range);
+        }
+        return orPairwise(bitmaps);
+    }
+
+    private static IdBitmap orDense(List<IdBitmap> bitmaps, int minKey, int range) {
+        long[] dense = new long[range];
+        for (IdBitmap bitmap : bitmaps) {
+            for (int i = 0; i < bitmap.size; i++) {
+                dense[bitmap.keys[i] - minKey] |= bitmap.words[i];
+            }
+        }
+        int size = 0;
+        for (long word : dense) {
+            size += word != 0 ? 1 : 0;
+        }
+        IdBitmap result = new IdBitmap(new int[size], new long[size], 0);
+        for (int i = 0; i < range; i++) {
+            result.append(minKey + i, dense[i]);
+        }
+        return result;
+    }
+
+    private static IdBitmap orPairwise(List<IdBitmap> bitmaps) {
+        if (bitmaps.size() == 1) {
+            return bitmaps.get(0).copy();
+        }
+        int half = bitmaps.size() / 2;
+        return or(orPairwise(bitmaps.subList(0, half)), orPairwise(bitmaps.subList(half, bitmaps.size())));
+    }
+
+    IdBitmap copy() {
+        return new IdBitmap(Arrays.copyOf(keys, size), Arrays.copyOf(words, size), size);
+    }
+
+    private void append(int key, long word) {
+        if (word != 0) {
+            keys[size] = key;
+            words[size] = word;
+            size++;
+        }
+    }
+
+    private static int keyOf(long id) {
+        if (id < 0 || id > MAX_ID) {
+            throw new IllegalArgumentException("Identifier out of bitmap range: " + id);
+        }
+        return (int) (id >>> WORD_BITS);
+    }
+
+    private static long bitOf(long id) {
+        return 1L << id;
+    }
+}
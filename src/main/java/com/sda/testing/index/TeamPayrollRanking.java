@@ -0,0 +1,171 @@
+package com.sda.testing.index;
+
+import com.sda.testing.event.ChangeType;
+import com.sda.testing.event.EmployeeChangedEvent;
+import com.sda.testing.event.EmployeesChangedEvent;
+import com.sda.testing.event.TeamChangedEvent;
+import com.sda.testing.model.Employee;
+import com.sda.testing.model.Team;
+import com.sda.testing.model.TeamRankingDto;
+import com.sda.testing.model.TeamRankingOrder;
+import com.sda.testing.payroll.Money;
+
+import java.util.*;
+
+/**
+ * Teams sorted by payroll, head count and average salary. Every membership or salary change moves at most two teams
+ * in each ordering, so maintaining the ranking costs O(log n) and reading a page of k teams costs O(offset + k).
+ */
+public class TeamPayrollRanking {
+    private static final Comparator<TeamEntry> BY_ID = Comparator.comparingLong(TeamEntry::getTeamId);
+
+    private final Map<Long, TeamEntry> teams = new HashMap<>();
+    private final Map<Long, Membership> memberships = new HashMap<>();
+    private final Map<TeamRankingOrder, NavigableSet<TeamEntry>> rankings = new EnumMap<>(TeamRankingOrder.class);
+
+    public TeamPayrollRanking() {
+        rankings.put(TeamRankingOrder.TOTAL_SALARY, new TreeSet<>(
+                Comparator.comparingLong(TeamEntry::getTotalSalaryCents).reversed().thenComparing(BY_ID)));
+        rankings.put(TeamRankingOrder.HEAD_COUNT, new TreeSet<>(
+                Comparator.comparingInt(TeamEntry::getHeadCount).reversed().thenComparing(BY_ID)));
+        rankings.put(TeamRankingOrder.AVERAGE_SALARY, new TreeSet<>(
+                Comparator.comparingDouble(TeamEntry::getAverageSalary).reversed().thenComparing(BY_ID)));
+    }
+
+    /**
+     * Replace content of the ranking with given teams and employees.
+     *
+     * @param teamList     - all teams of the company.
+     * @param employeeList - all employees of the company.
+     */
+    public synchronized void rebuild(Collection<Team> teamList, Collection<Employee> employeeList) {
+        teams.clear();
+        memberships.clear();
+        rankings.values().forEach(Set::clear);
+        teamList.forEach(team -> replace(team.getId(), new TeamEntry(team.getId(), team.getName(), 0, 0)));
+        employeeList.stream()
+                .filter(employee -> employee.getTeam() != null)
+                .forEach(employee -> join(employee.getId(), employee.getTeam().getId(), employee.getSalaryCents()));
+    }
+
+    public synchronized void onEmployeeChanged(EmployeeChangedEvent event) {
+        Membership previous = memberships.remove(event.getEmployeeId());
+        if (previous != null) {
+            TeamEntry entry = teams.get(previous.teamId);
+            if (entry != null) {
+                replace(previous.teamId, entry.withMember(-1, -previous.salaryCents));
+            }
+        }
+        if (event.getType() != ChangeType.DELETED && event.getTeamId() != null) {
+            join(event.getEmployeeId(), event.getTeamId(), event.getSalaryCents());
+        }
+    }
+
+    public synchronized void onEmployeesChanged(EmployeesChangedEvent event) {
+        event.getChanges().forEach(this::onEmployeeChanged);
+    }
+
+    public synchronized void onTeamChanged(TeamChangedEvent event) {
+        TeamEntry entry = teams.get(event.getTeamId());
+        if (event.getType() == ChangeType.DELETED) {
+            if (entry != null) {
+                rankings.values().forEach(ranking -> ranking.remove(entry));
+                teams.remove(event.getTeamId());
+            }
+        } else if (entry == null) {
+            replace(event.getTeamId(), new TeamEntry(event.getTeamId(), event.getName(), 0, 0));
+        } else {
+            replace(event.getTeamId(), new TeamEntry(event.getTeamId(), event.getName(),
+                    entry.getHeadCount(), entry.getTotalSalaryCents()));
+        }
+    }
+
+    /**
+     * Read single page of the ranking.
+     *
+     * @param order  - ordering of teams, best first.
+     * @param offset - number of teams to skip.
+     * @param limit  - maximal number of returned teams.
+     * @return ranking page.
+     */
+    public synchronized List<TeamRankingDto> page(TeamRankingOrder order, int offset, int limit) {
+        List<TeamRankingDto> page = new ArrayList<>(Math.min(limit, teams.size()));
+        Iterator<TeamEntry> iterator = rankings.get(order).iterator();
+        for (int skipped = 0; skipped < offset && iterator.hasNext(); skipped++) {
+            iterator.next();
+        }
+        while (page.size() < limit && iterator.hasNext()) {
+            TeamEntry entry = iterator.next();
+            page.add(new TeamRankingDto(entry.getName(), entry.getHeadCount(),
+                    Money.toAmount(entry.getTotalSalaryCents()), entry.getAverageSalary()));
+        }
+        return page;
+    }
+
+    private void join(Long employeeId, Long teamId, long salaryCents) {
+        memberships.put(employeeId, new Membership(teamId, salaryCents));
+        TeamEntry entry = teams.getOrDefault(teamId, new TeamEntry(teamId, null, 0, 0));
+        replace(teamId, entry.withMember(1, salaryCents));
+    }
+
+    private void replace(Long teamId, TeamEntry entry) {
+        TeamEntry previous = teams.put(teamId, entry);
+        for (NavigableSet<TeamEntry> ranking : rankings.values()) {
+            if (previous != null) {
+                ranking.remove(previous);
+            }
+            ranking.add(entry);
+        }
+    }
+
+    private static final class Membership {
+        private final long teamId;
+        private final long salaryCents;
+
+        private Membership(long teamId, long salaryCents) {
+            this.teamId = teamId;
+            this.salaryCents = salaryCents;
+        }
+    }
+
+    /**
+     * Immutable state of single team, replaced on every change so sorted sets stay consistent.
+     */
+    private static final class TeamEntry {
+        private final long teamId;
+        private final String name;
+        private final int headCount;
+        private final long totalSalaryCents;
+
+        private TeamEntry(long teamId, String name, int headCount, long totalSalaryCents) {
+            this.teamId = teamId;
+            this.name = name;
+            this.headCount = headCount;
+            this.totalSalaryCents = totalSalaryCents;
+        }
+
+        private TeamEntry withMember(int headCountDelta, long salaryCentsDelta) {
+            return new TeamEntry(teamId, name, headCount + headCountDelta, totalSalaryCents + salaryCentsDelta);
+        }
+
+        private long getTeamId() {
+            return teamId;
+        }
+
+        private String getName() {
+            return name;
+        }
+
+        private int getHeadCount() {
+            return headCount;
+        }
+
+        private long getTotalSalaryCents() {
+            return totalSalaryCents;
+        }
+
+        private double getAverageSalary() {
+            return headCount == 0 ? 0 : Money.toAmount(totalSalaryCents) / headCount;
+        }
+    }
+}
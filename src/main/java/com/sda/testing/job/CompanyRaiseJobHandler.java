@@ -0,0 +1,65 @@
+package com.sda.testing.job;
+
+import com.sda.testing.journal.SalaryJournal;
+import com.sda.testing.model.Employee;
+import com.sda.testing.model.Job;
+import com.sda.testing.model.JobType;
+import com.sda.testing.model.SalaryChange;
+import com.sda.testing.payroll.Money;
+import com.sda.testing.repository.EmployeeRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Raises salaries of all employees, or of employees on given level. Raised salaries of a chunk are written to salary
+ * journal once the chunk is committed, as the journal can't be rolled back.
+ */
+@Component
+@RequiredArgsConstructor
+public class CompanyRaiseJobHandler implements JobHandler {
+    private final EmployeeRepository employeeRepository;
+    private final SalaryJournal salaryJournal;
+
+    @Override
+    public JobType type() {
+        return JobType.COMPANY_RAISE;
+    }
+
+    @Override
+    public long total(Job job) {
+        return job.getLevel() == null ? employeeRepository.count() : employeeRepository.countByLevel(job.getLevel());
+    }
+
+    @Override
+    public boolean processChunk(Job job, int chunkSize) {
+        PageRequest page = PageRequest.of(0, chunkSize);
+        List<Employee> chunk = job.getLevel() == null
+                ? employeeRepository.findByIdGreaterThanOrderByIdAsc(job.getCursor(), page)
+                : employeeRepository.findByLevelAndIdGreaterThanOrderByIdAsc(job.getLevel(), job.getCursor(), page);
+        List<SalaryChange> changes = new ArrayList<>(chunk.size());
+        for (Employee employee : chunk) {
+            double oldSalary = employee.getSalary();
+            employee.setSalaryCents(Money.addPercent(employee.getSalaryCents(), job.getPercentRaise()));
+            changes.add(new SalaryChange(employee.getId(), oldSalary, employee.getSalary(), employee.getLevel(), 0));
+        }
+        employeeRepository.saveAll(chunk);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                changes.forEach(change -> salaryJournal.append(change.getEmployeeId(), change.getOldSalary(),
+                        change.getNewSalary(), change.getLevel()));
+            }
+        });
+        if (!chunk.isEmpty()) {
+            job.setCursor(chunk.get(chunk.size() - 1).getId());
+            job.setProcessed(job.getProcessed() + chunk.size());
+        }
+        return chunk.size() < chunkSize;
+    }
+}
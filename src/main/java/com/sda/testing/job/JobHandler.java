@@ -0,0 +1,39 @@
+package com.sda.testing.job;
+
+import com.sda.testing.model.Job;
+import com.sda.testing.model.JobType;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Work of one type of job, done one chunk at a time. Chunks are processed inside a transaction which also commits
+ * cursor and progress of the job.
+ */
+public interface JobHandler {
+
+    JobType type();
+
+    /**
+     * @param job - submitted job.
+     * @return estimated number of items the job will process.
+     */
+    long total(Job job);
+
+    /**
+     * Process items following job cursor, then move the cursor and progress of the job past them.
+     *
+     * @param job       - job being run, changes to it are committed with the chunk.
+     * @param chunkSize - maximal number of processed items.
+     * @return true if there is nothing left to process.
+     */
+    boolean processChunk(Job job, int chunkSize);
+
+    /**
+     * @param job - succeeded job.
+     * @return file holding result of the job, if the job produces one.
+     */
+    default Optional<Path> result(Job job) {
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,98 @@
+package com.sda.testing.job;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.sda.testing.model.Employee;
+import com.sda.testing.model.EmployeeSalaryDto;
+import com.sda.testing.model.Job;
+import com.sda.testing.model.JobType;
+import com.sda.testing.repository.EmployeeRepository;
+import com.sda.testing.service.PayrollService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Writes net and gross salaries of all employees to a JSON lines file, in the format of payroll endpoint. Length of
+ * the file is committed with every chunk; a resumed job cuts off whatever was written after the last committed chunk.
+ */
+@Component
+public class PayrollExportJobHandler implements JobHandler {
+    private final EmployeeRepository employeeRepository;
+    private final PayrollService payrollService;
+    private final ObjectWriter lineWriter;
+    private final Path directory;
+
+    public PayrollExportJobHandler(EmployeeRepository employeeRepository,
+                                   PayrollService payrollService,
+                                   ObjectMapper objectMapper,
+                                   @Value("${jobs.directory:jobs}") String directory) {
+        this.employeeRepository = employeeRepository;
+        this.payrollService = payrollService;
+        this.lineWriter = objectMapper.writerFor(EmployeeSalaryDto.class);
+        this.directory = Paths.get(directory);
+    }
+
+    @Override
+    public JobType type() {
+        return JobType.PAYROLL_EXPORT;
+    }
+
+    @Override
+    public long total(Job job) {
+        return employeeRepository.count();
+    }
+
+    @Override
+    public boolean processChunk(Job job, int chunkSize) {
+        List<Employee> chunk = employeeRepository.findByIdGreaterThanOrderByIdAsc(job.getCursor(),
+                PageRequest.of(0, chunkSize));
+        try {
+            ByteArrayOutputStream lines = new ByteArrayOutputStream();
+            for (EmployeeSalaryDto salary : payrollService.computeSalaries(chunk)) {
+                lineWriter.writeValue(lines, salary);
+                lines.write('\n');
+            }
+            Files.createDirectories(directory);
+            try (FileChannel channel = FileChannel.open(resultFile(job),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                channel.truncate(job.getResultBytes());
+                channel.position(job.getResultBytes());
+                ByteBuffer buffer = ByteBuffer.wrap(lines.toByteArray());
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            }
+            job.setResultBytes(job.getResultBytes() + lines.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (!chunk.isEmpty()) {
+            job.setCursor(chunk.get(chunk.size() - 1).getId());
+            job.setProcessed(job.getProcessed() + chunk.size());
+        }
+        return chunk.size() < chunkSize;
+    }
+
+    @Override
+    public Optional<Path> result(Job job) {
+        return Optional.of(resultFile(job));
+    }
+
+    private Path resultFile(Job job) {
+        return directory.resolve("payroll-" + job.getId() + ".ndjson");
+    }
+}
@@ -0,0 +1,176 @@
+package com.sda.testing.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Log of raises accepted but not yet written to database. Every record is forced to disk before raise is
+ * acknowledged. Before flush the active file is rolled, so raises accepted during flush land in a new file; rolled
+ * file is deleted once flush committed, otherwise it is kept and rolled together with the next one.
+ * <p>
+ * Rolled file starts with identifier of the batch, which is saved by the flush in the same transaction as the raises.
+ * If the batch is found applied on recovery, the application stopped between commit and deletion of the rolled file,
+ * and its raises are not replayed again. Rolling writes a new rolled file next to the old one, which replaces it only
+ * after the active file is deleted, so a crash while rolling leaves either the old or the new pair of files.
+ */
+public class RaiseWriteAheadLog {
+    private static final int RECORD_SIZE = 16;
+
+    private final Path activeFile;
+    private final Path rolledFile;
+    private final Path nextRolledFile;
+    private FileChannel channel;
+
+    public RaiseWriteAheadLog(Path directory) {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.activeFile = directory.resolve("raises.wal");
+        this.rolledFile = directory.resolve("raises.wal.flushing");
+        this.nextRolledFile = directory.resolve("raises.wal.flushing.next");
+    }
+
+    /**
+     * Read raises left by previous run, rolled file first, and open log for appending.
+     *
+     * @param applied  - tells whether batch of given identifier was already written to database.
+     * @param consumer - receives employee id and raise percent of every recovered raise.
+     */
+    public synchronized void recover(Predicate<UUID> applied, BiConsumer<Long, Double> consumer) {
+        try {
+            if (Files.exists(nextRolledFile)) {
+                if (Files.exists(activeFile)) {
+                    Files.delete(nextRolledFile);
+                } else {
+                    Files.move(nextRolledFile, rolledFile, StandardCopyOption.ATOMIC_MOVE,
+                            StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            if (Files.exists(rolledFile)) {
+                ByteBuffer rolled = readAll(rolledFile);
+                if (rolled.remaining() >= RECORD_SIZE
+                        && applied.test(new UUID(rolled.getLong(), rolled.getLong()))) {
+                    Files.delete(rolledFile);
+                } else {
+                    forEachRaise(rolled, consumer);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (Files.exists(activeFile)) {
+            forEachRaise(readAll(activeFile), consumer);
+        }
+        channel = open(activeFile);
+    }
+
+    public synchronized void append(long employeeId, double salaryRaisePercent) {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        record.putLong(employeeId).putDouble(salaryRaisePercent).flip();
+        try {
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Move all appended raises to the rolled file and start a new active file. Records of previous rolled file are
+     * kept, so raises of a failed flush are not lost.
+     *
+     * @return identifier of the batch of all raises in the rolled file.
+     */
+    public synchronized UUID roll() {
+        UUID batchId = UUID.randomUUID();
+        try {
+            channel.close();
+            try (FileChannel next = FileChannel.open(nextRolledFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer header = ByteBuffer.allocate(RECORD_SIZE);
+                header.putLong(batchId.getMostSignificantBits()).putLong(batchId.getLeastSignificantBits()).flip();
+                while (header.hasRemaining()) {
+                    next.write(header);
+                }
+                if (Files.exists(rolledFile)) {
+                    transfer(rolledFile, RECORD_SIZE, next);
+                }
+                transfer(activeFile, 0, next);
+                next.force(false);
+            }
+            Files.delete(activeFile);
+            Files.move(nextRolledFile, rolledFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        channel = open(activeFile);
+        return batchId;
+    }
+
+    /**
+     * Forget raises of the rolled file, called once they are written to database.
+     */
+    public synchronized void commitRolled() {
+        try {
+            Files.deleteIfExists(rolledFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public synchronized void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static FileChannel open(Path file) {
+        try {
+            return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void transfer(Path file, long from, FileChannel target) throws IOException {
+        try (FileChannel source = FileChannel.open(file, StandardOpenOption.READ)) {
+            for (long position = from; position < source.size(); ) {
+                position += source.transferTo(position, source.size() - position, target);
+            }
+        }
+    }
+
+    private static ByteBuffer readAll(Path file) {
+        try (FileChannel input = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer records = ByteBuffer.allocate((int) input.size());
+            while (records.hasRemaining() && input.read(records) >= 0) {
+                // read whole file
+            }
+            records.flip();
+            return records;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void forEachRaise(ByteBuffer records, BiConsumer<Long, Double> consumer) {
+        while (records.remaining() >= RECORD_SIZE) {
+            consumer.accept(records.getLong(), records.getDouble());
+        }
+    }
+}
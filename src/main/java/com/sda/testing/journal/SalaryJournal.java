@@ -0,0 +1,225 @@
+package com.sda.testing.journal;
+
+import com.sda.testing.model.EmployeeLevel;
+import com.sda.testing.model.SalaryChange;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Append-only journal of salary changes. Records have fixed size and are written to memory-mapped segment files,
+ * a new segment is created when the current one is full. Positions of records of every employee are kept in memory,
+ * so history of single employee can be read without scanning the whole journal.
+ */
+@Component
+public class SalaryJournal {
+    static final int RECORD_SIZE = 40;
+
+    private static final int EMPLOYEE_ID_OFFSET = 0;
+    private static final int OLD_SALARY_OFFSET = 8;
+    private static final int NEW_SALARY_OFFSET = 16;
+    private static final int TIMESTAMP_OFFSET = 24;
+    private static final int LEVEL_OFFSET = 32;
+    private static final int COMMIT_OFFSET = 36;
+    private static final int COMMIT_MARKER = 0x5A1A4C01;
+    private static final int NO_LEVEL = -1;
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private final Path directory;
+    private final int recordsPerSegment;
+
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private final Map<Long, List<Long>> employeeIndex = new HashMap<>();
+    private long nextSequence;
+
+    public SalaryJournal(@Value("${journal.salary.directory:journal/salary}") String directory,
+                         @Value("${journal.salary.records-per-segment:65536}") int recordsPerSegment) {
+        this.directory = Paths.get(directory);
+        this.recordsPerSegment = recordsPerSegment;
+    }
+
+    /**
+     * Map existing segments and rebuild index of records. Called once on startup.
+     * <p>
+     * Every segment is scanned, sequence of a slot is given by position of its segment, so a torn record does not
+     * shift numbering of records in later segments. Torn records before the last committed one are cleared and
+     * skipped, everything after the last committed record is truncated and overwritten by next appends.
+     */
+    @PostConstruct
+    public synchronized void open() {
+        try {
+            Files.createDirectories(directory);
+            for (Path segmentFile : listSegmentFiles()) {
+                segments.add(map(segmentFile));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        nextSequence = 0;
+        for (int segmentNumber = 0; segmentNumber < segments.size(); segmentNumber++) {
+            MappedByteBuffer segment = segments.get(segmentNumber);
+            long firstSequence = (long) segmentNumber * recordsPerSegment;
+            for (int slot = 0; slot < recordsPerSegment; slot++) {
+                if (isCommitted(segment, slot)) {
+                    indexRecord(segment.getLong(slot * RECORD_SIZE + EMPLOYEE_ID_OFFSET), firstSequence + slot);
+                    nextSequence = firstSequence + slot + 1;
+                }
+            }
+        }
+        long end = (long) segments.size() * recordsPerSegment;
+        for (long sequence = 0; sequence < end; sequence++) {
+            MappedByteBuffer segment = segments.get((int) (sequence / recordsPerSegment));
+            int slot = (int) (sequence % recordsPerSegment);
+            if (!isCommitted(segment, slot)) {
+                clear(segment, slot);
+            }
+        }
+    }
+
+    /**
+     * Flush all segments to disk.
+     */
+    @PreDestroy
+    public synchronized void close() {
+        segments.forEach(MappedByteBuffer::force);
+    }
+
+    /**
+     * Append salary change to the end of journal.
+     *
+     * @param employeeId - employee which salary changed.
+     * @param oldSalary  - salary before the change.
+     * @param newSalary  - salary after the change.
+     * @param level      - employee level after the change, can be null.
+     */
+    public synchronized void append(long employeeId, double oldSalary, double newSalary, EmployeeLevel level) {
+        int segmentNumber = (int) (nextSequence / recordsPerSegment);
+        if (segmentNumber == segments.size()) {
+            segments.add(createSegment(nextSequence));
+        }
+        ByteBuffer segment = segments.get(segmentNumber);
+        int position = (int) (nextSequence % recordsPerSegment) * RECORD_SIZE;
+
+        segment.putLong(position + EMPLOYEE_ID_OFFSET, employeeId);
+        segment.putDouble(position + OLD_SALARY_OFFSET, oldSalary);
+        segment.putDouble(position + NEW_SALARY_OFFSET, newSalary);
+        segment.putLong(position + TIMESTAMP_OFFSET, System.currentTimeMillis());
+        segment.putInt(position + LEVEL_OFFSET, level == null ? NO_LEVEL : level.ordinal());
+        segment.putInt(position + COMMIT_OFFSET, COMMIT_MARKER);
+
+        indexRecord(employeeId, nextSequence);
+        nextSequence++;
+    }
+
+    /**
+     * Read all records in order in which they were appended, torn records cleared on recovery are skipped.
+     *
+     * @param consumer - receives every record of the journal.
+     */
+    public void replay(Consumer<SalaryChange> consumer) {
+        long size;
+        List<MappedByteBuffer> segmentsSnapshot;
+        synchronized (this) {
+            size = nextSequence;
+            segmentsSnapshot = new ArrayList<>(segments);
+        }
+        for (long sequence = 0; sequence < size; sequence++) {
+            ByteBuffer segment = segmentsSnapshot.get((int) (sequence / recordsPerSegment));
+            if (isCommitted(segment, (int) (sequence % recordsPerSegment))) {
+                consumer.accept(read(segmentsSnapshot, sequence));
+            }
+        }
+    }
+
+    /**
+     * Return all salary changes of given employee, oldest first.
+     *
+     * @param employeeId - employee identifier.
+     * @return list of salary changes, empty if employee salary never changed.
+     */
+    public synchronized List<SalaryChange> history(long employeeId) {
+        List<Long> sequences = employeeIndex.getOrDefault(employeeId, Collections.emptyList());
+        List<SalaryChange> changes = new ArrayList<>(sequences.size());
+        for (Long sequence : sequences) {
+            changes.add(read(segments, sequence));
+        }
+        return changes;
+    }
+
+    /**
+     * @return number of records in the journal, torn records cleared on recovery included.
+     */
+    public synchronized long size() {
+        return nextSequence;
+    }
+
+    private SalaryChange read(List<MappedByteBuffer> segmentList, long sequence) {
+        ByteBuffer segment = segmentList.get((int) (sequence / recordsPerSegment));
+        int position = (int) (sequence % recordsPerSegment) * RECORD_SIZE;
+        int level = segment.getInt(position + LEVEL_OFFSET);
+        return new SalaryChange(
+                segment.getLong(position + EMPLOYEE_ID_OFFSET),
+                segment.getDouble(position + OLD_SALARY_OFFSET),
+                segment.getDouble(position + NEW_SALARY_OFFSET),
+                level == NO_LEVEL ? null : EmployeeLevel.values()[level],
+                segment.getLong(position + TIMESTAMP_OFFSET));
+    }
+
+    private boolean isCommitted(ByteBuffer segment, int slot) {
+        return segment.getInt(slot * RECORD_SIZE + COMMIT_OFFSET) == COMMIT_MARKER;
+    }
+
+    private void clear(ByteBuffer segment, int slot) {
+        for (int position = slot * RECORD_SIZE; position < (slot + 1) * RECORD_SIZE; position += Long.BYTES) {
+            if (segment.getLong(position) != 0L) {
+                segment.putLong(position, 0L);
+            }
+        }
+    }
+
+    private void indexRecord(long employeeId, long sequence) {
+        employeeIndex.computeIfAbsent(employeeId, id -> new ArrayList<>()).add(sequence);
+    }
+
+    private List<Path> listSegmentFiles() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            stream.forEach(files::add);
+        }
+        Collections.sort(files);
+        return files;
+    }
+
+    private MappedByteBuffer createSegment(long firstSequence) {
+        try {
+            return map(directory.resolve(String.format("%020d%s", firstSequence, SEGMENT_SUFFIX)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private MappedByteBuffer map(Path segmentFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentFile,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) recordsPerSegment * RECORD_SIZE);
+        }
+    }
+}
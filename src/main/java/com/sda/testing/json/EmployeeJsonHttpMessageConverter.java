@@ -0,0 +1,58 @@
+package com.sda.testing.json;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.sda.testing.model.ResponseMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * JSON converter writing employee lists and team info with {@link EmployeeJsonWriter}, and everything else with
+ * Jackson databind. Writer is used only while object mapper is configured the way it expects, otherwise all
+ * responses are written by databind.
+ */
+public class EmployeeJsonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+    private final boolean streamingSupported;
+
+    public EmployeeJsonHttpMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+        JsonInclude.Include inclusion = objectMapper.getSerializationConfig().getDefaultPropertyInclusion()
+                .getValueInclusion();
+        this.streamingSupported = !objectMapper.isEnabled(SerializationFeature.INDENT_OUTPUT)
+                && !objectMapper.isEnabled(SerializationFeature.WRITE_ENUMS_USING_INDEX)
+                && !objectMapper.isEnabled(SerializationFeature.WRITE_ENUMS_USING_TO_STRING)
+                && objectMapper.getPropertyNamingStrategy() == null
+                && (inclusion == JsonInclude.Include.ALWAYS || inclusion == JsonInclude.Include.USE_DEFAULTS);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        if (!isStreamed(object, outputMessage.getHeaders().getContentType())) {
+            super.writeInternal(object, type, outputMessage);
+            return;
+        }
+        try (JsonGenerator generator = getObjectMapper().getFactory()
+                .createGenerator(StreamUtils.nonClosing(outputMessage.getBody()), JsonEncoding.UTF8)) {
+            EmployeeJsonWriter.write((ResponseMessage<?>) object, generator);
+        }
+    }
+
+    private boolean isStreamed(Object object, MediaType contentType) {
+        return streamingSupported
+                && object instanceof ResponseMessage
+                && EmployeeJsonWriter.supports(((ResponseMessage<?>) object).getBody())
+                && (contentType == null || contentType.getCharset() == null
+                || StandardCharsets.UTF_8.equals(contentType.getCharset()));
+    }
+}
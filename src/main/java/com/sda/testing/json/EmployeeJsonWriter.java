@@ -0,0 +1,214 @@
+package com.sda.testing.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.sda.testing.model.Employee;
+import com.sda.testing.model.EmployeeDto;
+import com.sda.testing.model.EmployeeLevel;
+import com.sda.testing.model.ResponseMessage;
+import com.sda.testing.model.TeamDto;
+import com.sda.testing.payroll.Money;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes responses holding list of employees or team info with streaming generator, field by field in the order
+ * Jackson databind writes them, so output is the same. Field names and levels are encoded once, identifiers and
+ * salaries are written from primitives, so writing an employee allocates nothing. Generator writes to the response
+ * stream through buffers recycled by its factory.
+ */
+public final class EmployeeJsonWriter {
+    private static final SerializedString BODY = new SerializedString("body");
+    private static final SerializedString MESSAGE = new SerializedString("message");
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString FIRST_NAME = new SerializedString("firstName");
+    private static final SerializedString LAST_NAME = new SerializedString("lastName");
+    private static final SerializedString LEVEL = new SerializedString("level");
+    private static final SerializedString MANAGER_ID = new SerializedString("managerId");
+    private static final SerializedString SALARY = new SerializedString("salary");
+    private static final SerializedString NAME = new SerializedString("name");
+    private static final SerializedString WORKERS = new SerializedString("workers");
+    private static final SerializedString MANAGER = new SerializedString("manager");
+    private static final SerializedString LEAD = new SerializedString("lead");
+    private static final SerializedString SURNAME = new SerializedString("surname");
+    private static final SerializedString GROSS_SALARY = new SerializedString("grossSalary");
+    private static final SerializedString[] LEVELS = Arrays.stream(EmployeeLevel.values())
+            .map(level -> new SerializedString(level.name()))
+            .toArray(SerializedString[]::new);
+
+    /**
+     * Double.toString writes numbers below 10^7 in plain notation, for amounts in cents it's below 10^9.
+     */
+    private static final long PLAIN_CENTS_LIMIT = 1_000_000_000L;
+    private static final int AMOUNT_LENGTH = 16;
+
+    private EmployeeJsonWriter() {
+    }
+
+    /**
+     * @param body - body of response message.
+     * @return true if body is list of employees or team info. Subclasses of employee, like Hibernate proxies, are
+     * left to Jackson databind.
+     */
+    public static boolean supports(Object body) {
+        if (body instanceof TeamDto) {
+            return true;
+        }
+        if (!(body instanceof List)) {
+            return false;
+        }
+        for (Object element : (List<?>) body) {
+            if (element != null && element.getClass() != Employee.class) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param response  - response message, of which body is {@link #supports supported}.
+     * @param generator - generator writing to the response.
+     */
+    public static void write(ResponseMessage<?> response, JsonGenerator generator) throws IOException {
+        char[] amount = new char[AMOUNT_LENGTH];
+        generator.writeStartObject();
+        generator.writeFieldName(BODY);
+        if (response.getBody() instanceof TeamDto) {
+            writeTeam((TeamDto) response.getBody(), generator, amount);
+        } else {
+            writeEmployees((List<?>) response.getBody(), generator, amount);
+        }
+        generator.writeFieldName(MESSAGE);
+        generator.writeString(response.getMessage());
+        generator.writeEndObject();
+    }
+
+    private static void writeEmployees(List<?> employees, JsonGenerator generator, char[] amount)
+            throws IOException {
+        generator.writeStartArray();
+        for (Object employee : employees) {
+            if (employee == null) {
+                generator.writeNull();
+            } else {
+                writeEmployee((Employee) employee, generator, amount);
+            }
+        }
+        generator.writeEndArray();
+    }
+
+    private static void writeEmployee(Employee employee, JsonGenerator generator, char[] amount) throws IOException {
+        generator.writeStartObject();
+        generator.writeFieldName(ID);
+        writeNumber(employee.getId(), generator);
+        generator.writeFieldName(FIRST_NAME);
+        generator.writeString(employee.getFirstName());
+        generator.writeFieldName(LAST_NAME);
+        generator.writeString(employee.getLastName());
+        generator.writeFieldName(LEVEL);
+        if (employee.getLevel() == null) {
+            generator.writeNull();
+        } else {
+            generator.writeString(LEVELS[employee.getLevel().ordinal()]);
+        }
+        generator.writeFieldName(MANAGER_ID);
+        writeNumber(employee.getManagerId(), generator);
+        generator.writeFieldName(SALARY);
+        writeCents(employee.getSalaryCents(), generator, amount);
+        generator.writeEndObject();
+    }
+
+    private static void writeTeam(TeamDto team, JsonGenerator generator, char[] amount) throws IOException {
+        generator.writeStartObject();
+        generator.writeFieldName(NAME);
+        generator.writeString(team.getName());
+        generator.writeFieldName(WORKERS);
+        if (team.getWorkers() == null) {
+            generator.writeNull();
+        } else {
+            generator.writeStartArray();
+            for (EmployeeDto worker : team.getWorkers()) {
+                writeEmployeeDto(worker, generator, amount);
+            }
+            generator.writeEndArray();
+        }
+        generator.writeFieldName(MANAGER);
+        writeEmployeeDto(team.getManager(), generator, amount);
+        generator.writeFieldName(LEAD);
+        writeEmployeeDto(team.getLead(), generator, amount);
+        generator.writeEndObject();
+    }
+
+    private static void writeEmployeeDto(EmployeeDto employee, JsonGenerator generator, char[] amount)
+            throws IOException {
+        if (employee == null) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeStartObject();
+        generator.writeFieldName(NAME);
+        generator.writeString(employee.getName());
+        generator.writeFieldName(SURNAME);
+        generator.writeString(employee.getSurname());
+        generator.writeFieldName(GROSS_SALARY);
+        writeAmount(employee.getGrossSalary(), generator, amount);
+        generator.writeEndObject();
+    }
+
+    private static void writeNumber(Long number, JsonGenerator generator) throws IOException {
+        if (number == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(number.longValue());
+        }
+    }
+
+    /**
+     * Amount which is a whole number of cents is written like cents, other amounts as any double.
+     */
+    private static void writeAmount(double amount, JsonGenerator generator, char[] buffer) throws IOException {
+        long cents = Math.round(amount * 100);
+        if (Double.doubleToLongBits(Money.toAmount(cents)) == Double.doubleToLongBits(amount)) {
+            writeCents(cents, generator, buffer);
+        } else {
+            generator.writeNumber(amount);
+        }
+    }
+
+    /**
+     * Writes amount in currency units as Double.toString would, which for a whole number of cents in plain notation
+     * is integer part and at least one, at most two decimal digits, trailing zero dropped.
+     */
+    static void writeCents(long cents, JsonGenerator generator, char[] buffer) throws IOException {
+        if (cents <= -PLAIN_CENTS_LIMIT || cents >= PLAIN_CENTS_LIMIT) {
+            generator.writeNumber(Money.toAmount(cents));
+            return;
+        }
+        int start = formatCents(cents, buffer);
+        generator.writeRawValue(buffer, start, buffer.length - start);
+    }
+
+    /**
+     * @return index of first character of amount, which is written at the end of buffer.
+     */
+    static int formatCents(long cents, char[] buffer) {
+        long absolute = Math.abs(cents);
+        long units = absolute / 100;
+        int fraction = (int) (absolute % 100);
+        int position = buffer.length;
+        if (fraction % 10 != 0) {
+            buffer[--position] = (char) ('0' + fraction % 10);
+        }
+        buffer[--position] = (char) ('0' + fraction / 10);
+        buffer[--position] = '.';
+        do {
+            buffer[--position] = (char) ('0' + units % 10);
+            units /= 10;
+        } while (units > 0);
+        if (cents < 0) {
+            buffer[--position] = '-';
+        }
+        return position;
+    }
+}
@@ -0,0 +1,37 @@
+package com.sda.testing.model;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.sda.testing.event.ChangeType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "change_log")
+public class ChangeLogEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    private ChangeEntityType entityType;
+
+    private Long entityId;
+
+    @Enumerated(EnumType.STRING)
+    private ChangeType changeType;
+
+    private long changedAt;
+
+    @JsonRawValue
+    @Column(length = 2000)
+    private String payload;
+}
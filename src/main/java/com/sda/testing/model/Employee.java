@@ -1,15 +1,33 @@
 package com.sda.testing.model;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.sda.testing.event.EmployeeEntityListener;
+import com.sda.testing.payroll.Money;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 
+/**
+ * Indexes serve searches by {@link com.sda.testing.service.EmployeeSearchService}: every index ends with id, so
+ * searches sorted by salary or last name read pages straight from the index, continuing after the last row of
+ * previous page.
+ */
 @Data
 @Entity
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@EntityListeners(EmployeeEntityListener.class)
+@Table(name = "employee", indexes = {
+        @Index(name = "employee_last_name", columnList = "lastName, id"),
+        @Index(name = "employee_salary", columnList = "salaryCents, id"),
+        @Index(name = "employee_level_salary", columnList = "level, salaryCents, id")
+})
 public class Employee {
 
     @Id
@@ -19,12 +37,34 @@ public class Employee {
     private String firstName;
     private String lastName;
 
-    private double salary;
+    /**
+     * Salary in cents. Exposed in currency units as salary property.
+     */
+    @JsonIgnore
+    private long salaryCents;
 
     private EmployeeLevel level;
 
+    private Long managerId;
+
     @ManyToOne
     @JsonBackReference
     @ToString.Exclude
     private Team team;
+
+    public double getSalary() {
+        return Money.toAmount(salaryCents);
+    }
+
+    public void setSalary(double salary) {
+        this.salaryCents = Money.toCents(salary);
+    }
+
+    public static class EmployeeBuilder {
+
+        public EmployeeBuilder salary(double salary) {
+            this.salaryCents = Money.toCents(salary);
+            return this;
+        }
+    }
 }
@@ -0,0 +1,5 @@
+package com.sda.testing.model;
+
+public enum EmployeeSearchOrder {
+    ID, LAST_NAME, SALARY;
+}
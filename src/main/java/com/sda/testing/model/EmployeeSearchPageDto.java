@@ -0,0 +1,16 @@
+package com.sda.testing.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EmployeeSearchPageDto {
+    private List<Employee> employees;
+    private String nextCursor;
+    private boolean hasMore;
+}
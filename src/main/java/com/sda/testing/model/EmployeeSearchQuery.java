@@ -0,0 +1,29 @@
+package com.sda.testing.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Criteria of employee search, bound from request parameters. Every given criterion has to match.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeSearchQuery {
+    private List<EmployeeLevel> level;
+    private Double salaryFrom;
+    private Double salaryTo;
+    private Long teamId;
+    private String name;
+    @Builder.Default
+    private EmployeeSearchOrder sort = EmployeeSearchOrder.ID;
+    private boolean descending;
+    private String after;
+    @Builder.Default
+    private int limit = 100;
+}
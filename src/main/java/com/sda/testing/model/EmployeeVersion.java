@@ -0,0 +1,54 @@
+package com.sda.testing.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.sda.testing.payroll.Money;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+
+/**
+ * Salary, level and team of an employee valid from validFrom (inclusive) to validTo (exclusive), both in epoch
+ * milliseconds. Current version is open, its validTo is {@link #OPEN}. Maintained by
+ * {@link com.sda.testing.history.EmployeeHistoryWriter}.
+ * <p>
+ * As-of queries look for validFrom &lt;= t &lt; validTo. Indexes lead with validTo, so the scanned range holds only
+ * versions closed after t and the current ones, and the validity index covers level and salary, so as-of payroll is
+ * summed from the index alone.
+ */
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "employee_version", indexes = {
+        @Index(name = "employee_version_employee", columnList = "employeeId, validTo"),
+        @Index(name = "employee_version_validity", columnList = "validTo, validFrom, level, salaryCents"),
+        @Index(name = "employee_version_team", columnList = "teamId, validTo, validFrom")
+})
+public class EmployeeVersion {
+    public static final long OPEN = Long.MAX_VALUE;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long employeeId;
+
+    private long validFrom;
+
+    private long validTo;
+
+    @JsonIgnore
+    private long salaryCents;
+
+    private EmployeeLevel level;
+
+    private Long teamId;
+
+    public double getSalary() {
+        return Money.toAmount(salaryCents);
+    }
+}
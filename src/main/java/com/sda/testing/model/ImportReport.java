@@ -0,0 +1,19 @@
+package com.sda.testing.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportReport {
+    private long rows;
+    private long imported;
+    private long rejected;
+    private List<ImportRowError> errors;
+    private boolean errorsTruncated;
+    private long durationMillis;
+}
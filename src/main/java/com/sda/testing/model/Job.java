@@ -0,0 +1,62 @@
+package com.sda.testing.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
+
+import javax.persistence.*;
+
+/**
+ * Long-running operation processed in chunks of employees ordered by id. Cursor and progress are committed together
+ * with every chunk, so an interrupted job resumes after the last committed chunk. Only changed columns are updated,
+ * so cancellation requested while a chunk runs is not overwritten by it.
+ */
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@DynamicUpdate
+@Table(name = "job", indexes = @Index(name = "job_status", columnList = "status"))
+public class Job {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    private JobType type;
+
+    @Enumerated(EnumType.STRING)
+    private JobStatus status;
+
+    private Double percentRaise;
+
+    private EmployeeLevel level;
+
+    private long processed;
+
+    private long total;
+
+    @JsonIgnore
+    private long cursor;
+
+    @JsonIgnore
+    private long resultBytes;
+
+    @JsonIgnore
+    private boolean cancelRequested;
+
+    @JsonIgnore
+    private String shard;
+
+    @Column(length = 1000)
+    private String error;
+
+    private long createdAt;
+
+    private Long finishedAt;
+}
@@ -0,0 +1,5 @@
+package com.sda.testing.model;
+
+public enum JobType {
+    COMPANY_RAISE, PAYROLL_EXPORT
+}
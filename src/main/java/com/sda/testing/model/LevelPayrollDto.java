@@ -0,0 +1,14 @@
+package com.sda.testing.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LevelPayrollDto {
+    private EmployeeLevel level;
+    private long headCount;
+    private double totalSalary;
+}
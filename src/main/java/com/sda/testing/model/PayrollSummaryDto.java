@@ -0,0 +1,16 @@
+package com.sda.testing.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PayrollSummaryDto {
+    private long headCount;
+    private double totalSalary;
+    private List<LevelPayrollDto> levels;
+}
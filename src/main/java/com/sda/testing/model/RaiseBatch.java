@@ -0,0 +1,24 @@
+package com.sda.testing.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * Last batch of buffered salary raises written to database. It is replaced in the same transaction as raises of the
+ * next batch, so recovery can tell whether a batch left in the write-ahead log was already applied.
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "raise_batch")
+public class RaiseBatch {
+
+    @Id
+    private String id;
+}
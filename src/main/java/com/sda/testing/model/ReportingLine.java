@@ -0,0 +1,31 @@
+package com.sda.testing.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+
+/**
+ * Row of reporting line closure table: descendant reports to ancestor through depth levels of management. Every
+ * employee placed in the hierarchy also has a row of depth 0 pointing to itself. Maintained by
+ * {@link com.sda.testing.hierarchy.ClosureTable}.
+ */
+@Data
+@Entity
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@IdClass(ReportingLineId.class)
+@Table(name = "employee_closure", indexes = @Index(name = "employee_closure_descendant", columnList = "descendantId"))
+public class ReportingLine {
+
+    @Id
+    private Long ancestorId;
+
+    @Id
+    private Long descendantId;
+
+    private int depth;
+}
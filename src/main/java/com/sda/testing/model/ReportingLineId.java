@@ -0,0 +1,15 @@
+package com.sda.testing.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReportingLineId implements Serializable {
+    private Long ancestorId;
+    private Long descendantId;
+}
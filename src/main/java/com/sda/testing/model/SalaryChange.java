@@ -0,0 +1,16 @@
+package com.sda.testing.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SalaryChange {
+    private long employeeId;
+    private double oldSalary;
+    private double newSalary;
+    private EmployeeLevel level;
+    private long timestamp;
+}
@@ -0,0 +1,15 @@
+package com.sda.testing.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TeamRankingDto {
+    private String name;
+    private int headCount;
+    private double totalSalary;
+    private double averageSalary;
+}
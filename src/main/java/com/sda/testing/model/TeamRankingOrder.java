@@ -0,0 +1,5 @@
+package com.sda.testing.model;
+
+public enum TeamRankingOrder {
+    TOTAL_SALARY, HEAD_COUNT, AVERAGE_SALARY;
+}
@@ -0,0 +1,16 @@
+package com.sda.testing.payroll;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Same tax rate for whole salary.
+ */
+@RequiredArgsConstructor
+public class FlatTaxRule implements TaxRule {
+    private final double rate;
+
+    @Override
+    public double netSalary(double grossSalary) {
+        return grossSalary * (1 - rate);
+    }
+}
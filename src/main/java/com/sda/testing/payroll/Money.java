@@ -0,0 +1,106 @@
+package com.sda.testing.payroll;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Salaries are stored and computed as whole cents in a long. Amounts in currency units appear only at API boundary,
+ * where they are converted by this class. Percentages are applied exactly and rounded once per operation, half to
+ * even, so repeated raises of many employees don't drift in either direction.
+ */
+public final class Money {
+    public static final RoundingMode ROUNDING = RoundingMode.HALF_EVEN;
+
+    private static final int CENTS_SCALE = 2;
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private Money() {
+    }
+
+    /**
+     * @param amount - amount in currency units, as decimal number.
+     * @return amount in cents, rounded half to even.
+     */
+    public static long toCents(double amount) {
+        return BigDecimal.valueOf(amount).setScale(CENTS_SCALE, ROUNDING).unscaledValue().longValueExact();
+    }
+
+    /**
+     * @param amount - amount in currency units.
+     * @return the greatest number of cents not above the amount, saturated to the range of long.
+     */
+    public static long floorCents(double amount) {
+        return saturatedCents(amount, RoundingMode.FLOOR);
+    }
+
+    /**
+     * @param amount - amount in currency units.
+     * @return the least number of cents not below the amount, saturated to the range of long.
+     */
+    public static long ceilCents(double amount) {
+        return saturatedCents(amount, RoundingMode.CEILING);
+    }
+
+    /**
+     * @param cents - amount in cents.
+     * @return amount in currency units, the double nearest to exact value.
+     */
+    public static double toAmount(long cents) {
+        return cents / 100.0;
+    }
+
+    /**
+     * @param cents   - amount in cents.
+     * @param percent - percentage to add, negative values lower the amount.
+     * @return amount increased by given percentage, rounded half to even to whole cents.
+     */
+    public static long addPercent(long cents, double percent) {
+        return BigDecimal.valueOf(cents)
+                .multiply(HUNDRED.add(BigDecimal.valueOf(percent)))
+                .divide(HUNDRED, 0, ROUNDING)
+                .longValueExact();
+    }
+
+    /**
+     * Sum first values of given array. The loop has no branches and no dependency other than the sum, so JIT compiles
+     * it to vector additions.
+     *
+     * @param cents  - amounts in cents.
+     * @param length - number of summed amounts, from the beginning of the array.
+     * @return exact sum.
+     */
+    public static long sum(long[] cents, int length) {
+        long sum = 0;
+        for (int i = 0; i < length; i++) {
+            sum += cents[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Sum amounts of which key equals given key.
+     *
+     * @param cents  - amounts in cents.
+     * @param keys   - key of every amount, e.g. ordinal of employee level.
+     * @param key    - key of summed amounts.
+     * @param length - number of considered amounts, from the beginning of both arrays.
+     * @return exact sum of matching amounts.
+     */
+    public static long sumWhere(long[] cents, int[] keys, int key, int length) {
+        long sum = 0;
+        for (int i = 0; i < length; i++) {
+            sum += keys[i] == key ? cents[i] : 0;
+        }
+        return sum;
+    }
+
+    private static long saturatedCents(double amount, RoundingMode roundingMode) {
+        if (amount >= Long.MAX_VALUE / 100.0) {
+            return Long.MAX_VALUE;
+        }
+        if (amount <= Long.MIN_VALUE / 100.0) {
+            return Long.MIN_VALUE;
+        }
+        return BigDecimal.valueOf(amount).setScale(CENTS_SCALE, roundingMode).unscaledValue().longValue();
+    }
+}
@@ -0,0 +1,20 @@
+package com.sda.testing.payroll;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Part of salary up to the threshold is taxed with lower rate, remaining part with higher rate.
+ */
+@RequiredArgsConstructor
+public class ProgressiveTaxRule implements TaxRule {
+    private final double threshold;
+    private final double lowerRate;
+    private final double higherRate;
+
+    @Override
+    public double netSalary(double grossSalary) {
+        double lowerTaxed = Math.min(grossSalary, threshold);
+        double higherTaxed = Math.max(grossSalary - threshold, 0);
+        return grossSalary - lowerTaxed * lowerRate - higherTaxed * higherRate;
+    }
+}
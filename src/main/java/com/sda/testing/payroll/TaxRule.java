@@ -0,0 +1,15 @@
+package com.sda.testing.payroll;
+
+/**
+ * Computes net salary from gross salary. Implementations have to be stateless, because they are called concurrently
+ * during payroll run.
+ */
+@FunctionalInterface
+public interface TaxRule {
+
+    /**
+     * @param grossSalary - monthly gross salary.
+     * @return monthly net salary.
+     */
+    double netSalary(double grossSalary);
+}
@@ -0,0 +1,371 @@
+package com.sda.testing.push;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sda.testing.event.EmployeeChangedEvent;
+import com.sda.testing.event.EmployeesChangedEvent;
+import com.sda.testing.event.TeamChangedEvent;
+import com.sda.testing.index.EmployeeIndexes;
+import com.sda.testing.model.TeamRankingDto;
+import com.sda.testing.model.TeamRankingOrder;
+import com.sda.testing.service.CompanyService;
+import com.sda.testing.sharding.ShardContext;
+import com.sda.testing.sharding.ShardExecutor;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Pushes company payroll and team ranking to dashboards as server-sent events. Committed employee and team changes
+ * only mark pushed views as changed; views are recomputed at most once per debounce interval, serialized once, and
+ * the same prepared event is written to every subscriber. Subscriptions are asynchronous requests, so an open
+ * connection holds no thread. A new subscriber receives current views first, then every change.
+ * <p>
+ * Subscribers are grouped by the shard of their tenant, and payroll and team ranking are computed on that shard only;
+ * subscribers without tenant get views of all shards. Team ranking is read from the in-memory index also behind the
+ * team ranking endpoint.
+ * <p>
+ * Views are computed on a single publisher thread, which queues events of every subscriber in order. Events are
+ * written by a pool of sender threads. Every subscriber has a bounded queue and at most one sending task, so a slow
+ * client holds back only its own events. A subscriber whose queue overflows is disconnected; once the client
+ * reconnects it starts again from current views.
+ */
+@Slf4j
+@Component
+public class CompanyUpdatePublisher {
+    static final String PAYROLL_EVENT = "payroll";
+    static final String TEAMS_EVENT = "teams";
+
+    private final CompanyService companyService;
+    private final EmployeeIndexes employeeIndexes;
+    private final ShardExecutor shardExecutor;
+    private final ObjectMapper objectMapper;
+    private final long debounceMillis;
+    private final long timeoutMillis;
+    private final int maxQueuedEvents;
+    private final Map<String, Topic> topics = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService publisher =
+            Executors.newSingleThreadScheduledExecutor(runnable -> new Thread(runnable, "company-update-publisher"));
+    private final ExecutorService senders;
+    private final PreparedEvent heartbeat = PreparedEvent.comment("heartbeat");
+    private final AtomicBoolean publishScheduled = new AtomicBoolean();
+
+    public CompanyUpdatePublisher(CompanyService companyService,
+                                  EmployeeIndexes employeeIndexes,
+                                  ShardExecutor shardExecutor,
+                                  ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${push.debounce-ms:250}") long debounceMillis,
+                                  @Value("${push.heartbeat-ms:15000}") long heartbeatMillis,
+                                  @Value("${push.timeout-ms:1800000}") long timeoutMillis,
+                                  @Value("${push.max-queued-events:16}") int maxQueuedEvents,
+                                  @Value("${push.sender-threads:4}") int senderThreads) {
+        this.companyService = companyService;
+        this.employeeIndexes = employeeIndexes;
+        this.shardExecutor = shardExecutor;
+        this.objectMapper = objectMapper;
+        this.debounceMillis = debounceMillis;
+        this.timeoutMillis = timeoutMillis;
+        this.maxQueuedEvents = maxQueuedEvents;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(senderThreads,
+                runnable -> new Thread(runnable, "company-update-sender-" + threadNumber.incrementAndGet()));
+        Gauge.builder("push.subscribers", this, CompanyUpdatePublisher::subscriberCount).register(meterRegistry);
+        publisher.scheduleWithFixedDelay(() -> topics.values().forEach(topic -> broadcast(topic, heartbeat)),
+                heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        publisher.shutdownNow();
+        senders.shutdownNow();
+        topics.values().forEach(topic -> {
+            topic.subscribers.forEach(subscriber -> subscriber.emitter.complete());
+            topic.subscribers.clear();
+        });
+    }
+
+    /**
+     * Open subscription to company updates of the current tenant. Current payroll and team ranking are sent first.
+     *
+     * @return emitter of payroll and teams events.
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        subscribe(emitter);
+        return emitter;
+    }
+
+    void subscribe(SseEmitter emitter) {
+        String shard = ShardContext.currentShard();
+        Topic topic = topics.computeIfAbsent(shardExecutor.scope(), scope -> new Topic(shard));
+        Subscriber subscriber = new Subscriber(topic, emitter);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        publisher.execute(() -> {
+            publishChanges();
+            publishPayroll(topic);
+            publishTeams(topic);
+            topic.subscribers.add(subscriber);
+            if (topic.payroll != null) {
+                subscriber.offer(topic.payroll);
+            }
+            if (topic.teams != null) {
+                subscriber.offer(topic.teams);
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        markChanged(true);
+        schedulePublish();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeesChanged(EmployeesChangedEvent event) {
+        markChanged(true);
+        schedulePublish();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTeamChanged(TeamChangedEvent event) {
+        markChanged(false);
+        schedulePublish();
+    }
+
+    private int subscriberCount() {
+        return topics.values().stream().mapToInt(topic -> topic.subscribers.size()).sum();
+    }
+
+    /**
+     * Change committed on a shard changes views of its tenants and of all shards. Change committed without shard
+     * may belong to any of them.
+     *
+     * @param payroll - whether payroll changed too, not only team ranking.
+     */
+    private void markChanged(boolean payroll) {
+        String shard = ShardContext.currentShard();
+        topics.values().stream()
+                .filter(topic -> shard == null || topic.shard == null || topic.shard.equals(shard))
+                .forEach(topic -> {
+                    if (payroll) {
+                        topic.payrollChanged.set(true);
+                    }
+                    topic.teamsChanged.set(true);
+                });
+    }
+
+    /**
+     * Without subscribers views are only marked as changed, and recomputed for the next subscriber.
+     */
+    private void schedulePublish() {
+        if (subscriberCount() > 0 && publishScheduled.compareAndSet(false, true)) {
+            publisher.schedule(() -> {
+                publishScheduled.set(false);
+                publishChanges();
+            }, debounceMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void publishChanges() {
+        topics.values().stream()
+                .filter(topic -> !topic.subscribers.isEmpty())
+                .forEach(topic -> {
+                    publishPayroll(topic);
+                    publishTeams(topic);
+                });
+    }
+
+    private void publishPayroll(Topic topic) {
+        if (!topic.payrollChanged.getAndSet(false)) {
+            return;
+        }
+        try {
+            topic.payroll = prepare(PAYROLL_EVENT, ShardContext.callOn(topic.shard, companyService::currentPayroll));
+            broadcast(topic, topic.payroll);
+        } catch (RuntimeException e) {
+            log.error("Computation of payroll update failed", e);
+            topic.payrollChanged.set(true);
+        }
+    }
+
+    /**
+     * Teams of the topic's shard; for topic of all shards, rankings of shards merged by total salary.
+     */
+    private void publishTeams(Topic topic) {
+        if (!topic.teamsChanged.getAndSet(false)) {
+            return;
+        }
+        try {
+            List<TeamRankingDto> ranking = ShardContext.callOn(topic.shard, () -> shardExecutor.onEachShard(
+                    () -> employeeIndexes.teamRanking().page(TeamRankingOrder.TOTAL_SALARY, 0, Integer.MAX_VALUE)))
+                    .stream()
+                    .flatMap(List::stream)
+                    .sorted(Comparator.comparingDouble(TeamRankingDto::getTotalSalary).reversed())
+                    .collect(Collectors.toList());
+            topic.teams = prepare(TEAMS_EVENT, ranking);
+            broadcast(topic, topic.teams);
+        } catch (RuntimeException e) {
+            log.error("Computation of teams update failed", e);
+            topic.teamsChanged.set(true);
+        }
+    }
+
+    private PreparedEvent prepare(String name, Object view) {
+        try {
+            return new PreparedEvent(name, objectMapper.writeValueAsString(view));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void broadcast(Topic topic, PreparedEvent event) {
+        topic.subscribers.forEach(subscriber -> subscriber.offer(event));
+    }
+
+    /**
+     * Subscribers sharing one payroll and teams view, of a single shard or of all shards.
+     */
+    private static final class Topic {
+        private final String shard;
+        private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+        private final AtomicBoolean payrollChanged = new AtomicBoolean(true);
+        private final AtomicBoolean teamsChanged = new AtomicBoolean(true);
+
+        // accessed by publisher thread only
+        private PreparedEvent payroll;
+        private PreparedEvent teams;
+
+        private Topic(String shard) {
+            this.shard = shard;
+        }
+    }
+
+    /**
+     * Events waiting to be sent to one client.
+     */
+    private final class Subscriber {
+        private final Topic topic;
+        private final SseEmitter emitter;
+
+        // guarded by this
+        private final Deque<PreparedEvent> queue = new ArrayDeque<>();
+        private boolean sending;
+        private boolean closed;
+        private boolean lagging;
+
+        private Subscriber(Topic topic, SseEmitter emitter) {
+            this.topic = topic;
+            this.emitter = emitter;
+        }
+
+        private void offer(PreparedEvent event) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (queue.size() < maxQueuedEvents) {
+                    queue.addLast(event);
+                } else {
+                    log.info("Disconnecting subscriber of company updates lagging by {} events", queue.size());
+                    lagging = true;
+                    close();
+                }
+                if (sending) {
+                    return;
+                }
+                sending = true;
+            }
+            try {
+                senders.execute(this::sendQueued);
+            } catch (RejectedExecutionException e) {
+                // shutting down, emitter is completed by shutdown
+            }
+        }
+
+        /**
+         * Send queued events until the queue is empty. Emitter of a lagging subscriber is completed here, after the
+         * send which held it back, so no other thread waits for the emitter.
+         */
+        private void sendQueued() {
+            while (true) {
+                PreparedEvent event;
+                boolean disconnect;
+                synchronized (this) {
+                    event = queue.pollFirst();
+                    disconnect = lagging;
+                    if (event == null) {
+                        sending = false;
+                    }
+                }
+                if (disconnect) {
+                    emitter.complete();
+                    return;
+                }
+                if (event == null) {
+                    return;
+                }
+                try {
+                    emitter.send(event.toEvent());
+                } catch (IOException | IllegalStateException e) {
+                    close();
+                }
+            }
+        }
+
+        private synchronized void close() {
+            closed = true;
+            queue.clear();
+            topic.subscribers.remove(this);
+        }
+    }
+
+    /**
+     * Event serialized once and sent to every subscriber; only the short event framing is built per send.
+     */
+    private static final class PreparedEvent {
+        private final String name;
+        private final String data;
+
+        private PreparedEvent(String name, String data) {
+            this.name = name;
+            this.data = data;
+        }
+
+        private static PreparedEvent comment(String comment) {
+            return new PreparedEvent(null, comment);
+        }
+
+        private SseEmitter.SseEventBuilder toEvent() {
+            return name == null
+                    ? SseEmitter.event().comment(data)
+                    : SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON);
+        }
+    }
+}
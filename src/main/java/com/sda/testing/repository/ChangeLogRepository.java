@@ -0,0 +1,18 @@
+package com.sda.testing.repository;
+
+import com.sda.testing.model.ChangeLogEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface ChangeLogRepository extends JpaRepository<ChangeLogEntry, Long> {
+
+    List<ChangeLogEntry> findByIdGreaterThanAndIdLessThanAndChangedAtLessThanOrderByIdAsc(
+            Long cursor, Long idBefore, long changedBefore, Pageable pageable);
+
+    List<ChangeLogEntry> findByIdGreaterThanOrderByIdAsc(Long cursor, Pageable pageable);
+
+    Optional<ChangeLogEntry> findFirstByIdLessThanAndChangedAtLessThanOrderByIdDesc(Long idBefore, long changedBefore);
+}
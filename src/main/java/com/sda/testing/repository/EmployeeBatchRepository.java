@@ -0,0 +1,17 @@
+package com.sda.testing.repository;
+
+import com.sda.testing.model.Employee;
+
+import java.util.List;
+
+public interface EmployeeBatchRepository {
+
+    /**
+     * Insert new employees with single JDBC batch, bypassing persistence context. Generated identifiers are set on
+     * given employees and {@link com.sda.testing.event.EmployeesChangedEvent} is published. Has to be called in
+     * transaction.
+     *
+     * @param employees - employees without identifiers.
+     */
+    void insertAll(List<Employee> employees);
+}
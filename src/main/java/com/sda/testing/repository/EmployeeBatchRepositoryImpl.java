@@ -0,0 +1,73 @@
+package com.sda.testing.repository;
+
+import com.sda.testing.cache.EntityCacheEvictor;
+import com.sda.testing.event.ChangeType;
+import com.sda.testing.event.EmployeeChangedEvent;
+import com.sda.testing.event.EmployeesChangedEvent;
+import com.sda.testing.model.Employee;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RequiredArgsConstructor
+public class EmployeeBatchRepositoryImpl implements EmployeeBatchRepository {
+    private static final String INSERT_EMPLOYEE =
+            "insert into employee (first_name, last_name, salary_cents, level, team_id) values (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityCacheEvictor entityCacheEvictor;
+
+    @Override
+    public void insertAll(List<Employee> employees) {
+        if (employees.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.execute(connection -> connection.prepareStatement(INSERT_EMPLOYEE, Statement.RETURN_GENERATED_KEYS),
+                (PreparedStatement statement) -> insertBatch(statement, employees));
+        // inserted rows bypass Hibernate, which would otherwise invalidate cached queries on employee table
+        entityCacheEvictor.evictEmployeeQueries();
+        eventPublisher.publishEvent(new EmployeesChangedEvent(employees.stream()
+                .map(employee -> EmployeeChangedEvent.of(ChangeType.CREATED, employee))
+                .collect(Collectors.toList())));
+    }
+
+    private Void insertBatch(PreparedStatement statement, List<Employee> employees) throws SQLException {
+        for (Employee employee : employees) {
+            statement.setString(1, employee.getFirstName());
+            statement.setString(2, employee.getLastName());
+            statement.setLong(3, employee.getSalaryCents());
+            if (employee.getLevel() == null) {
+                statement.setNull(4, Types.INTEGER);
+            } else {
+                statement.setInt(4, employee.getLevel().ordinal());
+            }
+            if (employee.getTeam() == null) {
+                statement.setNull(5, Types.BIGINT);
+            } else {
+                statement.setLong(5, employee.getTeam().getId());
+            }
+            statement.addBatch();
+        }
+        statement.executeBatch();
+        int assigned = 0;
+        try (ResultSet keys = statement.getGeneratedKeys()) {
+            while (keys.next() && assigned < employees.size()) {
+                employees.get(assigned++).setId(keys.getLong(1));
+            }
+        }
+        if (assigned != employees.size()) {
+            throw new IncorrectResultSizeDataAccessException("Generated keys of batch insert", employees.size(), assigned);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,20 @@
+package com.sda.testing.repository;
+
+import com.sda.testing.model.EmployeeLevel;
+
+import java.util.List;
+import java.util.Map;
+
+public interface EmployeeProjectionRepository {
+
+    /**
+     * Select only given attributes of employees.
+     *
+     * @param attributes - names of {@link com.sda.testing.model.Employee} attributes, they have to be valid. Salary is
+     *                   selected from salary in cents and returned in currency units.
+     * @param level      - employee level, can be null, then employees of all levels are selected.
+     * @param teamId     - team identifier, can be null, then employees of all teams are selected.
+     * @return one map per employee, with attributes in requested order.
+     */
+    List<Map<String, Object>> findAllProjected(List<String> attributes, EmployeeLevel level, Long teamId);
+}
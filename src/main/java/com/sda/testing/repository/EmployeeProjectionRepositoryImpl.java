@@ -0,0 +1,54 @@
+package com.sda.testing.repository;
+
+import com.sda.testing.model.Employee;
+import com.sda.testing.model.EmployeeLevel;
+import com.sda.testing.payroll.Money;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.*;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public class EmployeeProjectionRepositoryImpl implements EmployeeProjectionRepository {
+    private static final String SALARY = "salary";
+    private static final String SALARY_CENTS = "salaryCents";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Map<String, Object>> findAllProjected(List<String> attributes, EmployeeLevel level, Long teamId) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<Employee> employee = query.from(Employee.class);
+
+        List<Selection<?>> selections = attributes.stream()
+                .map(attribute -> employee.get(SALARY.equals(attribute) ? SALARY_CENTS : attribute).alias(attribute))
+                .collect(Collectors.toList());
+        query.multiselect(selections);
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (level != null) {
+            predicates.add(criteriaBuilder.equal(employee.get("level"), level));
+        }
+        if (teamId != null) {
+            predicates.add(criteriaBuilder.equal(employee.get("team").get("id"), teamId));
+        }
+        query.where(predicates.toArray(new Predicate[0]));
+
+        return entityManager.createQuery(query).getResultList().stream()
+                .map(tuple -> {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    attributes.forEach(attribute -> row.put(attribute, SALARY.equals(attribute)
+                            ? Money.toAmount(tuple.get(attribute, Long.class))
+                            : tuple.get(attribute)));
+                    return row;
+                })
+                .collect(Collectors.toList());
+    }
+}
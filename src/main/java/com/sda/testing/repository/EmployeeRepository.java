@@ -2,13 +2,43 @@ package com.sda.testing.repository;
 
 import com.sda.testing.model.Employee;
 import com.sda.testing.model.EmployeeLevel;
+import com.sda.testing.model.Team;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
 import java.util.List;
 
-public interface EmployeeRepository extends JpaRepository<Employee, Long> {
+public interface EmployeeRepository extends JpaRepository<Employee, Long>, EmployeeProjectionRepository,
+        EmployeeBatchRepository, EmployeeSearchRepository {
+    String EMPLOYEES_BY_LEVEL_REGION = "employeesByLevel";
 
+    /**
+     * Results are kept in query cache, invalidated by Hibernate on every write to employee table made through
+     * Hibernate.
+     */
+    @QueryHints({
+            @QueryHint(name = org.hibernate.annotations.QueryHints.CACHEABLE, value = "true"),
+            @QueryHint(name = org.hibernate.annotations.QueryHints.CACHE_REGION, value = EMPLOYEES_BY_LEVEL_REGION)
+    })
     List<Employee> findAllByLevel(EmployeeLevel level);
 
+    List<Employee> findAllByTeam(Team team);
+
+    List<Employee> findAllBySalaryCentsGreaterThanAndSalaryCentsLessThan(long salaryCentsFrom, long salaryCentsTo);
+
     Employee findByFirstNameAndLastName(String firstName, String lastName);
+
+    List<Employee> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    List<Employee> findByLevelAndIdGreaterThanOrderByIdAsc(EmployeeLevel level, Long id, Pageable pageable);
+
+    long countByLevel(EmployeeLevel level);
+
+    @Query("select e from Employee e join ReportingLine r on r.descendantId = e.id " +
+            "where r.ancestorId = :managerId and r.depth between 1 and :maxDepth order by r.depth, e.id")
+    List<Employee> findReports(@Param("managerId") Long managerId, @Param("maxDepth") int maxDepth);
 }
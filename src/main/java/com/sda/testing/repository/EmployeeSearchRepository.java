@@ -0,0 +1,22 @@
+package com.sda.testing.repository;
+
+import com.sda.testing.model.Employee;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface EmployeeSearchRepository {
+
+    /**
+     * Select employees matching given specification, in given order, with limit applied by the database. Unlike
+     * paged queries of {@link org.springframework.data.jpa.repository.JpaSpecificationExecutor}, no count query is
+     * run. Teams of employees are fetched with the same query.
+     *
+     * @param specification - criteria of selected employees.
+     * @param sort          - order of selected employees.
+     * @param limit         - maximal number of selected employees.
+     * @return at most limit employees.
+     */
+    List<Employee> search(Specification<Employee> specification, Sort sort, int limit);
+}
@@ -0,0 +1,33 @@
+package com.sda.testing.repository;
+
+import com.sda.testing.model.Employee;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.*;
+import java.util.List;
+
+public class EmployeeSearchRepositoryImpl implements EmployeeSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Employee> search(Specification<Employee> specification, Sort sort, int limit) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Employee> query = criteriaBuilder.createQuery(Employee.class);
+        Root<Employee> employee = query.from(Employee.class);
+        employee.fetch("team", JoinType.LEFT);
+
+        Predicate predicate = specification.toPredicate(employee, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(employee).orderBy(QueryUtils.toOrders(sort, employee, criteriaBuilder));
+
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+}
@@ -0,0 +1,98 @@
+package com.sda.testing.repository;
+
+import com.sda.testing.model.Employee;
+import com.sda.testing.model.EmployeeLevel;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.criteria.Path;
+import java.util.Collection;
+
+/**
+ * Criteria of employee searches, composed with {@link Specification#and}. Each criterion compares one column with
+ * constants, so their conjunction can be matched with an index: no function is applied to a column and name is
+ * matched by prefix only.
+ */
+public final class EmployeeSpecifications {
+    private EmployeeSpecifications() {
+    }
+
+    public static Specification<Employee> levelIn(Collection<EmployeeLevel> levels) {
+        return (employee, query, criteriaBuilder) -> employee.get("level").in(levels);
+    }
+
+    public static Specification<Employee> salaryCentsAbove(long salaryCents) {
+        return (employee, query, criteriaBuilder) -> criteriaBuilder.greaterThan(employee.get("salaryCents"), salaryCents);
+    }
+
+    public static Specification<Employee> salaryCentsBelow(long salaryCents) {
+        return (employee, query, criteriaBuilder) -> criteriaBuilder.lessThan(employee.get("salaryCents"), salaryCents);
+    }
+
+    public static Specification<Employee> inTeam(Long teamId) {
+        return (employee, query, criteriaBuilder) -> criteriaBuilder.equal(employee.get("team").get("id"), teamId);
+    }
+
+    /**
+     * @param prefix - beginning of last name, wildcards are escaped with backslash, the default escape character of
+     *               MySQL and H2.
+     */
+    public static Specification<Employee> lastNameStartsWith(String prefix) {
+        String pattern = prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        return (employee, query, criteriaBuilder) -> criteriaBuilder.like(employee.get("lastName"), pattern);
+    }
+
+    /**
+     * Employees ordered by id after employee of given id.
+     *
+     * @param id         - identifier of the last employee of previous page.
+     * @param descending - true if employees are ordered by descending id.
+     */
+    public static Specification<Employee> idAfter(long id, boolean descending) {
+        return (employee, query, criteriaBuilder) -> descending
+                ? criteriaBuilder.lessThan(employee.get("id"), id)
+                : criteriaBuilder.greaterThan(employee.get("id"), id);
+    }
+
+    /**
+     * Employees ordered by given attribute, then by id, after given employee. Written as range of the attribute
+     * narrowed by id among equal values, so the database starts reading the index at the given employee.
+     *
+     * @param attribute  - name of the attribute employees are ordered by, can't be null.
+     * @param value      - value of the attribute of the last employee of previous page.
+     * @param id         - identifier of the last employee of previous page.
+     * @param descending - true if employees are ordered by descending attribute and id.
+     */
+    public static <T extends Comparable<? super T>> Specification<Employee> after(String attribute, T value, long id,
+                                                                                 boolean descending) {
+        return (employee, query, criteriaBuilder) -> {
+            Path<T> key = employee.get(attribute);
+            Path<Long> employeeId = employee.get("id");
+            return descending
+                    ? criteriaBuilder.and(criteriaBuilder.lessThanOrEqualTo(key, value),
+                    criteriaBuilder.or(criteriaBuilder.lessThan(key, value), criteriaBuilder.lessThan(employeeId, id)))
+                    : criteriaBuilder.and(criteriaBuilder.greaterThanOrEqualTo(key, value),
+                    criteriaBuilder.or(criteriaBuilder.greaterThan(key, value), criteriaBuilder.greaterThan(employeeId, id)));
+        };
+    }
+
+    /**
+     * Employees ordered by last name, then by id, after given employee, see {@link #after}. Null last names are
+     * expected to be ordered as lowest values, like in MySQL and H2.
+     *
+     * @param lastName   - last name of the last employee of previous page, can be null.
+     * @param id         - identifier of the last employee of previous page.
+     * @param descending - true if employees are ordered by descending last name and id.
+     */
+    public static Specification<Employee> lastNameAfter(String lastName, long id, boolean descending) {
+        Specification<Employee> nullLastName = (employee, query, criteriaBuilder) ->
+                criteriaBuilder.isNull(employee.get("lastName"));
+        Specification<Employee> notNullLastName = (employee, query, criteriaBuilder) ->
+                criteriaBuilder.isNotNull(employee.get("lastName"));
+        if (lastName == null) {
+            Specification<Employee> nextNull = nullLastName.and(idAfter(id, descending));
+            return descending ? nextNull : nextNull.or(notNullLastName);
+        }
+        Specification<Employee> nextNotNull = after("lastName", lastName, id, descending);
+        return descending ? nextNotNull.or(nullLastName) : nextNotNull;
+    }
+}
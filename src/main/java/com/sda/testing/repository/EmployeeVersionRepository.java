@@ -0,0 +1,30 @@
+package com.sda.testing.repository;
+
+import com.sda.testing.model.EmployeeLevel;
+import com.sda.testing.model.EmployeeVersion;
+import com.sda.testing.model.LevelPayrollDto;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface EmployeeVersionRepository extends JpaRepository<EmployeeVersion, Long> {
+
+    @Query("select coalesce(sum(v.salaryCents), 0) from EmployeeVersion v where v.validTo > :at and v.validFrom <= :at")
+    long sumOfSalaryCentsAt(@Param("at") long at);
+
+    @Query("select coalesce(sum(v.salaryCents), 0) from EmployeeVersion v " +
+            "where v.validTo > :at and v.validFrom <= :at and v.level = :level")
+    long sumOfSalaryCentsAt(@Param("level") EmployeeLevel level, @Param("at") long at);
+
+    @Query("select new com.sda.testing.model.LevelPayrollDto(v.level, count(v), sum(v.salaryCents) / 100.0) " +
+            "from EmployeeVersion v where v.validTo > :at and v.validFrom <= :at group by v.level order by v.level")
+    List<LevelPayrollDto> payrollByLevelAt(@Param("at") long at);
+
+    @Query("select v from EmployeeVersion v where v.teamId = :teamId and v.validTo > :from and v.validFrom < :to " +
+            "order by v.employeeId, v.validFrom")
+    List<EmployeeVersion> findTeamVersions(@Param("teamId") Long teamId, @Param("from") long from, @Param("to") long to);
+
+    List<EmployeeVersion> findAllByEmployeeIdOrderByValidFromAsc(Long employeeId);
+}
@@ -0,0 +1,13 @@
+package com.sda.testing.repository;
+
+import com.sda.testing.model.Job;
+import com.sda.testing.model.JobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface JobRepository extends JpaRepository<Job, Long> {
+
+    List<Job> findAllByStatusInOrderByIdAsc(Collection<JobStatus> statuses);
+}
@@ -0,0 +1,7 @@
+package com.sda.testing.repository;
+
+import com.sda.testing.model.RaiseBatch;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface RaiseBatchRepository extends JpaRepository<RaiseBatch, String> {
+}
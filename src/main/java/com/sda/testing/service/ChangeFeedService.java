@@ -0,0 +1,53 @@
+package com.sda.testing.service;
+
+import com.sda.testing.event.OpenChangeTransactions;
+import com.sda.testing.exception.InvalidOperation;
+import com.sda.testing.model.ChangeLogEntry;
+import com.sda.testing.model.ChangePageDto;
+import com.sda.testing.repository.ChangeLogRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+public class ChangeFeedService {
+    private final ChangeLogRepository changeLogRepository;
+    private final OpenChangeTransactions openChangeTransactions;
+    private final long visibilityDelayMillis;
+
+    public ChangeFeedService(ChangeLogRepository changeLogRepository,
+                             OpenChangeTransactions openChangeTransactions,
+                             @Value("${changes.visibility-delay-ms:1000}") long visibilityDelayMillis) {
+        this.changeLogRepository = changeLogRepository;
+        this.openChangeTransactions = openChangeTransactions;
+        this.visibilityDelayMillis = visibilityDelayMillis;
+    }
+
+    /**
+     * List employee and team changes made after given cursor, in order in which they were made. Page ends before
+     * the first change of a transaction of this application still open, so transactions committed out of order are
+     * not skipped. Changes younger than visibility delay are not returned yet either, covering other instances.
+     *
+     * @param cursor - cursor returned with previous page, 0 to read from the beginning. Can't be negative.
+     * @param limit  - maximal number of changes, between 1 and 1000.
+     * @return page of changes with cursor of the next page.
+     * @throws InvalidOperation - if cursor or limit is out of range, exception will be thrown.
+     */
+    public ChangePageDto changesSince(long cursor, int limit) throws InvalidOperation {
+        if (cursor < 0 || limit < 1 || limit > 1000) {
+            throw new InvalidOperation();
+        }
+        long visibleBelow = openChangeTransactions.visibleBelow();
+        List<ChangeLogEntry> changes = changeLogRepository
+                .findByIdGreaterThanAndIdLessThanAndChangedAtLessThanOrderByIdAsc(cursor, visibleBelow,
+                        System.currentTimeMillis() - visibilityDelayMillis, PageRequest.of(0, limit + 1));
+        boolean hasMore = changes.size() > limit;
+        if (hasMore) {
+            changes = changes.subList(0, limit);
+        }
+        long nextCursor = changes.isEmpty() ? cursor : changes.get(changes.size() - 1).getId();
+        return new ChangePageDto(changes, nextCursor, hasMore);
+    }
+}
@@ -1,22 +1,41 @@
 package com.sda.testing.service;
 
+import com.sda.testing.coalescing.SingleFlight;
 import com.sda.testing.exception.InvalidOperation;
+import com.sda.testing.index.EmployeeIndexes;
 import com.sda.testing.model.*;
+import com.sda.testing.payroll.Money;
 import com.sda.testing.repository.EmployeeRepository;
+import com.sda.testing.repository.EmployeeVersionRepository;
 import com.sda.testing.repository.TeamRepository;
+import com.sda.testing.sharding.ShardExecutor;
+import com.sda.testing.store.EmployeeRecordStore;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
-import java.util.Objects;
-import java.util.Optional;
+import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class CompanyService {
+    private static final Map<String, String> TEAM_MEMBER_FIELDS = new HashMap<>();
+
+    static {
+        TEAM_MEMBER_FIELDS.put("name", "firstName");
+        TEAM_MEMBER_FIELDS.put("surname", "lastName");
+        TEAM_MEMBER_FIELDS.put("grossSalary", "salary");
+    }
+
     private final EmployeeRepository employeeRepository;
     private final TeamRepository teamRepository;
+    private final EmployeeIndexes employeeIndexes;
+    private final SingleFlight<String, Double> salarySummaryFlight;
+    private final SingleFlight<String, TeamDto> teamInfoFlight;
+    private final ShardExecutor shardExecutor;
+    private final EmployeeRecordStore employeeRecordStore;
+    private final EmployeeVersionRepository employeeVersionRepository;
+    private final JobService jobService;
 
     /**
      * Return sum of all salaries.
@@ -24,7 +43,12 @@ public class CompanyService {
      * @return sum of salaries.
      */
     public double summarizeSalaries() {
-        return sumOfSalaries(employeeRepository.findAll());
+        if (employeeRecordStore.isEnabled()) {
+            return Money.toAmount(employeeRecordStore.sumOfSalaryCents(null));
+        }
+        return salarySummaryFlight.execute(shardExecutor.scope() + ":all", () -> Money.toAmount(
+                shardExecutor.onEachShard(() -> sumOfSalaryCents(employeeRepository.findAll()))
+                        .stream().mapToLong(Long::longValue).sum()));
     }
 
     /**
@@ -34,11 +58,111 @@ public class CompanyService {
      * @return sum of salaries.
      */
     public double salaries(EmployeeLevel level) {
-        return sumOfSalaries(employeeRepository.findAllByLevel(level));
+        if (employeeRecordStore.isEnabled()) {
+            return Money.toAmount(employeeRecordStore.sumOfSalaryCents(level));
+        }
+        return salarySummaryFlight.execute(shardExecutor.scope() + ":level:" + level, () -> Money.toAmount(
+                shardExecutor.onEachShard(() -> sumOfSalaryCents(employeeRepository.findAllByLevel(level)))
+                        .stream().mapToLong(Long::longValue).sum()));
+    }
+
+    /**
+     * Return sum of salaries paid at given moment.
+     *
+     * @param at    - moment in epoch milliseconds, can't be negative.
+     * @param level - employee level of which salaries should be summarized. Can be null, then all salaries are summed.
+     * @return sum of salaries.
+     * @throws InvalidOperation - if moment is negative, exception will be thrown.
+     */
+    public double summarizeSalaries(long at, EmployeeLevel level) throws InvalidOperation {
+        if (at < 0) {
+            throw new InvalidOperation();
+        }
+        return Money.toAmount(shardExecutor.onEachShard(() -> level == null
+                ? employeeVersionRepository.sumOfSalaryCentsAt(at)
+                : employeeVersionRepository.sumOfSalaryCentsAt(level, at)
+        ).stream().mapToLong(Long::longValue).sum());
+    }
+
+    /**
+     * Return head count and sum of salaries of every level at given moment.
+     *
+     * @param at - moment in epoch milliseconds, can't be negative.
+     * @return payroll of levels which had any employees, in level order, employees without level last.
+     * @throws InvalidOperation - if moment is negative, exception will be thrown.
+     */
+    public List<LevelPayrollDto> payrollByLevel(long at) throws InvalidOperation {
+        if (at < 0) {
+            throw new InvalidOperation();
+        }
+        return mergedPayrollByLevel(at);
+    }
+
+    /**
+     * Return head count and sum of salaries of the whole company and of every level, as of now.
+     *
+     * @return current payroll, levels without employees are left out.
+     */
+    public PayrollSummaryDto currentPayroll() {
+        List<LevelPayrollDto> levels = mergedPayrollByLevel(System.currentTimeMillis());
+        long headCount = 0;
+        long totalSalaryCents = 0;
+        for (LevelPayrollDto level : levels) {
+            headCount += level.getHeadCount();
+            totalSalaryCents += Money.toCents(level.getTotalSalary());
+        }
+        return new PayrollSummaryDto(headCount, Money.toAmount(totalSalaryCents), levels);
+    }
+
+    private List<LevelPayrollDto> mergedPayrollByLevel(long at) {
+        Map<EmployeeLevel, LevelPayrollDto> payroll = new TreeMap<>(Comparator.nullsLast(Comparator.naturalOrder()));
+        shardExecutor.onEachShard(() -> employeeVersionRepository.payrollByLevelAt(at)).forEach(shardPayroll ->
+                shardPayroll.forEach(levelPayroll -> payroll.merge(levelPayroll.getLevel(), levelPayroll,
+                        (first, second) -> new LevelPayrollDto(first.getLevel(),
+                                first.getHeadCount() + second.getHeadCount(),
+                                Money.toAmount(Money.toCents(first.getTotalSalary())
+                                        + Money.toCents(second.getTotalSalary()))))));
+        return new ArrayList<>(payroll.values());
     }
 
-    private double sumOfSalaries(List<Employee> employeeList) {
-        return employeeList.stream().mapToDouble(Employee::getSalary).sum();
+    /**
+     * List versions of employees which were members of the team at any moment of given period.
+     *
+     * @param teamName - name of an existing team.
+     * @param from     - beginning of the period in epoch milliseconds, inclusive.
+     * @param to       - end of the period in epoch milliseconds, exclusive. Has to be after beginning.
+     * @return versions overlapping the period, grouped by employee, oldest first.
+     * @throws InvalidOperation - if team does not exist or period is empty, exception will be thrown.
+     */
+    public List<EmployeeVersion> teamMembership(String teamName, long from, long to) throws InvalidOperation {
+        if (Objects.isNull(teamName) || from >= to) {
+            throw new InvalidOperation();
+        }
+        List<List<EmployeeVersion>> shardVersions = shardExecutor.onEachShard(() -> teamRepository.findByName(teamName)
+                .map(team -> employeeVersionRepository.findTeamVersions(team.getId(), from, to))
+                .orElse(null));
+        if (shardVersions.stream().allMatch(Objects::isNull)) {
+            throw new InvalidOperation();
+        }
+        return shardVersions.stream().filter(Objects::nonNull).flatMap(List::stream).collect(Collectors.toList());
+    }
+
+    /**
+     * Start background job writing net and gross salaries of all employees to a file, in the format of payroll run.
+     *
+     * @return queued job, to be polled for progress and downloaded once succeeded.
+     */
+    public Job exportPayroll() {
+        return jobService.submit(Job.builder().type(JobType.PAYROLL_EXPORT).build());
+    }
+
+    private long sumOfSalaryCents(List<Employee> employeeList) {
+        long[] salaryCents = new long[employeeList.size()];
+        int i = 0;
+        for (Employee employee : employeeList) {
+            salaryCents[i++] = employee.getSalaryCents();
+        }
+        return Money.sum(salaryCents, salaryCents.length);
     }
 
     /**
@@ -61,7 +185,7 @@ public class CompanyService {
         }
     }
 
-    private boolean validateHiredEmployee(EmployeeDto employeeDto) {
+    static boolean validateHiredEmployee(EmployeeDto employeeDto) {
         return Objects.nonNull(employeeDto)
                 && Objects.nonNull(employeeDto.getName())
                 && Objects.nonNull(employeeDto.getSurname());
@@ -83,7 +207,7 @@ public class CompanyService {
      * @throws InvalidOperation - exception might be thrown if team name is not unique.
      */
     public void createTeam(String teamName) throws InvalidOperation {
-        if (Objects.nonNull(teamName) && teamRepository.findByName(teamName).isPresent()) {
+        if (Objects.nonNull(teamName) && !teamRepository.findByName(teamName).isPresent()) {
             teamRepository.save(Team.builder()
                     .name(teamName)
                     .build());
@@ -133,6 +257,8 @@ public class CompanyService {
             Team team = teamOptional.get();
 
             if (validateAddingEmployeeToTeam(employee, team)) {
+                employee.setTeam(team);
+                employeeRepository.save(employee);
                 team.getEmployeeSet().add(employee);
                 addedSucessfully = true;
             }
@@ -147,12 +273,12 @@ public class CompanyService {
     private boolean validateAddingEmployeeToTeam(Employee employee, Team team) {
         return !isEmployeeMemberOfAnyTeam(employee)
                 && hasLessThanSixMembers(team)
-                && !hasEmployeeOfLevel(team, EmployeeLevel.LEAD)
-                && !hasEmployeeOfLevel(team, EmployeeLevel.MANAGER);
+                && !(employee.getLevel() == EmployeeLevel.LEAD && hasEmployeeOfLevel(team, EmployeeLevel.LEAD))
+                && !(employee.getLevel() == EmployeeLevel.MANAGER && hasEmployeeOfLevel(team, EmployeeLevel.MANAGER));
     }
 
     private boolean isEmployeeMemberOfAnyTeam(Employee employee) {
-        return Objects.isNull(employee.getTeam());
+        return Objects.nonNull(employee.getTeam());
     }
 
     private boolean hasLessThanSixMembers(Team team) {
@@ -173,8 +299,29 @@ public class CompanyService {
         if (optionalEmployee.isPresent()) {
             Employee employee = optionalEmployee.get();
             Optional<Team> teamOptional = Optional.ofNullable(employee.getTeam());
-            teamOptional.ifPresent(team -> team.getEmployeeSet().remove(employee));
+            teamOptional.ifPresent(team -> {
+                team.getEmployeeSet().remove(employee);
+                employee.setTeam(null);
+                employeeRepository.save(employee);
+            });
+        }
+    }
+
+    /**
+     * List single page of teams ranked by their payroll.
+     *
+     * @param order  - ranking order, can be null, then teams are ranked by total salary.
+     * @param offset - number of skipped teams, can't be negative.
+     * @param limit  - page size, between 1 and 100.
+     * @return list of teams with their payroll, best first.
+     * @throws InvalidOperation - if offset or limit is out of range, exception will be thrown.
+     */
+    public List<TeamRankingDto> teamRanking(TeamRankingOrder order, int offset, int limit) throws InvalidOperation {
+        if (offset < 0 || limit < 1 || limit > 100) {
+            throw new InvalidOperation();
         }
+        return employeeIndexes.teamRanking()
+                .page(Optional.ofNullable(order).orElse(TeamRankingOrder.TOTAL_SALARY), offset, limit);
     }
 
     /**
@@ -185,40 +332,78 @@ public class CompanyService {
      * @throws InvalidOperation can be thrown if team does not exist, it's name is invalid or null.
      */
     public TeamDto teamInfo(String teamName) throws InvalidOperation {
+        if (Objects.isNull(teamName)) {
+            throw new InvalidOperation();
+        }
+        return teamInfoFlight.execute(shardExecutor.scope() + ":" + teamName, () -> computeTeamInfo(teamName));
+    }
+
+    private TeamDto computeTeamInfo(String teamName) throws InvalidOperation {
         Optional<Team> teamOptional = teamRepository.findByName(teamName);
         if (teamOptional.isPresent()) {
             Team team = teamOptional.get();
+            List<Employee> teamMembers = employeeRepository.findAllByTeam(team);
 
-            Optional<Employee> teamLead = findTeamMemberOfLevel(teamName, EmployeeLevel.LEAD);
+            Optional<Employee> teamLead = findTeamMemberOfLevel(teamMembers, EmployeeLevel.LEAD);
             EmployeeDto teamLeadDto;
             teamLeadDto = teamLead.map(this::getEmployeeDto).orElse(null);
 
-            Optional<Employee> teamManager = findTeamMemberOfLevel(teamName, EmployeeLevel.MANAGER);
+            Optional<Employee> teamManager = findTeamMemberOfLevel(teamMembers, EmployeeLevel.MANAGER);
             EmployeeDto teamManagerDto;
             teamManagerDto = teamManager.map(this::getEmployeeDto).orElse(null);
 
-            List<EmployeeDto> employeeDtoList = getListOfTeamEmployees(team);
+            List<EmployeeDto> employeeDtoList = teamMembers.stream().map(this::getEmployeeDto).collect(Collectors.toList());
 
-            return new TeamDto(team.getName(), employeeDtoList, teamLeadDto, teamManagerDto);
+            return new TeamDto(team.getName(), employeeDtoList, teamManagerDto, teamLeadDto);
         } else {
             throw new InvalidOperation();
         }
     }
 
-    private List<EmployeeDto> getListOfTeamEmployees(Team team) {
-        return team.getEmployeeSet().stream().map(employee ->
-                new EmployeeDto(employee.getFirstName(), employee.getLastName(), employee.getSalary())
-        ).collect(Collectors.toList());
-    }
-
-    private Optional<Employee> findTeamMemberOfLevel(String teamName, EmployeeLevel level) {
+    /**
+     * Find team with given name and return it's info, with only requested attributes of team members read from
+     * database.
+     *
+     * @param teamName - name of an existing team.
+     * @param fields   - names of team member attributes: name, surname, grossSalary. Can't be empty.
+     * @return map with team name, workers, manager and lead, each member as map of requested attributes.
+     * @throws InvalidOperation can be thrown if team does not exist or fields contain unknown attribute.
+     */
+    public Map<String, Object> teamInfo(String teamName, List<String> fields) throws InvalidOperation {
         Optional<Team> teamOptional = teamRepository.findByName(teamName);
-        if (teamOptional.isPresent()) {
-            Team team = teamOptional.get();
-            return team.getEmployeeSet().stream().filter(employee -> employee.getLevel() == level).findFirst();
-        } else {
-            return Optional.empty();
+        if (!teamOptional.isPresent() || fields == null || fields.isEmpty()
+                || !TEAM_MEMBER_FIELDS.keySet().containsAll(fields)) {
+            throw new InvalidOperation();
+        }
+        Team team = teamOptional.get();
+        List<String> requestedFields = new ArrayList<>(new LinkedHashSet<>(fields));
+        List<String> attributes = requestedFields.stream().map(TEAM_MEMBER_FIELDS::get).collect(Collectors.toList());
+        attributes.add("level");
+
+        List<Map<String, Object>> workers = new ArrayList<>();
+        Map<String, Object> manager = null;
+        Map<String, Object> lead = null;
+        for (Map<String, Object> row : employeeRepository.findAllProjected(attributes, null, team.getId())) {
+            Map<String, Object> member = new LinkedHashMap<>();
+            requestedFields.forEach(field -> member.put(field, row.get(TEAM_MEMBER_FIELDS.get(field))));
+            workers.add(member);
+            if (manager == null && row.get("level") == EmployeeLevel.MANAGER) {
+                manager = member;
+            } else if (lead == null && row.get("level") == EmployeeLevel.LEAD) {
+                lead = member;
+            }
         }
+
+        Map<String, Object> teamInfo = new LinkedHashMap<>();
+        teamInfo.put("name", team.getName());
+        teamInfo.put("workers", workers);
+        teamInfo.put("manager", manager);
+        teamInfo.put("lead", lead);
+        return teamInfo;
+    }
+
+    private Optional<Employee> findTeamMemberOfLevel(List<Employee> teamMembers, EmployeeLevel level) {
+        return teamMembers.stream().filter(employee -> employee.getLevel() == level).findFirst();
     }
 
     private EmployeeDto getEmployeeDto(Employee employee) {
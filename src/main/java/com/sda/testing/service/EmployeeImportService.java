@@ -0,0 +1,277 @@
+package com.sda.testing.service;
+
+import com.sda.testing.csv.CsvFormatException;
+import com.sda.testing.csv.CsvReader;
+import com.sda.testing.exception.InvalidOperation;
+import com.sda.testing.model.*;
+import com.sda.testing.repository.EmployeeRepository;
+import com.sda.testing.repository.TeamRepository;
+import com.sda.testing.sharding.ShardContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Imports employees from CSV with header row. Columns name and surname are required, grossSalary, level and team are
+ * optional; other columns are ignored. Rows are validated like employees hired one by one.
+ * <p>
+ * Valid rows are inserted with JDBC batches, one transaction per batch. The next batch is parsed while the previous
+ * one is inserted, and parsing waits for the insert before starting another batch, so at most two batches are held in
+ * memory and the upload is read only as fast as the database accepts it. If a batch fails, its rows are inserted one
+ * by one to find the failing ones.
+ * <p>
+ * Import speed is bound by the inserting thread, which spends almost all of its time in the database: the employee
+ * batch, commit, and change_log and employee_version rows written in the same transaction. Parsing and in-memory
+ * indexes take a small fraction of it. Going further needs the side rows written outside of the import transaction,
+ * or a bulk load such as MySQL LOAD DATA instead of batched inserts.
+ */
+@Slf4j
+@Service
+public class EmployeeImportService {
+    private static final String NAME = "name";
+    private static final String SURNAME = "surname";
+    private static final String GROSS_SALARY = "grossSalary";
+    private static final String LEVEL = "level";
+    private static final String TEAM = "team";
+
+    private final EmployeeRepository employeeRepository;
+    private final TeamRepository teamRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor executor;
+    private final int batchSize;
+    private final int maxReportedErrors;
+
+    public EmployeeImportService(EmployeeRepository employeeRepository,
+                                 TeamRepository teamRepository,
+                                 TransactionTemplate transactionTemplate,
+                                 @Qualifier("applicationTaskExecutor") Executor executor,
+                                 @Value("${import.batch-size:1000}") int batchSize,
+                                 @Value("${import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.employeeRepository = employeeRepository;
+        this.teamRepository = teamRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.executor = executor;
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    /**
+     * Read employees from CSV and insert valid ones.
+     *
+     * @param csv - UTF-8 encoded CSV with header row, it is not closed.
+     * @return report with number of imported rows and errors of rejected ones.
+     * @throws InvalidOperation - if header is missing or has no name or surname column, exception will be thrown.
+     * @throws IOException if reading the input fails.
+     */
+    public ImportReport importEmployees(InputStream csv) throws InvalidOperation, IOException {
+        long started = System.nanoTime();
+        CsvReader reader = new CsvReader(new InputStreamReader(csv, StandardCharsets.UTF_8), ',');
+        Map<String, Integer> columns = readHeader(reader);
+        Map<String, Team> teams = teamRepository.findAll().stream()
+                .collect(Collectors.toMap(Team::getName, Function.identity()));
+        String shard = ShardContext.currentShard();
+        Progress progress = new Progress();
+
+        CompletableFuture<BatchResult> inserting = CompletableFuture.completedFuture(BatchResult.EMPTY);
+        List<Row> batch = new ArrayList<>(batchSize);
+        try {
+            List<String> record;
+            while ((record = reader.readRecord()) != null) {
+                if (record.size() == 1 && record.get(0).trim().isEmpty()) {
+                    continue;
+                }
+                progress.rows++;
+                try {
+                    batch.add(new Row(reader.getRecordLine(), toEmployee(record, columns, teams)));
+                } catch (RowException e) {
+                    progress.reject(reader.getRecordLine(), e.getMessage());
+                }
+                if (batch.size() == batchSize) {
+                    progress.add(inserting.join());
+                    List<Row> full = batch;
+                    inserting = CompletableFuture.supplyAsync(() -> ShardContext.callOn(shard, () -> insert(full)), executor);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+        } catch (CsvFormatException e) {
+            progress.rows++;
+            progress.reject(e.getLine(), e.getMessage());
+        } finally {
+            progress.add(inserting.join());
+        }
+        progress.add(insert(batch));
+        progress.errors.sort(Comparator.comparingLong(ImportRowError::getLine));
+
+        long micros = Math.max(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - started), 1);
+        log.info("Employee import: {} rows, {} imported, {} rejected in {} ms ({} rows/s)",
+                progress.rows, progress.imported, progress.rejected, micros / 1000, progress.rows * 1_000_000 / micros);
+        return new ImportReport(progress.rows, progress.imported, progress.rejected, progress.errors,
+                progress.rejected > progress.errors.size(), micros / 1000);
+    }
+
+    private Map<String, Integer> readHeader(CsvReader reader) throws InvalidOperation, IOException {
+        List<String> header;
+        try {
+            header = reader.readRecord();
+        } catch (CsvFormatException e) {
+            throw new InvalidOperation();
+        }
+        if (header == null) {
+            throw new InvalidOperation();
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            for (String column : Arrays.asList(NAME, SURNAME, GROSS_SALARY, LEVEL, TEAM)) {
+                if (column.equalsIgnoreCase(header.get(i).trim())) {
+                    columns.putIfAbsent(column, i);
+                }
+            }
+        }
+        if (!columns.containsKey(NAME) || !columns.containsKey(SURNAME)) {
+            throw new InvalidOperation();
+        }
+        return columns;
+    }
+
+    private Employee toEmployee(List<String> record, Map<String, Integer> columns, Map<String, Team> teams)
+            throws RowException {
+        EmployeeDto employeeDto = new EmployeeDto(
+                field(record, columns, NAME), field(record, columns, SURNAME), 0);
+        String grossSalary = field(record, columns, GROSS_SALARY);
+        if (grossSalary != null) {
+            try {
+                employeeDto.setGrossSalary(Double.parseDouble(grossSalary));
+            } catch (NumberFormatException e) {
+                throw new RowException("grossSalary is not a number: " + grossSalary);
+            }
+        }
+        if (!CompanyService.validateHiredEmployee(employeeDto)) {
+            throw new RowException("name and surname are required");
+        }
+        EmployeeLevel level = null;
+        String levelName = field(record, columns, LEVEL);
+        if (levelName != null) {
+            try {
+                level = EmployeeLevel.valueOf(levelName.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new RowException("unknown level: " + levelName);
+            }
+        }
+        Team team = null;
+        String teamName = field(record, columns, TEAM);
+        if (teamName != null) {
+            team = teams.get(teamName);
+            if (team == null) {
+                throw new RowException("unknown team: " + teamName);
+            }
+        }
+        return Employee.builder()
+                .firstName(employeeDto.getName())
+                .lastName(employeeDto.getSurname())
+                .salary(employeeDto.getGrossSalary())
+                .level(level)
+                .team(team)
+                .build();
+    }
+
+    /**
+     * @return trimmed value of the column, null if the column is missing or blank.
+     */
+    private String field(List<String> record, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private BatchResult insert(List<Row> rows) {
+        if (rows.isEmpty()) {
+            return BatchResult.EMPTY;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> employeeRepository.insertAll(
+                    rows.stream().map(row -> row.employee).collect(Collectors.toList())));
+            return new BatchResult(rows.size(), Collections.emptyList());
+        } catch (RuntimeException batchFailure) {
+            long imported = 0;
+            List<ImportRowError> errors = new ArrayList<>();
+            for (Row row : rows) {
+                row.employee.setId(null);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> employeeRepository.save(row.employee));
+                    imported++;
+                } catch (RuntimeException e) {
+                    errors.add(new ImportRowError(row.line,
+                            "rejected by database: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage()));
+                }
+            }
+            return new BatchResult(imported, errors);
+        }
+    }
+
+    private static final class Row {
+        private final long line;
+        private final Employee employee;
+
+        private Row(long line, Employee employee) {
+            this.line = line;
+            this.employee = employee;
+        }
+    }
+
+    private static final class BatchResult {
+        private static final BatchResult EMPTY = new BatchResult(0, Collections.emptyList());
+
+        private final long imported;
+        private final List<ImportRowError> errors;
+
+        private BatchResult(long imported, List<ImportRowError> errors) {
+            this.imported = imported;
+            this.errors = errors;
+        }
+    }
+
+    /**
+     * Counters of the running import. Only the first errors are kept, so the report stays bounded.
+     */
+    private final class Progress {
+        private long rows;
+        private long imported;
+        private long rejected;
+        private final List<ImportRowError> errors = new ArrayList<>();
+
+        private void reject(long line, String message) {
+            rejected++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new ImportRowError(line, message));
+            }
+        }
+
+        private void add(BatchResult result) {
+            imported += result.imported;
+            result.errors.forEach(error -> reject(error.getLine(), error.getMessage()));
+        }
+    }
+
+    private static final class RowException extends Exception {
+        private RowException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.sda.testing.service;
+
+import com.sda.testing.exception.InvalidOperation;
+import com.sda.testing.model.Employee;
+import com.sda.testing.model.EmployeeSearchOrder;
+import com.sda.testing.model.EmployeeSearchPageDto;
+import com.sda.testing.model.EmployeeSearchQuery;
+import com.sda.testing.payroll.Money;
+import com.sda.testing.repository.EmployeeRepository;
+import com.sda.testing.sharding.ShardExecutor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.sda.testing.repository.EmployeeSpecifications.*;
+
+@Service
+@RequiredArgsConstructor
+public class EmployeeSearchService {
+    static final int MAX_LIMIT = 1000;
+
+    private static final String CURSOR_SEPARATOR = ":";
+
+    private final EmployeeRepository employeeRepository;
+    private final ShardExecutor shardExecutor;
+
+    /**
+     * Search employees by any combination of level, salary range, team and beginning of last name. Criteria are
+     * translated into a single query reading at most limit + 1 rows. Pages are continued by keyset: the next page
+     * starts after the last employee of previous page, so far pages cost as much as the first one and employees
+     * hired or fired between pages don't shift following pages.
+     *
+     * @param searchQuery - criteria, order and page. Levels are alternatives, other criteria have to match all. Salary
+     *                    bounds are exclusive. Name is matched with beginning of last name, letter case as compared by
+     *                    database. Employees are ordered by id, last name or salary, ties broken by id. Limit has to be
+     *                    between 1 and 1000. Cursor has to come from previous page of the same order, can be null for
+     *                    the first page.
+     * @return page of employees with cursor of the next page.
+     * @throws InvalidOperation - if limit is out of range, salary bounds are inverted or cursor is not valid for the
+     *                          order, exception will be thrown.
+     */
+    public EmployeeSearchPageDto search(EmployeeSearchQuery searchQuery) throws InvalidOperation {
+        EmployeeSearchOrder order = searchQuery.getSort() == null ? EmployeeSearchOrder.ID : searchQuery.getSort();
+        int limit = searchQuery.getLimit();
+        if (limit < 1 || limit > MAX_LIMIT || (searchQuery.getSalaryFrom() != null && searchQuery.getSalaryTo() != null
+                && searchQuery.getSalaryFrom() > searchQuery.getSalaryTo())) {
+            throw new InvalidOperation();
+        }
+        Specification<Employee> specification = criteriaOf(searchQuery);
+        if (searchQuery.getAfter() != null) {
+            specification = specification.and(afterCursor(searchQuery.getAfter(), order, searchQuery.isDescending()));
+        }
+        Sort.Direction direction = searchQuery.isDescending() ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort sort = order == EmployeeSearchOrder.ID
+                ? Sort.by(direction, "id")
+                : Sort.by(direction, attributeOf(order), "id");
+
+        Specification<Employee> query = specification;
+        List<List<Employee>> shardPages = shardExecutor.onEachShard(() -> employeeRepository.search(query, sort, limit + 1));
+        List<Employee> employees = shardPages.size() == 1
+                ? shardPages.get(0)
+                : shardPages.stream()
+                .flatMap(List::stream)
+                .sorted(comparatorOf(order, searchQuery.isDescending()))
+                .limit(limit + 1)
+                .collect(Collectors.toList());
+
+        boolean hasMore = employees.size() > limit;
+        if (hasMore) {
+            employees = employees.subList(0, limit);
+        }
+        String nextCursor = employees.isEmpty()
+                ? searchQuery.getAfter()
+                : cursorOf(order, employees.get(employees.size() - 1));
+        return new EmployeeSearchPageDto(employees, nextCursor, hasMore);
+    }
+
+    private Specification<Employee> criteriaOf(EmployeeSearchQuery searchQuery) {
+        Specification<Employee> specification = Specification.where(null);
+        if (searchQuery.getLevel() != null && !searchQuery.getLevel().isEmpty()) {
+            specification = specification.and(levelIn(searchQuery.getLevel()));
+        }
+        if (searchQuery.getSalaryFrom() != null) {
+            specification = specification.and(salaryCentsAbove(Money.floorCents(searchQuery.getSalaryFrom())));
+        }
+        if (searchQuery.getSalaryTo() != null) {
+            specification = specification.and(salaryCentsBelow(Money.ceilCents(searchQuery.getSalaryTo())));
+        }
+        if (searchQuery.getTeamId() != null) {
+            specification = specification.and(inTeam(searchQuery.getTeamId()));
+        }
+        if (searchQuery.getName() != null && !searchQuery.getName().trim().isEmpty()) {
+            specification = specification.and(lastNameStartsWith(searchQuery.getName().trim()));
+        }
+        return specification;
+    }
+
+    /**
+     * Cursor holds order, identifier and sort value of the last employee of a page, encoded so clients treat it as
+     * opaque. Null last name is encoded by leaving the value out.
+     */
+    private String cursorOf(EmployeeSearchOrder order, Employee employee) {
+        String cursor = order.name() + CURSOR_SEPARATOR + employee.getId();
+        if (order == EmployeeSearchOrder.SALARY) {
+            cursor += CURSOR_SEPARATOR + employee.getSalaryCents();
+        } else if (order == EmployeeSearchOrder.LAST_NAME && employee.getLastName() != null) {
+            cursor += CURSOR_SEPARATOR + employee.getLastName();
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Specification<Employee> afterCursor(String cursor, EmployeeSearchOrder order, boolean descending)
+            throws InvalidOperation {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                    .split(CURSOR_SEPARATOR, 3);
+            if (!order.name().equals(parts[0]) || parts.length < 2) {
+                throw new InvalidOperation();
+            }
+            long id = Long.parseLong(parts[1]);
+            switch (order) {
+                case SALARY:
+                    return after("salaryCents", Long.parseLong(parts[2]), id, descending);
+                case LAST_NAME:
+                    return lastNameAfter(parts.length == 3 ? parts[2] : null, id, descending);
+                default:
+                    return idAfter(id, descending);
+            }
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new InvalidOperation();
+        }
+    }
+
+    private String attributeOf(EmployeeSearchOrder order) {
+        return order == EmployeeSearchOrder.SALARY ? "salaryCents" : "lastName";
+    }
+
+    /**
+     * Order of pages of many shards, merged in memory. Last names are compared as Java strings, which can differ
+     * from database collation in letter case.
+     */
+    private Comparator<Employee> comparatorOf(EmployeeSearchOrder order, boolean descending) {
+        Comparator<Employee> comparator;
+        switch (order) {
+            case SALARY:
+                comparator = Comparator.comparingLong(Employee::getSalaryCents).thenComparing(Employee::getId);
+                break;
+            case LAST_NAME:
+                comparator = Comparator.comparing(Employee::getLastName,
+                        Comparator.nullsFirst(Comparator.<String>naturalOrder())).thenComparing(Employee::getId);
+                break;
+            default:
+                comparator = Comparator.comparing(Employee::getId);
+        }
+        return descending ? comparator.reversed() : comparator;
+    }
+}
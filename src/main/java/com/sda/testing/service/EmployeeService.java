@@ -1,22 +1,40 @@
 package com.sda.testing.service;
 
 import com.sda.testing.exception.InvalidOperation;
+import com.sda.testing.index.EmployeeIndexes;
+import com.sda.testing.journal.SalaryJournal;
 import com.sda.testing.model.Employee;
 import com.sda.testing.model.EmployeeLevel;
+import com.sda.testing.model.Job;
+import com.sda.testing.model.JobType;
+import com.sda.testing.model.SalaryChange;
+import com.sda.testing.payroll.Money;
 import com.sda.testing.repository.EmployeeRepository;
 import com.sda.testing.repository.TeamRepository;
+import com.sda.testing.sharding.ShardExecutor;
+import com.sda.testing.store.EmployeeRecordStore;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @AllArgsConstructor
 public class EmployeeService {
+    private static final Set<String> EMPLOYEE_FIELDS =
+            new HashSet<>(Arrays.asList("id", "firstName", "lastName", "salary", "level"));
+
     private final EmployeeRepository employeeRepository;
     private final TeamRepository teamRepository;
+    private final SalaryJournal salaryJournal;
+    private final EmployeeIndexes employeeIndexes;
+    private final SalaryRaiseBuffer salaryRaiseBuffer;
+    private final ShardExecutor shardExecutor;
+    private final EmployeeRecordStore employeeRecordStore;
+    private final JobService jobService;
 
     /**
      * List all employees.
@@ -24,6 +42,9 @@ public class EmployeeService {
      * @return list of employees.
      */
     public List<Employee> findAll() {
+        if (employeeRecordStore.isEnabled()) {
+            return employeeRecordStore.findAll(null);
+        }
         return employeeRepository.findAll();
     }
 
@@ -36,12 +57,30 @@ public class EmployeeService {
     public List<Employee> findAllFrom(EmployeeLevel level) {
         Optional<EmployeeLevel> levelOptional = Optional.ofNullable(level);
         if (levelOptional.isPresent()) {
+            if (employeeRecordStore.isEnabled()) {
+                return employeeRecordStore.findAll(level);
+            }
             return employeeRepository.findAllByLevel(level);
         } else {
             return findAll();
         }
     }
 
+    /**
+     * List employees who are of given employee type, with only requested attributes read from database.
+     *
+     * @param level  - type, can be null, then all employees should be returned.
+     * @param fields - names of employee attributes: id, firstName, lastName, salary, level. Can't be empty.
+     * @return list of employees, each one as map of requested attributes.
+     * @throws InvalidOperation - if fields are empty or contain unknown attribute, exception will be thrown.
+     */
+    public List<Map<String, Object>> findAllFrom(EmployeeLevel level, List<String> fields) throws InvalidOperation {
+        if (fields == null || fields.isEmpty() || !EMPLOYEE_FIELDS.containsAll(fields)) {
+            throw new InvalidOperation();
+        }
+        return employeeRepository.findAllProjected(new ArrayList<>(new LinkedHashSet<>(fields)), level, null);
+    }
+
     /**
      * Find employees by salary.
      *
@@ -54,33 +93,100 @@ public class EmployeeService {
         Optional<Double> lowerBoundOptional = Optional.ofNullable(salaryFrom);
         Optional<Double> upperBoundOptional = Optional.ofNullable(salaryTo);
 
-        double lowerBound = lowerBoundOptional.orElse(0d);
-        double upperBound = upperBoundOptional.orElse(Double.MAX_VALUE);
+        long lowerBound = Money.floorCents(lowerBoundOptional.orElse(0d));
+        long upperBound = Money.ceilCents(upperBoundOptional.orElse(Double.MAX_VALUE));
+
+        if (employeeRecordStore.isEnabled()) {
+            return employeeRecordStore.findAllBySalary(lowerBound, upperBound);
+        }
 
-        List<Employee> foundEmployees = findAll().stream().filter(employee ->
-                employee.getSalary() > lowerBound && employee.getSalary() < upperBound
-        ).collect(Collectors.toList());
+        List<Employee> foundEmployees = shardExecutor.onEachShard(() ->
+                employeeRepository.findAllBySalaryCentsGreaterThanAndSalaryCentsLessThan(lowerBound, upperBound)
+        ).stream().flatMap(List::stream).collect(Collectors.toList());
 
         return foundEmployees;
 
     }
 
     /**
-     * Give raise to employee found by Id.
+     * Find employees matching all given criteria. Criteria are resolved by bitmap index, no employee is read.
+     *
+     * @param levels     - accepted levels. Can be null or empty, then level is not checked.
+     * @param teamIds    - identifiers of accepted teams. Can be null or empty, then team is not checked.
+     * @param salaryFrom - lower bound of salary. Can be null, then should be ignored.
+     * @param salaryTo   - upper bound of salary. Can be null, then should be ignored.
+     * @return identifiers of employees which match every given criterion, ascending.
+     * @throws InvalidOperation - if lower bound of salary is above upper bound, exception will be thrown.
+     */
+    public long[] filterIds(List<EmployeeLevel> levels, List<Long> teamIds, Double salaryFrom, Double salaryTo)
+            throws InvalidOperation {
+        validateSalaryBand(salaryFrom, salaryTo);
+        return employeeIndexes.bitmaps()
+                .filter(levels, teamIds, lowerSalaryBound(salaryFrom), upperSalaryBound(salaryTo));
+    }
+
+    /**
+     * Count employees matching all given criteria, see {@link #filterIds}.
+     *
+     * @return number of employees which match every given criterion.
+     * @throws InvalidOperation - if lower bound of salary is above upper bound, exception will be thrown.
+     */
+    public int countMatching(List<EmployeeLevel> levels, List<Long> teamIds, Double salaryFrom, Double salaryTo)
+            throws InvalidOperation {
+        validateSalaryBand(salaryFrom, salaryTo);
+        return employeeIndexes.bitmaps()
+                .count(levels, teamIds, lowerSalaryBound(salaryFrom), upperSalaryBound(salaryTo));
+    }
+
+    private void validateSalaryBand(Double salaryFrom, Double salaryTo) throws InvalidOperation {
+        if (salaryFrom != null && salaryTo != null && salaryFrom > salaryTo) {
+            throw new InvalidOperation();
+        }
+    }
+
+    private long lowerSalaryBound(Double salaryFrom) {
+        return salaryFrom == null ? Long.MIN_VALUE : Money.floorCents(salaryFrom);
+    }
+
+    private long upperSalaryBound(Double salaryTo) {
+        return salaryTo == null ? Long.MAX_VALUE : Money.ceilCents(salaryTo);
+    }
+
+    /**
+     * Find employees by name, tolerating incomplete words and typos.
+     *
+     * @param query - one or more beginnings of first or last name, can't be empty.
+     * @param limit - maximal number of returned employees, between 1 and 100.
+     * @return list of employees, best matches first.
+     * @throws InvalidOperation - if query is empty or limit is out of range, exception will be thrown.
+     */
+    public List<Employee> searchByName(String query, int limit) throws InvalidOperation {
+        if (query == null || query.trim().isEmpty() || limit < 1 || limit > 100) {
+            throw new InvalidOperation();
+        }
+        List<Long> foundIds = employeeIndexes.names().search(query, limit);
+        Map<Long, Employee> employeesById = employeeRepository.findAllById(foundIds).stream()
+                .collect(Collectors.toMap(Employee::getId, Function.identity()));
+        return foundIds.stream()
+                .map(employeesById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Give raise to employee found by Id. New salary is rounded to whole cents, see {@link Money#addPercent}.
      *
      * @param employeeId         - employee identifier, can't be null.
      * @param salaryRaisePercent - percentage of salary raise. Value can't be lower than -5 and higher than 100.
      * @throws InvalidOperation - if values of percentage or employee id is not provided, exception will be thrown.
      */
     public void giveRaise(Long employeeId, double salaryRaisePercent) throws InvalidOperation {
-        if (employeeId == null || salaryRaisePercent < -5 || salaryRaisePercent > 100) {
+        if (!isValidRaise(employeeId, salaryRaisePercent)) {
             throw new InvalidOperation();
         } else {
             Optional<Employee> employeeOptional = employeeRepository.findById(employeeId);
             if (employeeOptional.isPresent()) {
-                Employee employee = employeeOptional.get();
-                employee.setSalary(employee.getSalary() * (1 + (salaryRaisePercent / 100)));
-                employeeRepository.save(employee);
+                raise(employeeOptional.get(), salaryRaisePercent);
             } else {
                 throw new InvalidOperation();
             }
@@ -88,6 +194,66 @@ public class EmployeeService {
 
     }
 
+    /**
+     * Saves employee with raised salary, together with any other change made to it, and records the raise.
+     */
+    private void raise(Employee employee, double salaryRaisePercent) {
+        double oldSalary = employee.getSalary();
+        employee.setSalaryCents(Money.addPercent(employee.getSalaryCents(), salaryRaisePercent));
+        employeeRepository.save(employee);
+        salaryJournal.append(employee.getId(), oldSalary, employee.getSalary(), employee.getLevel());
+    }
+
+    /**
+     * Give raise to employee found by Id, written to database with next batch of raises if write-behind buffer is
+     * enabled, or immediately otherwise.
+     *
+     * @param employeeId         - employee identifier, can't be null.
+     * @param salaryRaisePercent - percentage of salary raise. Value can't be lower than -5 and higher than 100.
+     * @return future completed when raise is written, completed exceptionally with {@link InvalidOperation} if
+     * employee does not exist.
+     * @throws InvalidOperation - if values of percentage or employee id is not provided, exception will be thrown.
+     */
+    public CompletableFuture<Void> giveRaiseBuffered(Long employeeId, double salaryRaisePercent) throws InvalidOperation {
+        if (!isValidRaise(employeeId, salaryRaisePercent)) {
+            throw new InvalidOperation();
+        }
+        if (salaryRaiseBuffer.isEnabled()) {
+            return salaryRaiseBuffer.submit(employeeId, salaryRaisePercent);
+        }
+        CompletableFuture<Void> completion = new CompletableFuture<>();
+        try {
+            giveRaise(employeeId, salaryRaisePercent);
+            completion.complete(null);
+        } catch (InvalidOperation invalidOperation) {
+            completion.completeExceptionally(invalidOperation);
+        }
+        return completion;
+    }
+
+    /**
+     * Start background job giving raise to all employees, or to employees on given level.
+     *
+     * @param level              - level of raised employees. Can be null, then all employees are raised.
+     * @param salaryRaisePercent - percentage of salary raise. Value can't be lower than -5 and higher than 100.
+     * @return queued job, to be polled for progress.
+     * @throws InvalidOperation - if percentage is out of range, exception will be thrown.
+     */
+    public Job giveRaiseToAll(EmployeeLevel level, double salaryRaisePercent) throws InvalidOperation {
+        if (!isValidRaise(0L, salaryRaisePercent)) {
+            throw new InvalidOperation();
+        }
+        return jobService.submit(Job.builder()
+                .type(JobType.COMPANY_RAISE)
+                .level(level)
+                .percentRaise(salaryRaisePercent)
+                .build());
+    }
+
+    private boolean isValidRaise(Long employeeId, double salaryRaisePercent) {
+        return employeeId != null && salaryRaisePercent >= -5 && salaryRaisePercent <= 100;
+    }
+
     /**
      * Promote employee. Allowed promotions are:
      * - WORKER -> LEAD
@@ -110,17 +276,17 @@ public class EmployeeService {
             switch (employee.getLevel()) {
                 case WORKER:
                     employee.setLevel(EmployeeLevel.LEAD);
-                    giveRaise(employeeId, 5);
+                    raise(employee, 5);
                     break;
                 case LEAD:
                 case SALES:
                 case ACCOUNTING:
                     employee.setLevel(EmployeeLevel.MANAGER);
-                    giveRaise(employeeId, 5);
+                    raise(employee, 5);
                     break;
                 case MANAGER:
                     employee.setLevel(EmployeeLevel.EXECUTIVE);
-                    giveRaise(employeeId, 3);
+                    raise(employee, 3);
                     break;
                 case EXECUTIVE:
                 case INDEPENDENT:
@@ -131,4 +297,18 @@ public class EmployeeService {
             throw new InvalidOperation();
         }
     }
+
+    /**
+     * List salary changes of employee, oldest first.
+     *
+     * @param employeeId - employee identifier, can't be null.
+     * @return list of salary changes recorded in salary journal.
+     * @throws InvalidOperation - if employee id is not provided, exception will be thrown.
+     */
+    public List<SalaryChange> salaryHistory(Long employeeId) throws InvalidOperation {
+        if (employeeId == null) {
+            throw new InvalidOperation();
+        }
+        return salaryJournal.history(employeeId);
+    }
 }
@@ -0,0 +1,88 @@
+package com.sda.testing.service;
+
+import com.sda.testing.exception.InvalidOperation;
+import com.sda.testing.hierarchy.ClosureTable;
+import com.sda.testing.model.Employee;
+import com.sda.testing.payroll.Money;
+import com.sda.testing.repository.EmployeeRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+
+@Service
+@RequiredArgsConstructor
+public class HierarchyService {
+    private final EmployeeRepository employeeRepository;
+    private final ClosureTable closureTable;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Make employee report to given manager. Reports of the employee move together with the employee. Changes of
+     * reporting lines are serialized, so two concurrent moves can't create a cycle.
+     *
+     * @param employeeId - employee identifier, can't be null.
+     * @param managerId  - identifier of new manager. Can be null, then employee reports to nobody.
+     * @throws InvalidOperation - if employee or manager does not exist, or manager reports to the employee directly
+     *                          or indirectly, exception will be thrown.
+     */
+    public synchronized void assignManager(Long employeeId, Long managerId) throws InvalidOperation {
+        if (employeeId == null) {
+            throw new InvalidOperation();
+        }
+        Boolean assigned = transactionTemplate.execute(status -> {
+            Optional<Employee> employeeOptional = employeeRepository.findById(employeeId);
+            if (!employeeOptional.isPresent()) {
+                return false;
+            }
+            if (managerId != null && (!employeeRepository.existsById(managerId)
+                    || closureTable.isInSubtree(employeeId, managerId))) {
+                return false;
+            }
+            Employee employee = employeeOptional.get();
+            employee.setManagerId(managerId);
+            employeeRepository.save(employee);
+            if (managerId == null) {
+                closureTable.detach(employeeId);
+            } else {
+                closureTable.attach(employeeId, managerId);
+            }
+            return true;
+        });
+        if (!Boolean.TRUE.equals(assigned)) {
+            throw new InvalidOperation();
+        }
+    }
+
+    /**
+     * List direct and indirect reports of manager.
+     *
+     * @param managerId - manager identifier, can't be null.
+     * @param maxDepth  - number of management levels to descend, 1 for direct reports only. Can be null, then all
+     *                  levels are listed.
+     * @return list of reports, closest levels first.
+     * @throws InvalidOperation - if manager does not exist or depth is lower than 1, exception will be thrown.
+     */
+    public List<Employee> reportsOf(Long managerId, Integer maxDepth) throws InvalidOperation {
+        if (managerId == null || (maxDepth != null && maxDepth < 1) || !employeeRepository.existsById(managerId)) {
+            throw new InvalidOperation();
+        }
+        return employeeRepository.findReports(managerId, maxDepth == null ? Integer.MAX_VALUE : maxDepth);
+    }
+
+    /**
+     * Return sum of salaries of all direct and indirect reports of manager, without salary of the manager.
+     *
+     * @param managerId - manager identifier, can't be null.
+     * @return sum of salaries.
+     * @throws InvalidOperation - if manager does not exist, exception will be thrown.
+     */
+    public double salaryUnder(Long managerId) throws InvalidOperation {
+        if (managerId == null || !employeeRepository.existsById(managerId)) {
+            throw new InvalidOperation();
+        }
+        return Money.toAmount(closureTable.salaryCentsUnder(managerId));
+    }
+}
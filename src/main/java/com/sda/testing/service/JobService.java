@@ -0,0 +1,212 @@
+package com.sda.testing.service;
+
+import com.sda.testing.exception.InvalidOperation;
+import com.sda.testing.job.JobHandler;
+import com.sda.testing.model.Job;
+import com.sda.testing.model.JobStatus;
+import com.sda.testing.model.JobType;
+import com.sda.testing.repository.JobRepository;
+import com.sda.testing.sharding.ShardContext;
+import com.sda.testing.sharding.ShardExecutor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs long operations in background on a fixed number of worker threads. Every task of the pool processes a single
+ * chunk of one job and queues the next chunk behind tasks of other jobs, so concurrent jobs progress together and
+ * cancellation takes effect between chunks. Job state is kept in the job table; jobs interrupted by shutdown are
+ * resumed from their last committed chunk once the application is started again.
+ */
+@Slf4j
+@Service
+public class JobService {
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final JobRepository jobRepository;
+    private final ShardExecutor shardExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<JobType, JobHandler> handlers = new EnumMap<>(JobType.class);
+    private final ThreadPoolExecutor workers;
+    private final int chunkSize;
+
+    public JobService(JobRepository jobRepository,
+                      ShardExecutor shardExecutor,
+                      TransactionTemplate transactionTemplate,
+                      List<JobHandler> jobHandlers,
+                      @Value("${jobs.workers:2}") int workers,
+                      @Value("${jobs.chunk-size:1000}") int chunkSize) {
+        this.jobRepository = jobRepository;
+        this.shardExecutor = shardExecutor;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+        jobHandlers.forEach(handler -> handlers.put(handler.type(), handler));
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                runnable -> new Thread(runnable, "job-worker-" + threadNumber.incrementAndGet()));
+    }
+
+    /**
+     * Schedule unfinished jobs of every shard, each on the shard it is stored in.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinished() {
+        int resumed = shardExecutor.onEachShard(this::resumeUnfinishedOnCurrentShard).stream()
+                .mapToInt(Integer::intValue)
+                .sum();
+        if (resumed > 0) {
+            log.info("Resumed {} unfinished jobs", resumed);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        workers.shutdown();
+        if (!workers.awaitTermination(30, TimeUnit.SECONDS)) {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Queue job for processing. Job runs on the shard of the current tenant.
+     *
+     * @param job - job with type and parameters set.
+     * @return queued job with its identifier.
+     */
+    public Job submit(Job job) {
+        job.setStatus(JobStatus.QUEUED);
+        job.setCreatedAt(System.currentTimeMillis());
+        job.setShard(ShardContext.currentShard());
+        job.setTotal(handlers.get(job.getType()).total(job));
+        Job saved = jobRepository.save(job);
+        schedule(saved.getId(), saved.getShard());
+        return saved;
+    }
+
+    /**
+     * Return current state of job.
+     *
+     * @param jobId - job identifier, can't be null.
+     * @return job with its progress.
+     * @throws InvalidOperation - if job does not exist, exception will be thrown.
+     */
+    public Job find(Long jobId) throws InvalidOperation {
+        if (jobId == null) {
+            throw new InvalidOperation();
+        }
+        return jobRepository.findById(jobId).orElseThrow(InvalidOperation::new);
+    }
+
+    /**
+     * Request cancellation of job. Chunk being processed is finished, job is cancelled before the next one.
+     *
+     * @param jobId - job identifier, can't be null.
+     * @return job with cancellation requested.
+     * @throws InvalidOperation - if job does not exist or is already finished, exception will be thrown.
+     */
+    public Job cancel(Long jobId) throws InvalidOperation {
+        Job job = find(jobId);
+        Job cancelled = transactionTemplate.execute(status -> jobRepository.findById(job.getId())
+                .filter(current -> !current.getStatus().isFinished())
+                .map(current -> {
+                    current.setCancelRequested(true);
+                    return jobRepository.save(current);
+                })
+                .orElse(null));
+        if (cancelled == null) {
+            throw new InvalidOperation();
+        }
+        return cancelled;
+    }
+
+    /**
+     * Return file holding result of succeeded job.
+     *
+     * @param jobId - job identifier, can't be null.
+     * @return result file.
+     * @throws InvalidOperation - if job does not exist, has not succeeded or has no result, exception will be thrown.
+     */
+    public Path result(Long jobId) throws InvalidOperation {
+        Job job = find(jobId);
+        if (job.getStatus() != JobStatus.SUCCEEDED) {
+            throw new InvalidOperation();
+        }
+        return handlers.get(job.getType()).result(job)
+                .filter(Files::exists)
+                .orElseThrow(InvalidOperation::new);
+    }
+
+    private int resumeUnfinishedOnCurrentShard() {
+        String shard = ShardContext.currentShard();
+        List<Job> unfinished = jobRepository.findAllByStatusInOrderByIdAsc(
+                Arrays.asList(JobStatus.QUEUED, JobStatus.RUNNING));
+        unfinished.forEach(job -> schedule(job.getId(), shard));
+        return unfinished.size();
+    }
+
+    private void schedule(Long jobId, String shard) {
+        try {
+            workers.execute(() -> runChunk(jobId, shard));
+        } catch (RejectedExecutionException e) {
+            log.info("Job {} left for resume after restart", jobId);
+        }
+    }
+
+    private void runChunk(Long jobId, String shard) {
+        boolean hasMore;
+        try {
+            hasMore = ShardContext.callOn(shard, () -> transactionTemplate.execute(status -> processChunk(jobId)));
+        } catch (RuntimeException e) {
+            log.error("Job {} failed", jobId, e);
+            ShardContext.callOn(shard, () -> transactionTemplate.execute(status -> fail(jobId, e)));
+            return;
+        }
+        if (hasMore) {
+            schedule(jobId, shard);
+        }
+    }
+
+    private boolean processChunk(Long jobId) {
+        Optional<Job> jobOptional = jobRepository.findById(jobId);
+        if (!jobOptional.isPresent() || jobOptional.get().getStatus().isFinished()) {
+            return false;
+        }
+        Job job = jobOptional.get();
+        if (job.isCancelRequested()) {
+            finish(job, JobStatus.CANCELLED);
+            return false;
+        }
+        job.setStatus(JobStatus.RUNNING);
+        boolean done = handlers.get(job.getType()).processChunk(job, chunkSize);
+        if (done) {
+            finish(job, JobStatus.SUCCEEDED);
+        } else {
+            jobRepository.save(job);
+        }
+        return !done;
+    }
+
+    private Job fail(Long jobId, RuntimeException e) {
+        return jobRepository.findById(jobId).map(job -> {
+            String message = String.valueOf(e.getMessage());
+            job.setError(message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message);
+            return finish(job, JobStatus.FAILED);
+        }).orElse(null);
+    }
+
+    private Job finish(Job job, JobStatus status) {
+        job.setStatus(status);
+        job.setFinishedAt(System.currentTimeMillis());
+        return jobRepository.save(job);
+    }
+}
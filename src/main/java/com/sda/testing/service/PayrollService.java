@@ -0,0 +1,169 @@
+package com.sda.testing.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sda.testing.model.Employee;
+import com.sda.testing.model.EmployeeSalaryDto;
+import com.sda.testing.model.PayrollSummary;
+import com.sda.testing.payroll.TaxRule;
+import com.sda.testing.repository.EmployeeRepository;
+import com.sda.testing.sharding.ShardContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Service
+public class PayrollService {
+    private static final int SEQUENTIAL_THRESHOLD = 1024;
+
+    private final EmployeeRepository employeeRepository;
+    private final TaxRule taxRule;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final ForkJoinPool pool;
+
+    public PayrollService(EmployeeRepository employeeRepository,
+                          TaxRule taxRule,
+                          ObjectMapper objectMapper,
+                          @Value("${payroll.chunk-size:10000}") int chunkSize,
+                          @Value("${payroll.parallelism:0}") int parallelism) {
+        this.employeeRepository = employeeRepository;
+        this.taxRule = taxRule;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Compute net and gross salaries of all employees of the current shard, see {@link #run(List, OutputStream)}.
+     */
+    public PayrollSummary run(OutputStream outputStream) throws IOException {
+        return run(Collections.singletonList(ShardContext.currentShard()), outputStream);
+    }
+
+    /**
+     * Compute net and gross salaries of all employees of given shards and write them as JSON lines, shard after
+     * shard, ordered by employee id within a shard. Employees are read in chunks, next chunk is read from database
+     * while previous one is being computed. Each chunk is read by its own repository call, so entities are not kept
+     * by a persistence context once computed, as long as none is bound to the calling thread.
+     *
+     * @param shards - shards to read, null standing for the default one.
+     * @param outputStream - stream receiving one {@link EmployeeSalaryDto} per line, it is not closed.
+     * @return summary of the run.
+     * @throws IOException if writing to the stream fails.
+     */
+    public PayrollSummary run(List<String> shards, OutputStream outputStream) throws IOException {
+        long runStarted = System.nanoTime();
+        long employees = 0;
+        int chunks = 0;
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(new SerializedString("\n"));
+
+            for (String shard : shards) {
+                List<Employee> chunk = readChunkAfter(shard, 0L);
+                while (!chunk.isEmpty()) {
+                    long chunkStarted = System.nanoTime();
+                    EmployeeSalaryDto[] salaries = new EmployeeSalaryDto[chunk.size()];
+                    ForkJoinTask<Void> computation =
+                            pool.submit(new SalaryComputation(chunk, salaries, 0, chunk.size()));
+
+                    List<Employee> nextChunk = chunk.size() < chunkSize
+                            ? Collections.emptyList()
+                            : readChunkAfter(shard, chunk.get(chunk.size() - 1).getId());
+
+                    computation.join();
+                    for (EmployeeSalaryDto salary : salaries) {
+                        objectMapper.writeValue(generator, salary);
+                    }
+                    generator.flush();
+
+                    employees += salaries.length;
+                    chunks++;
+                    logThroughput("Payroll chunk " + chunks, salaries.length, chunkStarted);
+                    chunk = nextChunk;
+                }
+            }
+            if (employees > 0) {
+                generator.writeRaw('\n');
+            }
+        }
+        logThroughput("Payroll run", employees, runStarted);
+        return new PayrollSummary(employees, chunks, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - runStarted));
+    }
+
+    /**
+     * Compute net and gross salaries of given employees.
+     *
+     * @param employees - employees, in any order.
+     * @return salaries, in order of employees.
+     */
+    public EmployeeSalaryDto[] computeSalaries(List<Employee> employees) {
+        EmployeeSalaryDto[] salaries = new EmployeeSalaryDto[employees.size()];
+        pool.invoke(new SalaryComputation(employees, salaries, 0, employees.size()));
+        return salaries;
+    }
+
+    private List<Employee> readChunkAfter(String shard, Long lastId) {
+        return ShardContext.callOn(shard,
+                () -> employeeRepository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, chunkSize)));
+    }
+
+    private void logThroughput(String stage, long employees, long startedNanos) {
+        long micros = Math.max(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startedNanos), 1);
+        log.info("{}: {} employees in {} ms ({} employees/s)",
+                stage, employees, micros / 1000, employees * 1_000_000 / micros);
+    }
+
+    /**
+     * Splits chunk until parts are small enough to compute sequentially.
+     */
+    private class SalaryComputation extends RecursiveAction {
+        private final List<Employee> employees;
+        private final EmployeeSalaryDto[] salaries;
+        private final int from;
+        private final int to;
+
+        private SalaryComputation(List<Employee> employees, EmployeeSalaryDto[] salaries, int from, int to) {
+            this.employees = employees;
+            this.salaries = salaries;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    Employee employee = employees.get(i);
+                    double net = Math.round(taxRule.netSalary(employee.getSalary()) * 100) / 100.0;
+                    salaries[i] = new EmployeeSalaryDto(
+                            employee.getFirstName() + " " + employee.getLastName(), net, employee.getSalary());
+                }
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new SalaryComputation(employees, salaries, from, middle),
+                        new SalaryComputation(employees, salaries, middle, to));
+            }
+        }
+    }
+}
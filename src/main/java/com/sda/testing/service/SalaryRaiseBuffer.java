@@ -0,0 +1,217 @@
+package com.sda.testing.service;
+
+import com.sda.testing.exception.InvalidOperation;
+import com.sda.testing.journal.RaiseWriteAheadLog;
+import com.sda.testing.journal.SalaryJournal;
+import com.sda.testing.model.Employee;
+import com.sda.testing.model.RaiseBatch;
+import com.sda.testing.payroll.Money;
+import com.sda.testing.repository.EmployeeRepository;
+import com.sda.testing.repository.RaiseBatchRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Write-behind buffer of salary raises. Raises of the same employee are collected in memory and written in batches,
+ * either every flush interval or when number of buffered employees reaches the batch size. Accepted raises are
+ * written to a local write-ahead log first, so they survive restart.
+ * <p>
+ * Identifier of every batch is saved together with its raises, so a batch committed just before the application
+ * stopped is not applied again on restart. A batch which failed to commit is kept in the log and retried with the
+ * next flush.
+ */
+@Slf4j
+@Component
+public class SalaryRaiseBuffer {
+    private final EmployeeRepository employeeRepository;
+    private final RaiseBatchRepository raiseBatchRepository;
+    private final SalaryJournal salaryJournal;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor flushExecutor;
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final RaiseWriteAheadLog writeAheadLog;
+
+    private final Object flushLock = new Object();
+    private Map<Long, PendingRaise> pending = new HashMap<>();
+    private boolean flushRequested;
+
+    public SalaryRaiseBuffer(EmployeeRepository employeeRepository,
+                             RaiseBatchRepository raiseBatchRepository,
+                             SalaryJournal salaryJournal,
+                             TransactionTemplate transactionTemplate,
+                             @Qualifier("applicationTaskExecutor") Executor flushExecutor,
+                             @Value("${salary.write-behind.enabled:false}") boolean enabled,
+                             @Value("${salary.write-behind.max-batch-size:500}") int maxBatchSize,
+                             @Value("${salary.write-behind.directory:journal/raises}") String directory) {
+        this.employeeRepository = employeeRepository;
+        this.raiseBatchRepository = raiseBatchRepository;
+        this.salaryJournal = salaryJournal;
+        this.transactionTemplate = transactionTemplate;
+        this.flushExecutor = flushExecutor;
+        this.enabled = enabled;
+        this.maxBatchSize = maxBatchSize;
+        this.writeAheadLog = enabled ? new RaiseWriteAheadLog(Paths.get(directory)) : null;
+    }
+
+    @PostConstruct
+    public void recover() {
+        if (enabled) {
+            writeAheadLog.recover(batchId -> raiseBatchRepository.existsById(batchId.toString()),
+                    (employeeId, percent) -> compose(employeeId, percent));
+            if (!pending.isEmpty()) {
+                log.info("Recovered buffered raises of {} employees", pending.size());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (enabled) {
+            flush();
+            writeAheadLog.close();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Accept raise to be written with next batch.
+     *
+     * @param employeeId         - employee identifier.
+     * @param salaryRaisePercent - percentage of salary raise, already validated.
+     * @return future completed once raise is written to database, or completed exceptionally with
+     * {@link InvalidOperation} if employee does not exist.
+     */
+    public CompletableFuture<Void> submit(long employeeId, double salaryRaisePercent) {
+        CompletableFuture<Void> completion;
+        boolean batchFull;
+        synchronized (this) {
+            writeAheadLog.append(employeeId, salaryRaisePercent);
+            completion = compose(employeeId, salaryRaisePercent);
+            batchFull = pending.size() >= maxBatchSize && !flushRequested;
+            flushRequested |= batchFull;
+        }
+        if (batchFull) {
+            flushExecutor.execute(this::flush);
+        }
+        return completion;
+    }
+
+    /**
+     * Write all buffered raises in one transaction.
+     */
+    @Scheduled(fixedDelayString = "${salary.write-behind.flush-interval-ms:100}")
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (flushLock) {
+            Map<Long, PendingRaise> batch;
+            UUID batchId;
+            synchronized (this) {
+                flushRequested = false;
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = pending;
+                pending = new HashMap<>();
+                batchId = writeAheadLog.roll();
+            }
+            Map<Long, Double> oldSalaries = new HashMap<>();
+            List<Employee> employees;
+            try {
+                employees = transactionTemplate.execute(status -> applyRaises(batchId, batch, oldSalaries));
+            } catch (RuntimeException e) {
+                if (!isApplied(batchId)) {
+                    log.error("Flush of buffered raises of {} employees failed, retrying with next batch",
+                            batch.size(), e);
+                    requeue(batch);
+                    return;
+                }
+                log.warn("Flush of buffered raises of {} employees failed after commit", batch.size(), e);
+                employees = employeeRepository.findAllById(batch.keySet());
+            }
+            writeAheadLog.commitRolled();
+            for (Employee employee : employees) {
+                PendingRaise raise = batch.remove(employee.getId());
+                salaryJournal.append(employee.getId(), oldSalaries.get(employee.getId()), employee.getSalary(),
+                        employee.getLevel());
+                raise.completions.forEach(completion -> completion.complete(null));
+            }
+            batch.values().forEach(raise -> raise.completions.forEach(
+                    completion -> completion.completeExceptionally(new InvalidOperation())));
+        }
+    }
+
+    /**
+     * Put raises of failed batch back in front of raises accepted during flush. Their records stay in the rolled
+     * file of the log, so they are written with next batch or recovered after restart.
+     */
+    private synchronized void requeue(Map<Long, PendingRaise> batch) {
+        pending.forEach((employeeId, raise) -> batch.merge(employeeId, raise, PendingRaise::append));
+        pending = batch;
+    }
+
+    /**
+     * Commit can fail after the database applied it, such batch must not be retried.
+     */
+    private boolean isApplied(UUID batchId) {
+        try {
+            return raiseBatchRepository.existsById(batchId.toString());
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private List<Employee> applyRaises(UUID batchId, Map<Long, PendingRaise> batch, Map<Long, Double> oldSalaries) {
+        List<Employee> employees = employeeRepository.findAllById(batch.keySet());
+        for (Employee employee : employees) {
+            oldSalaries.put(employee.getId(), employee.getSalary());
+            long salaryCents = employee.getSalaryCents();
+            for (double percent : batch.get(employee.getId()).percents) {
+                salaryCents = Money.addPercent(salaryCents, percent);
+            }
+            employee.setSalaryCents(salaryCents);
+        }
+        List<Employee> saved = employeeRepository.saveAll(employees);
+        raiseBatchRepository.deleteAllInBatch();
+        raiseBatchRepository.save(new RaiseBatch(batchId.toString()));
+        return saved;
+    }
+
+    private CompletableFuture<Void> compose(long employeeId, double salaryRaisePercent) {
+        PendingRaise raise = pending.computeIfAbsent(employeeId, id -> new PendingRaise());
+        raise.percents.add(salaryRaisePercent);
+        CompletableFuture<Void> completion = new CompletableFuture<>();
+        raise.completions.add(completion);
+        return completion;
+    }
+
+    /**
+     * Raises are kept as given and applied one by one, so every raise is rounded like an unbuffered one.
+     */
+    private static final class PendingRaise {
+        private final List<Double> percents = new ArrayList<>();
+        private final List<CompletableFuture<Void>> completions = new ArrayList<>();
+
+        private PendingRaise append(PendingRaise later) {
+            percents.addAll(later.percents);
+            completions.addAll(later.completions);
+            return this;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.sda.testing.sharding;
+
+import java.util.function.Supplier;
+
+/**
+ * Shard used by database calls of the current thread. No shard means default shard for single-row operations and
+ * all shards for operations run through {@link ShardExecutor}.
+ */
+public final class ShardContext {
+    private static final ThreadLocal<String> CURRENT_SHARD = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static String currentShard() {
+        return CURRENT_SHARD.get();
+    }
+
+    public static void setCurrentShard(String shard) {
+        CURRENT_SHARD.set(shard);
+    }
+
+    public static void clear() {
+        CURRENT_SHARD.remove();
+    }
+
+    /**
+     * Run given call with database calls routed to given shard, restoring previous shard afterwards.
+     */
+    public static <T> T callOn(String shard, Supplier<T> call) {
+        String previous = CURRENT_SHARD.get();
+        CURRENT_SHARD.set(shard);
+        try {
+            return call.get();
+        } finally {
+            if (previous == null) {
+                CURRENT_SHARD.remove();
+            } else {
+                CURRENT_SHARD.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.sda.testing.sharding;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Runs cross-shard operations. Call made for a tenant runs only on its shard, call made without tenant runs in
+ * parallel on every shard, and results of all shards are returned for merging.
+ */
+@Component
+public class ShardExecutor {
+    private final ShardingProperties shardingProperties;
+    private final Executor executor;
+
+    public ShardExecutor(ShardingProperties shardingProperties,
+                         @Qualifier("applicationTaskExecutor") Executor executor) {
+        this.shardingProperties = shardingProperties;
+        this.executor = executor;
+    }
+
+    /**
+     * @param query - database call, run once per shard.
+     * @return results of every shard the call was run on.
+     */
+    public <T> List<T> onEachShard(Supplier<T> query) {
+        if (!shardingProperties.isEnabled() || ShardContext.currentShard() != null) {
+            return Collections.singletonList(query.get());
+        }
+        List<CompletableFuture<T>> results = shardingProperties.shardNames().stream()
+                .map(shard -> CompletableFuture.supplyAsync(() -> ShardContext.callOn(shard, query), executor))
+                .collect(Collectors.toList());
+        try {
+            return results.stream().map(CompletableFuture::join).collect(Collectors.toList());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @return shards a call made now works on, in order. Only element is null when sharding is disabled.
+     */
+    public List<String> targetShards() {
+        if (!shardingProperties.isEnabled()) {
+            return Collections.singletonList(null);
+        }
+        String shard = ShardContext.currentShard();
+        return shard != null ? Collections.singletonList(shard) : shardingProperties.shardNames();
+    }
+
+    /**
+     * @return key identifying set of shards the current thread works on, to be part of cache keys.
+     */
+    public String scope() {
+        String shard = ShardContext.currentShard();
+        return shard == null ? "*" : shard;
+    }
+}
@@ -0,0 +1,35 @@
+package com.sda.testing.sharding;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Hibernate creates schema on default shard only. This initializer runs DDL script generated by Hibernate on the
+ * remaining shards; statements failing because objects already exist are skipped.
+ */
+@RequiredArgsConstructor
+public class ShardSchemaInitializer implements InitializingBean {
+    private final Map<String, DataSource> shardDataSources;
+    private final String defaultShard;
+    private final Path schemaScript;
+
+    @Override
+    public void afterPropertiesSet() {
+        if (schemaScript.toFile().length() == 0) {
+            return;
+        }
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(new FileSystemResource(schemaScript));
+        populator.setContinueOnError(true);
+        shardDataSources.forEach((name, dataSource) -> {
+            if (!name.equals(defaultShard)) {
+                populator.execute(dataSource);
+            }
+        });
+    }
+}
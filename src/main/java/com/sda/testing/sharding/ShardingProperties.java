@@ -0,0 +1,75 @@
+package com.sda.testing.sharding;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "sharding")
+public class ShardingProperties {
+
+    /**
+     * When disabled, spring.datasource is used as the only database.
+     */
+    private boolean enabled;
+
+    /**
+     * Shard receiving calls made without tenant. First shard if not set.
+     */
+    private String defaultShard;
+
+    /**
+     * Shard databases by shard name.
+     */
+    private Map<String, Shard> shards = new TreeMap<>();
+
+    /**
+     * Explicit tenant to shard assignments, other tenants are assigned by hash of their key.
+     */
+    private Map<String, String> tenants = new TreeMap<>();
+
+    public List<String> shardNames() {
+        return new ArrayList<>(shards.keySet());
+    }
+
+    public String defaultShardName() {
+        return defaultShard != null ? defaultShard : shards.keySet().iterator().next();
+    }
+
+    /**
+     * @param shard - shard set for the current thread, null if none.
+     * @return name of shard database calls are routed to, null when sharding is disabled.
+     */
+    public String routedShard(String shard) {
+        if (!enabled) {
+            return null;
+        }
+        return shard != null ? shard : defaultShardName();
+    }
+
+    /**
+     * @param tenant - tenant key.
+     * @return name of shard holding data of given tenant.
+     */
+    public String shardOf(String tenant) {
+        String shard = tenants.get(tenant);
+        if (shard != null) {
+            return shard;
+        }
+        List<String> shardNames = shardNames();
+        return shardNames.get(Math.floorMod(tenant.hashCode(), shardNames.size()));
+    }
+
+    @Data
+    public static class Shard {
+        private String url;
+        private String username;
+        private String password;
+    }
+}
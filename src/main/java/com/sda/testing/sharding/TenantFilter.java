@@ -0,0 +1,35 @@
+package com.sda.testing.sharding;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Routes database calls of request to the shard of tenant given in X-Tenant header. Requests without the header
+ * work on default shard, or on all shards for cross-shard operations.
+ */
+@RequiredArgsConstructor
+public class TenantFilter extends OncePerRequestFilter {
+    public static final String TENANT_HEADER = "X-Tenant";
+
+    private final ShardingProperties shardingProperties;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String tenant = request.getHeader(TENANT_HEADER);
+        if (tenant != null) {
+            ShardContext.setCurrentShard(shardingProperties.shardOf(tenant));
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ShardContext.clear();
+        }
+    }
+}
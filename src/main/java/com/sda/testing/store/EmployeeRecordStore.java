@@ -0,0 +1,437 @@
+package com.sda.testing.store;
+
+import com.sda.testing.event.ChangeType;
+import com.sda.testing.event.EmployeeChangedEvent;
+import com.sda.testing.event.EmployeesChangedEvent;
+import com.sda.testing.model.Employee;
+import com.sda.testing.model.EmployeeLevel;
+import com.sda.testing.model.Team;
+import com.sda.testing.payroll.Money;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Copy of all employees kept outside of Java heap. Employees are fixed size records in a direct buffer, packed without
+ * gaps so the whole store can be scanned sequentially; names are interned in a separate {@link NamePool}. Position of
+ * every employee record is found through a primitive id index, so salary, level or team can be updated in place.
+ * Salaries in cents and level ordinals are also kept in two heap arrays aligned with record slots, so salary sums are
+ * tight loops over long[] instead of strided reads of the buffer.
+ * <p>
+ * Records follow employee changes committed through JPA. Employees read from the store are detached copies, their
+ * team holds identifier only. The store can be written to a snapshot file and mapped back on startup. Enabled with
+ * store.employee.enabled property; can't be used together with sharding, as the store holds one database only.
+ */
+@Component
+public class EmployeeRecordStore {
+    public static final long NO_TEAM = -1;
+
+    static final int RECORD_SIZE = 48;
+
+    private static final int ID_OFFSET = 0;
+    private static final int SALARY_OFFSET = 8;
+    private static final int TEAM_ID_OFFSET = 16;
+    private static final int LEVEL_OFFSET = 24;
+    private static final int FIRST_NAME_OFFSET = 28;
+    private static final int LAST_NAME_OFFSET = 32;
+    private static final int MANAGER_ID_OFFSET = 40;
+    private static final int NO_LEVEL = -1;
+    private static final long NO_MANAGER = -1;
+    private static final EmployeeLevel[] LEVELS = EmployeeLevel.values();
+
+    // snapshot header: magic, record size, cursor, time of snapshot, number of records, number of name bytes
+    private static final int SNAPSHOT_MAGIC = 0x454D5033;
+    private static final int SNAPSHOT_HEADER_SIZE = 32;
+    private static final int SNAPSHOT_RECORD_SIZE_OFFSET = 4;
+    private static final int SNAPSHOT_CURSOR_OFFSET = 8;
+    private static final int SNAPSHOT_RECORDS_OFFSET = 24;
+    private static final int SNAPSHOT_NAME_BYTES_OFFSET = 28;
+
+    private final boolean enabled;
+    private final LongIntHashIndex slots;
+    private final NamePool names;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private ByteBuffer records;
+    private long[] salaryCentsColumn;
+    private int[] levelColumn;
+    private int size;
+
+    public EmployeeRecordStore(@Value("${store.employee.enabled:false}") boolean enabled,
+                               @Value("${store.employee.initial-capacity:1024}") int initialCapacity,
+                               @Value("${sharding.enabled:false}") boolean shardingEnabled) {
+        if (enabled && shardingEnabled) {
+            throw new IllegalStateException("store.employee.enabled can't be used together with sharding.enabled");
+        }
+        this.enabled = enabled;
+        int capacity = enabled ? Math.max(initialCapacity, 16) : 16;
+        this.records = ByteBuffer.allocateDirect(capacity * RECORD_SIZE);
+        this.salaryCentsColumn = new long[capacity];
+        this.levelColumn = new int[capacity];
+        this.slots = new LongIntHashIndex(capacity);
+        this.names = new NamePool(capacity * 16);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Replace content of the store with given employees.
+     *
+     * @param employees - all employees of the company.
+     */
+    public void rebuild(Collection<Employee> employees) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            size = 0;
+            slots.clear();
+            names.clear();
+            employees.forEach(employee -> put(employee.getId(), employee.getFirstName(), employee.getLastName(),
+                    employee.getSalaryCents(), employee.getLevel(),
+                    employee.getTeam() == null ? null : employee.getTeam().getId(), employee.getManagerId()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            apply(event);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeesChanged(EmployeesChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            event.getChanges().forEach(this::apply);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Visit all records under read lock, in storage order. The visitor must not modify the store.
+     *
+     * @param visitor - receives every record.
+     */
+    public void forEach(EmployeeRecordVisitor visitor) {
+        lock.readLock().lock();
+        try {
+            for (int slot = 0; slot < size; slot++) {
+                int position = slot * RECORD_SIZE;
+                visitor.visit(records.getLong(position + ID_OFFSET), records.getLong(position + SALARY_OFFSET),
+                        level(position), records.getLong(position + TEAM_ID_OFFSET));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param level - level of summarized employees, can be null, then all employees are summarized.
+     * @return sum of salaries in cents.
+     */
+    public long sumOfSalaryCents(EmployeeLevel level) {
+        lock.readLock().lock();
+        try {
+            return level == null
+                    ? Money.sum(salaryCentsColumn, size)
+                    : Money.sumWhere(salaryCentsColumn, levelColumn, level.ordinal(), size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param level - level of returned employees, can be null, then all employees are returned.
+     * @return detached copies of employees.
+     */
+    public List<Employee> findAll(EmployeeLevel level) {
+        int levelOrdinal = level == null ? NO_LEVEL : level.ordinal();
+        lock.readLock().lock();
+        try {
+            List<Employee> employees = new ArrayList<>();
+            for (int position = 0; position < size * RECORD_SIZE; position += RECORD_SIZE) {
+                if (level == null || records.getInt(position + LEVEL_OFFSET) == levelOrdinal) {
+                    employees.add(toEmployee(position));
+                }
+            }
+            return employees;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param salaryCentsFrom - exclusive lower bound of salary in cents.
+     * @param salaryCentsTo   - exclusive upper bound of salary in cents.
+     * @return detached copies of employees which salary is between the bounds.
+     */
+    public List<Employee> findAllBySalary(long salaryCentsFrom, long salaryCentsTo) {
+        lock.readLock().lock();
+        try {
+            List<Employee> employees = new ArrayList<>();
+            for (int slot = 0; slot < size; slot++) {
+                long salaryCents = salaryCentsColumn[slot];
+                if (salaryCents > salaryCentsFrom && salaryCents < salaryCentsTo) {
+                    employees.add(toEmployee(slot * RECORD_SIZE));
+                }
+            }
+            return employees;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param id - employee identifier.
+     * @return detached copy of employee, empty if employee is not in the store.
+     */
+    public Optional<Employee> find(long id) {
+        lock.readLock().lock();
+        try {
+            int slot = slots.get(id);
+            return slot == LongIntHashIndex.MISSING ? Optional.empty() : Optional.of(toEmployee(slot * RECORD_SIZE));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return number of stored employees.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return number of off-heap bytes reserved for records and names.
+     */
+    public long offHeapBytes() {
+        lock.readLock().lock();
+        try {
+            return records.capacity() + names.bytes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Write all records and names to snapshot file. The file is replaced atomically, writes to the store wait until
+     * the snapshot is written.
+     *
+     * @param file   - snapshot file.
+     * @param cursor - change log cursor, all changes up to the cursor are contained in the store.
+     */
+    public void writeSnapshot(Path file, long cursor) {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        lock.readLock().lock();
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer usedRecords = records.asReadOnlyBuffer();
+                usedRecords.limit(size * RECORD_SIZE).position(0);
+                ByteBuffer nameBytes = names.contents();
+                ByteBuffer header = ByteBuffer.allocate(SNAPSHOT_HEADER_SIZE);
+                header.putInt(SNAPSHOT_MAGIC)
+                        .putInt(RECORD_SIZE)
+                        .putLong(cursor)
+                        .putLong(System.currentTimeMillis())
+                        .putInt(size)
+                        .putInt(nameBytes.remaining())
+                        .flip();
+                ByteBuffer[] parts = {header, usedRecords, nameBytes};
+                while (header.hasRemaining() || usedRecords.hasRemaining() || nameBytes.hasRemaining()) {
+                    channel.write(parts);
+                }
+                channel.force(true);
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replace content of the store with snapshot file. The file is mapped copy-on-write, so records are not copied
+     * until they are changed or the store grows.
+     *
+     * @param file - snapshot file.
+     * @return change log cursor of the snapshot, empty if the file does not exist or is not a complete snapshot.
+     */
+    public OptionalLong loadSnapshot(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return OptionalLong.empty();
+        }
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            mapped = channel.map(FileChannel.MapMode.PRIVATE, 0, channel.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (mapped.capacity() < SNAPSHOT_HEADER_SIZE || mapped.getInt(0) != SNAPSHOT_MAGIC
+                || mapped.getInt(SNAPSHOT_RECORD_SIZE_OFFSET) != RECORD_SIZE) {
+            return OptionalLong.empty();
+        }
+        int recordCount = mapped.getInt(SNAPSHOT_RECORDS_OFFSET);
+        int nameBytes = mapped.getInt(SNAPSHOT_NAME_BYTES_OFFSET);
+        int namesStart = SNAPSHOT_HEADER_SIZE + recordCount * RECORD_SIZE;
+        if ((long) namesStart + nameBytes != mapped.capacity()) {
+            return OptionalLong.empty();
+        }
+        mapped.limit(namesStart).position(SNAPSHOT_HEADER_SIZE);
+        ByteBuffer loadedRecords = mapped.slice();
+        mapped.limit(namesStart + nameBytes).position(namesStart);
+        ByteBuffer loadedNames = mapped.slice();
+
+        lock.writeLock().lock();
+        try {
+            records = loadedRecords;
+            size = recordCount;
+            salaryCentsColumn = new long[Math.max(recordCount, 16)];
+            levelColumn = new int[salaryCentsColumn.length];
+            slots.clear();
+            for (int slot = 0; slot < recordCount; slot++) {
+                int position = slot * RECORD_SIZE;
+                slots.put(records.getLong(position + ID_OFFSET), slot);
+                salaryCentsColumn[slot] = records.getLong(position + SALARY_OFFSET);
+                levelColumn[slot] = records.getInt(position + LEVEL_OFFSET);
+            }
+            names.load(loadedNames);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return OptionalLong.of(mapped.getLong(SNAPSHOT_CURSOR_OFFSET));
+    }
+
+    private void apply(EmployeeChangedEvent event) {
+        if (event.getType() == ChangeType.DELETED) {
+            remove(event.getEmployeeId());
+        } else {
+            put(event.getEmployeeId(), event.getFirstName(), event.getLastName(), event.getSalaryCents(),
+                    event.getLevel(), event.getTeamId(), event.getManagerId());
+        }
+    }
+
+    private void put(Long id, String firstName, String lastName, long salaryCents, EmployeeLevel level, Long teamId,
+                     Long managerId) {
+        int slot = slots.get(id);
+        if (slot == LongIntHashIndex.MISSING) {
+            ensureCapacity(size + 1);
+            slot = size++;
+            slots.put(id, slot);
+        }
+        int position = slot * RECORD_SIZE;
+        int levelOrdinal = level == null ? NO_LEVEL : level.ordinal();
+        records.putLong(position + ID_OFFSET, id);
+        records.putLong(position + SALARY_OFFSET, salaryCents);
+        records.putLong(position + TEAM_ID_OFFSET, teamId == null ? NO_TEAM : teamId);
+        records.putInt(position + LEVEL_OFFSET, levelOrdinal);
+        records.putLong(position + MANAGER_ID_OFFSET, managerId == null ? NO_MANAGER : managerId);
+        salaryCentsColumn[slot] = salaryCents;
+        levelColumn[slot] = levelOrdinal;
+        records.putInt(position + FIRST_NAME_OFFSET, names.intern(firstName));
+        records.putInt(position + LAST_NAME_OFFSET, names.intern(lastName));
+    }
+
+    /**
+     * Move the last record into the freed slot, so records stay packed.
+     */
+    private void remove(Long id) {
+        int slot = slots.get(id);
+        if (slot == LongIntHashIndex.MISSING) {
+            return;
+        }
+        slots.remove(id);
+        int last = --size;
+        if (slot != last) {
+            ByteBuffer lastRecord = records.duplicate();
+            lastRecord.limit((last + 1) * RECORD_SIZE).position(last * RECORD_SIZE);
+            ByteBuffer target = records.duplicate();
+            target.position(slot * RECORD_SIZE);
+            target.put(lastRecord);
+            salaryCentsColumn[slot] = salaryCentsColumn[last];
+            levelColumn[slot] = levelColumn[last];
+            slots.put(records.getLong(slot * RECORD_SIZE + ID_OFFSET), slot);
+        }
+    }
+
+    private void ensureCapacity(int recordCount) {
+        if (recordCount > salaryCentsColumn.length) {
+            int columnCapacity = Math.max(salaryCentsColumn.length * 2, recordCount);
+            salaryCentsColumn = Arrays.copyOf(salaryCentsColumn, columnCapacity);
+            levelColumn = Arrays.copyOf(levelColumn, columnCapacity);
+        }
+        if (recordCount * RECORD_SIZE <= records.capacity()) {
+            return;
+        }
+        int capacity = Math.max(records.capacity(), 16 * RECORD_SIZE);
+        while (capacity < recordCount * RECORD_SIZE) {
+            capacity *= 2;
+        }
+        ByteBuffer grown = ByteBuffer.allocateDirect(capacity);
+        ByteBuffer used = records.duplicate();
+        used.limit(size * RECORD_SIZE).position(0);
+        grown.put(used);
+        records = grown;
+    }
+
+    private EmployeeLevel level(int position) {
+        int level = records.getInt(position + LEVEL_OFFSET);
+        return level == NO_LEVEL ? null : LEVELS[level];
+    }
+
+    private Employee toEmployee(int position) {
+        long teamId = records.getLong(position + TEAM_ID_OFFSET);
+        long managerId = records.getLong(position + MANAGER_ID_OFFSET);
+        return Employee.builder()
+                .id(records.getLong(position + ID_OFFSET))
+                .firstName(names.read(records.getInt(position + FIRST_NAME_OFFSET)))
+                .lastName(names.read(records.getInt(position + LAST_NAME_OFFSET)))
+                .salaryCents(records.getLong(position + SALARY_OFFSET))
+                .level(level(position))
+                .managerId(managerId == NO_MANAGER ? null : managerId)
+                .team(teamId == NO_TEAM ? null : Team.builder().id(teamId).build())
+                .build();
+    }
+}
@@ -0,0 +1,18 @@
+package com.sda.testing.store;
+
+import com.sda.testing.model.EmployeeLevel;
+
+/**
+ * Receives records of {@link EmployeeRecordStore} one by one, as primitive values so iteration does not allocate.
+ */
+@FunctionalInterface
+public interface EmployeeRecordVisitor {
+
+    /**
+     * @param id          - employee identifier.
+     * @param salaryCents - employee salary in cents.
+     * @param level       - employee level, can be null.
+     * @param teamId      - team identifier, {@link EmployeeRecordStore#NO_TEAM} if employee has no team.
+     */
+    void visit(long id, long salaryCents, EmployeeLevel level, long teamId);
+}
@@ -0,0 +1,145 @@
+package com.sda.testing.store;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sda.testing.event.EmployeeChangedEvent;
+import com.sda.testing.event.OpenChangeTransactions;
+import com.sda.testing.event.TeamChangedEvent;
+import com.sda.testing.model.ChangeEntityType;
+import com.sda.testing.model.ChangeLogEntry;
+import com.sda.testing.repository.ChangeLogRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.function.Consumer;
+
+/**
+ * Periodically writes {@link EmployeeRecordStore} to a snapshot file together with change log cursor. On startup the
+ * snapshot is mapped back and only changes logged after the cursor are replayed, instead of reading all employees.
+ * <p>
+ * Cursor of a snapshot is the last change before any transaction still open and older than
+ * changes.visibility-delay-ms, so changes committed out of order are replayed rather than lost. Changes carry full
+ * state of employee or team, so replaying a change already contained in the snapshot does no harm.
+ */
+@Slf4j
+@Component
+public class EmployeeSnapshotter {
+    private static final int REPLAY_PAGE_SIZE = 1000;
+
+    private final EmployeeRecordStore employeeRecordStore;
+    private final ChangeLogRepository changeLogRepository;
+    private final OpenChangeTransactions openChangeTransactions;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Path file;
+    private final long visibilityDelayMillis;
+    private volatile boolean initialized;
+
+    public EmployeeSnapshotter(EmployeeRecordStore employeeRecordStore,
+                               ChangeLogRepository changeLogRepository,
+                               OpenChangeTransactions openChangeTransactions,
+                               ObjectMapper objectMapper,
+                               @Value("${store.employee.snapshot.enabled:false}") boolean enabled,
+                               @Value("${store.employee.snapshot.file:snapshot/employees.snapshot}") String file,
+                               @Value("${changes.visibility-delay-ms:1000}") long visibilityDelayMillis) {
+        if (enabled && !employeeRecordStore.isEnabled()) {
+            throw new IllegalStateException("store.employee.snapshot.enabled requires store.employee.enabled");
+        }
+        this.employeeRecordStore = employeeRecordStore;
+        this.changeLogRepository = changeLogRepository;
+        this.openChangeTransactions = openChangeTransactions;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.file = Paths.get(file);
+        this.visibilityDelayMillis = visibilityDelayMillis;
+    }
+
+    /**
+     * Load the store from snapshot file.
+     *
+     * @return change log cursor of the snapshot, empty if snapshots are disabled or there is no snapshot yet.
+     */
+    public OptionalLong restore() {
+        if (!enabled) {
+            return OptionalLong.empty();
+        }
+        OptionalLong cursor = employeeRecordStore.loadSnapshot(file);
+        if (!cursor.isPresent()) {
+            log.info("No usable employee snapshot in {}", file);
+        }
+        return cursor;
+    }
+
+    /**
+     * Pass all changes logged after given cursor to the consumers, in order in which they were made.
+     *
+     * @param cursor           - change log cursor of the snapshot.
+     * @param employeeChanges  - receives employee changes.
+     * @param teamChanges      - receives team changes.
+     * @return number of replayed changes.
+     */
+    public long replayChanges(long cursor, Consumer<EmployeeChangedEvent> employeeChanges,
+                              Consumer<TeamChangedEvent> teamChanges) {
+        long replayed = 0;
+        List<ChangeLogEntry> page;
+        do {
+            page = changeLogRepository.findByIdGreaterThanOrderByIdAsc(cursor, PageRequest.of(0, REPLAY_PAGE_SIZE));
+            for (ChangeLogEntry entry : page) {
+                if (entry.getEntityType() == ChangeEntityType.EMPLOYEE) {
+                    employeeChanges.accept(read(entry, EmployeeChangedEvent.class));
+                } else {
+                    teamChanges.accept(read(entry, TeamChangedEvent.class));
+                }
+                cursor = entry.getId();
+                replayed++;
+            }
+        } while (page.size() == REPLAY_PAGE_SIZE);
+        return replayed;
+    }
+
+    /**
+     * Allow snapshots to be taken, once the store holds all employees.
+     */
+    public void markInitialized() {
+        initialized = true;
+    }
+
+    @Scheduled(fixedDelayString = "${store.employee.snapshot.interval-ms:60000}",
+            initialDelayString = "${store.employee.snapshot.interval-ms:60000}")
+    public void snapshot() {
+        if (!enabled || !initialized) {
+            return;
+        }
+        long started = System.nanoTime();
+        long visibleBelow = openChangeTransactions.visibleBelow();
+        long cursor = changeLogRepository
+                .findFirstByIdLessThanAndChangedAtLessThanOrderByIdDesc(
+                        visibleBelow, System.currentTimeMillis() - visibilityDelayMillis)
+                .map(ChangeLogEntry::getId)
+                .orElse(0L);
+        employeeRecordStore.writeSnapshot(file, cursor);
+        log.info("Snapshot of {} employees at change {} written in {} ms", employeeRecordStore.size(), cursor,
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        snapshot();
+    }
+
+    private <T> T read(ChangeLogEntry entry, Class<T> eventType) {
+        try {
+            return objectMapper.readValue(entry.getPayload(), eventType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable change " + entry.getId(), e);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.sda.testing.store;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing map from long keys to int values, kept in two primitive arrays so entries cost no objects.
+ * Removal shifts following entries back instead of leaving tombstones. Not thread safe.
+ */
+class LongIntHashIndex {
+    static final int MISSING = -1;
+
+    private static final long FREE = Long.MIN_VALUE;
+    private static final double MAX_LOAD = 0.6;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+
+    LongIntHashIndex(int expectedSize) {
+        allocate(tableSize(expectedSize));
+    }
+
+    int get(long key) {
+        int mask = keys.length - 1;
+        for (int position = hash(key) & mask; keys[position] != FREE; position = (position + 1) & mask) {
+            if (keys[position] == key) {
+                return values[position];
+            }
+        }
+        return MISSING;
+    }
+
+    void put(long key, int value) {
+        if (size + 1 > keys.length * MAX_LOAD) {
+            resize(keys.length * 2);
+        }
+        int mask = keys.length - 1;
+        int position = hash(key) & mask;
+        while (keys[position] != FREE && keys[position] != key) {
+            position = (position + 1) & mask;
+        }
+        if (keys[position] == FREE) {
+            keys[position] = key;
+            size++;
+        }
+        values[position] = value;
+    }
+
+    void remove(long key) {
+        int mask = keys.length - 1;
+        int position = hash(key) & mask;
+        while (keys[position] != key) {
+            if (keys[position] == FREE) {
+                return;
+            }
+            position = (position + 1) & mask;
+        }
+        size--;
+        int next = (position + 1) & mask;
+        while (keys[next] != FREE) {
+            int home = hash(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - position) & mask)) {
+                keys[position] = keys[next];
+                values[position] = values[next];
+                position = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[position] = FREE;
+    }
+
+    void clear() {
+        Arrays.fill(keys, FREE);
+        size = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void resize(int tableSize) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(tableSize);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private void allocate(int tableSize) {
+        keys = new long[tableSize];
+        values = new int[tableSize];
+        Arrays.fill(keys, FREE);
+    }
+
+    private static int tableSize(int expectedSize) {
+        int tableSize = 16;
+        while (tableSize * MAX_LOAD < expectedSize) {
+            tableSize *= 2;
+        }
+        return tableSize;
+    }
+
+    private static int hash(long key) {
+        long mixed = key * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ (mixed >>> 32));
+    }
+}
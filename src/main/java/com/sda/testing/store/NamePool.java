@@ -0,0 +1,92 @@
+package com.sda.testing.store;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Interned names stored off-heap as length-prefixed UTF-8. Every distinct name is stored once and referenced by its
+ * offset; names are never removed, as the set of first and last names of a company grows slowly. Not thread safe.
+ */
+class NamePool {
+    static final int NO_NAME = -1;
+
+    private final Map<String, Integer> offsets = new HashMap<>();
+    private ByteBuffer buffer;
+
+    NamePool(int initialBytes) {
+        buffer = ByteBuffer.allocateDirect(Math.max(initialBytes, 64));
+    }
+
+    int intern(String name) {
+        if (name == null) {
+            return NO_NAME;
+        }
+        Integer offset = offsets.get(name);
+        if (offset != null) {
+            return offset;
+        }
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        ensureRemaining(Integer.BYTES + bytes.length);
+        int position = buffer.position();
+        buffer.putInt(bytes.length).put(bytes);
+        offsets.put(name, position);
+        return position;
+    }
+
+    String read(int offset) {
+        if (offset == NO_NAME) {
+            return null;
+        }
+        byte[] bytes = new byte[buffer.getInt(offset)];
+        ByteBuffer view = buffer.duplicate();
+        view.position(offset + Integer.BYTES);
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Replace content of the pool with names written by {@link #contents()}. The buffer is used as is, without copying.
+     */
+    void load(ByteBuffer contents) {
+        offsets.clear();
+        buffer = contents;
+        buffer.position(buffer.limit());
+        for (int offset = 0; offset < buffer.limit(); offset += Integer.BYTES + buffer.getInt(offset)) {
+            offsets.put(read(offset), offset);
+        }
+    }
+
+    /**
+     * @return read-only view of all stored names.
+     */
+    ByteBuffer contents() {
+        ByteBuffer contents = buffer.asReadOnlyBuffer();
+        contents.flip();
+        return contents;
+    }
+
+    void clear() {
+        offsets.clear();
+        buffer.clear();
+    }
+
+    long bytes() {
+        return buffer.capacity();
+    }
+
+    private void ensureRemaining(int length) {
+        if (buffer.remaining() >= length) {
+            return;
+        }
+        int capacity = Math.max(buffer.capacity(), 64);
+        while (capacity - buffer.position() < length) {
+            capacity *= 2;
+        }
+        ByteBuffer grown = ByteBuffer.allocateDirect(capacity);
+        buffer.flip();
+        grown.put(buffer);
+        buffer = grown;
+    }
+}
@@ -0,0 +1,94 @@
+package com.sda.testing.admission;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class AdaptiveConcurrencyLimiterTests {
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void requestOverLimitIsRejectedWhenQueueIsFull() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 2, 0, 100);
+        Assertions.assertTrue(limiter.tryAcquire(0));
+        Assertions.assertTrue(limiter.tryAcquire(0));
+        Assertions.assertFalse(limiter.tryAcquire(0));
+    }
+
+    @Test
+    void queuedRequestIsAdmittedAfterRelease() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 100);
+        Assertions.assertTrue(limiter.tryAcquire(0));
+
+        AtomicBoolean admitted = new AtomicBoolean();
+        CountDownLatch finished = new CountDownLatch(1);
+        Thread waiting = new Thread(() -> {
+            try {
+                admitted.set(limiter.tryAcquire(5000));
+            } catch (InterruptedException ignored) {
+            }
+            finished.countDown();
+        });
+        waiting.start();
+        while (limiter.getQueued() == 0) {
+            Thread.sleep(1);
+        }
+        limiter.release(FAST);
+
+        Assertions.assertTrue(finished.await(5, TimeUnit.SECONDS));
+        Assertions.assertTrue(admitted.get());
+    }
+
+    @Test
+    void allRequestsWhichFitGrownLimitAreAdmitted() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 3, 2, 100);
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertTrue(limiter.tryAcquire(0));
+        }
+        limiter.release(SLOW);
+        Assertions.assertEquals(2, limiter.getLimit());
+
+        AtomicInteger admitted = new AtomicInteger();
+        CountDownLatch finished = new CountDownLatch(2);
+        for (int i = 0; i < 2; i++) {
+            new Thread(() -> {
+                try {
+                    if (limiter.tryAcquire(10_000)) {
+                        admitted.incrementAndGet();
+                    }
+                } catch (InterruptedException ignored) {
+                }
+                finished.countDown();
+            }).start();
+        }
+        while (limiter.getQueued() < 2) {
+            Thread.sleep(1);
+        }
+        limiter.release(FAST);
+
+        Assertions.assertTrue(finished.await(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(2, admitted.get());
+        Assertions.assertEquals(3, limiter.getLimit());
+    }
+
+    @Test
+    void limitShrinksOnSlowRequestsAndRecoversOnFastOnes() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 10, 0, 100);
+        for (int i = 0; i < 20; i++) {
+            limiter.tryAcquire(0);
+            limiter.release(SLOW);
+        }
+        Assertions.assertEquals(2, limiter.getLimit());
+
+        for (int i = 0; i < 20; i++) {
+            limiter.tryAcquire(0);
+            limiter.release(FAST);
+        }
+        Assertions.assertEquals(10, limiter.getLimit());
+    }
+}
@@ -0,0 +1,112 @@
+package com.sda.testing.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+class AdmissionControlFilterTests {
+    private static final FilterChain OK = (request, response) -> {
+    };
+    private static final FilterChain ASYNC = (request, response) -> request.startAsync();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private AdmissionControlFilter filter;
+
+    @BeforeEach
+    void setup() {
+        // one read and one write at a time, reads wait in queue up to 10 s, writes don't wait
+        filter = new AdmissionControlFilter(meterRegistry, Collections.singletonList("/employee/salaryRaise"),
+                Collections.singletonList("/company/updates"), 10_000, 1, 1, 1, 8, 60_000, 1, 1, 0, 60_000, 1);
+    }
+
+    @Test
+    void slotOfAsyncRequestIsHeldUntilRequestCompletes() throws ServletException, IOException {
+        MockHttpServletRequest subscription = read();
+        subscription.setAsyncSupported(true);
+        filter.doFilter(subscription, new MockHttpServletResponse(), ASYNC);
+
+        Assertions.assertEquals(1, readLimiterInFlight());
+        subscription.getAsyncContext().complete();
+        Assertions.assertEquals(0, readLimiterInFlight());
+        Assertions.assertEquals(200, filter(read(), OK));
+    }
+
+    @Test
+    void subscriptionsOverReadLimitDoNotBlockReads() throws ServletException, IOException {
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletRequest subscription = new MockHttpServletRequest("GET", "/company/updates");
+            subscription.setAsyncSupported(true);
+            Assertions.assertEquals(200, filter(subscription, ASYNC));
+        }
+
+        Assertions.assertEquals(0, readLimiterInFlight());
+        Assertions.assertEquals(200, filter(read(), OK));
+    }
+
+    @Test
+    void writesAreRejectedOnlyWhenMoreReadsThanThresholdAreQueued() throws Exception {
+        MockHttpServletRequest subscription = read();
+        subscription.setAsyncSupported(true);
+        filter.doFilter(subscription, new MockHttpServletResponse(), ASYNC);
+
+        List<Thread> queuedReads = new ArrayList<>();
+        queuedReads.add(queueRead(1));
+        Assertions.assertEquals(200, filter(write(), OK));
+
+        queuedReads.add(queueRead(2));
+        Assertions.assertEquals(503, filter(write(), OK));
+
+        subscription.getAsyncContext().complete();
+        for (Thread queuedRead : queuedReads) {
+            queuedRead.join(10_000);
+        }
+        Assertions.assertEquals(200, filter(write(), OK));
+    }
+
+    private Thread queueRead(int queued) throws InterruptedException {
+        Thread thread = new Thread(() -> {
+            try {
+                filter(read(), OK);
+            } catch (ServletException | IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        thread.start();
+        while (queuedReads() < queued) {
+            Thread.sleep(1);
+        }
+        return thread;
+    }
+
+    private int filter(MockHttpServletRequest request, FilterChain chain) throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response.getStatus();
+    }
+
+    private int readLimiterInFlight() {
+        return (int) meterRegistry.get("admission.in.flight").tag("class", "read").gauge().value();
+    }
+
+    private int queuedReads() {
+        return (int) meterRegistry.get("admission.queued").tag("class", "read").gauge().value();
+    }
+
+    private static MockHttpServletRequest read() {
+        return new MockHttpServletRequest("GET", "/employee/all");
+    }
+
+    private static MockHttpServletRequest write() {
+        return new MockHttpServletRequest("GET", "/employee/salaryRaise");
+    }
+}
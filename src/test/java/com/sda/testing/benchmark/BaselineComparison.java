@@ -0,0 +1,166 @@
+package com.sda.testing.benchmark;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Benchmark results compared metric by metric with the baseline. A metric regresses when it got worse by more than
+ * its tolerance, given in percent of the baseline value, plus the metric's slack. Benchmarks run but missing from
+ * the baseline are reported as new and pass. Metrics of the baseline which this run did not produce are reported as
+ * not run and fail the gate like regressions, so a benchmark which stopped working can't pass unnoticed; the
+ * baseline given has to hold only benchmarks expected to run.
+ */
+final class BaselineComparison {
+    enum Status {OK, IMPROVED, REGRESSED, NEW, NOT_RUN}
+
+    static final class Row {
+        final String benchmark;
+        final GateMetric metric;
+        final Double baseline;
+        final Double current;
+        final Status status;
+
+        private Row(String benchmark, GateMetric metric, Double baseline, Double current, Status status) {
+            this.benchmark = benchmark;
+            this.metric = metric;
+            this.baseline = baseline;
+            this.current = current;
+            this.status = status;
+        }
+    }
+
+    private final List<Row> rows;
+    private final Map<GateMetric, Double> tolerances;
+
+    private BaselineComparison(List<Row> rows, Map<GateMetric, Double> tolerances) {
+        this.rows = rows;
+        this.tolerances = tolerances;
+    }
+
+    /**
+     * @param baseline   - metrics of the baseline by benchmark.
+     * @param current    - metrics of this run by benchmark.
+     * @param tolerances - allowed regression in percent of the baseline value, by metric. Missing metric allows none.
+     * @return comparison of every metric found in any of results.
+     */
+    static BaselineComparison compare(Map<String, Map<GateMetric, Double>> baseline,
+                                      Map<String, Map<GateMetric, Double>> current,
+                                      Map<GateMetric, Double> tolerances) {
+        SortedSet<String> benchmarks = new TreeSet<>(baseline.keySet());
+        benchmarks.addAll(current.keySet());
+        List<Row> rows = new ArrayList<>();
+        for (String benchmark : benchmarks) {
+            Map<GateMetric, Double> baselineMetrics = baseline.getOrDefault(benchmark, Collections.emptyMap());
+            Map<GateMetric, Double> currentMetrics = current.getOrDefault(benchmark, Collections.emptyMap());
+            for (GateMetric metric : GateMetric.values()) {
+                Double baselineValue = baselineMetrics.get(metric);
+                Double currentValue = currentMetrics.get(metric);
+                if (baselineValue == null && currentValue == null) {
+                    continue;
+                }
+                Status status;
+                if (baselineValue == null) {
+                    status = Status.NEW;
+                } else if (currentValue == null) {
+                    status = Status.NOT_RUN;
+                } else {
+                    status = statusOf(metric, baselineValue, currentValue, tolerances.getOrDefault(metric, 0.0));
+                }
+                rows.add(new Row(benchmark, metric, baselineValue, currentValue, status));
+            }
+        }
+        return new BaselineComparison(rows, tolerances);
+    }
+
+    static Status statusOf(GateMetric metric, double baseline, double current, double tolerancePercent) {
+        double worse = metric.higherIsBetter() ? baseline - current : current - baseline;
+        double allowed = Math.abs(baseline) * tolerancePercent / 100 + metric.slack();
+        if (worse > allowed) {
+            return Status.REGRESSED;
+        }
+        if (-worse > allowed) {
+            return Status.IMPROVED;
+        }
+        return Status.OK;
+    }
+
+    List<Row> rows() {
+        return rows;
+    }
+
+    List<Row> regressions() {
+        return rows.stream().filter(row -> row.status == Status.REGRESSED).collect(Collectors.toList());
+    }
+
+    /**
+     * @return regressed metrics and metrics of the baseline which were not run.
+     */
+    List<Row> failures() {
+        return rows.stream()
+                .filter(row -> row.status == Status.REGRESSED || row.status == Status.NOT_RUN)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @return table of all metrics, followed by lists of regressions and of metrics which were not run.
+     */
+    String report() {
+        List<String[]> cells = new ArrayList<>();
+        cells.add(new String[]{"benchmark", "metric", "baseline", "current", "change", "status"});
+        for (Row row : rows) {
+            cells.add(new String[]{row.benchmark, row.metric.key(), format(row.baseline, row.metric),
+                    format(row.current, row.metric), change(row), row.status.name()});
+        }
+        int[] widths = new int[cells.get(0).length];
+        for (String[] line : cells) {
+            for (int i = 0; i < line.length; i++) {
+                widths[i] = Math.max(widths[i], line[i].length());
+            }
+        }
+
+        StringBuilder report = new StringBuilder();
+        List<Row> regressions = regressions();
+        List<Row> notRun = rows.stream().filter(row -> row.status == Status.NOT_RUN).collect(Collectors.toList());
+        report.append(String.format("Performance gate: %d of %d metrics regressed, %d not run. Tolerance: %s%n%n",
+                regressions.size(), rows.size(), notRun.size(), Arrays.stream(GateMetric.values())
+                        .map(metric -> metric.key() + " " + tolerances.getOrDefault(metric, 0.0) + "%")
+                        .collect(Collectors.joining(", "))));
+        for (String[] line : cells) {
+            for (int i = 0; i < line.length; i++) {
+                // text columns aligned left, numbers right
+                String format = i < 2 || i == line.length - 1 ? "%-" + widths[i] + "s" : "%" + widths[i] + "s";
+                report.append(String.format(format, line[i])).append(i < line.length - 1 ? "  " : "");
+            }
+            report.append(System.lineSeparator());
+        }
+        if (!regressions.isEmpty()) {
+            report.append(System.lineSeparator()).append("Regressions:").append(System.lineSeparator());
+            for (Row row : regressions) {
+                report.append(String.format("  %s %s: %s -> %s (%s)%n", row.benchmark, row.metric.key(),
+                        format(row.baseline, row.metric), format(row.current, row.metric), change(row)));
+            }
+        }
+        if (!notRun.isEmpty()) {
+            report.append(System.lineSeparator()).append("Not run, failed or removed from the benchmarks:")
+                    .append(System.lineSeparator());
+            for (Row row : notRun) {
+                report.append(String.format("  %s %s%n", row.benchmark, row.metric.key()));
+            }
+        }
+        return report.toString();
+    }
+
+    private static String format(Double value, GateMetric metric) {
+        return value == null ? "-" : String.format(Locale.ROOT, "%.3f %s", value, metric.unit());
+    }
+
+    private static String change(Row row) {
+        if (row.baseline == null || row.current == null) {
+            return "-";
+        }
+        if (row.baseline == 0) {
+            return row.current == 0 ? "0.0%" : "n/a";
+        }
+        return String.format(Locale.ROOT, "%+.1f%%", (row.current - row.baseline) / Math.abs(row.baseline) * 100);
+    }
+}
@@ -0,0 +1,104 @@
+package com.sda.testing.benchmark;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+
+class BaselineComparisonTests {
+    private final Map<GateMetric, Double> tolerances = tolerances(10, 20, 5, 0);
+
+    @Test
+    void metricsWorseBeyondToleranceRegress() {
+        Map<String, Map<GateMetric, Double>> baseline = results("A.a", 1000, 100, 400, 3);
+        Map<String, Map<GateMetric, Double>> current = results("A.a", 890, 119, 440, 4);
+
+        BaselineComparison comparison = BaselineComparison.compare(baseline, current, tolerances);
+
+        Assertions.assertEquals(Arrays.asList(GateMetric.THROUGHPUT, GateMetric.ALLOCATION, GateMetric.SQL_STATEMENTS),
+                metricsOf(comparison.regressions()));
+        Assertions.assertTrue(comparison.report().contains("A.a throughput: 1000.000 ops/s -> 890.000 ops/s (-11.0%)"));
+    }
+
+    @Test
+    void metricsWithinToleranceOrBetterPass() {
+        Map<String, Map<GateMetric, Double>> baseline = results("A.a", 1000, 100, 400, 3);
+        Map<String, Map<GateMetric, Double>> current = results("A.a", 1500, 110, 410, 3);
+
+        BaselineComparison comparison = BaselineComparison.compare(baseline, current, tolerances);
+
+        Assertions.assertTrue(comparison.regressions().isEmpty());
+        Assertions.assertEquals(BaselineComparison.Status.IMPROVED, comparison.rows().get(0).status);
+        Assertions.assertEquals(BaselineComparison.Status.OK, comparison.rows().get(1).status);
+    }
+
+    @Test
+    void allocationNoiseAroundZeroIsIgnored() {
+        Assertions.assertEquals(BaselineComparison.Status.OK,
+                BaselineComparison.statusOf(GateMetric.ALLOCATION, 0, 0.02, 5));
+        Assertions.assertEquals(BaselineComparison.Status.REGRESSED,
+                BaselineComparison.statusOf(GateMetric.ALLOCATION, 0, 24, 5));
+    }
+
+    @Test
+    void baselineBenchmarksNotRunFailAndNewOnesPass() {
+        Map<String, Map<GateMetric, Double>> baseline = results("A.a", 1000, 100, 400, 3);
+        Map<String, Map<GateMetric, Double>> current = results("B.b", 1000, 100, 400, 3);
+
+        BaselineComparison comparison = BaselineComparison.compare(baseline, current, tolerances);
+
+        Assertions.assertTrue(comparison.regressions().isEmpty());
+        Assertions.assertEquals(4, comparison.failures().size());
+        comparison.failures().forEach(row -> Assertions.assertEquals("A.a", row.benchmark));
+        Assertions.assertEquals(BaselineComparison.Status.NOT_RUN, comparison.rows().get(0).status);
+        Assertions.assertEquals(BaselineComparison.Status.NEW, comparison.rows().get(4).status);
+        Assertions.assertTrue(comparison.report().contains("  A.a throughput" + System.lineSeparator()));
+    }
+
+    @Test
+    void onlyBaselineOfIncludedBenchmarksIsExpected() {
+        Map<String, Map<GateMetric, Double>> baseline = new TreeMap<>();
+        baseline.putAll(results("HierarchyBenchmark.moveSubtree(shape=deep)", 1000, 100, 400, 3));
+        baseline.putAll(results("EndpointBenchmark.listEmployees", 1000, 100, 400, 3));
+
+        Assertions.assertEquals(Collections.singleton("HierarchyBenchmark.moveSubtree(shape=deep)"),
+                PerformanceGate.included(baseline, "Hierarchy").keySet());
+        Assertions.assertEquals(baseline, PerformanceGate.included(baseline, "com.sda.testing.benchmark.*"));
+    }
+
+    @Test
+    void resultsAreWrittenAndReadBack(@TempDir Path directory) throws IOException {
+        Map<String, Map<GateMetric, Double>> results = results("A.a(shape=deep)", 1234.5, 0.25, 0, 2);
+        Path file = directory.resolve("baseline.txt");
+
+        PerformanceGate.write(results, file);
+
+        Assertions.assertEquals(results, PerformanceGate.read(file));
+    }
+
+    private static Map<String, Map<GateMetric, Double>> results(String benchmark, double throughput, double p99,
+                                                              double allocation, double statements) {
+        Map<GateMetric, Double> metrics = new EnumMap<>(GateMetric.class);
+        metrics.put(GateMetric.THROUGHPUT, throughput);
+        metrics.put(GateMetric.LATENCY_P99, p99);
+        metrics.put(GateMetric.ALLOCATION, allocation);
+        metrics.put(GateMetric.SQL_STATEMENTS, statements);
+        Map<String, Map<GateMetric, Double>> results = new TreeMap<>();
+        results.put(benchmark, metrics);
+        return results;
+    }
+
+    private static Map<GateMetric, Double> tolerances(double throughput, double p99, double allocation,
+                                                      double statements) {
+        return results("", throughput, p99, allocation, statements).get("");
+    }
+
+    private static List<GateMetric> metricsOf(List<BaselineComparison.Row> rows) {
+        List<GateMetric> metrics = new ArrayList<>();
+        rows.forEach(row -> metrics.add(row.metric));
+        return metrics;
+    }
+}
@@ -0,0 +1,86 @@
+package com.sda.testing.benchmark;
+
+import com.sda.testing.index.EmployeeBitmapIndex;
+import com.sda.testing.model.Employee;
+import com.sda.testing.model.EmployeeLevel;
+import com.sda.testing.model.Team;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filter on levels, teams and salary band resolved by bitmap index compared with a scan of all employees, for
+ * identifiers and for a count of matching employees.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeFilterBenchmark {
+    private static final int TEAMS = 1_000;
+
+    @Param({"100000", "1000000"})
+    int employees;
+
+    private final List<EmployeeLevel> levels = Arrays.asList(EmployeeLevel.LEAD, EmployeeLevel.MANAGER);
+    private final List<Long> teamIds = new ArrayList<>();
+    private final long salaryCentsFrom = 500_000;
+    private final long salaryCentsTo = 900_000;
+    private List<Employee> employeeList;
+    private EmployeeBitmapIndex index;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(42);
+        EmployeeLevel[] allLevels = EmployeeLevel.values();
+        Team[] teams = new Team[TEAMS];
+        for (int i = 0; i < TEAMS; i++) {
+            teams[i] = Team.builder().id((long) i).name("team" + i).build();
+        }
+        for (long teamId = 0; teamId < TEAMS; teamId += 10) {
+            teamIds.add(teamId);
+        }
+        employeeList = new ArrayList<>(employees);
+        for (int i = 0; i < employees; i++) {
+            Employee employee = Employee.builder()
+                    .id((long) i)
+                    .level(allLevels[random.nextInt(allLevels.length)])
+                    .team(teams[random.nextInt(TEAMS)])
+                    .build();
+            employee.setSalaryCents(300_000 + random.nextInt(1_000_000));
+            employeeList.add(employee);
+        }
+        index = new EmployeeBitmapIndex(100_000);
+        index.rebuild(employeeList);
+    }
+
+    @Benchmark
+    public long[] scanIds() {
+        Set<Long> teamSet = new HashSet<>(teamIds);
+        return employeeList.stream()
+                .filter(employee -> levels.contains(employee.getLevel()))
+                .filter(employee -> teamSet.contains(employee.getTeam().getId()))
+                .filter(employee -> employee.getSalaryCents() > salaryCentsFrom
+                        && employee.getSalaryCents() < salaryCentsTo)
+                .mapToLong(Employee::getId)
+                .toArray();
+    }
+
+    @Benchmark
+    public long[] bitmapIds() {
+        return index.filter(levels, teamIds, salaryCentsFrom, salaryCentsTo);
+    }
+
+    @Benchmark
+    public long scanCountOfLevels() {
+        return employeeList.stream().filter(employee -> levels.contains(employee.getLevel())).count();
+    }
+
+    @Benchmark
+    public int bitmapCountOfLevels() {
+        return index.count(levels, null, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+}
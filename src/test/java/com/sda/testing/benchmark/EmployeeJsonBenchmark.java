@@ -0,0 +1,100 @@
+package com.sda.testing.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sda.testing.json.EmployeeJsonHttpMessageConverter;
+import com.sda.testing.model.Employee;
+import com.sda.testing.model.EmployeeLevel;
+import com.sda.testing.model.ResponseMessage;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Employee list response written to JSON by Jackson databind converter and by streaming writer, both straight to a
+ * response stream which discards the bytes, as servlet output buffer would after sending them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeJsonBenchmark {
+    @Param({"1000", "100000"})
+    int employees;
+
+    @Param({"databind", "streaming"})
+    String writer;
+
+    private MappingJackson2HttpMessageConverter converter;
+    private ResponseMessage<List<Employee>> response;
+    private final DiscardedResponse output = new DiscardedResponse();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        converter = "streaming".equals(writer)
+                ? new EmployeeJsonHttpMessageConverter(objectMapper)
+                : new MappingJackson2HttpMessageConverter(objectMapper);
+        EmployeeLevel[] levels = EmployeeLevel.values();
+        List<Employee> employeeList = LongStream.range(0, employees)
+                .mapToObj(id -> Employee.builder()
+                        .id(id)
+                        .firstName("Jan" + id)
+                        .lastName("Kowalski" + id)
+                        .salary(3000 + id % 5000 + 0.25)
+                        .level(levels[(int) (id % levels.length)])
+                        .managerId(id % 10 == 0 ? null : id / 10)
+                        .build())
+                .collect(Collectors.toList());
+        response = new ResponseMessage<>(employeeList, "Response OK!");
+    }
+
+    @Benchmark
+    public long write() throws IOException {
+        output.reset();
+        converter.write(response, MediaType.APPLICATION_JSON, output);
+        return output.written;
+    }
+
+    private static final class DiscardedResponse implements HttpOutputMessage {
+        private final HttpHeaders headers = new HttpHeaders();
+        private long written;
+        private final OutputStream body = new OutputStream() {
+            @Override
+            public void write(int b) {
+                written++;
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                written += len;
+            }
+        };
+
+        void reset() {
+            headers.clear();
+            written = 0;
+        }
+
+        @Override
+        public OutputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+}
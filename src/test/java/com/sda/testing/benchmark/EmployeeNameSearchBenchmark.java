@@ -0,0 +1,67 @@
+package com.sda.testing.benchmark;
+
+import com.sda.testing.index.EmployeeNameIndex;
+import com.sda.testing.model.Employee;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Name search of a page of employees among a million names, for a single letter matching most of the company, for
+ * first and last name prefix and for a last name with a typo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeNameSearchBenchmark {
+    private static final int LIMIT = 20;
+    private static final String[] FIRST_NAMES = {"Jan", "Janina", "Janusz", "Anna", "Andrzej", "Katarzyna", "Krzysztof",
+            "Maria", "Marek", "Piotr", "Paulina", "Tomasz", "Teresa", "Zofia", "Zbigniew", "Ewa", "Ewelina", "Michał"};
+    private static final String[] SYLLABLES = {"ko", "wal", "no", "wak", "wi", "śniew", "le", "wan", "dow", "ski",
+            "mar", "zie", "lin", "ka", "ba", "rań", "sz", "czyk"};
+
+    @Param({"1000000"})
+    int employees;
+
+    private EmployeeNameIndex index;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(42);
+        List<Employee> employeeList = new ArrayList<>(employees);
+        for (int i = 0; i < employees; i++) {
+            StringBuilder lastName = new StringBuilder();
+            for (int syllable = 2 + random.nextInt(3); syllable > 0; syllable--) {
+                lastName.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            employeeList.add(Employee.builder()
+                    .id((long) i)
+                    .firstName(FIRST_NAMES[random.nextInt(FIRST_NAMES.length)])
+                    .lastName(lastName.toString())
+                    .build());
+        }
+        index = new EmployeeNameIndex();
+        index.rebuild(employeeList);
+    }
+
+    @Benchmark
+    public List<Long> oneLetter() {
+        return index.search("k", LIMIT);
+    }
+
+    @Benchmark
+    public List<Long> firstAndLastName() {
+        return index.search("jan kowal", LIMIT);
+    }
+
+    @Benchmark
+    public List<Long> lastNameWithTypo() {
+        return index.search("kowalsky", LIMIT);
+    }
+}
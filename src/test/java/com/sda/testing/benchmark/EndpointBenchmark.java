@@ -0,0 +1,158 @@
+package com.sda.testing.benchmark;
+
+import com.sda.testing.TestingApplication;
+import com.sda.testing.exception.InvalidOperation;
+import com.sda.testing.model.Employee;
+import com.sda.testing.model.EmployeeLevel;
+import com.sda.testing.model.Team;
+import com.sda.testing.repository.EmployeeRepository;
+import com.sda.testing.repository.TeamRepository;
+import com.sda.testing.service.CompanyService;
+import com.sda.testing.service.EmployeeService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Requests to the running application on in-memory H2, through REST endpoints and straight to services. Statements
+ * sent to the database are counted by {@link SqlStatementCounter}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EndpointBenchmark {
+    private static final int TEAMS = 10;
+
+    @Param({"1000"})
+    int employees;
+
+    private ConfigurableApplicationContext context;
+    private EmployeeService employeeService;
+    private CompanyService companyService;
+    private String baseUrl;
+    private long[] employeeIds;
+    private int raised;
+
+    @Setup(Level.Trial)
+    public void setup() throws InvalidOperation {
+        context = new SpringApplicationBuilder(TestingApplication.class, SqlStatementCounter.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:endpoints;MODE=MySQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--logging.level.root=WARN");
+        try {
+            employeeService = context.getBean(EmployeeService.class);
+            companyService = context.getBean(CompanyService.class);
+            baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            seed();
+        } catch (InvalidOperation | RuntimeException e) {
+            context.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Every team gets five workers, the most a team can have without a lead.
+     */
+    private void seed() throws InvalidOperation {
+        Team[] teams = new Team[TEAMS];
+        for (int team = 0; team < TEAMS; team++) {
+            companyService.createTeam("team" + team);
+            teams[team] = context.getBean(TeamRepository.class).findByName("team" + team)
+                    .orElseThrow(IllegalStateException::new);
+        }
+        EmployeeLevel[] levels = EmployeeLevel.values();
+        List<Employee> employeeList = new ArrayList<>(employees);
+        int workers = 0;
+        for (int i = 0; i < employees; i++) {
+            EmployeeLevel level = levels[i % levels.length];
+            Team team = null;
+            if (level == EmployeeLevel.WORKER && workers < TEAMS * 5) {
+                team = teams[workers++ % TEAMS];
+            }
+            employeeList.add(Employee.builder()
+                    .firstName("Jan" + i)
+                    .lastName("Kowalski" + i)
+                    .salary(3000 + (i % 100) * 10)
+                    .level(level)
+                    .team(team)
+                    .build());
+        }
+        employeeIds = context.getBean(EmployeeRepository.class).saveAll(employeeList).stream()
+                .mapToLong(Employee::getId)
+                .toArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int employeesOfLevelEndpoint() throws IOException {
+        return get("/employee/level?level=WORKER");
+    }
+
+    @Benchmark
+    public int employeeQueryEndpoint() throws IOException {
+        return get("/employee/query?sort=SALARY&descending=true&limit=50");
+    }
+
+    @Benchmark
+    public int teamInfoEndpoint() throws IOException {
+        return get("/company/team/info?name=team0");
+    }
+
+    @Benchmark
+    public int salaryRaiseEndpoint() throws IOException {
+        return get("/employee/salaryRaise?employeeId=" + nextRaised() + "&percentRaise=0.01");
+    }
+
+    @Benchmark
+    public double salarySummary() {
+        return companyService.summarizeSalaries();
+    }
+
+    @Benchmark
+    public List<Employee> employeesBySalary() {
+        return employeeService.findAllBySalary(3200.0, 3400.0);
+    }
+
+    private long nextRaised() {
+        raised = (raised + 1) % employeeIds.length;
+        return employeeIds[raised];
+    }
+
+    /**
+     * Reads whole response, so the connection is kept alive for the next request.
+     *
+     * @return number of bytes of response body.
+     */
+    private int get(String path) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+        if (connection.getResponseCode() != 200) {
+            throw new IllegalStateException(path + " answered " + connection.getResponseCode());
+        }
+        int length = 0;
+        byte[] buffer = new byte[8192];
+        try (InputStream body = connection.getInputStream()) {
+            for (int read = body.read(buffer); read != -1; read = body.read(buffer)) {
+                length += read;
+            }
+        }
+        return length;
+    }
+}
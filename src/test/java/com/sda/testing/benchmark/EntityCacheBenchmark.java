@@ -0,0 +1,95 @@
+package com.sda.testing.benchmark;
+
+import com.sda.testing.TestingApplication;
+import com.sda.testing.exception.InvalidOperation;
+import com.sda.testing.model.Employee;
+import com.sda.testing.model.EmployeeLevel;
+import com.sda.testing.repository.EmployeeRepository;
+import com.sda.testing.service.EmployeeService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads of single employees mixed with raises given to them, with second-level cache enabled and disabled. Every
+ * raise evicts the raised employee, so the more writes in the mix, the less reads are served from cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntityCacheBenchmark {
+    private static final int WRITE_PERIOD = 97;
+
+    @Param({"true", "false"})
+    boolean cache;
+
+    @Param({"0", "10", "50"})
+    int writePercent;
+
+    @Param({"1000"})
+    int employees;
+
+    private ConfigurableApplicationContext context;
+    private EmployeeRepository employeeRepository;
+    private EmployeeService employeeService;
+    private long[] employeeIds;
+    private int operation;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(TestingApplication.class, SqlStatementCounter.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:entitycache;MODE=MySQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--cache.entity.enabled=" + cache,
+                "--logging.level.root=WARN");
+        try {
+            employeeRepository = context.getBean(EmployeeRepository.class);
+            employeeService = context.getBean(EmployeeService.class);
+            List<Employee> employeeList = new ArrayList<>(employees);
+            for (int i = 0; i < employees; i++) {
+                employeeList.add(Employee.builder()
+                        .firstName("Jan" + i)
+                        .lastName("Kowalski" + i)
+                        .salary(3000 + (i % 100) * 10)
+                        .level(EmployeeLevel.WORKER)
+                        .build());
+            }
+            employeeIds = employeeRepository.saveAll(employeeList).stream()
+                    .mapToLong(Employee::getId)
+                    .toArray();
+        } catch (RuntimeException e) {
+            context.close();
+            throw e;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Operations visit employees one after another, writePercent of every {@link #WRITE_PERIOD} operations are raises
+     * and the rest reads. Period is prime, so every employee is both read and raised over time.
+     */
+    @Benchmark
+    public Object readWriteMix() throws InvalidOperation {
+        operation++;
+        long employeeId = employeeIds[operation % employeeIds.length];
+        if (operation % WRITE_PERIOD < writePercent * WRITE_PERIOD / 100) {
+            employeeService.giveRaise(employeeId, 0.01);
+            return null;
+        }
+        return employeeRepository.findById(employeeId).orElse(null);
+    }
+}
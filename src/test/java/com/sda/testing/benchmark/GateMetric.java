@@ -0,0 +1,56 @@
+package com.sda.testing.benchmark;
+
+/**
+ * Metric compared by {@link PerformanceGate}. Tolerance is the allowed regression in percent of baseline value, used
+ * unless configured with perf.tolerance.&lt;key&gt; property. Slack is an absolute difference never counted as
+ * regression, for metrics which are noisy around zero.
+ */
+enum GateMetric {
+    THROUGHPUT("throughput", "ops/s", true, 20, 0),
+    LATENCY_P99("latency.p99", "us", false, 35, 0),
+    ALLOCATION("alloc", "B/op", false, 10, 16),
+    SQL_STATEMENTS("sql", "statements/op", false, 0, 0.05);
+
+    private final String key;
+    private final String unit;
+    private final boolean higherIsBetter;
+    private final double defaultTolerance;
+    private final double slack;
+
+    GateMetric(String key, String unit, boolean higherIsBetter, double defaultTolerance, double slack) {
+        this.key = key;
+        this.unit = unit;
+        this.higherIsBetter = higherIsBetter;
+        this.defaultTolerance = defaultTolerance;
+        this.slack = slack;
+    }
+
+    String key() {
+        return key;
+    }
+
+    String unit() {
+        return unit;
+    }
+
+    boolean higherIsBetter() {
+        return higherIsBetter;
+    }
+
+    double defaultTolerance() {
+        return defaultTolerance;
+    }
+
+    double slack() {
+        return slack;
+    }
+
+    static GateMetric of(String key) {
+        for (GateMetric metric : values()) {
+            if (metric.key.equals(key)) {
+                return metric;
+            }
+        }
+        throw new IllegalArgumentException("Unknown metric: " + key);
+    }
+}
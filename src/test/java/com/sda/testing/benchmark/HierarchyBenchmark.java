@@ -0,0 +1,94 @@
+package com.sda.testing.benchmark;
+
+import com.sda.testing.cache.EntityCacheEvictor;
+import com.sda.testing.hierarchy.ClosureTable;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Subtree salary rollup through the closure table compared with a recursive query over manager column, and cost of
+ * moving a subtree. Deep org chart is a single reporting chain, wide one has ten reports under every manager.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HierarchyBenchmark {
+    private static final int FAN_OUT = 10;
+    private static final String RECURSIVE_SALARY_UNDER =
+            "with recursive reports(id) as (" +
+                    "select id from employee where manager_id = ? " +
+                    "union all select e.id from employee e join reports r on e.manager_id = r.id) " +
+                    "select coalesce(sum(e.salary_cents), 0) from employee e join reports r on e.id = r.id";
+
+    @Param({"1000"})
+    int employees;
+
+    @Param({"deep", "wide"})
+    String shape;
+
+    private JdbcTemplate jdbcTemplate;
+    private ClosureTable closureTable;
+    private long root;
+    private long movedEmployee;
+    private long oldManager;
+    private long newManager;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(
+                "jdbc:h2:mem:hierarchy;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "", true);
+        jdbcTemplate = new JdbcTemplate(SqlStatementCounter.counting(dataSource));
+        jdbcTemplate.execute("drop all objects");
+        jdbcTemplate.execute("create table employee (id bigint primary key, salary_cents bigint, manager_id bigint)");
+        jdbcTemplate.execute("create index employee_manager on employee (manager_id)");
+        jdbcTemplate.execute("create table employee_closure (ancestor_id bigint not null, " +
+                "descendant_id bigint not null, depth integer not null, primary key (ancestor_id, descendant_id))");
+        jdbcTemplate.execute("create index employee_closure_descendant on employee_closure (descendant_id)");
+        // employees are never removed here, so nothing is evicted from entity cache
+        closureTable = new ClosureTable(jdbcTemplate, Mockito.mock(EntityCacheEvictor.class));
+
+        root = 1;
+        jdbcTemplate.update("insert into employee (id, salary_cents, manager_id) values (?, ?, null)", root, 1_000_000L);
+        for (long id = 2; id <= employees; id++) {
+            long managerId = managerOf(id);
+            jdbcTemplate.update("insert into employee (id, salary_cents, manager_id) values (?, ?, ?)",
+                    id, 300_000 + id % 1000 * 100, managerId);
+            closureTable.attach(id, managerId);
+        }
+        if ("deep".equals(shape)) {
+            movedEmployee = employees / 2;
+            newManager = root;
+        } else {
+            movedEmployee = 3;
+            newManager = 2;
+        }
+        oldManager = managerOf(movedEmployee);
+    }
+
+    @Benchmark
+    public long closureSalaryRollup() {
+        return closureTable.salaryCentsUnder(root);
+    }
+
+    @Benchmark
+    public Long recursiveSalaryRollup() {
+        return jdbcTemplate.queryForObject(RECURSIVE_SALARY_UNDER, Long.class, root);
+    }
+
+    @Benchmark
+    public void moveSubtree() {
+        closureTable.attach(movedEmployee, newManager);
+        closureTable.attach(movedEmployee, oldManager);
+    }
+
+    private long managerOf(long id) {
+        return "deep".equals(shape) ? id - 1 : (id - 2) / FAN_OUT + 1;
+    }
+}
@@ -0,0 +1,192 @@
+package com.sda.testing.benchmark;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Regression gate run by the perf Maven profile. Benchmarks of this package are run for throughput and for sampled
+ * latency, profiled for allocations and SQL statements per operation, and compared with the stored baseline. Report
+ * of the comparison is written to the report directory with results of this run, and the gate exits with status 1
+ * if any metric regressed beyond its tolerance or a benchmark of the baseline selected by perf.include produced no
+ * result. A benchmark throwing an error stops the run. With perf.update-baseline results of this run replace the
+ * baseline entries of benchmarks which were run instead.
+ * <p>
+ * Throughput and latency depend on the machine, so baseline has to be recorded where the gate runs.
+ */
+public class PerformanceGate {
+    private static final String ALLOCATION_PER_OPERATION = "gc.alloc.rate.norm";
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        Path baselineFile = Paths.get(System.getProperty("perf.baseline", "src/test/resources/benchmark/baseline.txt"));
+        Path reportDirectory = Paths.get(System.getProperty("perf.report", "target/perf"));
+        TimeValue iterationTime = TimeValue.seconds(Integer.parseInt(System.getProperty("perf.iteration-seconds", "1")));
+        String include = System.getProperty("perf.include", PerformanceGate.class.getPackage().getName() + ".*");
+        Options options = new OptionsBuilder()
+                .include(include)
+                .mode(Mode.Throughput)
+                .mode(Mode.SampleTime)
+                .timeUnit(TimeUnit.MICROSECONDS)
+                .warmupIterations(Integer.parseInt(System.getProperty("perf.warmup-iterations", "2")))
+                .warmupTime(iterationTime)
+                .measurementIterations(Integer.parseInt(System.getProperty("perf.measurement-iterations", "3")))
+                .measurementTime(iterationTime)
+                .forks(1)
+                .addProfiler(GCProfiler.class)
+                .addProfiler(SqlStatementProfiler.class)
+                .shouldFailOnError(true)
+                .build();
+
+        Map<String, Map<GateMetric, Double>> current = metricsOf(new Runner(options).run());
+        Files.createDirectories(reportDirectory);
+        write(current, reportDirectory.resolve("current.txt"));
+        if (Boolean.parseBoolean(System.getProperty("perf.update-baseline", "false"))) {
+            Map<String, Map<GateMetric, Double>> baseline = Files.exists(baselineFile)
+                    ? read(baselineFile)
+                    : new TreeMap<>();
+            baseline.putAll(current);
+            write(baseline, baselineFile);
+            System.out.println("Baseline updated: " + baselineFile.toAbsolutePath());
+            return;
+        }
+        if (!Files.exists(baselineFile)) {
+            System.err.println("No baseline at " + baselineFile.toAbsolutePath()
+                    + ", record one with -Dperf.update-baseline=true");
+            System.exit(1);
+        }
+
+        BaselineComparison comparison = BaselineComparison.compare(included(read(baselineFile), include), current,
+                tolerances());
+        String report = comparison.report();
+        Files.write(reportDirectory.resolve("report.txt"), report.getBytes(StandardCharsets.UTF_8));
+        System.out.println(report);
+        if (!comparison.failures().isEmpty()) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * @return baseline entries of benchmarks matched by the include pattern, which this run is expected to produce.
+     */
+    static Map<String, Map<GateMetric, Double>> included(Map<String, Map<GateMetric, Double>> baseline,
+                                                          String include) {
+        Pattern pattern = Pattern.compile(include);
+        Map<String, Map<GateMetric, Double>> included = new TreeMap<>();
+        baseline.forEach((benchmark, metrics) -> {
+            int parameters = benchmark.indexOf('(');
+            String name = PerformanceGate.class.getPackage().getName() + "."
+                    + (parameters < 0 ? benchmark : benchmark.substring(0, parameters));
+            if (pattern.matcher(name).find()) {
+                included.put(benchmark, metrics);
+            }
+        });
+        return included;
+    }
+
+    private static Map<GateMetric, Double> tolerances() {
+        Map<GateMetric, Double> tolerances = new EnumMap<>(GateMetric.class);
+        for (GateMetric metric : GateMetric.values()) {
+            String tolerance = System.getProperty("perf.tolerance." + metric.key());
+            tolerances.put(metric, tolerance == null ? metric.defaultTolerance() : Double.parseDouble(tolerance));
+        }
+        return tolerances;
+    }
+
+    /**
+     * Throughput, allocations and statements are taken from throughput runs, 99th percentile from sampled latency.
+     */
+    static Map<String, Map<GateMetric, Double>> metricsOf(Collection<RunResult> results) {
+        Map<String, Map<GateMetric, Double>> metrics = new TreeMap<>();
+        for (RunResult result : results) {
+            BenchmarkParams params = result.getParams();
+            Map<GateMetric, Double> benchmarkMetrics = metrics.computeIfAbsent(idOf(params),
+                    id -> new EnumMap<>(GateMetric.class));
+            if (params.getMode() == Mode.Throughput) {
+                benchmarkMetrics.put(GateMetric.THROUGHPUT,
+                        result.getPrimaryResult().getScore() * params.getTimeUnit().convert(1, TimeUnit.SECONDS));
+                secondary(result, ALLOCATION_PER_OPERATION)
+                        .ifPresent(value -> benchmarkMetrics.put(GateMetric.ALLOCATION, value));
+                secondary(result, SqlStatementProfiler.STATEMENTS_PER_OPERATION)
+                        .ifPresent(value -> benchmarkMetrics.put(GateMetric.SQL_STATEMENTS, value));
+            } else if (params.getMode() == Mode.SampleTime) {
+                benchmarkMetrics.put(GateMetric.LATENCY_P99,
+                        result.getPrimaryResult().getStatistics().getPercentile(99));
+            }
+        }
+        return metrics;
+    }
+
+    private static Optional<Double> secondary(RunResult result, String label) {
+        // profilers may prefix their labels
+        return result.getSecondaryResults().entrySet().stream()
+                .filter(entry -> entry.getKey().endsWith(label))
+                .map(Map.Entry::getValue)
+                .map(Result::getScore)
+                .filter(score -> !score.isNaN())
+                .findFirst();
+    }
+
+    /**
+     * @return benchmark class and method followed by parameters, e.g. HierarchyBenchmark.moveSubtree(shape=deep).
+     */
+    private static String idOf(BenchmarkParams params) {
+        String benchmark = params.getBenchmark().substring(PerformanceGate.class.getPackage().getName().length() + 1);
+        if (params.getParamsKeys().isEmpty()) {
+            return benchmark;
+        }
+        return benchmark + params.getParamsKeys().stream()
+                .sorted()
+                .map(key -> key + "=" + params.getParam(key))
+                .collect(Collectors.joining(",", "(", ")"));
+    }
+
+    /**
+     * Results are kept as lines of benchmark, metric and value separated by whitespace, sorted so the file diffs well.
+     */
+    static Map<String, Map<GateMetric, Double>> read(Path file) throws IOException {
+        Map<String, Map<GateMetric, Double>> metrics = new TreeMap<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            String[] columns = trimmed.split("\\s+");
+            if (columns.length != 3) {
+                throw new IOException("Malformed line in " + file + ": " + line);
+            }
+            metrics.computeIfAbsent(columns[0], id -> new EnumMap<>(GateMetric.class))
+                    .put(GateMetric.of(columns[1]), Double.parseDouble(columns[2]));
+        }
+        return metrics;
+    }
+
+    static void write(Map<String, Map<GateMetric, Double>> metrics, Path file) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("# benchmark metric value, units: " + Arrays.stream(GateMetric.values())
+                .map(metric -> metric.key() + " " + metric.unit())
+                .collect(Collectors.joining(", ")));
+        new TreeMap<>(metrics).forEach((benchmark, benchmarkMetrics) -> benchmarkMetrics.forEach((metric, value) ->
+                lines.add(String.format(Locale.ROOT, "%s %s %.3f", benchmark, metric.key(), value))));
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        Files.write(file, lines, StandardCharsets.UTF_8);
+    }
+}
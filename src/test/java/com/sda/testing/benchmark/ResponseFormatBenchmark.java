@@ -0,0 +1,70 @@
+package com.sda.testing.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sda.testing.model.Employee;
+import com.sda.testing.model.EmployeeLevel;
+import com.sda.testing.model.ResponseMessage;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Serialization cost of employee list responses in JSON and CBOR. Payload sizes are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseFormatBenchmark {
+    private static final TypeReference<ResponseMessage<List<Employee>>> RESPONSE_TYPE =
+            new TypeReference<ResponseMessage<List<Employee>>>() {
+            };
+
+    @Param({"1000", "100000"})
+    int employees;
+
+    @Param({"json", "cbor"})
+    String format;
+
+    private ObjectMapper objectMapper;
+    private ResponseMessage<List<Employee>> response;
+    private byte[] serialized;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        objectMapper = "cbor".equals(format)
+                ? Jackson2ObjectMapperBuilder.cbor().build()
+                : Jackson2ObjectMapperBuilder.json().build();
+        EmployeeLevel[] levels = EmployeeLevel.values();
+        List<Employee> employeeList = LongStream.range(0, employees)
+                .mapToObj(id -> Employee.builder()
+                        .id(id)
+                        .firstName("Jan" + id)
+                        .lastName("Kowalski" + id)
+                        .salary(3000 + id % 5000 + 0.25)
+                        .level(levels[(int) (id % levels.length)])
+                        .build())
+                .collect(Collectors.toList());
+        response = new ResponseMessage<>(employeeList, "Response OK!");
+        serialized = objectMapper.writeValueAsBytes(response);
+        System.out.printf("%n%s payload of %d employees: %d bytes%n", format, employees, serialized.length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public ResponseMessage<List<Employee>> deserialize() throws IOException {
+        return objectMapper.readValue(serialized, RESPONSE_TYPE);
+    }
+}
@@ -0,0 +1,78 @@
+package com.sda.testing.benchmark;
+
+import com.sda.testing.model.EmployeeLevel;
+import com.sda.testing.payroll.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Salary sums over salaries in cents compared with the former double salaries, for all employees and for one level.
+ * Error of the double sum against the exact one is printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SalaryAggregationBenchmark {
+
+    @Param({"1000", "1000000"})
+    int employees;
+
+    private double[] salaries;
+    private long[] salaryCents;
+    private int[] levels;
+    private int level;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(42);
+        int levelCount = EmployeeLevel.values().length;
+        salaries = new double[employees];
+        salaryCents = new long[employees];
+        levels = new int[employees];
+        for (int i = 0; i < employees; i++) {
+            salaryCents[i] = 300_000 + random.nextInt(1_000_000);
+            salaries[i] = Money.toAmount(salaryCents[i]);
+            levels[i] = random.nextInt(levelCount);
+        }
+        level = EmployeeLevel.MANAGER.ordinal();
+        BigDecimal exact = BigDecimal.valueOf(Money.sum(salaryCents, employees), 2);
+        System.out.printf("%ndouble sum of %d salaries is off by %s%n", employees,
+                new BigDecimal(doubleSum()).subtract(exact).abs().toPlainString());
+    }
+
+    @Benchmark
+    public double doubleSum() {
+        double sum = 0;
+        for (double salary : salaries) {
+            sum += salary;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long centsSum() {
+        return Money.sum(salaryCents, employees);
+    }
+
+    @Benchmark
+    public double doubleSumOfLevel() {
+        double sum = 0;
+        for (int i = 0; i < employees; i++) {
+            if (levels[i] == level) {
+                sum += salaries[i];
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long centsSumOfLevel() {
+        return Money.sumWhere(salaryCents, levels, level, employees);
+    }
+}
@@ -0,0 +1,88 @@
+package com.sda.testing.benchmark;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts statements executed in this JVM through data sources wrapped by {@link #counting(DataSource)}, so statements
+ * of Hibernate and of JdbcTemplate are counted alike. A JDBC batch is one round trip and counts as one statement.
+ * Registered as bean post processor of benchmarked application context, which wraps its data source, and read by
+ * {@link SqlStatementProfiler}.
+ */
+public class SqlStatementCounter implements BeanPostProcessor {
+    private static final AtomicLong STATEMENTS = new AtomicLong();
+    private static final Set<String> EXECUTE_METHODS = new HashSet<>(Arrays.asList(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch"));
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        return bean instanceof DataSource ? counting((DataSource) bean) : bean;
+    }
+
+    static DataSource counting(DataSource dataSource) {
+        return new DelegatingDataSource(dataSource) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return proxy(Connection.class, super.getConnection());
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                return proxy(Connection.class, super.getConnection(username, password));
+            }
+        };
+    }
+
+    static long statements() {
+        return STATEMENTS.get();
+    }
+
+    /**
+     * @return proxy of connection or statement, counting executions of statements and proxying statements it creates.
+     */
+    private static <T> T proxy(Class<T> type, T target) {
+        return type.cast(Proxy.newProxyInstance(SqlStatementCounter.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            break;
+                    }
+                    if (EXECUTE_METHODS.contains(method.getName())) {
+                        STATEMENTS.incrementAndGet();
+                    }
+                    Object result;
+                    try {
+                        result = method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    if (result instanceof CallableStatement) {
+                        return proxy(CallableStatement.class, (CallableStatement) result);
+                    }
+                    if (result instanceof PreparedStatement) {
+                        return proxy(PreparedStatement.class, (PreparedStatement) result);
+                    }
+                    if (result instanceof Statement) {
+                        return proxy(Statement.class, (Statement) result);
+                    }
+                    return result;
+                }));
+    }
+}
@@ -0,0 +1,43 @@
+package com.sda.testing.benchmark;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Reports SQL statements per benchmark operation, as counted by {@link SqlStatementCounter}. Benchmarks which don't
+ * use a counted data source report zero.
+ */
+public class SqlStatementProfiler implements InternalProfiler {
+    static final String STATEMENTS_PER_OPERATION = "sql.statements.norm";
+
+    private long statementsBefore;
+
+    @Override
+    public String getDescription() {
+        return "SQL statements executed per operation";
+    }
+
+    @Override
+    public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+        statementsBefore = SqlStatementCounter.statements();
+    }
+
+    @Override
+    public Collection<? extends Result> afterIteration(BenchmarkParams benchmarkParams,
+                                                        IterationParams iterationParams,
+                                                        IterationResult result) {
+        long operations = result.getMetadata().getAllOps();
+        long statements = SqlStatementCounter.statements() - statementsBefore;
+        double perOperation = operations == 0 ? Double.NaN : (double) statements / operations;
+        return Collections.singletonList(
+                new ScalarResult(STATEMENTS_PER_OPERATION, perOperation, "statements/op", AggregationPolicy.AVG));
+    }
+}
@@ -0,0 +1,153 @@
+package com.sda.testing.cache;
+
+import com.sda.testing.exception.InvalidOperation;
+import com.sda.testing.model.Employee;
+import com.sda.testing.model.EmployeeLevel;
+import com.sda.testing.repository.EmployeeRepository;
+import com.sda.testing.service.CompanyService;
+import com.sda.testing.service.EmployeeService;
+import com.sda.testing.service.HierarchyService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Collections;
+
+@SpringBootTest
+@ActiveProfiles("tests")
+class EntityCacheTests {
+    @Autowired
+    private EmployeeRepository employeeRepository;
+    @Autowired
+    private EmployeeService employeeService;
+    @Autowired
+    private CompanyService companyService;
+    @Autowired
+    private HierarchyService hierarchyService;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setupTest() {
+        employeeRepository.deleteAll();
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        statistics = sessionFactory.getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void cleanup() {
+        employeeRepository.deleteAll();
+    }
+
+    @Test
+    void repeatedReadsOfEmployeeAreServedFromCache() {
+        Employee employee = save("Jan", 3000, EmployeeLevel.WORKER);
+        employeeRepository.findById(employee.getId());
+        statistics.clear();
+
+        employeeRepository.findById(employee.getId());
+        employeeRepository.findById(employee.getId());
+        employeeRepository.findById(employee.getId());
+
+        Assertions.assertEquals(0, statistics.getEntityLoadCount());
+        Assertions.assertEquals(3, employeeRegion().getHitCount());
+        Assertions.assertTrue(meterRegistry.get("cache.entity.hit.ratio").tag("region", "Employee").gauge()
+                .value() > 0);
+    }
+
+    @Test
+    void raiseIsVisibleAfterCachedRead() throws InvalidOperation {
+        Employee employee = save("Jan", 3000, EmployeeLevel.WORKER);
+        employeeRepository.findById(employee.getId());
+
+        employeeService.giveRaise(employee.getId(), 10);
+
+        Assertions.assertEquals(3300, employeeRepository.findById(employee.getId()).get().getSalary());
+    }
+
+    @Test
+    void promotionChangesLevelAndSalaryReadingEmployeeOnce() throws InvalidOperation {
+        Employee employee = save("Jan", 3000, EmployeeLevel.WORKER);
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictEntityData(Employee.class);
+        statistics.clear();
+
+        employeeService.givePromotion(employee.getId());
+
+        // one read of the promoted employee, and one by save merging it back
+        Assertions.assertEquals(1, statistics.getEntityLoadCount());
+        Assertions.assertEquals(1, employeeRegion().getHitCount());
+        Employee promoted = employeeRepository.findById(employee.getId()).get();
+        Assertions.assertEquals(EmployeeLevel.LEAD, promoted.getLevel());
+        Assertions.assertEquals(3150, promoted.getSalary());
+    }
+
+    @Test
+    void employeesOfLevelAreReadAgainAfterHiring() {
+        save("Jan", 3000, EmployeeLevel.WORKER);
+        Assertions.assertEquals(1, employeeService.findAllFrom(EmployeeLevel.WORKER).size());
+        Assertions.assertEquals(1, employeeService.findAllFrom(EmployeeLevel.WORKER).size());
+        Assertions.assertEquals(1, statistics.getQueryRegionStatistics(EmployeeRepository.EMPLOYEES_BY_LEVEL_REGION)
+                .getHitCount());
+
+        save("Anna", 3000, EmployeeLevel.WORKER);
+
+        Assertions.assertEquals(2, employeeService.findAllFrom(EmployeeLevel.WORKER).size());
+    }
+
+    @Test
+    void employeesOfLevelAreReadAgainAfterBatchInsert() {
+        save("Jan", 3000, EmployeeLevel.WORKER);
+        Assertions.assertEquals(1, employeeService.findAllFrom(EmployeeLevel.WORKER).size());
+
+        employeeRepository.insertAll(Collections.singletonList(Employee.builder()
+                .firstName("Anna")
+                .lastName("Nowak")
+                .salary(3000)
+                .level(EmployeeLevel.WORKER)
+                .build()));
+
+        Assertions.assertEquals(2, employeeService.findAllFrom(EmployeeLevel.WORKER).size());
+    }
+
+    @Test
+    void reportsOfFiredManagerAreReadAgain() throws InvalidOperation {
+        Employee director = save("Anna", 9000, EmployeeLevel.EXECUTIVE);
+        Employee manager = save("Jan", 6000, EmployeeLevel.MANAGER);
+        Employee worker = save("Adam", 3000, EmployeeLevel.WORKER);
+        hierarchyService.assignManager(manager.getId(), director.getId());
+        hierarchyService.assignManager(worker.getId(), manager.getId());
+        Assertions.assertEquals(manager.getId(), employeeRepository.findById(worker.getId()).get().getManagerId());
+
+        companyService.fireEmployee(manager.getId());
+
+        Assertions.assertEquals(director.getId(), employeeRepository.findById(worker.getId()).get().getManagerId());
+    }
+
+    private CacheRegionStatistics employeeRegion() {
+        return statistics.getDomainDataRegionStatistics(Employee.class.getName());
+    }
+
+    private Employee save(String name, double salary, EmployeeLevel level) {
+        return employeeRepository.save(Employee.builder()
+                .firstName(name)
+                .lastName("Kowalski")
+                .salary(salary)
+                .level(level)
+                .build());
+    }
+}
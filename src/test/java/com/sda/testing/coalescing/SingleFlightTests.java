@@ -0,0 +1,90 @@
+package com.sda.testing.coalescing;
+
+import com.sda.testing.exception.InvalidOperation;
+import com.sda.testing.sharding.ShardContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class SingleFlightTests {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void concurrentCallsShareOneComputation() throws Exception {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>("test", meterRegistry, Runnable::run, 0, 0);
+        AtomicInteger computations = new AtomicInteger();
+        CountDownLatch computationStarted = new CountDownLatch(1);
+        CountDownLatch allCallersWaiting = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        List<Future<Integer>> results = new ArrayList<>();
+        results.add(executor.submit(() -> singleFlight.execute("key", () -> {
+            computationStarted.countDown();
+            allCallersWaiting.await();
+            return computations.incrementAndGet();
+        })));
+        computationStarted.await();
+        for (int i = 0; i < 3; i++) {
+            results.add(executor.submit(() -> singleFlight.execute("key", computations::incrementAndGet)));
+        }
+        while (singleFlight.hitRatio() < 0.75) {
+            Thread.sleep(1);
+        }
+        allCallersWaiting.countDown();
+
+        for (Future<Integer> result : results) {
+            Assertions.assertEquals(1, result.get(5, TimeUnit.SECONDS));
+        }
+        Assertions.assertEquals(1, computations.get());
+        executor.shutdown();
+    }
+
+    @Test
+    void exceptionIsRethrownAndNextCallComputesAgain() throws InvalidOperation {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>("test", meterRegistry, Runnable::run, 0, 0);
+
+        Assertions.assertThrows(InvalidOperation.class, () -> singleFlight.execute("key", () -> {
+            throw new InvalidOperation();
+        }));
+        Assertions.assertEquals(2, singleFlight.execute("key", () -> 2));
+    }
+
+    @Test
+    void staleResultIsServedWhileBeingRevalidated() {
+        List<Runnable> refreshes = new ArrayList<>();
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>("test", meterRegistry, refreshes::add, 0, 60000);
+
+        Assertions.assertEquals(1, singleFlight.execute("key", () -> 1));
+        Assertions.assertEquals(1, singleFlight.execute("key", () -> 2));
+        Assertions.assertEquals(1, singleFlight.execute("key", () -> 3));
+        Assertions.assertEquals(1, refreshes.size());
+
+        refreshes.get(0).run();
+        Assertions.assertEquals(2, singleFlight.execute("key", () -> 4));
+    }
+
+    @Test
+    void staleResultIsRevalidatedOnShardOfCaller() throws InterruptedException {
+        List<Runnable> refreshes = new ArrayList<>();
+        SingleFlight<String, String> singleFlight = new SingleFlight<>("test", meterRegistry, refreshes::add, 0, 60000);
+        List<String> refreshedShards = new CopyOnWriteArrayList<>();
+
+        ShardContext.callOn("shard-1", () -> singleFlight.execute("shard-1:key", ShardContext::currentShard));
+        ShardContext.callOn("shard-1", () -> singleFlight.execute("shard-1:key", () -> {
+            refreshedShards.add(String.valueOf(ShardContext.currentShard()));
+            return ShardContext.currentShard();
+        }));
+        Thread refreshThread = new Thread(refreshes.get(0));
+        refreshThread.start();
+        refreshThread.join();
+
+        Assertions.assertEquals(Collections.singletonList("shard-1"), refreshedShards);
+        Assertions.assertNull(ShardContext.currentShard());
+    }
+}
@@ -0,0 +1,125 @@
+package com.sda.testing.controller;
+
+import com.sda.testing.model.Employee;
+import com.sda.testing.model.EmployeeLevel;
+import com.sda.testing.model.ResponseMessage;
+import com.sda.testing.repository.ChangeLogRepository;
+import com.sda.testing.repository.EmployeeRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("tests")
+public class ChangeIntegrationTests {
+    private final EmployeeRepository employeeRepository;
+    private final ChangeLogRepository changeLogRepository;
+    private final TestRestTemplate testRestTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    @LocalServerPort
+    int randomPort;
+
+    @Autowired
+    public ChangeIntegrationTests(EmployeeRepository employeeRepository,
+                                  ChangeLogRepository changeLogRepository,
+                                  TestRestTemplate testRestTemplate,
+                                  PlatformTransactionManager transactionManager) {
+        this.employeeRepository = employeeRepository;
+        this.changeLogRepository = changeLogRepository;
+        this.testRestTemplate = testRestTemplate;
+        this.transactionManager = transactionManager;
+    }
+
+    @BeforeEach
+    void setup() throws InterruptedException {
+        employeeRepository.deleteAll();
+        changeLogRepository.deleteAll();
+
+        Employee employee = employeeRepository.save(
+                Employee.builder().firstName("Jan").lastName("Kowalski").salary(500.0).level(EmployeeLevel.WORKER).build());
+        employee.setSalary(600.0);
+        employeeRepository.save(employee);
+        employeeRepository.delete(employee);
+        Thread.sleep(5);
+    }
+
+    private Map<String, Object> getChanges(long since, int limit) {
+        ResponseEntity<ResponseMessage> responseEntity = testRestTemplate.getForEntity(
+                "http://localhost:" + randomPort + "/changes?since=" + since + "&limit=" + limit,
+                ResponseMessage.class);
+        Assertions.assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        return (Map<String, Object>) responseEntity.getBody().getBody();
+    }
+
+    @Test
+    void changesAreListedInOrder() {
+        Map<String, Object> page = getChanges(0, 100);
+
+        List<Map<String, Object>> changes = (List<Map<String, Object>>) page.get("changes");
+        Assertions.assertEquals(3, changes.size());
+        Assertions.assertEquals("CREATED", changes.get(0).get("changeType"));
+        Assertions.assertEquals("UPDATED", changes.get(1).get("changeType"));
+        Assertions.assertEquals("DELETED", changes.get(2).get("changeType"));
+        Assertions.assertEquals(600.0, ((Map<String, Object>) changes.get(1).get("payload")).get("salary"));
+        Assertions.assertEquals(false, page.get("hasMore"));
+    }
+
+    @Test
+    void changesCanBeReadPageByPage() {
+        Map<String, Object> firstPage = getChanges(0, 2);
+        Assertions.assertEquals(true, firstPage.get("hasMore"));
+
+        Map<String, Object> secondPage = getChanges(((Number) firstPage.get("nextCursor")).longValue(), 2);
+        List<Map<String, Object>> changes = (List<Map<String, Object>>) secondPage.get("changes");
+        Assertions.assertEquals(1, changes.size());
+        Assertions.assertEquals("DELETED", changes.get(0).get("changeType"));
+        Assertions.assertEquals(false, secondPage.get("hasMore"));
+    }
+
+    @Test
+    void changeOfTransactionCommittedAfterLaterOneIsNotSkipped() throws InterruptedException {
+        long cursor = ((Number) getChanges(0, 100).get("nextCursor")).longValue();
+        CountDownLatch logged = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        Thread slowTransaction = new Thread(() -> new TransactionTemplate(transactionManager).executeWithoutResult(
+                status -> {
+                    employeeRepository.saveAndFlush(Employee.builder()
+                            .firstName("Anna").lastName("Nowak").salary(700.0).level(EmployeeLevel.WORKER).build());
+                    logged.countDown();
+                    try {
+                        commit.await();
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }));
+        slowTransaction.start();
+        logged.await();
+        employeeRepository.save(
+                Employee.builder().firstName("Piotr").lastName("Lis").salary(900.0).level(EmployeeLevel.WORKER).build());
+
+        Map<String, Object> pageWhileOpen = getChanges(cursor, 100);
+        Assertions.assertTrue(((List<?>) pageWhileOpen.get("changes")).isEmpty());
+
+        commit.countDown();
+        slowTransaction.join();
+        Map<String, Object> page = getChanges(((Number) pageWhileOpen.get("nextCursor")).longValue(), 100);
+        List<Map<String, Object>> changes = (List<Map<String, Object>>) page.get("changes");
+        Assertions.assertEquals(2, changes.size());
+        Assertions.assertEquals("Anna", ((Map<String, Object>) changes.get(0).get("payload")).get("firstName"));
+        Assertions.assertEquals("Piotr", ((Map<String, Object>) changes.get(1).get("payload")).get("firstName"));
+    }
+}
@@ -0,0 +1,113 @@
+package com.sda.testing.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sda.testing.model.Employee;
+import com.sda.testing.model.EmployeeLevel;
+import com.sda.testing.model.PayrollSummaryDto;
+import com.sda.testing.repository.EmployeeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {"push.debounce-ms=300", "push.heartbeat-ms=100"})
+@ActiveProfiles("tests")
+public class CompanyUpdatesIntegrationTests {
+    @Autowired
+    private EmployeeRepository employeeRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @LocalServerPort
+    int randomPort;
+
+    private HttpURLConnection connection;
+    private final BlockingQueue<String[]> events = new LinkedBlockingQueue<>();
+
+    @BeforeEach
+    void setup() throws IOException {
+        employeeRepository.deleteAll();
+        connection = (HttpURLConnection) new URL("http://localhost:" + randomPort + "/company/updates").openConnection();
+        BufferedReader reader = new BufferedReader(
+                new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8));
+        Thread readerThread = new Thread(() -> readEvents(reader));
+        readerThread.setDaemon(true);
+        readerThread.start();
+    }
+
+    @AfterEach
+    void cleanup() {
+        connection.disconnect();
+        employeeRepository.deleteAll();
+    }
+
+    @Test
+    void subscriberReceivesCurrentStateFirst() throws Exception {
+        Assertions.assertEquals(0, nextPayroll().getHeadCount());
+        Assertions.assertEquals("teams", next()[0]);
+    }
+
+    @Test
+    void changesWithinDebounceIntervalArePushedOnce() throws Exception {
+        nextPayroll();
+        next();
+
+        for (int i = 0; i < 5; i++) {
+            employeeRepository.save(Employee.builder().firstName("Jan").lastName("Kowalski" + i).salary(1000.5)
+                    .level(EmployeeLevel.WORKER).build());
+        }
+
+        PayrollSummaryDto payroll = nextPayroll();
+        Assertions.assertEquals(5, payroll.getHeadCount());
+        Assertions.assertEquals(5002.5, payroll.getTotalSalary());
+        Assertions.assertEquals(EmployeeLevel.WORKER, payroll.getLevels().get(0).getLevel());
+        Assertions.assertEquals("teams", next()[0]);
+        Assertions.assertNull(events.poll(600, TimeUnit.MILLISECONDS));
+    }
+
+    private PayrollSummaryDto nextPayroll() throws Exception {
+        String[] event = next();
+        Assertions.assertEquals("payroll", event[0]);
+        return objectMapper.readValue(event[1], PayrollSummaryDto.class);
+    }
+
+    private String[] next() throws InterruptedException {
+        String[] event = events.poll(5, TimeUnit.SECONDS);
+        Assertions.assertNotNull(event);
+        return event;
+    }
+
+    private void readEvents(BufferedReader reader) {
+        try {
+            String name = null;
+            StringBuilder data = new StringBuilder();
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                if (line.startsWith("event:")) {
+                    name = line.substring("event:".length());
+                } else if (line.startsWith("data:")) {
+                    data.append(line.substring("data:".length()));
+                } else if (line.isEmpty() && name != null) {
+                    events.add(new String[]{name, data.toString()});
+                    name = null;
+                    data.setLength(0);
+                }
+            }
+        } catch (IOException e) {
+            // connection closed by the test
+        }
+    }
+}
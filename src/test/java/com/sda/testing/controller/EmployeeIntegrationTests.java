@@ -1,5 +1,8 @@
 package com.sda.testing.controller;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import com.sda.testing.model.Employee;
 import com.sda.testing.model.EmployeeLevel;
 import com.sda.testing.model.ResponseMessage;
@@ -12,12 +15,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.web.server.LocalServerPort;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.*;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.io.IOException;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -27,15 +29,18 @@ import java.util.Map;
 public class EmployeeIntegrationTests {
     private final EmployeeRepository employeeRepository;
     private final TestRestTemplate testRestTemplate;
+    private final ObjectMapper objectMapper;
 
     @LocalServerPort
     int randomPort;
 
     @Autowired
     public EmployeeIntegrationTests(EmployeeRepository employeeRepository,
-                                    TestRestTemplate testRestTemplate) {
+                                    TestRestTemplate testRestTemplate,
+                                    ObjectMapper objectMapper) {
         this.employeeRepository = employeeRepository;
         this.testRestTemplate = testRestTemplate;
+        this.objectMapper = objectMapper;
     }
 
     @Nested
@@ -132,6 +137,106 @@ public class EmployeeIntegrationTests {
             Assertions.assertEquals(3, employeeList.size());
         }
 
+        @Test
+        void canFilterEmployeesByLevelsAndSalary() {
+            ResponseEntity<ResponseMessage> responseEntity = testRestTemplate.getForEntity(
+                    "http://localhost:" + randomPort + "/employee/filter?level=WORKER,MANAGER&salaryFrom=1000",
+                    ResponseMessage.class);
+            Assertions.assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+            List<?> ids = (List<?>) responseEntity.getBody().getBody();
+            Assertions.assertEquals(2, ids.size());
+
+            ResponseEntity<ResponseMessage> countEntity = testRestTemplate.getForEntity(
+                    "http://localhost:" + randomPort + "/employee/filter/count?level=WORKER&salaryTo=2500.01",
+                    ResponseMessage.class);
+            Assertions.assertEquals(HttpStatus.OK, countEntity.getStatusCode());
+            Assertions.assertEquals(2, countEntity.getBody().getBody());
+        }
+
+        @Test
+        void cannotFilterEmployeesByInvertedSalaryBand() {
+            ResponseEntity<ResponseMessage> responseEntity = testRestTemplate.getForEntity(
+                    "http://localhost:" + randomPort + "/employee/filter/count?salaryFrom=2000&salaryTo=1000",
+                    ResponseMessage.class);
+            Assertions.assertEquals(HttpStatus.BAD_REQUEST, responseEntity.getStatusCode());
+        }
+
+        @Test
+        void canQueryEmployeesPageByPage() {
+            ResponseEntity<ResponseMessage> responseEntity = testRestTemplate.getForEntity(
+                    "http://localhost:" + randomPort + "/employee/query?level=WORKER&sort=SALARY&descending=true&limit=1",
+                    ResponseMessage.class);
+            Assertions.assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+            Map<String, Object> page = (Map<String, Object>) responseEntity.getBody().getBody();
+            List<Map<String, Object>> employees = (List<Map<String, Object>>) page.get("employees");
+            Assertions.assertEquals(2500.0, employees.get(0).get("salary"));
+            Assertions.assertEquals(true, page.get("hasMore"));
+
+            ResponseEntity<ResponseMessage> nextEntity = testRestTemplate.getForEntity(
+                    "http://localhost:" + randomPort + "/employee/query?level=WORKER&sort=SALARY&descending=true"
+                            + "&limit=1&after={after}",
+                    ResponseMessage.class, page.get("nextCursor"));
+            Map<String, Object> nextPage = (Map<String, Object>) nextEntity.getBody().getBody();
+            List<Map<String, Object>> nextEmployees = (List<Map<String, Object>>) nextPage.get("employees");
+            Assertions.assertEquals(500.0, nextEmployees.get(0).get("salary"));
+            Assertions.assertEquals(false, nextPage.get("hasMore"));
+        }
+
+        @Test
+        void cannotQueryMoreEmployeesThanLimitCap() {
+            ResponseEntity<ResponseMessage> responseEntity = testRestTemplate.getForEntity(
+                    "http://localhost:" + randomPort + "/employee/query?limit=1001", ResponseMessage.class);
+            Assertions.assertEquals(HttpStatus.BAD_REQUEST, responseEntity.getStatusCode());
+        }
+
+        @Test
+        void canGetOnlyRequestedFieldsOfEmployeesOfSpecifiedLevel() {
+            ResponseEntity<ResponseMessage> responseEntity = testRestTemplate.getForEntity(
+                    "http://localhost:" + randomPort + "/employee/level?level=WORKER&fields=id,lastName",
+                    ResponseMessage.class);
+            Assertions.assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+            List<Map<String, Object>> employeeList = (List<Map<String, Object>>) responseEntity.getBody().getBody();
+            Assertions.assertEquals(2, employeeList.size());
+            Assertions.assertEquals(2, employeeList.get(0).size());
+            Assertions.assertTrue(employeeList.get(0).containsKey("id"));
+            Assertions.assertTrue(employeeList.get(0).containsKey("lastName"));
+        }
+
+        @Test
+        void cannotRequestUnknownFieldOfEmployees() {
+            ResponseEntity<ResponseMessage> responseEntity = testRestTemplate.getForEntity(
+                    "http://localhost:" + randomPort + "/employee/all?fields=id,password",
+                    ResponseMessage.class);
+            Assertions.assertEquals(HttpStatus.BAD_REQUEST, responseEntity.getStatusCode());
+        }
+
+        @Test
+        void canGetListOfAllEmployeesAsCbor() throws IOException {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setAccept(Collections.singletonList(MediaType.APPLICATION_CBOR));
+            ResponseEntity<byte[]> responseEntity = testRestTemplate.exchange(
+                    "http://localhost:" + randomPort + "/employee/all",
+                    HttpMethod.GET,
+                    new HttpEntity<>(headers),
+                    byte[].class);
+            Assertions.assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+            Assertions.assertEquals(MediaType.APPLICATION_CBOR, responseEntity.getHeaders().getContentType());
+            ResponseMessage<List<Employee>> responseBody = new CBORMapper().readValue(responseEntity.getBody(),
+                    new TypeReference<ResponseMessage<List<Employee>>>() {
+                    });
+            Assertions.assertEquals(3, responseBody.getBody().size());
+        }
+
+        @Test
+        void canGetListOfAllEmployeesAsJsonWrittenByDatabind() throws IOException {
+            ResponseEntity<byte[]> responseEntity = testRestTemplate.getForEntity(
+                    "http://localhost:" + randomPort + "/employee/all", byte[].class);
+            Assertions.assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+            byte[] databindJson = objectMapper.writeValueAsBytes(
+                    new ResponseMessage<>(employeeRepository.findAll(), "Response OK!"));
+            Assertions.assertArrayEquals(databindJson, responseEntity.getBody());
+        }
+
     }
 
     @Nested
@@ -0,0 +1,116 @@
+package com.sda.testing.controller;
+
+import com.sda.testing.idempotency.IdempotencyFilter;
+import com.sda.testing.model.Employee;
+import com.sda.testing.model.EmployeeDto;
+import com.sda.testing.model.EmployeeLevel;
+import com.sda.testing.repository.EmployeeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.*;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("tests")
+public class IdempotencyIntegrationTests {
+    @Autowired
+    private EmployeeRepository employeeRepository;
+    @Autowired
+    private TestRestTemplate testRestTemplate;
+
+    @LocalServerPort
+    int randomPort;
+
+    private Employee employee;
+
+    @BeforeEach
+    void setup() {
+        employeeRepository.deleteAll();
+        employee = employeeRepository.save(
+                Employee.builder().firstName("Jan").lastName("Kowalski").salary(500.0).level(EmployeeLevel.WORKER).build());
+    }
+
+    @AfterEach
+    void cleanup() {
+        employeeRepository.deleteAll();
+    }
+
+    @Test
+    void retriedRaiseIsAppliedOnce() {
+        ResponseEntity<String> first = raise("raise-1", 10);
+        ResponseEntity<String> retry = raise("raise-1", 10);
+
+        Assertions.assertEquals(HttpStatus.OK, first.getStatusCode());
+        Assertions.assertEquals(HttpStatus.OK, retry.getStatusCode());
+        Assertions.assertNull(first.getHeaders().getFirst(IdempotencyFilter.REPLAYED_HEADER));
+        Assertions.assertEquals("true", retry.getHeaders().getFirst(IdempotencyFilter.REPLAYED_HEADER));
+        Assertions.assertEquals(550.0, employeeRepository.findById(employee.getId()).get().getSalary(), 0.001);
+    }
+
+    @Test
+    void keyReusedForDifferentRequestIsRejected() {
+        raise("raise-2", 10);
+
+        Assertions.assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, raise("raise-2", 20).getStatusCode());
+        Assertions.assertEquals(550.0, employeeRepository.findById(employee.getId()).get().getSalary(), 0.001);
+    }
+
+    @Test
+    void concurrentDuplicatesOfPromotionArePromotedOnce() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<ResponseEntity<String>>> responses = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                responses.add(executor.submit(() -> post("/employee/promote", "promote-1", employee.getId())));
+            }
+            for (Future<ResponseEntity<String>> response : responses) {
+                Assertions.assertEquals(HttpStatus.OK, response.get(30, TimeUnit.SECONDS).getStatusCode());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        Assertions.assertEquals(EmployeeLevel.LEAD, employeeRepository.findById(employee.getId()).get().getLevel());
+    }
+
+    @Test
+    void retriedHireCreatesSingleEmployee() {
+        EmployeeDto employeeDto = new EmployeeDto("Anna", "Nowak", 3000);
+
+        Assertions.assertEquals(HttpStatus.OK, post("/company/employee", "hire-1", employeeDto).getStatusCode());
+        Assertions.assertEquals(HttpStatus.OK, post("/company/employee", "hire-1", employeeDto).getStatusCode());
+        Assertions.assertEquals(2, employeeRepository.count());
+    }
+
+    private ResponseEntity<String> raise(String key, double percentRaise) {
+        return testRestTemplate.exchange(
+                "http://localhost:" + randomPort + "/employee/salaryRaise?employeeId={id}&percentRaise={raise}",
+                HttpMethod.GET,
+                new HttpEntity<>(headers(key)),
+                String.class,
+                employee.getId(), percentRaise);
+    }
+
+    private ResponseEntity<String> post(String path, String key, Object body) {
+        return testRestTemplate.exchange(
+                "http://localhost:" + randomPort + path,
+                HttpMethod.POST,
+                new HttpEntity<>(body, headers(key)),
+                String.class);
+    }
+
+    private static HttpHeaders headers(String key) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, key);
+        return headers;
+    }
+}
@@ -0,0 +1,99 @@
+package com.sda.testing.controller;
+
+import com.sda.testing.model.Employee;
+import com.sda.testing.model.EmployeeLevel;
+import com.sda.testing.model.ImportReport;
+import com.sda.testing.model.ImportRowError;
+import com.sda.testing.model.ResponseMessage;
+import com.sda.testing.model.Team;
+import com.sda.testing.repository.EmployeeRepository;
+import com.sda.testing.repository.TeamRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "import.batch-size=2")
+@ActiveProfiles("tests")
+public class ImportIntegrationTests {
+    private final EmployeeRepository employeeRepository;
+    private final TeamRepository teamRepository;
+    private final TestRestTemplate testRestTemplate;
+
+    @LocalServerPort
+    int randomPort;
+
+    @Autowired
+    public ImportIntegrationTests(EmployeeRepository employeeRepository,
+                                  TeamRepository teamRepository,
+                                  TestRestTemplate testRestTemplate) {
+        this.employeeRepository = employeeRepository;
+        this.teamRepository = teamRepository;
+        this.testRestTemplate = testRestTemplate;
+    }
+
+    @BeforeEach
+    void setup() {
+        employeeRepository.deleteAll();
+        teamRepository.deleteAll();
+        teamRepository.save(Team.builder().name("Backend").build());
+    }
+
+    private ResponseEntity<ResponseMessage<ImportReport>> upload(String csv) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.valueOf("text/csv"));
+        return testRestTemplate.exchange("http://localhost:" + randomPort + "/company/employees/import",
+                HttpMethod.POST, new HttpEntity<>(csv, headers),
+                new ParameterizedTypeReference<ResponseMessage<ImportReport>>() {
+                });
+    }
+
+    @Test
+    void validRowsAreImportedAndInvalidOnesReported() {
+        ResponseEntity<ResponseMessage<ImportReport>> responseEntity = upload(
+                "surname,name,grossSalary,level,team,note\n" +
+                        "Kowalski,Jan,500,worker,Backend,\n" +
+                        ",Anna,700,,,missing surname\n" +
+                        "Nowak,Piotr,lots,,,\n" +
+                        "Lis,Ewa,900,MANAGER,,\n" +
+                        "\n" +
+                        "Kot,Ola,300,,Frontend,\n" +
+                        "\"Wiśniewska, Jr\",Zofia,,SALES,,\n");
+
+        Assertions.assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        ImportReport report = responseEntity.getBody().getBody();
+        Assertions.assertEquals(6, report.getRows());
+        Assertions.assertEquals(3, report.getImported());
+        Assertions.assertEquals(3, report.getRejected());
+        Assertions.assertEquals(Arrays.asList(3L, 4L, 7L), report.getErrors().stream()
+                .map(ImportRowError::getLine).collect(Collectors.toList()));
+
+        List<Employee> employees = employeeRepository.findAll();
+        Assertions.assertEquals(3, employees.size());
+        Employee jan = employees.stream().filter(employee -> employee.getFirstName().equals("Jan")).findFirst().get();
+        Assertions.assertEquals(EmployeeLevel.WORKER, jan.getLevel());
+        Assertions.assertEquals("Backend", jan.getTeam().getName());
+        Assertions.assertTrue(employees.stream().anyMatch(employee -> employee.getLastName().equals("Wiśniewska, Jr")));
+    }
+
+    @Test
+    void uploadWithoutRequiredColumnsIsRejected() {
+        Assertions.assertEquals(HttpStatus.BAD_REQUEST, upload("name,grossSalary\nJan,500\n").getStatusCode());
+        Assertions.assertEquals(0, employeeRepository.count());
+    }
+}
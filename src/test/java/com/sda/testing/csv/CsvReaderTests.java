@@ -0,0 +1,41 @@
+package com.sda.testing.csv;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+
+class CsvReaderTests {
+
+    @Test
+    void quotedFieldsCanContainSeparatorsQuotesAndLineBreaks() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader(
+                "\uFEFFname,surname\r\n\"Kowalski, Jan\",\"O\"\"Neil\"\n\"two\nlines\",x"), ',');
+
+        Assertions.assertEquals(Arrays.asList("name", "surname"), reader.readRecord());
+        Assertions.assertEquals(Arrays.asList("Kowalski, Jan", "O\"Neil"), reader.readRecord());
+        Assertions.assertEquals(2, reader.getRecordLine());
+        Assertions.assertEquals(Arrays.asList("two\nlines", "x"), reader.readRecord());
+        Assertions.assertEquals(3, reader.getRecordLine());
+        Assertions.assertNull(reader.readRecord());
+    }
+
+    @Test
+    void emptyFieldsArePreserved() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader(",a,\n"), ',');
+
+        Assertions.assertEquals(Arrays.asList("", "a", ""), reader.readRecord());
+        Assertions.assertNull(reader.readRecord());
+    }
+
+    @Test
+    void unclosedQuoteIsReportedWithLine() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("a,b\n\"c,d\n"), ',');
+        reader.readRecord();
+
+        CsvFormatException exception = Assertions.assertThrows(CsvFormatException.class, reader::readRecord);
+        Assertions.assertEquals(2, exception.getLine());
+    }
+}
@@ -0,0 +1,139 @@
+package com.sda.testing.history;
+
+import com.sda.testing.exception.InvalidOperation;
+import com.sda.testing.model.*;
+import com.sda.testing.repository.EmployeeRepository;
+import com.sda.testing.repository.EmployeeVersionRepository;
+import com.sda.testing.repository.TeamRepository;
+import com.sda.testing.service.CompanyService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Arrays;
+import java.util.List;
+
+@SpringBootTest
+@ActiveProfiles("tests")
+class EmployeeHistoryTests {
+    private static final String TEAM_NAME = "History Team";
+
+    @Autowired
+    private CompanyService companyService;
+    @Autowired
+    private EmployeeRepository employeeRepository;
+    @Autowired
+    private TeamRepository teamRepository;
+    @Autowired
+    private EmployeeVersionRepository employeeVersionRepository;
+
+    @BeforeEach
+    void setupTest() {
+        employeeRepository.deleteAll();
+        teamRepository.findByName(TEAM_NAME).ifPresent(teamRepository::delete);
+    }
+
+    @AfterEach
+    void cleanup() {
+        employeeRepository.deleteAll();
+    }
+
+    @Test
+    void salariesAreSummarizedAsOfGivenMoment() throws InterruptedException, InvalidOperation {
+        Employee worker = save("Jan", 3000, EmployeeLevel.WORKER);
+        save("Anna", 6000, EmployeeLevel.LEAD);
+        long beforeRaise = tick();
+
+        worker.setSalary(3300);
+        employeeRepository.save(worker);
+        long beforePromotion = tick();
+
+        worker.setLevel(EmployeeLevel.LEAD);
+        employeeRepository.save(worker);
+        long afterPromotion = tick();
+
+        Assertions.assertEquals(9000, companyService.summarizeSalaries(beforeRaise, null));
+        Assertions.assertEquals(3000, companyService.summarizeSalaries(beforeRaise, EmployeeLevel.WORKER));
+        Assertions.assertEquals(9300, companyService.summarizeSalaries(beforePromotion, null));
+        Assertions.assertEquals(0, companyService.summarizeSalaries(afterPromotion, EmployeeLevel.WORKER));
+        Assertions.assertEquals(Arrays.asList(new LevelPayrollDto(EmployeeLevel.WORKER, 1, 3300),
+                        new LevelPayrollDto(EmployeeLevel.LEAD, 1, 6000)),
+                companyService.payrollByLevel(beforePromotion));
+        Assertions.assertEquals(Arrays.asList(new LevelPayrollDto(EmployeeLevel.LEAD, 2, 9300)),
+                companyService.payrollByLevel(afterPromotion));
+    }
+
+    @Test
+    void employeesWithoutLevelArePayrolledLast() throws InterruptedException, InvalidOperation {
+        save("Jan", 3000, null);
+        save("Anna", 6000, EmployeeLevel.LEAD);
+        long afterHiring = tick();
+
+        Assertions.assertEquals(Arrays.asList(new LevelPayrollDto(EmployeeLevel.LEAD, 1, 6000),
+                        new LevelPayrollDto(null, 1, 3000)),
+                companyService.payrollByLevel(afterHiring));
+    }
+
+    @Test
+    void changesOfOtherAttributesDontCreateVersions() throws InterruptedException {
+        Employee worker = save("Jan", 3000, EmployeeLevel.WORKER);
+        tick();
+        worker.setFirstName("Janusz");
+        employeeRepository.save(worker);
+
+        Assertions.assertEquals(1, employeeVersionRepository.findAllByEmployeeIdOrderByValidFromAsc(worker.getId()).size());
+    }
+
+    @Test
+    void pastTeamMembersAreListed() throws InterruptedException, InvalidOperation {
+        Team team = teamRepository.save(Team.builder().name(TEAM_NAME).build());
+        Employee member = save("Jan", 3000, EmployeeLevel.WORKER);
+        Employee formerMember = save("Anna", 6000, EmployeeLevel.LEAD);
+        long beforeJoining = tick();
+
+        member.setTeam(team);
+        formerMember.setTeam(team);
+        employeeRepository.saveAll(Arrays.asList(member, formerMember));
+        long whileBothMembers = tick();
+
+        employeeRepository.delete(formerMember);
+        long afterLeaving = tick();
+
+        List<EmployeeVersion> quarter = companyService.teamMembership(TEAM_NAME, beforeJoining, afterLeaving);
+        Assertions.assertEquals(2, quarter.size());
+        Assertions.assertTrue(quarter.stream().anyMatch(version -> version.getEmployeeId().equals(formerMember.getId())
+                && version.getValidTo() < afterLeaving));
+        Assertions.assertTrue(companyService.teamMembership(TEAM_NAME, 0, beforeJoining).isEmpty());
+        Assertions.assertEquals(1, companyService.teamMembership(TEAM_NAME, afterLeaving, afterLeaving + 1).size());
+        Assertions.assertEquals(2, companyService.teamMembership(TEAM_NAME, whileBothMembers, whileBothMembers + 1).size());
+    }
+
+    @Test
+    void invalidPeriodIsRejected() {
+        Assertions.assertThrows(InvalidOperation.class, () -> companyService.summarizeSalaries(-1, null));
+        Assertions.assertThrows(InvalidOperation.class, () -> companyService.teamMembership("No such team", 0, 1));
+    }
+
+    private Employee save(String firstName, double salary, EmployeeLevel level) {
+        return employeeRepository.save(Employee.builder()
+                .firstName(firstName)
+                .lastName("Nowak")
+                .salary(salary)
+                .level(level)
+                .build());
+    }
+
+    /**
+     * Versions are stamped with milliseconds, so moments taken between changes have to be apart from them.
+     */
+    private static long tick() throws InterruptedException {
+        Thread.sleep(5);
+        long moment = System.currentTimeMillis();
+        Thread.sleep(5);
+        return moment;
+    }
+}
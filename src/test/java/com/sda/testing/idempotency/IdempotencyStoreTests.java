@@ -0,0 +1,69 @@
+package com.sda.testing.idempotency;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class IdempotencyStoreTests {
+    private static final StoredResponse OK = new StoredResponse(200, null, new byte[0]);
+
+    @Test
+    void retryGetsResponseOfFirstAttempt() throws Exception {
+        IdempotencyStore store = new IdempotencyStore(10, 60_000);
+        IdempotencyStore.Reservation first = store.reserve("key", "request");
+        IdempotencyStore.Reservation retry = store.reserve("key", "request");
+
+        Assertions.assertTrue(first.isOwner());
+        Assertions.assertFalse(retry.isOwner());
+        Assertions.assertFalse(retry.getResponse().isDone());
+        store.complete(first, OK);
+        Assertions.assertSame(OK, retry.getResponse().get());
+    }
+
+    @Test
+    void releasedKeyCanBeReservedAgain() throws Exception {
+        IdempotencyStore store = new IdempotencyStore(10, 60_000);
+        IdempotencyStore.Reservation first = store.reserve("key", "request");
+        IdempotencyStore.Reservation waiting = store.reserve("key", "request");
+
+        store.release(first);
+
+        Assertions.assertNull(waiting.getResponse().get());
+        Assertions.assertTrue(store.reserve("key", "request").isOwner());
+    }
+
+    @Test
+    void newKeysAreRejectedWhenStoreIsFullOfUnexpiredKeys() {
+        IdempotencyStore store = new IdempotencyStore(2, 60_000);
+        store.reserve("first", "request");
+        store.complete(store.reserve("second", "request"), OK);
+
+        Assertions.assertNull(store.reserve("third", "request"));
+        Assertions.assertEquals(2, store.size());
+        Assertions.assertFalse(store.reserve("first", "request").isOwner());
+        Assertions.assertFalse(store.reserve("second", "request").isOwner());
+    }
+
+    @Test
+    void retryOfExpiredKeyStillInFlightJoinsFirstAttempt() throws Exception {
+        IdempotencyStore store = new IdempotencyStore(1, 20);
+        IdempotencyStore.Reservation first = store.reserve("key", "request");
+        Thread.sleep(30);
+
+        Assertions.assertNull(store.reserve("other", "request"));
+        IdempotencyStore.Reservation retry = store.reserve("key", "request");
+        Assertions.assertFalse(retry.isOwner());
+        store.complete(first, OK);
+        Assertions.assertSame(OK, retry.getResponse().get());
+        Assertions.assertTrue(store.reserve("other", "request").isOwner());
+    }
+
+    @Test
+    void keysExpireAfterTimeToLive() throws InterruptedException {
+        IdempotencyStore store = new IdempotencyStore(10, 20);
+        store.complete(store.reserve("key", "request"), OK);
+        Thread.sleep(30);
+
+        Assertions.assertTrue(store.reserve("key", "other request").isOwner());
+        Assertions.assertEquals(1, store.size());
+    }
+}
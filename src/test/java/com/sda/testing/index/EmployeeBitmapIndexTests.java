@@ -0,0 +1,116 @@
+package com.sda.testing.index;
+
+import com.sda.testing.event.ChangeType;
+import com.sda.testing.event.EmployeeChangedEvent;
+import com.sda.testing.event.EmployeesChangedEvent;
+import com.sda.testing.model.Employee;
+import com.sda.testing.model.EmployeeLevel;
+import com.sda.testing.model.Team;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+class EmployeeBitmapIndexTests {
+    private static final Team BLUE = Team.builder().id(1L).name("blue").build();
+    private static final Team RED = Team.builder().id(2L).name("red").build();
+
+    private EmployeeBitmapIndex employeeBitmapIndex;
+
+    @BeforeEach
+    void setup() {
+        employeeBitmapIndex = new EmployeeBitmapIndex(100_000);
+        employeeBitmapIndex.rebuild(Arrays.asList(
+                employee(1, EmployeeLevel.WORKER, BLUE, 3_000),
+                employee(2, EmployeeLevel.LEAD, BLUE, 5_000),
+                employee(3, EmployeeLevel.MANAGER, RED, 9_999.99),
+                employee(64, EmployeeLevel.LEAD, RED, 10_000),
+                employee(200, EmployeeLevel.MANAGER, null, 25_000),
+                employee(201, null, null, 1_000)
+        ));
+    }
+
+    @Test
+    void criteriaOfOneAttributeAreAlternatives() {
+        List<EmployeeLevel> leadsAndManagers = Arrays.asList(EmployeeLevel.LEAD, EmployeeLevel.MANAGER);
+
+        Assertions.assertArrayEquals(new long[]{2, 3, 64, 200}, filter(leadsAndManagers, null, null, null));
+        Assertions.assertArrayEquals(new long[]{1, 2, 3, 64}, filter(null, Arrays.asList(1L, 2L), null, null));
+        Assertions.assertArrayEquals(new long[]{1, 2, 3, 64, 200, 201}, filter(null, null, null, null));
+    }
+
+    @Test
+    void criteriaOfDifferentAttributesMustAllMatch() {
+        Assertions.assertArrayEquals(new long[]{2, 64}, filter(Arrays.asList(EmployeeLevel.LEAD, EmployeeLevel.WORKER),
+                null, 4_000.0, null));
+        Assertions.assertArrayEquals(new long[]{3, 64}, filter(Arrays.asList(EmployeeLevel.LEAD, EmployeeLevel.MANAGER),
+                Collections.singletonList(2L), null, null));
+        Assertions.assertEquals(1, employeeBitmapIndex.count(Collections.singletonList(EmployeeLevel.MANAGER),
+                Collections.singletonList(2L), Long.MIN_VALUE, 1_000_000));
+    }
+
+    @Test
+    void salaryBandBoundsAreExclusiveWithinBuckets() {
+        Assertions.assertArrayEquals(new long[]{3}, filter(null, null, 5_000.0, 10_000.0));
+        Assertions.assertArrayEquals(new long[]{2, 3, 64}, filter(null, null, 4_999.99, 10_000.01));
+        Assertions.assertArrayEquals(new long[]{64, 200}, filter(null, null, 9_999.99, null));
+        Assertions.assertArrayEquals(new long[0], filter(null, null, 10_000.0, 10_000.0));
+    }
+
+    @Test
+    void unknownValuesMatchNobody() {
+        Assertions.assertArrayEquals(new long[0], filter(Collections.singletonList(EmployeeLevel.EXECUTIVE), null,
+                null, null));
+        Assertions.assertArrayEquals(new long[0], filter(null, Collections.singletonList(3L), null, null));
+    }
+
+    @Test
+    void indexFollowsChanges() {
+        employeeBitmapIndex.onEmployeeChanged(new EmployeeChangedEvent(
+                ChangeType.UPDATED, 1L, "Jan", "Kowalski", 1_200_000, EmployeeLevel.LEAD, 2L, null));
+        employeeBitmapIndex.onEmployeesChanged(new EmployeesChangedEvent(Arrays.asList(
+                new EmployeeChangedEvent(
+                        ChangeType.DELETED, 64L, "Jan", "Kowalski", 1_000_000, EmployeeLevel.LEAD, 2L, null),
+                new EmployeeChangedEvent(ChangeType.CREATED, 1_000L, "Jan", "Kowalski", 700_000,
+                        EmployeeLevel.LEAD, 1L, null))));
+
+        Assertions.assertArrayEquals(new long[]{1, 2, 1_000}, filter(Collections.singletonList(EmployeeLevel.LEAD),
+                null, null, null));
+        Assertions.assertArrayEquals(new long[]{1, 3}, filter(null, Collections.singletonList(2L), null, null));
+        Assertions.assertArrayEquals(new long[]{1, 200}, filter(null, null, 10_000.0, null));
+        Assertions.assertArrayEquals(new long[]{201}, filter(null, null, null, 3_000.0));
+    }
+
+    @Test
+    void removedMembersFreeTheirWords() {
+        IdBitmap bitmap = new IdBitmap();
+        for (long id = 0; id < 1_000; id += 7) {
+            bitmap.add(id);
+        }
+        IdBitmap odd = bitmap.filter(id -> id % 2 == 1);
+        IdBitmap even = bitmap.filter(id -> id % 2 == 0);
+        for (long id = 0; id < 1_000; id += 7) {
+            bitmap.remove(id);
+        }
+
+        Assertions.assertTrue(bitmap.isEmpty());
+        Assertions.assertEquals(71, odd.cardinality());
+        Assertions.assertTrue(odd.contains(7) && !odd.contains(14));
+        Assertions.assertEquals(143, IdBitmap.or(odd, even).cardinality());
+        Assertions.assertTrue(IdBitmap.and(odd, even).isEmpty());
+    }
+
+    private long[] filter(List<EmployeeLevel> levels, List<Long> teamIds, Double salaryFrom, Double salaryTo) {
+        return employeeBitmapIndex.filter(levels, teamIds,
+                salaryFrom == null ? Long.MIN_VALUE : Math.round(salaryFrom * 100),
+                salaryTo == null ? Long.MAX_VALUE : Math.round(salaryTo * 100));
+    }
+
+    private static Employee employee(long id, EmployeeLevel level, Team team, double salary) {
+        return Employee.builder().id(id).firstName("Jan").lastName("Kowalski").level(level).team(team).salary(salary)
+                .build();
+    }
+}
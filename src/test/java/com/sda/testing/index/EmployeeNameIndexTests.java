@@ -0,0 +1,92 @@
+package com.sda.testing.index;
+
+import com.sda.testing.event.ChangeType;
+import com.sda.testing.event.EmployeeChangedEvent;
+import com.sda.testing.model.Employee;
+import com.sda.testing.model.EmployeeLevel;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+class EmployeeNameIndexTests {
+    private EmployeeNameIndex employeeNameIndex;
+
+    @BeforeEach
+    void setup() {
+        employeeNameIndex = new EmployeeNameIndex();
+        employeeNameIndex.rebuild(Arrays.asList(
+                Employee.builder().id(1L).firstName("Jan").lastName("Kowalski").build(),
+                Employee.builder().id(2L).firstName("Janina").lastName("Kowalska").build(),
+                Employee.builder().id(3L).firstName("Iza").lastName("Leśniak").build(),
+                Employee.builder().id(4L).firstName("Jan").lastName("Nowak").build()
+        ));
+    }
+
+    @Test
+    void exactWordIsRankedBeforeLongerPrefixMatch() {
+        List<Long> found = employeeNameIndex.search("jan", 10);
+        Assertions.assertEquals(3, found.size());
+        Assertions.assertEquals(2L, found.get(2));
+    }
+
+    @Test
+    void everyTermHasToMatch() {
+        Assertions.assertEquals(Collections.singletonList(4L), employeeNameIndex.search("Jan Now", 10));
+    }
+
+    @Test
+    void everyTermHasToMatchAmongManyPrefixMatches() {
+        List<Employee> employees = new ArrayList<>();
+        for (long id = 1; id <= 2000; id++) {
+            employees.add(Employee.builder().id(id).firstName("Jan" + id).lastName("Kowalski").build());
+        }
+        employees.add(Employee.builder().id(2001L).firstName("Janusz").lastName("Nowak").build());
+        employeeNameIndex.rebuild(employees);
+
+        Assertions.assertEquals(Collections.singletonList(2001L), employeeNameIndex.search("jan now", 1));
+        Assertions.assertEquals(Collections.singletonList(2001L), employeeNameIndex.search("now jan", 1));
+    }
+
+    @Test
+    void shortestMatchingNamesAreReturnedWithinLimit() {
+        employeeNameIndex.rebuild(Arrays.asList(
+                Employee.builder().id(1L).firstName("Janusz").lastName("Jankowski").build(),
+                Employee.builder().id(2L).firstName("Janek").lastName("Nowak").build(),
+                Employee.builder().id(3L).firstName("Jan").lastName("Janas").build(),
+                Employee.builder().id(4L).firstName("Jana").lastName("Wolna").build()
+        ));
+
+        Assertions.assertEquals(Arrays.asList(3L, 4L), employeeNameIndex.search("ja", 2));
+        Assertions.assertEquals(Arrays.asList(3L, 4L, 2L), employeeNameIndex.search("ja", 3));
+        Assertions.assertEquals(Arrays.asList(3L, 4L, 2L, 1L), employeeNameIndex.search("ja", 10));
+    }
+
+    @Test
+    void duplicatedNamesAreAllReturned() {
+        Assertions.assertEquals(Arrays.asList(1L, 4L), employeeNameIndex.search("jan", 2));
+    }
+
+    @Test
+    void diacriticsAndTyposAreTolerated() {
+        Assertions.assertEquals(Collections.singletonList(3L), employeeNameIndex.search("lesniak", 10));
+        Assertions.assertEquals(Collections.singletonList(3L), employeeNameIndex.search("lesnaik", 10));
+        Assertions.assertEquals(Collections.singletonList(4L), employeeNameIndex.search("jan nowka", 10));
+    }
+
+    @Test
+    void indexFollowsHiresAndFires() {
+        employeeNameIndex.onEmployeeChanged(new EmployeeChangedEvent(
+                ChangeType.CREATED, 5L, "Zbigniew", "Lech", 250_000, EmployeeLevel.INDEPENDENT, null, null));
+        Assertions.assertEquals(Collections.singletonList(5L), employeeNameIndex.search("zbig", 10));
+
+        employeeNameIndex.onEmployeeChanged(new EmployeeChangedEvent(
+                ChangeType.DELETED, 5L, "Zbigniew", "Lech", 250_000, EmployeeLevel.INDEPENDENT, null, null));
+        Assertions.assertTrue(employeeNameIndex.search("zbig", 10).isEmpty());
+        Assertions.assertEquals(4, employeeNameIndex.size());
+    }
+}
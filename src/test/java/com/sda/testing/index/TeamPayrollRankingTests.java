@@ -0,0 +1,80 @@
+package com.sda.testing.index;
+
+import com.sda.testing.event.ChangeType;
+import com.sda.testing.event.EmployeeChangedEvent;
+import com.sda.testing.event.TeamChangedEvent;
+import com.sda.testing.model.EmployeeLevel;
+import com.sda.testing.model.TeamRankingDto;
+import com.sda.testing.model.TeamRankingOrder;
+import com.sda.testing.payroll.Money;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+class TeamPayrollRankingTests {
+    private TeamPayrollRanking teamPayrollRanking;
+
+    @BeforeEach
+    void setup() {
+        teamPayrollRanking = new TeamPayrollRanking();
+        teamPayrollRanking.rebuild(Collections.emptyList(), Collections.emptyList());
+        teamPayrollRanking.onTeamChanged(new TeamChangedEvent(ChangeType.CREATED, 1L, "Team A"));
+        teamPayrollRanking.onTeamChanged(new TeamChangedEvent(ChangeType.CREATED, 2L, "Team B"));
+        teamPayrollRanking.onTeamChanged(new TeamChangedEvent(ChangeType.CREATED, 3L, "Team Best"));
+        join(10L, 1L, 1000.0);
+        join(11L, 1L, 1000.0);
+        join(12L, 1L, 1000.0);
+        join(20L, 2L, 5000.0);
+    }
+
+    private void join(Long employeeId, Long teamId, double salary) {
+        teamPayrollRanking.onEmployeeChanged(new EmployeeChangedEvent(
+                ChangeType.UPDATED, employeeId, "Jan", "Kowalski", Money.toCents(salary), EmployeeLevel.WORKER, teamId,
+                null));
+    }
+
+    private List<String> names(TeamRankingOrder order, int offset, int limit) {
+        return teamPayrollRanking.page(order, offset, limit).stream()
+                .map(TeamRankingDto::getName)
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    void teamsAreRankedByEveryOrder() {
+        Assertions.assertEquals("Team B", names(TeamRankingOrder.TOTAL_SALARY, 0, 1).get(0));
+        Assertions.assertEquals("Team A", names(TeamRankingOrder.HEAD_COUNT, 0, 1).get(0));
+        Assertions.assertEquals("Team B", names(TeamRankingOrder.AVERAGE_SALARY, 0, 1).get(0));
+    }
+
+    @Test
+    void pageSkipsOffsetTeams() {
+        Assertions.assertEquals(Collections.singletonList("Team Best"), names(TeamRankingOrder.TOTAL_SALARY, 2, 10));
+    }
+
+    @Test
+    void salaryChangeAndTransferMoveTeams() {
+        join(10L, 1L, 4000.0);
+        Assertions.assertEquals("Team A", names(TeamRankingOrder.TOTAL_SALARY, 0, 1).get(0));
+
+        join(20L, 3L, 5000.0);
+        TeamRankingDto teamB = teamPayrollRanking.page(TeamRankingOrder.TOTAL_SALARY, 2, 1).get(0);
+        Assertions.assertEquals("Team B", teamB.getName());
+        Assertions.assertEquals(0, teamB.getHeadCount());
+    }
+
+    @Test
+    void firedEmployeeAndRemovedTeamLeaveRanking() {
+        teamPayrollRanking.onEmployeeChanged(new EmployeeChangedEvent(
+                ChangeType.DELETED, 20L, "Jan", "Kowalski", 500_000, EmployeeLevel.WORKER, 2L, null));
+        teamPayrollRanking.onTeamChanged(new TeamChangedEvent(ChangeType.DELETED, 2L, "Team B"));
+
+        List<TeamRankingDto> ranking = teamPayrollRanking.page(TeamRankingOrder.TOTAL_SALARY, 0, 10);
+        Assertions.assertEquals(2, ranking.size());
+        Assertions.assertEquals(3000.0, ranking.get(0).getTotalSalary());
+        Assertions.assertEquals(1000.0, ranking.get(0).getAverageSalary());
+    }
+}
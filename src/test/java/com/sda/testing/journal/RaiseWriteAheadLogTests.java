@@ -0,0 +1,75 @@
+package com.sda.testing.journal;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+class RaiseWriteAheadLogTests {
+
+    @TempDir
+    Path logDirectory;
+
+    private List<Long> recoverEmployeeIds() {
+        List<Long> employeeIds = new ArrayList<>();
+        RaiseWriteAheadLog writeAheadLog = new RaiseWriteAheadLog(logDirectory);
+        writeAheadLog.recover(batchId -> false, (employeeId, percent) -> employeeIds.add(employeeId));
+        writeAheadLog.close();
+        return employeeIds;
+    }
+
+    @Test
+    void notFlushedRaisesAreRecovered() {
+        RaiseWriteAheadLog writeAheadLog = new RaiseWriteAheadLog(logDirectory);
+        writeAheadLog.recover(batchId -> false, (employeeId, percent) -> Assertions.fail());
+        writeAheadLog.append(1L, 10.0);
+        writeAheadLog.roll();
+        writeAheadLog.append(2L, 5.0);
+        writeAheadLog.close();
+
+        List<Long> recovered = recoverEmployeeIds();
+        Assertions.assertEquals(2, recovered.size());
+        Assertions.assertEquals(1L, recovered.get(0));
+        Assertions.assertEquals(2L, recovered.get(1));
+    }
+
+    @Test
+    void committedRaisesAreNotRecovered() {
+        RaiseWriteAheadLog writeAheadLog = new RaiseWriteAheadLog(logDirectory);
+        writeAheadLog.recover(batchId -> false, (employeeId, percent) -> Assertions.fail());
+        writeAheadLog.append(1L, 10.0);
+        writeAheadLog.roll();
+        writeAheadLog.append(2L, 5.0);
+        writeAheadLog.commitRolled();
+        writeAheadLog.close();
+
+        List<Long> recovered = recoverEmployeeIds();
+        Assertions.assertEquals(1, recovered.size());
+        Assertions.assertEquals(2L, recovered.get(0));
+    }
+
+    @Test
+    void rolledRaisesOfAppliedBatchAreNotRecovered() {
+        RaiseWriteAheadLog writeAheadLog = new RaiseWriteAheadLog(logDirectory);
+        writeAheadLog.recover(batchId -> false, (employeeId, percent) -> Assertions.fail());
+        writeAheadLog.append(1L, 10.0);
+        writeAheadLog.roll();
+        writeAheadLog.append(2L, 5.0);
+        UUID appliedBatchId = writeAheadLog.roll();
+        writeAheadLog.append(3L, 1.0);
+        writeAheadLog.close();
+
+        List<Long> recovered = new ArrayList<>();
+        RaiseWriteAheadLog reopened = new RaiseWriteAheadLog(logDirectory);
+        reopened.recover(appliedBatchId::equals, (employeeId, percent) -> recovered.add(employeeId));
+        reopened.close();
+
+        Assertions.assertEquals(Collections.singletonList(3L), recovered);
+        Assertions.assertEquals(Collections.singletonList(3L), recoverEmployeeIds());
+    }
+}
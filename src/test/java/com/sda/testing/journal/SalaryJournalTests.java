@@ -0,0 +1,123 @@
+package com.sda.testing.journal;
+
+import com.sda.testing.model.EmployeeLevel;
+import com.sda.testing.model.SalaryChange;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+class SalaryJournalTests {
+    private static final int RECORDS_PER_SEGMENT = 4;
+
+    @TempDir
+    Path journalDirectory;
+
+    private SalaryJournal openJournal() {
+        SalaryJournal journal = new SalaryJournal(journalDirectory.toString(), RECORDS_PER_SEGMENT);
+        journal.open();
+        return journal;
+    }
+
+    @Test
+    void historyContainsOnlyChangesOfGivenEmployee() {
+        SalaryJournal journal = openJournal();
+        journal.append(1L, 1000.0, 1100.0, EmployeeLevel.WORKER);
+        journal.append(2L, 2000.0, 2100.0, EmployeeLevel.LEAD);
+        journal.append(1L, 1100.0, 1155.0, EmployeeLevel.LEAD);
+
+        List<SalaryChange> history = journal.history(1L);
+
+        Assertions.assertEquals(2, history.size());
+        Assertions.assertEquals(1000.0, history.get(0).getOldSalary());
+        Assertions.assertEquals(1155.0, history.get(1).getNewSalary());
+        Assertions.assertEquals(EmployeeLevel.LEAD, history.get(1).getLevel());
+    }
+
+    @Test
+    void replayReturnsRecordsFromAllSegmentsInOrder() {
+        SalaryJournal journal = openJournal();
+        for (long employeeId = 0; employeeId < 10; employeeId++) {
+            journal.append(employeeId, 100.0, 200.0, null);
+        }
+
+        List<Long> replayedIds = new ArrayList<>();
+        journal.replay(change -> replayedIds.add(change.getEmployeeId()));
+
+        Assertions.assertEquals(10, replayedIds.size());
+        for (int i = 0; i < 10; i++) {
+            Assertions.assertEquals(i, replayedIds.get(i));
+        }
+    }
+
+    @Test
+    void reopenedJournalRebuildsIndex() {
+        SalaryJournal journal = openJournal();
+        for (int i = 0; i < 6; i++) {
+            journal.append(7L, i, i + 1, EmployeeLevel.WORKER);
+        }
+        journal.close();
+
+        SalaryJournal reopened = openJournal();
+        reopened.append(7L, 6, 7, EmployeeLevel.WORKER);
+
+        Assertions.assertEquals(7, reopened.size());
+        Assertions.assertEquals(7, reopened.history(7L).size());
+        Assertions.assertEquals(6.0, reopened.history(7L).get(6).getOldSalary());
+    }
+
+    @Test
+    void tornRecordInMiddleSegmentDoesNotShiftLaterRecords() throws IOException {
+        SalaryJournal journal = openJournal();
+        for (long employeeId = 0; employeeId < 10; employeeId++) {
+            journal.append(employeeId, 100.0, 200.0, null);
+        }
+        journal.close();
+        tear(5);
+
+        SalaryJournal reopened = openJournal();
+        reopened.append(10L, 100.0, 200.0, null);
+
+        List<Long> replayedIds = new ArrayList<>();
+        reopened.replay(change -> replayedIds.add(change.getEmployeeId()));
+        Assertions.assertEquals(11, reopened.size());
+        Assertions.assertEquals(Arrays.asList(0L, 1L, 2L, 3L, 4L, 6L, 7L, 8L, 9L, 10L), replayedIds);
+        Assertions.assertTrue(reopened.history(5L).isEmpty());
+        Assertions.assertEquals(1, reopened.history(9L).size());
+        Assertions.assertEquals(1, reopened.history(10L).size());
+    }
+
+    @Test
+    void recordsAfterLastCommittedOneAreTruncated() throws IOException {
+        SalaryJournal journal = openJournal();
+        for (long employeeId = 0; employeeId < 7; employeeId++) {
+            journal.append(employeeId, 100.0, 200.0, null);
+        }
+        journal.close();
+        tear(6);
+
+        SalaryJournal reopened = openJournal();
+        reopened.append(42L, 100.0, 200.0, null);
+
+        Assertions.assertEquals(7, reopened.size());
+        Assertions.assertTrue(reopened.history(6L).isEmpty());
+        Assertions.assertEquals(200.0, reopened.history(42L).get(0).getNewSalary());
+    }
+
+    private void tear(long sequence) throws IOException {
+        Path segmentFile = journalDirectory.resolve(
+                String.format("%020d.journal", sequence / RECORDS_PER_SEGMENT * RECORDS_PER_SEGMENT));
+        try (FileChannel channel = FileChannel.open(segmentFile, StandardOpenOption.WRITE)) {
+            long position = sequence % RECORDS_PER_SEGMENT * SalaryJournal.RECORD_SIZE + SalaryJournal.RECORD_SIZE - 4;
+            channel.write(ByteBuffer.allocate(4), position);
+        }
+    }
+}
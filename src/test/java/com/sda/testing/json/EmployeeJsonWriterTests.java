@@ -0,0 +1,103 @@
+package com.sda.testing.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sda.testing.model.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+class EmployeeJsonWriterTests {
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @Test
+    void employeesAreWrittenAsByDatabind() throws IOException {
+        List<Employee> employees = Arrays.asList(
+                Employee.builder().id(1L).firstName("Jan").lastName("Kowalski").salary(3000)
+                        .level(EmployeeLevel.WORKER).managerId(7L).build(),
+                Employee.builder().id(2L).firstName("Zażółć \"gęślą\"").lastName("Jaźń\\\n\t\u0001 😀")
+                        .salary(-1234.05).build(),
+                Employee.builder().firstName(null).lastName("").salary(123_456_789_012.5)
+                        .level(EmployeeLevel.EXECUTIVE).build(),
+                null);
+
+        assertSameAsDatabind(new ResponseMessage<>(employees, "Response OK!"));
+        assertSameAsDatabind(new ResponseMessage<>(Collections.emptyList(), null));
+    }
+
+    @Test
+    void teamInfoIsWrittenAsByDatabind() throws IOException {
+        TeamDto team = new TeamDto("Team", Arrays.asList(new EmployeeDto("Jan", "Kowalski", 3000.5),
+                new EmployeeDto("Anna", "Nowak", 1.0 / 3)), new EmployeeDto("Piotr", "Lis", -0.0), null);
+
+        assertSameAsDatabind(new ResponseMessage<>(team, "Response OK!"));
+        assertSameAsDatabind(new ResponseMessage<>(new TeamDto("Empty", null, null, null), "Response OK!"));
+    }
+
+    @Test
+    void centsAreFormattedAsDoubles() throws IOException {
+        Random random = new Random(42);
+        char[] buffer = new char[16];
+        for (int i = 0; i < 200_000; i++) {
+            long cents = i < 100_000 ? i - 50_000 : random.nextInt(2_000_000_000) - 1_000_000_000L;
+            Assertions.assertEquals(Double.toString(cents / 100.0), written(cents, buffer));
+        }
+    }
+
+    @Test
+    void otherValuesAreLeftToDatabind() {
+        Employee proxy = new Employee() {
+        };
+
+        Assertions.assertFalse(EmployeeJsonWriter.supports(Collections.singletonList(proxy)));
+        Assertions.assertFalse(EmployeeJsonWriter.supports(Collections.singletonList(new EmployeeDto())));
+        Assertions.assertFalse(EmployeeJsonWriter.supports(Collections.singletonMap("id", 1L)));
+        Assertions.assertTrue(EmployeeJsonWriter.supports(Collections.singletonList(new Employee())));
+    }
+
+    @Test
+    void converterWritesSameResponsesAsJacksonConverter() throws IOException {
+        ResponseMessage<List<Employee>> employees = new ResponseMessage<>(Collections.singletonList(
+                Employee.builder().id(1L).firstName("Jan").lastName("Kowalski").salary(3000.25).build()),
+                "Response OK!");
+        ResponseMessage<List<LevelPayrollDto>> payroll = new ResponseMessage<>(Collections.singletonList(
+                new LevelPayrollDto(EmployeeLevel.LEAD, 2, 9300)), "Response OK!");
+
+        for (ResponseMessage<?> response : Arrays.asList(employees, payroll)) {
+            MockHttpOutputMessage expected = new MockHttpOutputMessage();
+            new MappingJackson2HttpMessageConverter(objectMapper).write(response, MediaType.APPLICATION_JSON, expected);
+            MockHttpOutputMessage actual = new MockHttpOutputMessage();
+            new EmployeeJsonHttpMessageConverter(objectMapper).write(response, MediaType.APPLICATION_JSON, actual);
+
+            Assertions.assertEquals(expected.getBodyAsString(), actual.getBodyAsString());
+            Assertions.assertEquals(expected.getHeaders(), actual.getHeaders());
+        }
+    }
+
+    private void assertSameAsDatabind(ResponseMessage<?> response) throws IOException {
+        Assertions.assertTrue(EmployeeJsonWriter.supports(response.getBody()));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+            EmployeeJsonWriter.write(response, generator);
+        }
+        // compared with bytes, which databind writes with the same UTF-8 generator as the HTTP converter
+        Assertions.assertEquals(new String(objectMapper.writeValueAsBytes(response), StandardCharsets.UTF_8),
+                output.toString("UTF-8"));
+    }
+
+    private String written(long cents, char[] buffer) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+            EmployeeJsonWriter.writeCents(cents, generator, buffer);
+        }
+        return output.toString("UTF-8");
+    }
+}
@@ -0,0 +1,46 @@
+package com.sda.testing.payroll;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class MoneyTests {
+
+    @Test
+    void amountsAreRoundedHalfToEven() {
+        Assertions.assertEquals(100_050, Money.toCents(1000.50));
+        Assertions.assertEquals(100, Money.toCents(1.005));
+        Assertions.assertEquals(102, Money.toCents(1.015));
+        Assertions.assertEquals(-1, Money.toCents(-0.011));
+    }
+
+    @Test
+    void percentIsAppliedExactlyAndRoundedOnce() {
+        Assertions.assertEquals(110_000, Money.addPercent(100_000, 10));
+        Assertions.assertEquals(105, Money.addPercent(100, 5));
+        Assertions.assertEquals(104, Money.addPercent(99, 5));
+        Assertions.assertEquals(1_015, Money.addPercent(1_000, 1.5));
+        Assertions.assertEquals(95_000, Money.addPercent(100_000, -5));
+    }
+
+    @Test
+    void boundsAreRoundedOutwardAndSaturated() {
+        Assertions.assertEquals(500, Money.floorCents(5.009));
+        Assertions.assertEquals(501, Money.ceilCents(5.001));
+        Assertions.assertEquals(29, Money.floorCents(0.29));
+        Assertions.assertEquals(Long.MAX_VALUE, Money.ceilCents(Double.MAX_VALUE));
+    }
+
+    @Test
+    void sumsAreExact() {
+        long[] cents = new long[1_001];
+        int[] levels = new int[cents.length];
+        for (int i = 0; i < cents.length; i++) {
+            cents[i] = 10;
+            levels[i] = i % 3;
+        }
+
+        Assertions.assertEquals(10_000, Money.sum(cents, 1_000));
+        Assertions.assertEquals(3_340, Money.sumWhere(cents, levels, 0, cents.length));
+        Assertions.assertEquals((1L << 53) + 1, Money.sum(new long[]{1L << 53, 1}, 2));
+    }
+}
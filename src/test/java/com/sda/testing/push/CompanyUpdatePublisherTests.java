@@ -0,0 +1,104 @@
+package com.sda.testing.push;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sda.testing.index.EmployeeIndexes;
+import com.sda.testing.model.PayrollSummaryDto;
+import com.sda.testing.service.CompanyService;
+import com.sda.testing.sharding.ShardExecutor;
+import com.sda.testing.sharding.ShardingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+class CompanyUpdatePublisherTests {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong headCount = new AtomicLong();
+    private final CountDownLatch slowClientUnblocked = new CountDownLatch(1);
+    private CompanyUpdatePublisher publisher;
+
+    @BeforeEach
+    void setup() {
+        CompanyService companyService = Mockito.mock(CompanyService.class);
+        Mockito.when(companyService.currentPayroll()).thenAnswer(
+                invocation -> new PayrollSummaryDto(headCount.get(), 0, Collections.emptyList()));
+        ShardExecutor shardExecutor = Mockito.mock(ShardExecutor.class);
+        Mockito.when(shardExecutor.scope()).thenReturn("*");
+        publisher = new CompanyUpdatePublisher(companyService, new EmployeeIndexes(new ShardingProperties(), 100_000),
+                shardExecutor, new ObjectMapper(), meterRegistry, 10, 20, 60_000, 4, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        slowClientUnblocked.countDown();
+        publisher.shutdown();
+    }
+
+    private double subscribers() {
+        return meterRegistry.get("push.subscribers").gauge().value();
+    }
+
+    @Test
+    void slowSubscriberIsDisconnectedWithoutHoldingBackOthers() throws InterruptedException {
+        RecordingEmitter slow = new RecordingEmitter(slowClientUnblocked);
+        RecordingEmitter fast = new RecordingEmitter(new CountDownLatch(0));
+        publisher.subscribe(slow);
+        publisher.subscribe(fast);
+        Assertions.assertTrue(fast.nextPayroll().contains("\"headCount\":0"));
+
+        for (int attempt = 0; attempt < 500 && subscribers() > 1; attempt++) {
+            Thread.sleep(10);
+        }
+        headCount.set(1);
+        publisher.onEmployeeChanged(null);
+
+        Assertions.assertEquals(1, subscribers());
+        Assertions.assertTrue(fast.nextPayroll().contains("\"headCount\":1"));
+        Assertions.assertTrue(slow.events.isEmpty());
+    }
+
+    /**
+     * Records text of sent events; sending blocks until given latch is released, like a client which stopped reading.
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+        private final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+        private final CountDownLatch unblocked;
+
+        private RecordingEmitter(CountDownLatch unblocked) {
+            this.unblocked = unblocked;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            try {
+                unblocked.await();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            StringBuilder event = new StringBuilder();
+            builder.build().forEach(data -> event.append(data.getData()));
+            events.add(event.toString());
+        }
+
+        private String nextPayroll() throws InterruptedException {
+            for (String event = events.poll(5, TimeUnit.SECONDS); event != null;
+                 event = events.poll(5, TimeUnit.SECONDS)) {
+                if (event.startsWith("event:payroll")) {
+                    return event;
+                }
+            }
+            throw new AssertionError("No payroll event sent");
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.sda.testing.service;
+
+import com.sda.testing.exception.InvalidOperation;
+import com.sda.testing.model.Employee;
+import com.sda.testing.model.EmployeeLevel;
+import com.sda.testing.model.EmployeeSearchOrder;
+import com.sda.testing.model.EmployeeSearchPageDto;
+import com.sda.testing.model.EmployeeSearchQuery;
+import com.sda.testing.repository.EmployeeRepository;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.ColumnMapRowMapper;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.PreparedStatement;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+/**
+ * Literals are inlined into recorded SQL, so the statement can be explained as generated.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.sda.testing.service.EmployeeSearchServiceTests$RecordingStatementInspector",
+        "spring.jpa.properties.hibernate.criteria.literal_handling_mode=inline"
+})
+@ActiveProfiles("tests")
+class EmployeeSearchServiceTests {
+    private static final String[] LAST_NAMES = {"Nowak", "Nowicki", "Kowalski", "Lewandowski", "Nowak_Lis"};
+    private static final EmployeeLevel[] LEVELS = {EmployeeLevel.WORKER, EmployeeLevel.LEAD, EmployeeLevel.MANAGER};
+
+    private final EmployeeSearchService employeeSearchService;
+    private final EmployeeRepository employeeRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    private List<Employee> employees;
+
+    @Autowired
+    public EmployeeSearchServiceTests(EmployeeSearchService employeeSearchService,
+                                      EmployeeRepository employeeRepository,
+                                      JdbcTemplate jdbcTemplate) {
+        this.employeeSearchService = employeeSearchService;
+        this.employeeRepository = employeeRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @BeforeEach
+    void setup() {
+        employeeRepository.deleteAll();
+        List<Employee> newEmployees = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            newEmployees.add(Employee.builder()
+                    .firstName("Jan")
+                    .lastName(LAST_NAMES[i % LAST_NAMES.length])
+                    .salary(1000 + (i % 20) * 10)
+                    .level(LEVELS[i % LEVELS.length])
+                    .build());
+        }
+        employees = employeeRepository.saveAll(newEmployees);
+    }
+
+    @AfterEach
+    void cleanup() {
+        employeeRepository.deleteAll();
+    }
+
+    @Test
+    void allCriteriaHaveToMatch() throws InvalidOperation {
+        EmployeeSearchPageDto page = employeeSearchService.search(EmployeeSearchQuery.builder()
+                .level(Arrays.asList(EmployeeLevel.LEAD, EmployeeLevel.MANAGER))
+                .salaryFrom(1050.0)
+                .salaryTo(1150.0)
+                .name("Nowak")
+                .limit(1000)
+                .build());
+
+        List<Long> expected = employees.stream()
+                .filter(employee -> employee.getLevel() != EmployeeLevel.WORKER)
+                .filter(employee -> employee.getSalary() > 1050 && employee.getSalary() < 1150)
+                .filter(employee -> employee.getLastName().startsWith("Nowak"))
+                .map(Employee::getId)
+                .collect(Collectors.toList());
+        Assertions.assertFalse(expected.isEmpty());
+        Assertions.assertEquals(expected, ids(page.getEmployees()));
+        Assertions.assertFalse(page.isHasMore());
+    }
+
+    @Test
+    void likeWildcardsInNameAreMatchedLiterally() throws InvalidOperation {
+        EmployeeSearchPageDto page = employeeSearchService.search(EmployeeSearchQuery.builder()
+                .name("Nowak_")
+                .limit(1000)
+                .build());
+
+        Assertions.assertEquals(30, page.getEmployees().size());
+        Assertions.assertTrue(page.getEmployees().stream().allMatch(e -> e.getLastName().equals("Nowak_Lis")));
+    }
+
+    @Test
+    void pagesOfSalaryOrderFollowEachOtherWithoutGapsOrRepeats() throws InvalidOperation {
+        List<Long> expected = employees.stream()
+                .sorted(Comparator.comparingLong(Employee::getSalaryCents).thenComparing(Employee::getId).reversed())
+                .map(Employee::getId)
+                .collect(Collectors.toList());
+
+        Assertions.assertEquals(expected, readAllPages(EmployeeSearchOrder.SALARY, true));
+    }
+
+    @Test
+    void pagesOfLastNameOrderFollowEachOtherWithoutGapsOrRepeats() throws InvalidOperation {
+        List<Long> expected = employees.stream()
+                .sorted(Comparator.comparing(Employee::getLastName).thenComparing(Employee::getId))
+                .map(Employee::getId)
+                .collect(Collectors.toList());
+
+        Assertions.assertEquals(expected, readAllPages(EmployeeSearchOrder.LAST_NAME, false));
+    }
+
+    @Test
+    void invalidPageIsRejected() throws InvalidOperation {
+        String salaryCursor = employeeSearchService.search(EmployeeSearchQuery.builder()
+                .sort(EmployeeSearchOrder.SALARY).limit(1).build()).getNextCursor();
+
+        Assertions.assertThrows(InvalidOperation.class, () -> employeeSearchService.search(
+                EmployeeSearchQuery.builder().limit(EmployeeSearchService.MAX_LIMIT + 1).build()));
+        Assertions.assertThrows(InvalidOperation.class, () -> employeeSearchService.search(
+                EmployeeSearchQuery.builder().salaryFrom(2000.0).salaryTo(1000.0).build()));
+        Assertions.assertThrows(InvalidOperation.class, () -> employeeSearchService.search(
+                EmployeeSearchQuery.builder().sort(EmployeeSearchOrder.LAST_NAME).after(salaryCursor).build()));
+        Assertions.assertThrows(InvalidOperation.class, () -> employeeSearchService.search(
+                EmployeeSearchQuery.builder().after("not a cursor").build()));
+    }
+
+    @Test
+    void searchesAreAnsweredFromIndexes() throws InvalidOperation {
+        String byName = searchSql(EmployeeSearchQuery.builder()
+                .name("Now")
+                .sort(EmployeeSearchOrder.LAST_NAME)
+                .limit(10)
+                .build());
+        assertIndexUsed(byName, "employee_last_name");
+
+        EmployeeSearchPageDto firstPage = employeeSearchService.search(EmployeeSearchQuery.builder()
+                .sort(EmployeeSearchOrder.SALARY).descending(true).limit(10).build());
+        String nextPage = searchSql(EmployeeSearchQuery.builder()
+                .level(Collections.singletonList(EmployeeLevel.LEAD))
+                .salaryFrom(1020.0)
+                .sort(EmployeeSearchOrder.SALARY)
+                .descending(true)
+                .after(firstPage.getNextCursor())
+                .limit(10)
+                .build());
+        assertIndexUsed(nextPage, "employee_level_salary", "employee_salary");
+    }
+
+    private List<Long> readAllPages(EmployeeSearchOrder order, boolean descending) throws InvalidOperation {
+        List<Long> found = new ArrayList<>();
+        String cursor = null;
+        boolean hasMore = true;
+        while (hasMore) {
+            EmployeeSearchPageDto page = employeeSearchService.search(EmployeeSearchQuery.builder()
+                    .sort(order)
+                    .descending(descending)
+                    .after(cursor)
+                    .limit(7)
+                    .build());
+            found.addAll(ids(page.getEmployees()));
+            cursor = page.getNextCursor();
+            hasMore = page.isHasMore();
+        }
+        return found;
+    }
+
+    private String searchSql(EmployeeSearchQuery searchQuery) throws InvalidOperation {
+        RecordingStatementInspector.STATEMENTS.clear();
+        employeeSearchService.search(searchQuery);
+        return RecordingStatementInspector.STATEMENTS.stream()
+                .filter(sql -> sql.toLowerCase(Locale.ROOT).startsWith("select"))
+                .findFirst()
+                .orElseThrow(AssertionError::new);
+    }
+
+    /**
+     * MySQL lists access type and chosen key of every table, H2 returns plan text naming the index or a table scan.
+     */
+    private void assertIndexUsed(String sql, String... acceptedIndexes) {
+        String database = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        List<String> accepted = Arrays.stream(acceptedIndexes)
+                .map(index -> index.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toList());
+        List<Map<String, Object>> plan = explain(sql);
+        if ("MySQL".equals(database)) {
+            Map<String, Object> employeeAccess = plan.get(0);
+            Assertions.assertNotEquals("ALL", employeeAccess.get("type"), sql);
+            Assertions.assertTrue(accepted.contains(String.valueOf(employeeAccess.get("key")).toLowerCase(Locale.ROOT)),
+                    () -> employeeAccess + " for " + sql);
+        } else {
+            String planText = String.valueOf(plan.get(0).values().iterator().next()).toLowerCase(Locale.ROOT);
+            Assertions.assertFalse(planText.contains("tablescan"), planText);
+            Assertions.assertTrue(accepted.stream().anyMatch(planText::contains), planText);
+        }
+    }
+
+    /**
+     * Parameters Hibernate binds even with inlined literals, levels and limit, are set to 1.
+     */
+    private List<Map<String, Object>> explain(String sql) {
+        long parameters = sql.chars().filter(character -> character == '?').count();
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement("explain " + sql);
+            for (int i = 1; i <= parameters; i++) {
+                statement.setInt(i, 1);
+            }
+            return statement;
+        }, new ColumnMapRowMapper());
+    }
+
+    private static List<Long> ids(List<Employee> employees) {
+        return employees.stream().map(Employee::getId).collect(Collectors.toList());
+    }
+
+    public static class RecordingStatementInspector implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
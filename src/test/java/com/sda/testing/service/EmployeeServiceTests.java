@@ -4,7 +4,6 @@ import com.sda.testing.exception.InvalidOperation;
 import com.sda.testing.model.Employee;
 import com.sda.testing.model.EmployeeLevel;
 import com.sda.testing.repository.EmployeeRepository;
-import com.sda.testing.repository.TeamRepository;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -20,9 +19,9 @@ class EmployeeServiceTests {
     private final EmployeeRepository employeeRepository;
 
     @Autowired
-    public EmployeeServiceTests(EmployeeRepository employeeRepository,
-                                TeamRepository teamRepository) {
-        this.employeeService = new EmployeeService(employeeRepository, teamRepository);
+    public EmployeeServiceTests(EmployeeService employeeService,
+                                EmployeeRepository employeeRepository) {
+        this.employeeService = employeeService;
         this.employeeRepository = employeeRepository;
     }
 
@@ -114,19 +113,16 @@ class EmployeeServiceTests {
         }
 
         @Test
-        void canGiveRaiseToValidEmployee() {
+        void canGiveRaiseToValidEmployee() throws InvalidOperation {
             final double SALARY_RAISE_PERCENT = 6.0;
             final String EMPLOYEE_FIRST_NAME = "Jan";
             final String EMPLOYEE_LAST_NAME = "Kowalski";
-            final long EMPLOYEE_ID = 1L;
+            final long EMPLOYEE_ID = employeeRepository.findByFirstNameAndLastName(EMPLOYEE_FIRST_NAME,
+                    EMPLOYEE_LAST_NAME).getId();
 
             double initialSalary = getCurrentSalary(EMPLOYEE_FIRST_NAME, EMPLOYEE_LAST_NAME);
 
-            try {
-                employeeService.giveRaise(EMPLOYEE_ID,SALARY_RAISE_PERCENT);
-            } catch (InvalidOperation invalidOperation) {
-                invalidOperation.printStackTrace();
-            }
+            employeeService.giveRaise(EMPLOYEE_ID, SALARY_RAISE_PERCENT);
             double raisedSalary = getCurrentSalary(EMPLOYEE_FIRST_NAME, EMPLOYEE_LAST_NAME);
             Assertions.assertEquals(raisedSalary,initialSalary*(1+(SALARY_RAISE_PERCENT/100)));
         }
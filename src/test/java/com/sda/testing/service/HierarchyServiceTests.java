@@ -0,0 +1,108 @@
+package com.sda.testing.service;
+
+import com.sda.testing.exception.InvalidOperation;
+import com.sda.testing.model.Employee;
+import com.sda.testing.model.EmployeeLevel;
+import com.sda.testing.repository.EmployeeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@SpringBootTest
+@ActiveProfiles("tests")
+class HierarchyServiceTests {
+    private final HierarchyService hierarchyService;
+    private final EmployeeRepository employeeRepository;
+
+    private Employee ceo;
+    private Employee manager;
+    private Employee worker;
+    private Employee otherWorker;
+
+    @Autowired
+    public HierarchyServiceTests(HierarchyService hierarchyService, EmployeeRepository employeeRepository) {
+        this.hierarchyService = hierarchyService;
+        this.employeeRepository = employeeRepository;
+    }
+
+    @BeforeEach
+    void setupTest() throws InvalidOperation {
+        employeeRepository.deleteAll();
+        ceo = save("Anna", 10000.0, EmployeeLevel.EXECUTIVE);
+        manager = save("Jan", 5000.0, EmployeeLevel.MANAGER);
+        worker = save("Piotr", 2000.0, EmployeeLevel.WORKER);
+        otherWorker = save("Ewa", 2500.0, EmployeeLevel.WORKER);
+        hierarchyService.assignManager(manager.getId(), ceo.getId());
+        hierarchyService.assignManager(worker.getId(), manager.getId());
+        hierarchyService.assignManager(otherWorker.getId(), manager.getId());
+    }
+
+    @AfterEach
+    void cleanup() {
+        employeeRepository.deleteAll();
+    }
+
+    @Test
+    void reportsOfManagerAreListedClosestFirst() throws InvalidOperation {
+        Assertions.assertEquals(Arrays.asList(manager.getId(), worker.getId(), otherWorker.getId()),
+                ids(hierarchyService.reportsOf(ceo.getId(), null)));
+        Assertions.assertEquals(Arrays.asList(manager.getId()), ids(hierarchyService.reportsOf(ceo.getId(), 1)));
+    }
+
+    @Test
+    void salaryUnderManagerIncludesIndirectReports() throws InvalidOperation {
+        Assertions.assertEquals(9500.0, hierarchyService.salaryUnder(ceo.getId()));
+        Assertions.assertEquals(4500.0, hierarchyService.salaryUnder(manager.getId()));
+        Assertions.assertEquals(0.0, hierarchyService.salaryUnder(worker.getId()));
+    }
+
+    @Test
+    void employeeMovesTogetherWithReports() throws InvalidOperation {
+        hierarchyService.assignManager(manager.getId(), null);
+        Assertions.assertEquals(0.0, hierarchyService.salaryUnder(ceo.getId()));
+
+        hierarchyService.assignManager(ceo.getId(), worker.getId());
+        Assertions.assertEquals(Arrays.asList(ceo.getId()), ids(hierarchyService.reportsOf(worker.getId(), null)));
+        Assertions.assertEquals(14500.0, hierarchyService.salaryUnder(manager.getId()));
+        Assertions.assertEquals(worker.getId(), employeeRepository.findById(ceo.getId()).get().getManagerId());
+    }
+
+    @Test
+    void cycleCantBeCreated() {
+        Assertions.assertThrows(InvalidOperation.class,
+                () -> hierarchyService.assignManager(ceo.getId(), worker.getId()));
+        Assertions.assertThrows(InvalidOperation.class,
+                () -> hierarchyService.assignManager(manager.getId(), manager.getId()));
+    }
+
+    @Test
+    void removedManagerIsReplacedByItsManager() throws InvalidOperation {
+        employeeRepository.deleteById(manager.getId());
+
+        Assertions.assertEquals(Arrays.asList(worker.getId(), otherWorker.getId()),
+                ids(hierarchyService.reportsOf(ceo.getId(), 1)));
+        Assertions.assertEquals(4500.0, hierarchyService.salaryUnder(ceo.getId()));
+        Assertions.assertEquals(ceo.getId(), employeeRepository.findById(worker.getId()).get().getManagerId());
+    }
+
+    private Employee save(String firstName, Double salary, EmployeeLevel level) {
+        return employeeRepository.save(Employee.builder()
+                .firstName(firstName)
+                .lastName("Nowak")
+                .salary(salary)
+                .level(level)
+                .build());
+    }
+
+    private static List<Long> ids(List<Employee> employees) {
+        return employees.stream().map(Employee::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,150 @@
+package com.sda.testing.service;
+
+import com.sda.testing.exception.InvalidOperation;
+import com.sda.testing.journal.SalaryJournal;
+import com.sda.testing.model.*;
+import com.sda.testing.repository.EmployeeRepository;
+import com.sda.testing.repository.JobRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+@SpringBootTest(properties = {"jobs.chunk-size=2", "jobs.directory=target/jobs"})
+@ActiveProfiles("tests")
+class JobServiceTests {
+    @Autowired
+    private JobService jobService;
+    @Autowired
+    private EmployeeService employeeService;
+    @Autowired
+    private CompanyService companyService;
+    @Autowired
+    private EmployeeRepository employeeRepository;
+    @Autowired
+    private JobRepository jobRepository;
+    @Autowired
+    private SalaryJournal salaryJournal;
+
+    private final List<Employee> employees = new ArrayList<>();
+
+    @BeforeEach
+    void setupTest() {
+        employeeRepository.deleteAll();
+        employees.clear();
+        for (int i = 0; i < 5; i++) {
+            employees.add(employeeRepository.save(Employee.builder()
+                    .firstName("Jan" + i)
+                    .lastName("Kowalski")
+                    .salary(1000)
+                    .level(i < 3 ? EmployeeLevel.WORKER : EmployeeLevel.LEAD)
+                    .build()));
+        }
+    }
+
+    @AfterEach
+    void cleanup() {
+        employeeRepository.deleteAll();
+    }
+
+    @Test
+    void raiseOfAllEmployeesIsAppliedInChunks() throws InvalidOperation, InterruptedException {
+        int journalledChanges = salaryJournal.history(employees.get(4).getId()).size();
+        Job job = awaitFinished(employeeService.giveRaiseToAll(null, 10));
+
+        Assertions.assertEquals(JobStatus.SUCCEEDED, job.getStatus());
+        Assertions.assertEquals(5, job.getTotal());
+        Assertions.assertEquals(5, job.getProcessed());
+        employeeRepository.findAll().forEach(employee -> Assertions.assertEquals(1100, employee.getSalary(), 0.001));
+        for (int attempt = 0; attempt < 100 && salaryJournal.history(employees.get(4).getId()).size() == journalledChanges; attempt++) {
+            Thread.sleep(10);
+        }
+        Assertions.assertEquals(journalledChanges + 1, salaryJournal.history(employees.get(4).getId()).size());
+    }
+
+    @Test
+    void raiseOfLevelLeavesOtherLevelsUntouched() throws InvalidOperation, InterruptedException {
+        Job job = awaitFinished(employeeService.giveRaiseToAll(EmployeeLevel.LEAD, 10));
+
+        Assertions.assertEquals(2, job.getProcessed());
+        Assertions.assertEquals(1000, salaryOf(0), 0.001);
+        Assertions.assertEquals(1100, salaryOf(3), 0.001);
+    }
+
+    @Test
+    void invalidRaiseIsRejected() {
+        Assertions.assertThrows(InvalidOperation.class, () -> employeeService.giveRaiseToAll(null, 101));
+    }
+
+    @Test
+    void payrollIsExportedToFile() throws InvalidOperation, InterruptedException, IOException {
+        Job job = awaitFinished(companyService.exportPayroll());
+
+        Assertions.assertEquals(JobStatus.SUCCEEDED, job.getStatus());
+        List<String> lines = Files.readAllLines(jobService.result(job.getId()));
+        Assertions.assertEquals(5, lines.size());
+        Assertions.assertTrue(lines.get(0).contains("\"name\":\"Jan0 Kowalski\""));
+    }
+
+    @Test
+    void interruptedJobIsResumedAfterLastCommittedChunk() throws InvalidOperation, InterruptedException {
+        Job interrupted = jobRepository.save(Job.builder()
+                .type(JobType.COMPANY_RAISE)
+                .status(JobStatus.RUNNING)
+                .percentRaise(10.0)
+                .total(5)
+                .processed(2)
+                .cursor(employees.get(1).getId())
+                .build());
+
+        jobService.resumeUnfinished();
+        Job job = awaitFinished(interrupted);
+
+        Assertions.assertEquals(JobStatus.SUCCEEDED, job.getStatus());
+        Assertions.assertEquals(5, job.getProcessed());
+        Assertions.assertEquals(1000, salaryOf(1), 0.001);
+        Assertions.assertEquals(1100, salaryOf(2), 0.001);
+    }
+
+    @Test
+    void cancelledJobStopsBeforeNextChunk() throws InvalidOperation, InterruptedException {
+        Job queued = jobRepository.save(Job.builder()
+                .type(JobType.COMPANY_RAISE)
+                .status(JobStatus.QUEUED)
+                .percentRaise(10.0)
+                .total(5)
+                .build());
+
+        jobService.cancel(queued.getId());
+        jobService.resumeUnfinished();
+        Job job = awaitFinished(queued);
+
+        Assertions.assertEquals(JobStatus.CANCELLED, job.getStatus());
+        Assertions.assertEquals(0, job.getProcessed());
+        Assertions.assertEquals(1000, salaryOf(0), 0.001);
+        Assertions.assertThrows(InvalidOperation.class, () -> jobService.cancel(queued.getId()));
+    }
+
+    private double salaryOf(int index) {
+        return employeeRepository.findById(employees.get(index).getId()).get().getSalary();
+    }
+
+    private Job awaitFinished(Job job) throws InvalidOperation, InterruptedException {
+        for (int attempt = 0; attempt < 200; attempt++) {
+            Job current = jobService.find(job.getId());
+            if (current.getStatus().isFinished()) {
+                return current;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Job " + job.getId() + " has not finished");
+    }
+}
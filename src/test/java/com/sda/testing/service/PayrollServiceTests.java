@@ -0,0 +1,73 @@
+package com.sda.testing.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sda.testing.model.Employee;
+import com.sda.testing.model.EmployeeSalaryDto;
+import com.sda.testing.model.PayrollSummary;
+import com.sda.testing.payroll.ProgressiveTaxRule;
+import com.sda.testing.repository.EmployeeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.domain.Pageable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+class PayrollServiceTests {
+    private static final int CHUNK_SIZE = 3;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<Employee> employees = LongStream.rangeClosed(1, 7)
+            .mapToObj(id -> Employee.builder().id(id).firstName("Jan").lastName("Kowalski" + id).salary(id * 5000.0).build())
+            .collect(Collectors.toList());
+    private PayrollService payrollService;
+
+    @BeforeEach
+    void setup() {
+        EmployeeRepository employeeRepository = Mockito.mock(EmployeeRepository.class);
+        Mockito.when(employeeRepository.findByIdGreaterThanOrderByIdAsc(Mockito.anyLong(), Mockito.any(Pageable.class)))
+                .thenAnswer(invocation -> {
+                    long lastId = invocation.getArgument(0);
+                    Pageable pageable = invocation.getArgument(1);
+                    return employees.stream()
+                            .filter(employee -> employee.getId() > lastId)
+                            .limit(pageable.getPageSize())
+                            .collect(Collectors.toList());
+                });
+        payrollService = new PayrollService(employeeRepository, new ProgressiveTaxRule(10000, 0.1, 0.5),
+                objectMapper, CHUNK_SIZE, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        payrollService.shutdown();
+    }
+
+    @Test
+    void allEmployeesAreWrittenInOrderWithNetSalary() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        PayrollSummary summary = payrollService.run(outputStream);
+
+        List<EmployeeSalaryDto> salaries = new ArrayList<>();
+        for (String line : new String(outputStream.toByteArray(), StandardCharsets.UTF_8).split("\n")) {
+            salaries.add(objectMapper.readValue(line, EmployeeSalaryDto.class));
+        }
+        Assertions.assertEquals(7, summary.getEmployees());
+        Assertions.assertEquals(3, summary.getChunks());
+        Assertions.assertEquals(7, salaries.size());
+        Assertions.assertEquals("Jan Kowalski1", salaries.get(0).getName());
+        Assertions.assertEquals(4500.0, salaries.get(0).getSalaryNet());
+        Assertions.assertEquals(15000.0, salaries.get(2).getSalaryGross());
+        Assertions.assertEquals(11500.0, salaries.get(2).getSalaryNet());
+        Assertions.assertEquals("Jan Kowalski7", salaries.get(6).getName());
+    }
+}
@@ -0,0 +1,174 @@
+package com.sda.testing.service;
+
+import com.sda.testing.journal.RaiseWriteAheadLog;
+import com.sda.testing.journal.SalaryJournal;
+import com.sda.testing.model.Employee;
+import com.sda.testing.model.RaiseBatch;
+import com.sda.testing.repository.EmployeeRepository;
+import com.sda.testing.repository.RaiseBatchRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+class SalaryRaiseBufferTests {
+    private static final long EMPLOYEE_ID = 1L;
+
+    @TempDir
+    Path logDirectory;
+
+    private final AtomicBoolean databaseAvailable = new AtomicBoolean(true);
+    private final AtomicReference<Throwable> failureAfterCommit = new AtomicReference<>();
+    private final List<Employee> saved = new ArrayList<>();
+    private final Set<String> appliedBatches = new HashSet<>();
+    private final List<SalaryRaiseBuffer> buffers = new ArrayList<>();
+    private SalaryRaiseBuffer buffer;
+
+    @BeforeEach
+    void setup() {
+        buffer = startBuffer();
+    }
+
+    @AfterEach
+    void tearDown() {
+        databaseAvailable.set(true);
+        failureAfterCommit.set(null);
+        buffers.forEach(SalaryRaiseBuffer::shutdown);
+    }
+
+    private SalaryRaiseBuffer startBuffer() {
+        EmployeeRepository employeeRepository = Mockito.mock(EmployeeRepository.class);
+        Mockito.when(employeeRepository.findAllById(Mockito.any())).thenAnswer(invocation -> Collections.singletonList(
+                Employee.builder().id(EMPLOYEE_ID).firstName("Jan").lastName("Kowalski").salary(1000).build()));
+        Mockito.when(employeeRepository.saveAll(Mockito.any())).thenAnswer(invocation -> {
+            if (!databaseAvailable.get()) {
+                throw new DataAccessResourceFailureException("Database is down");
+            }
+            List<Employee> employees = invocation.getArgument(0);
+            saved.addAll(employees);
+            return employees;
+        });
+        RaiseBatchRepository raiseBatchRepository = Mockito.mock(RaiseBatchRepository.class);
+        Mockito.doAnswer(invocation -> {
+            appliedBatches.clear();
+            return null;
+        }).when(raiseBatchRepository).deleteAllInBatch();
+        Mockito.when(raiseBatchRepository.save(Mockito.any())).thenAnswer(invocation -> {
+            appliedBatches.add(invocation.<RaiseBatch>getArgument(0).getId());
+            return invocation.getArgument(0);
+        });
+        Mockito.when(raiseBatchRepository.existsById(Mockito.any()))
+                .thenAnswer(invocation -> appliedBatches.contains(invocation.<String>getArgument(0)));
+        TransactionTemplate transactionTemplate = Mockito.mock(TransactionTemplate.class);
+        Mockito.when(transactionTemplate.execute(Mockito.any())).thenAnswer(invocation -> {
+            Object result = invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null);
+            if (failureAfterCommit.get() != null) {
+                throw failureAfterCommit.get();
+            }
+            return result;
+        });
+        SalaryRaiseBuffer started = new SalaryRaiseBuffer(employeeRepository, raiseBatchRepository,
+                Mockito.mock(SalaryJournal.class), transactionTemplate, Runnable::run, true, 500,
+                logDirectory.toString());
+        started.recover();
+        buffers.add(started);
+        return started;
+    }
+
+    private List<Double> recoverRaises() {
+        List<Double> percents = new ArrayList<>();
+        RaiseWriteAheadLog writeAheadLog = new RaiseWriteAheadLog(logDirectory);
+        writeAheadLog.recover(batchId -> false, (employeeId, percent) -> percents.add(percent));
+        writeAheadLog.close();
+        return percents;
+    }
+
+    @Test
+    void raisesOfFailedFlushAreWrittenWithNextFlush() {
+        CompletableFuture<Void> first = buffer.submit(EMPLOYEE_ID, 10.0);
+        databaseAvailable.set(false);
+
+        buffer.flush();
+
+        Assertions.assertFalse(first.isDone());
+        Assertions.assertEquals(Collections.singletonList(10.0), recoverRaises());
+
+        CompletableFuture<Void> second = buffer.submit(EMPLOYEE_ID, 10.0);
+        databaseAvailable.set(true);
+        buffer.flush();
+
+        Assertions.assertTrue(first.isDone() && !first.isCompletedExceptionally());
+        Assertions.assertTrue(second.isDone() && !second.isCompletedExceptionally());
+        Assertions.assertEquals(1, saved.size());
+        Assertions.assertEquals(1210.0, saved.get(0).getSalary());
+        Assertions.assertTrue(recoverRaises().isEmpty());
+    }
+
+    @Test
+    void raisesOfFailedFlushAreRecoveredAfterRestart() {
+        buffer.submit(EMPLOYEE_ID, 10.0);
+        buffer.submit(EMPLOYEE_ID, 5.0);
+        databaseAvailable.set(false);
+
+        buffer.flush();
+        buffer.submit(EMPLOYEE_ID, 1.0);
+
+        List<Double> recovered = recoverRaises();
+        Assertions.assertEquals(3, recovered.size());
+        Assertions.assertEquals(10.0, recovered.get(0));
+        Assertions.assertEquals(5.0, recovered.get(1));
+        Assertions.assertEquals(1.0, recovered.get(2));
+    }
+
+    @Test
+    void batchCommittedBeforeCrashIsNotAppliedAgainAfterRestart() {
+        buffer.submit(EMPLOYEE_ID, 10.0);
+        failureAfterCommit.set(new ApplicationStopped());
+
+        Assertions.assertThrows(ApplicationStopped.class, buffer::flush);
+        Assertions.assertEquals(1, saved.size());
+        failureAfterCommit.set(null);
+
+        SalaryRaiseBuffer restarted = startBuffer();
+        restarted.flush();
+
+        Assertions.assertEquals(1, saved.size());
+        Assertions.assertTrue(recoverRaises().isEmpty());
+    }
+
+    @Test
+    void batchFailingAfterCommitIsNotRetried() {
+        CompletableFuture<Void> raise = buffer.submit(EMPLOYEE_ID, 10.0);
+        failureAfterCommit.set(new TransactionSystemException("Connection lost during commit"));
+
+        buffer.flush();
+        failureAfterCommit.set(null);
+        buffer.flush();
+
+        Assertions.assertTrue(raise.isDone() && !raise.isCompletedExceptionally());
+        Assertions.assertEquals(1, saved.size());
+        Assertions.assertTrue(recoverRaises().isEmpty());
+    }
+
+    /**
+     * Thrown after commit and not handled by flush, so it stops before the rolled file of the log is deleted.
+     */
+    private static class ApplicationStopped extends Error {
+    }
+}
@@ -0,0 +1,265 @@
+package com.sda.testing.sharding;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sda.testing.model.Employee;
+import com.sda.testing.model.EmployeeLevel;
+import com.sda.testing.model.EmployeeSalaryDto;
+import com.sda.testing.model.Job;
+import com.sda.testing.model.JobStatus;
+import com.sda.testing.model.JobType;
+import com.sda.testing.model.PayrollSummaryDto;
+import com.sda.testing.model.ResponseMessage;
+import com.sda.testing.model.Team;
+import com.sda.testing.model.TeamRankingDto;
+import com.sda.testing.repository.EmployeeRepository;
+import com.sda.testing.repository.JobRepository;
+import com.sda.testing.repository.TeamRepository;
+import com.sda.testing.service.JobService;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.persistence.EntityManagerFactory;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "sharding.enabled=true",
+        "sharding.shards.a.url=jdbc:h2:mem:shard_a;DB_CLOSE_DELAY=-1",
+        "sharding.shards.a.username=sa",
+        "sharding.shards.b.url=jdbc:h2:mem:shard_b;DB_CLOSE_DELAY=-1",
+        "sharding.shards.b.username=sa",
+        "sharding.tenants.acme=a",
+        "sharding.tenants.globex=b"
+})
+@ActiveProfiles("tests")
+public class ShardingIntegrationTests {
+    private final EmployeeRepository employeeRepository;
+    private final JobRepository jobRepository;
+    private final TeamRepository teamRepository;
+    private final JobService jobService;
+    private final TestRestTemplate testRestTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ObjectMapper objectMapper;
+
+    @LocalServerPort
+    int randomPort;
+
+    @Autowired
+    public ShardingIntegrationTests(EmployeeRepository employeeRepository, JobRepository jobRepository,
+                                    TeamRepository teamRepository, JobService jobService,
+                                    TestRestTemplate testRestTemplate, EntityManagerFactory entityManagerFactory,
+                                    ObjectMapper objectMapper) {
+        this.employeeRepository = employeeRepository;
+        this.jobRepository = jobRepository;
+        this.teamRepository = teamRepository;
+        this.jobService = jobService;
+        this.testRestTemplate = testRestTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.objectMapper = objectMapper;
+    }
+
+    @BeforeEach
+    void setup() {
+        ShardContext.callOn("a", () -> {
+            employeeRepository.deleteAll();
+            teamRepository.deleteAll();
+            return employeeRepository.save(
+                    Employee.builder().firstName("Jan").lastName("Kowalski").salary(500.0).level(EmployeeLevel.WORKER).build());
+        });
+        ShardContext.callOn("b", () -> {
+            employeeRepository.deleteAll();
+            teamRepository.deleteAll();
+            employeeRepository.save(
+                    Employee.builder().firstName("Anna").lastName("Nowak").salary(700.0).level(EmployeeLevel.WORKER).build());
+            return employeeRepository.save(
+                    Employee.builder().firstName("Piotr").lastName("Lis").salary(1000.0).level(EmployeeLevel.MANAGER).build());
+        });
+    }
+
+    private ResponseEntity<ResponseMessage> get(String path, String tenant) {
+        HttpHeaders headers = new HttpHeaders();
+        if (tenant != null) {
+            headers.set(TenantFilter.TENANT_HEADER, tenant);
+        }
+        return testRestTemplate.exchange("http://localhost:" + randomPort + path, HttpMethod.GET,
+                new HttpEntity<>(headers), ResponseMessage.class);
+    }
+
+    private PayrollSummaryDto firstPushedPayroll(String tenant) throws IOException {
+        return objectMapper.readValue(firstPushed("payroll", tenant), PayrollSummaryDto.class);
+    }
+
+    private List<String> firstPushedTeamNames(String tenant) throws IOException {
+        List<String> names = new ArrayList<>();
+        for (TeamRankingDto team : objectMapper.readValue(firstPushed("teams", tenant), TeamRankingDto[].class)) {
+            names.add(team.getName());
+        }
+        return names;
+    }
+
+    private String firstPushed(String event, String tenant) throws IOException {
+        HttpURLConnection connection =
+                (HttpURLConnection) new URL("http://localhost:" + randomPort + "/company/updates").openConnection();
+        if (tenant != null) {
+            connection.setRequestProperty(TenantFilter.TENANT_HEADER, tenant);
+        }
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
+            boolean wanted = false;
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                if (line.startsWith("event:")) {
+                    wanted = line.equals("event:" + event);
+                } else if (wanted && line.startsWith("data:")) {
+                    return line.substring("data:".length());
+                }
+            }
+            throw new AssertionError("No " + event + " event pushed");
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private List<String> payrollNames(String tenant) throws IOException {
+        HttpURLConnection connection =
+                (HttpURLConnection) new URL("http://localhost:" + randomPort + "/company/payroll").openConnection();
+        if (tenant != null) {
+            connection.setRequestProperty(TenantFilter.TENANT_HEADER, tenant);
+        }
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
+            List<String> names = new ArrayList<>();
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                if (!line.isEmpty()) {
+                    names.add(objectMapper.readValue(line, EmployeeSalaryDto.class).getName());
+                }
+            }
+            return names;
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    @Test
+    void payrollWithoutTenantCoversAllShards() throws IOException {
+        Assertions.assertEquals(Arrays.asList("Jan Kowalski", "Anna Nowak", "Piotr Lis"), payrollNames(null));
+    }
+
+    @Test
+    void payrollOfTenantCoversItsShardOnly() throws IOException {
+        Assertions.assertEquals(Collections.singletonList("Jan Kowalski"), payrollNames("acme"));
+        Assertions.assertEquals(Arrays.asList("Anna Nowak", "Piotr Lis"), payrollNames("globex"));
+    }
+
+    @Test
+    void salarySummaryWithoutTenantCoversAllShards() {
+        ResponseEntity<ResponseMessage> responseEntity = get("/company/salaries", null);
+
+        Assertions.assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        Assertions.assertEquals(2200.0, ((Number) responseEntity.getBody().getBody()).doubleValue());
+    }
+
+    @Test
+    void salarySummaryOfTenantCoversItsShardOnly() {
+        ResponseEntity<ResponseMessage> acme = get("/company/salaries", "acme");
+        ResponseEntity<ResponseMessage> globex = get("/company/salaries?level=WORKER", "globex");
+
+        Assertions.assertEquals(500.0, ((Number) acme.getBody().getBody()).doubleValue());
+        Assertions.assertEquals(700.0, ((Number) globex.getBody().getBody()).doubleValue());
+    }
+
+    @Test
+    void salaryRangeSearchMergesShards() {
+        ResponseEntity<ResponseMessage> responseEntity = get("/employee/salary?salaryFrom=400&salaryTo=800", null);
+
+        Assertions.assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        Assertions.assertEquals(2, ((List<?>) responseEntity.getBody().getBody()).size());
+    }
+
+    @Test
+    void nameSearchOfTenantFindsItsEmployeesOnly() {
+        ResponseEntity<ResponseMessage> acme = get("/employee/search?name=nowak", "acme");
+        ResponseEntity<ResponseMessage> globex = get("/employee/search?name=nowak", "globex");
+
+        Assertions.assertEquals(0, ((List<?>) acme.getBody().getBody()).size());
+        Assertions.assertEquals(1, ((List<?>) globex.getBody().getBody()).size());
+    }
+
+    @Test
+    void filterOfTenantCoversItsShardOnly() {
+        ResponseEntity<ResponseMessage> acme = get("/employee/filter/count", "acme");
+        ResponseEntity<ResponseMessage> globex = get("/employee/filter/count?level=WORKER", "globex");
+
+        Assertions.assertEquals(1, acme.getBody().getBody());
+        Assertions.assertEquals(1, globex.getBody().getBody());
+    }
+
+    @Test
+    void employeesOfShardsAreNotCachedTogether() {
+        SessionFactoryOptions options = entityManagerFactory.unwrap(SessionFactory.class).getSessionFactoryOptions();
+
+        Assertions.assertFalse(options.isSecondLevelCacheEnabled());
+        Assertions.assertFalse(options.isQueryCacheEnabled());
+    }
+
+    @Test
+    void unfinishedJobIsResumedOnItsShard() throws InterruptedException {
+        Job queued = ShardContext.callOn("b", () -> jobRepository.save(Job.builder()
+                .type(JobType.COMPANY_RAISE)
+                .status(JobStatus.QUEUED)
+                .percentRaise(10.0)
+                .total(2)
+                .shard("b")
+                .build()));
+
+        jobService.resumeUnfinished();
+        Job job = null;
+        for (int attempt = 0; attempt < 200 && (job == null || !job.getStatus().isFinished()); attempt++) {
+            Thread.sleep(50);
+            job = ShardContext.callOn("b", () -> jobRepository.findById(queued.getId()).get());
+        }
+
+        Assertions.assertEquals(JobStatus.SUCCEEDED, job.getStatus());
+        Assertions.assertEquals(770.0,
+                ShardContext.callOn("b", () -> employeeRepository.findByFirstNameAndLastName("Anna", "Nowak")).getSalary());
+        Assertions.assertEquals(500.0,
+                ShardContext.callOn("a", () -> employeeRepository.findByFirstNameAndLastName("Jan", "Kowalski")).getSalary());
+    }
+
+    @Test
+    void pushedPayrollOfTenantCoversItsShardOnly() throws IOException {
+        Assertions.assertEquals(1, firstPushedPayroll("acme").getHeadCount());
+        Assertions.assertEquals(2, firstPushedPayroll("globex").getHeadCount());
+        Assertions.assertEquals(3, firstPushedPayroll(null).getHeadCount());
+    }
+
+    @Test
+    void pushedTeamsOfTenantCoverItsShardOnly() throws IOException {
+        ShardContext.callOn("a", () -> teamRepository.save(Team.builder().name("Alpha").build()));
+        ShardContext.callOn("b", () -> teamRepository.save(Team.builder().name("Beta").build()));
+
+        Assertions.assertEquals(Collections.singletonList("Alpha"), firstPushedTeamNames("acme"));
+        Assertions.assertEquals(Collections.singletonList("Beta"), firstPushedTeamNames("globex"));
+        Assertions.assertEquals(2, firstPushedTeamNames(null).size());
+    }
+}
@@ -0,0 +1,153 @@
+package com.sda.testing.store;
+
+import com.sda.testing.event.ChangeType;
+import com.sda.testing.event.EmployeeChangedEvent;
+import com.sda.testing.model.Employee;
+import com.sda.testing.model.EmployeeLevel;
+import com.sda.testing.model.Team;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.stream.Collectors;
+
+class EmployeeRecordStoreTests {
+    private EmployeeRecordStore employeeRecordStore;
+
+    @BeforeEach
+    void setup() {
+        employeeRecordStore = new EmployeeRecordStore(true, 16, false);
+        employeeRecordStore.rebuild(Arrays.asList(
+                Employee.builder().id(1L).firstName("Jan").lastName("Kowalski").salary(500.0).level(EmployeeLevel.WORKER)
+                        .team(Team.builder().id(7L).build()).build(),
+                Employee.builder().id(2L).firstName("Jan").lastName("Nowak").salary(700.0).level(EmployeeLevel.WORKER).build(),
+                Employee.builder().id(3L).firstName("Zofia").lastName("Łęcka").salary(1000.0).level(EmployeeLevel.MANAGER).build()
+        ));
+    }
+
+    @Test
+    void storedEmployeeIsReadBack() {
+        Employee employee = employeeRecordStore.find(3L).get();
+
+        Assertions.assertEquals("Zofia", employee.getFirstName());
+        Assertions.assertEquals("Łęcka", employee.getLastName());
+        Assertions.assertEquals(1000.0, employee.getSalary());
+        Assertions.assertEquals(EmployeeLevel.MANAGER, employee.getLevel());
+    }
+
+    @Test
+    void salariesAreSummarizedByLevel() {
+        Assertions.assertEquals(220_000, employeeRecordStore.sumOfSalaryCents(null));
+        Assertions.assertEquals(120_000, employeeRecordStore.sumOfSalaryCents(EmployeeLevel.WORKER));
+        Assertions.assertEquals(0, employeeRecordStore.sumOfSalaryCents(EmployeeLevel.SALES));
+    }
+
+    @Test
+    void updateIsMadeInPlace() {
+        employeeRecordStore.onEmployeeChanged(new EmployeeChangedEvent(ChangeType.UPDATED, 1L, "Jan", "Kowalski",
+                60_000, EmployeeLevel.LEAD, null, null));
+
+        Assertions.assertEquals(3, employeeRecordStore.size());
+        Assertions.assertEquals(EmployeeLevel.LEAD, employeeRecordStore.find(1L).get().getLevel());
+        List<Long> teamIds = new ArrayList<>();
+        employeeRecordStore.forEach((id, salary, level, teamId) -> teamIds.add(teamId));
+        Assertions.assertEquals(Arrays.asList(EmployeeRecordStore.NO_TEAM, EmployeeRecordStore.NO_TEAM,
+                EmployeeRecordStore.NO_TEAM), teamIds);
+    }
+
+    @Test
+    void assignedManagerIsStored() {
+        Employee employee = employeeRecordStore.find(2L).get();
+        employee.setManagerId(3L);
+        employeeRecordStore.onEmployeeChanged(EmployeeChangedEvent.of(ChangeType.UPDATED, employee));
+
+        Assertions.assertEquals(3L, employeeRecordStore.find(2L).get().getManagerId());
+        Assertions.assertNull(employeeRecordStore.find(3L).get().getManagerId());
+    }
+
+    @Test
+    void removedRecordIsReplacedByLastOne() {
+        employeeRecordStore.onEmployeeChanged(new EmployeeChangedEvent(ChangeType.DELETED, 1L, null, null,
+                0, null, null, null));
+
+        Assertions.assertFalse(employeeRecordStore.find(1L).isPresent());
+        Assertions.assertEquals("Zofia", employeeRecordStore.find(3L).get().getFirstName());
+        Assertions.assertEquals(Arrays.asList(3L, 2L), employeeRecordStore.findAll(null).stream()
+                .map(Employee::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void storeGrowsBeyondInitialCapacity() {
+        for (long id = 100; id < 10_100; id++) {
+            employeeRecordStore.onEmployeeChanged(new EmployeeChangedEvent(ChangeType.CREATED, id, "Name" + (id % 50),
+                    "Surname", 1_000, EmployeeLevel.SALES, id, null));
+        }
+        for (long id = 100; id < 10_100; id += 2) {
+            employeeRecordStore.onEmployeeChanged(new EmployeeChangedEvent(ChangeType.DELETED, id, null, null,
+                    0, null, null, null));
+        }
+
+        Assertions.assertEquals(5_003, employeeRecordStore.size());
+        Assertions.assertEquals(5_000_000, employeeRecordStore.sumOfSalaryCents(EmployeeLevel.SALES));
+        Assertions.assertEquals("Name1", employeeRecordStore.find(10_051L).get().getFirstName());
+        Assertions.assertFalse(employeeRecordStore.find(10_050L).isPresent());
+        Assertions.assertEquals(2, employeeRecordStore.findAllBySalary(60_000, 120_000).size());
+    }
+
+    @Test
+    void snapshotIsLoadedWithCursor(@TempDir Path directory) {
+        Path file = directory.resolve("employees.snapshot");
+        employeeRecordStore.onEmployeeChanged(new EmployeeChangedEvent(ChangeType.UPDATED, 2L, "Jan", "Nowak",
+                70_000, EmployeeLevel.WORKER, null, 3L));
+        employeeRecordStore.writeSnapshot(file, 42);
+
+        EmployeeRecordStore restored = new EmployeeRecordStore(true, 16, false);
+        Assertions.assertEquals(OptionalLong.of(42), restored.loadSnapshot(file));
+        Assertions.assertEquals(3, restored.size());
+        Assertions.assertEquals(220_000, restored.sumOfSalaryCents(null));
+        Assertions.assertEquals("Łęcka", restored.find(3L).get().getLastName());
+        Assertions.assertEquals(7L, restored.find(1L).get().getTeam().getId());
+        Assertions.assertEquals(3L, restored.find(2L).get().getManagerId());
+    }
+
+    @Test
+    void restoredStoreAcceptsChangesWithoutTouchingSnapshot(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("employees.snapshot");
+        employeeRecordStore.writeSnapshot(file, 42);
+        byte[] snapshot = Files.readAllBytes(file);
+
+        EmployeeRecordStore restored = new EmployeeRecordStore(true, 16, false);
+        restored.loadSnapshot(file);
+        restored.onEmployeeChanged(new EmployeeChangedEvent(ChangeType.UPDATED, 2L, "Jan", "Nowak",
+                90_000, EmployeeLevel.LEAD, null, null));
+        restored.onEmployeeChanged(new EmployeeChangedEvent(ChangeType.CREATED, 4L, "Ewa", "Kwiatkowska",
+                30_000, EmployeeLevel.SALES, null, null));
+
+        Assertions.assertEquals(4, restored.size());
+        Assertions.assertEquals(270_000, restored.sumOfSalaryCents(null));
+        Assertions.assertEquals("Kwiatkowska", restored.find(4L).get().getLastName());
+        Assertions.assertArrayEquals(snapshot, Files.readAllBytes(file));
+    }
+
+    @Test
+    void incompleteSnapshotIsIgnored(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("employees.snapshot");
+        employeeRecordStore.writeSnapshot(file, 42);
+        byte[] snapshot = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(snapshot, snapshot.length - 1), StandardOpenOption.TRUNCATE_EXISTING);
+
+        EmployeeRecordStore restored = new EmployeeRecordStore(true, 16, false);
+        Assertions.assertFalse(restored.loadSnapshot(file).isPresent());
+        Assertions.assertFalse(restored.loadSnapshot(directory.resolve("missing.snapshot")).isPresent());
+        Assertions.assertEquals(0, restored.size());
+    }
+}